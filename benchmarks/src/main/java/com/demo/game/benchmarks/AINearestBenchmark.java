@@ -0,0 +1,76 @@
+// File: com/demo/game/benchmarks/AINearestBenchmark.java
+package com.demo.game.benchmarks;
+
+import com.demo.game.Config;
+import com.demo.game.ai.SpatialGrid;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One frame of AI target searches: every character looks for its nearest neighbour, first
+ * with the linear scan each AIComponent used to do, then through the shared SpatialGrid.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AINearestBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int characters;
+
+    private double[] xs;
+    private double[] ys;
+    private SpatialGrid grid;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        Random random = new Random(42);
+        xs = new double[characters];
+        ys = new double[characters];
+        for (int i = 0; i < characters; i++) {
+            xs[i] = random.nextDouble() * Config.SCREEN_WIDTH;
+            ys[i] = random.nextDouble() * Config.SCREEN_HEIGHT;
+        }
+        grid = new SpatialGrid(Config.SCREEN_WIDTH, Config.SCREEN_HEIGHT, 2 * Config.PASS_RANGE);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        int sum = 0;
+        for (int i = 0; i < characters; i++) {
+            int best = -1;
+            double bestDistSq = Double.MAX_VALUE;
+            for (int j = 0; j < characters; j++) {
+                if (j == i) continue;
+                double dx = xs[j] - xs[i];
+                double dy = ys[j] - ys[i];
+                double distSq = dx * dx + dy * dy;
+                if (distSq < bestDistSq) {
+                    bestDistSq = distSq;
+                    best = j;
+                }
+            }
+            sum += best;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int spatialGrid() {
+        // Includes the rebuild, which the simulation pays once per frame
+        grid.clear();
+        for (int i = 0; i < characters; i++) {
+            grid.add(xs[i], ys[i]);
+        }
+        int sum = 0;
+        for (int i = 0; i < characters; i++) {
+            sum += grid.nearest(xs[i], ys[i], i);
+        }
+        return sum;
+    }
+}
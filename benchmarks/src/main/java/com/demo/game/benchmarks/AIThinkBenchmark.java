@@ -0,0 +1,72 @@
+// File: com/demo/game/benchmarks/AIThinkBenchmark.java
+package com.demo.game.benchmarks;
+
+import com.demo.game.Config;
+import com.demo.game.ai.AIDecision;
+import com.demo.game.ai.AIThinkPhase;
+import com.demo.game.ai.Navigation;
+import com.demo.game.sim.Arena;
+import com.demo.game.sim.MatchRules;
+import com.demo.game.sim.Simulation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The AI think phase for a whole arena at once, on the game thread and split across the
+ * fork-join pool. The arena has its border walls, one player and an AI holding the bomb, so
+ * the holder chases and everyone else flees along the flow fields.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AIThinkBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int ais;
+
+    private Simulation world;
+    private Navigation navigation;
+    private AIDecision[] decisions;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Arena arena = Arena.builtIn().withoutPortals(); // Just the border walls
+        world = new Simulation(arena, MatchRules.defaults(), 42);
+
+        // Index 0 is the player, 1 holds the bomb, the rest are AIs
+        Random random = new Random(42);
+        double margin = Config.PLAYER_SIZE / 2.0;
+        for (int i = 0; i <= ais; i++) {
+            double x = Config.WALL_SIZE + margin + random.nextDouble() * (Config.SCREEN_WIDTH - 2 * (Config.WALL_SIZE + margin));
+            double y = Config.WALL_SIZE + margin + random.nextDouble() * (Config.SCREEN_HEIGHT - 2 * (Config.WALL_SIZE + margin));
+            world.addCharacter(x - margin, y - margin, i > 0, Config.AI_SPEEDS.get(0));
+        }
+        world.giveBomb(1);
+        navigation = Navigation.forGrid(arena.getNavigationGrid());
+        navigation.update(world);
+
+        decisions = new AIDecision[ais];
+        for (int a = 0; a < ais; a++) {
+            decisions[a] = new AIDecision();
+            world.prepare(a + 1, decisions[a]);
+            decisions[a].passReady = true;
+        }
+    }
+
+    @Benchmark
+    public AIDecision[] sequential() {
+        AIThinkPhase.run(world, navigation, decisions, ais, false);
+        return decisions;
+    }
+
+    @Benchmark
+    public AIDecision[] parallel() {
+        AIThinkPhase.run(world, navigation, decisions, ais, true);
+        return decisions;
+    }
+}
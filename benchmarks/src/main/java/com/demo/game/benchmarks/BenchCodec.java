@@ -0,0 +1,30 @@
+// File: com/demo/game/benchmarks/BenchCodec.java
+package com.demo.game.benchmarks;
+
+import com.demo.game.network.MessageCodec;
+import com.demo.game.network.messages.NetworkMessage;
+
+import java.io.IOException;
+
+/**
+ * The codecs under comparison, selected with {@code -p codec=...}. OBJECT_STREAM is the codec
+ * the game ships with and the baseline; a candidate replacement gets its own constant here.
+ */
+public enum BenchCodec {
+
+    OBJECT_STREAM {
+        @Override
+        public byte[] encode(NetworkMessage message) throws IOException {
+            return MessageCodec.encode(message);
+        }
+
+        @Override
+        public NetworkMessage decode(byte[] frame) throws IOException, ClassNotFoundException {
+            return MessageCodec.decode(frame);
+        }
+    };
+
+    public abstract byte[] encode(NetworkMessage message) throws IOException;
+
+    public abstract NetworkMessage decode(byte[] frame) throws IOException, ClassNotFoundException;
+}
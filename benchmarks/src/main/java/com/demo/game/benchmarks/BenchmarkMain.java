@@ -0,0 +1,44 @@
+// File: com/demo/game/benchmarks/BenchmarkMain.java
+package com.demo.game.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Entry point of benchmarks.jar. Accepts the usual JMH command line, and unless told otherwise
+ * always attaches the GC profiler (for bytes allocated per operation) and writes the results as
+ * JSON under {@code results/}, so runs before and after a change can be diffed.
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        if (cli.shouldHelp() || cli.shouldList() || cli.shouldListProfilers() || cli.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+        if (cli.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!cli.getResultFormat().hasValue() && !cli.getResult().hasValue()) {
+            Path resultsDir = Paths.get("results");
+            Files.createDirectories(resultsDir);
+            String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            options.resultFormat(ResultFormatType.JSON)
+                    .result(resultsDir.resolve("jmh-" + stamp + ".json").toString());
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,49 @@
+// File: com/demo/game/benchmarks/ControlMessageCodecBenchmark.java
+package com.demo.game.benchmarks;
+
+import com.demo.game.network.messages.NetworkMessage;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode throughput of the fixed-size messages. Their content does not depend on the
+ * player count, so there is no players parameter here (see SnapshotCodecBenchmark).
+ * Run with the GC profiler (the default in BenchmarkMain) to get gc.alloc.rate.norm, the
+ * bytes allocated per operation. Encoded sizes come from EncodedSizeReport.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ControlMessageCodecBenchmark {
+
+    @Param({"BombPass", "ClientInfo", "GameOver", "PlayerEliminated", "PlayerInput",
+            "ResumeRejected", "ResumeSession", "SessionToken", "SpectateRequest"})
+    public String message;
+
+    @Param({"OBJECT_STREAM"})
+    public BenchCodec codec;
+
+    private NetworkMessage sample;
+    private byte[] frame;
+
+    @Setup
+    public void setup() throws IOException {
+        sample = SampleMessages.create(message, 0);
+        frame = codec.encode(sample);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return codec.encode(sample);
+    }
+
+    @Benchmark
+    public NetworkMessage decode() throws IOException, ClassNotFoundException {
+        return codec.decode(frame);
+    }
+}
@@ -0,0 +1,49 @@
+// File: com/demo/game/benchmarks/EncodedSizeReport.java
+package com.demo.game.benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Prints the encoded frame size of every message type at each player count, for every codec,
+ * and writes the same table to results/encoded-sizes.json. Sizes are deterministic, so this is
+ * a plain main rather than a JMH benchmark:
+ * <pre>
+ *   java -cp benchmarks/target/benchmarks.jar com.demo.game.benchmarks.EncodedSizeReport
+ * </pre>
+ */
+public class EncodedSizeReport {
+
+    private static final int[] PLAYER_COUNTS = {2, 8, 32, 64, 128, 256};
+
+    public static void main(String[] args) throws Exception {
+        StringBuilder json = new StringBuilder("[\n");
+        System.out.printf("%-14s %-18s %8s %10s%n", "codec", "message", "players", "bytes");
+        for (BenchCodec codec : BenchCodec.values()) {
+            for (String type : SampleMessages.SIZED_TYPES) {
+                for (int players : PLAYER_COUNTS) {
+                    appendRow(json, codec, type, players);
+                }
+            }
+            for (String type : SampleMessages.FIXED_TYPES) {
+                appendRow(json, codec, type, 0);
+            }
+        }
+        json.setLength(json.length() - 2); // Trailing ",\n"
+        json.append("\n]\n");
+
+        Path resultsDir = Paths.get("results");
+        Files.createDirectories(resultsDir);
+        Path file = resultsDir.resolve("encoded-sizes.json");
+        Files.writeString(file, json);
+        System.out.println("Wrote " + file.toAbsolutePath());
+    }
+
+    private static void appendRow(StringBuilder json, BenchCodec codec, String type, int players) throws Exception {
+        int bytes = codec.encode(SampleMessages.create(type, players)).length;
+        System.out.printf("%-14s %-18s %8s %10d%n", codec, type, players > 0 ? String.valueOf(players) : "-", bytes);
+        json.append(String.format("  {\"codec\": \"%s\", \"message\": \"%s\", \"players\": %d, \"bytes\": %d},%n",
+                codec, type, players, bytes));
+    }
+}
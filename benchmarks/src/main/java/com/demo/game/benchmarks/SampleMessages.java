@@ -0,0 +1,79 @@
+// File: com/demo/game/benchmarks/SampleMessages.java
+package com.demo.game.benchmarks;
+
+import com.demo.game.Config;
+import com.demo.game.network.messages.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/** Builds representative, reproducible instances of every message type. */
+public final class SampleMessages {
+
+    /** Message types whose size grows with the number of players. */
+    public static final String[] SIZED_TYPES = {"GameStart", "GameStateUpdate", "GameResume", "LobbyUpdate"};
+
+    /** Message types with a fixed shape. */
+    public static final String[] FIXED_TYPES = {
+            "BombPass", "ClientInfo", "GameOver", "PlayerEliminated", "PlayerInput",
+            "ResumeRejected", "ResumeSession", "SessionToken", "SpectateRequest"
+    };
+
+    private static final String TOKEN = "3f2b6c1e-8a4d-4f5e-9b7c-2d1e0f9a8b7c";
+
+    private SampleMessages() {}
+
+    public static NetworkMessage create(String type, int players) {
+        Random random = new Random(42);
+        switch (type) {
+            case "GameStart":        return new GameStartMessage(positions(players, random), usernames(players));
+            case "GameStateUpdate":  return new GameStateUpdateMessage(positions(players, random), players / 2,
+                                            new SPoint2D(random.nextDouble() * Config.SCREEN_WIDTH, random.nextDouble() * Config.SCREEN_HEIGHT),
+                                            3.25, System.nanoTime());
+            case "GameResume":       return resume(players, random);
+            case "LobbyUpdate":      return new LobbyUpdateMessage(usernames(players));
+            case "BombPass":         return new BombPassMessage(3);
+            case "ClientInfo":       return new ClientInfoMessage("player_one");
+            case "GameOver":         return new GameOverMessage("player_one");
+            case "PlayerEliminated": return new PlayerEliminatedMessage(3);
+            case "PlayerInput":      return new PlayerInputMessage(PlayerInputMessage.InputType.MOVE_LEFT);
+            case "ResumeRejected":   return new ResumeRejectedMessage("Session expired.");
+            case "ResumeSession":    return new ResumeSessionMessage(TOKEN);
+            case "SessionToken":     return new SessionTokenMessage(3, TOKEN);
+            case "SpectateRequest":  return new SpectateRequestMessage();
+            default: throw new IllegalArgumentException("Unknown message type: " + type);
+        }
+    }
+
+    private static Map<Integer, SPoint2D> positions(int players, Random random) {
+        Map<Integer, SPoint2D> positions = new HashMap<>();
+        for (int id = 0; id < players; id++) {
+            positions.put(id, new SPoint2D(random.nextDouble() * Config.SCREEN_WIDTH, random.nextDouble() * Config.SCREEN_HEIGHT));
+        }
+        return positions;
+    }
+
+    private static List<String> usernames(int players) {
+        List<String> usernames = new ArrayList<>();
+        for (int id = 0; id < players; id++) {
+            usernames.add(id == 0 ? "player_0 (Host)" : "player_" + id);
+        }
+        return usernames;
+    }
+
+    private static GameResumeMessage resume(int players, Random random) {
+        int[] ids = new int[players];
+        float[] positions = new float[players * 2];
+        boolean[] eliminated = new boolean[players];
+        for (int i = 0; i < players; i++) {
+            ids[i] = i;
+            positions[i * 2] = random.nextFloat() * Config.SCREEN_WIDTH;
+            positions[i * 2 + 1] = random.nextFloat() * Config.SCREEN_HEIGHT;
+            eliminated[i] = random.nextInt(4) == 0;
+        }
+        return new GameResumeMessage(1, ids, positions, eliminated, players / 2, 3.25);
+    }
+}
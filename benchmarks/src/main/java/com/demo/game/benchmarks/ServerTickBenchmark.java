@@ -0,0 +1,38 @@
+// File: com/demo/game/benchmarks/ServerTickBenchmark.java
+package com.demo.game.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one whole authoritative tick (input application, movement, bomb tracking, win check
+ * and snapshot build), excluding encoding and sending. Read ns/op as ns per tick and, with the
+ * GC profiler, gc.alloc.rate.norm as bytes allocated per tick.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ServerTickBenchmark {
+
+    @Param({"2", "8", "64", "512"})
+    public int players;
+
+    @Param({"false", "true"})
+    public boolean passing;
+
+    private SimulatedMatch match;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        match = new SimulatedMatch(players, passing);
+    }
+
+    @Benchmark
+    public Object tick() {
+        return match.tick();
+    }
+}
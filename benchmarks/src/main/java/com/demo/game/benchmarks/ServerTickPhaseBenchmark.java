@@ -0,0 +1,55 @@
+// File: com/demo/game/benchmarks/ServerTickPhaseBenchmark.java
+package com.demo.game.benchmarks;
+
+import com.demo.game.network.ServerSimulation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The phases of ServerTickBenchmark measured one at a time, to see which one dominates as the
+ * player count grows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ServerTickPhaseBenchmark {
+
+    @Param({"2", "8", "64", "512"})
+    public int players;
+
+    private ServerSimulation simulation;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        simulation = new SimulatedMatch(players, false).simulation;
+    }
+
+    @Benchmark
+    public void movementAndClamping() {
+        simulation.integrateMovement(SimulatedMatch.TICK_SECONDS);
+    }
+
+    @Benchmark
+    public double bombTracking() {
+        return simulation.updateBomb();
+    }
+
+    @Benchmark
+    public int passTargetSearch() {
+        return simulation.findPassTarget(simulation.getBombHolderId());
+    }
+
+    @Benchmark
+    public boolean winCheck() {
+        return simulation.checkWinCondition();
+    }
+
+    @Benchmark
+    public Object snapshotBuild() {
+        return simulation.buildSnapshot(3.0, 0L);
+    }
+}
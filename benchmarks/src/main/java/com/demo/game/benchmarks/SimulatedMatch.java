@@ -0,0 +1,70 @@
+// File: com/demo/game/benchmarks/SimulatedMatch.java
+package com.demo.game.benchmarks;
+
+import com.demo.game.Config;
+import com.demo.game.network.GameServer;
+import com.demo.game.network.ServerClock;
+import com.demo.game.network.ServerSimulation;
+import javafx.geometry.Point2D;
+
+import java.util.Random;
+
+/**
+ * A ServerSimulation populated with N players scattered over the arena, driven by a manual
+ * clock at the server's tick rate. The bomb timer is effectively infinite so the match never
+ * ends mid-measurement; with {@code passing} the pass cooldown is zero and the holder tries to
+ * pass every tick, otherwise the shipped cooldown applies and nobody presses pass.
+ */
+final class SimulatedMatch {
+
+    static final double TICK_SECONDS = 1.0 / GameServer.GAME_UPDATE_RATE_HZ;
+    private static final long TICK_NANOS = (long) (TICK_SECONDS * 1_000_000_000L);
+
+    final ServerSimulation simulation;
+    private final ServerClock.Manual clock = new ServerClock.Manual();
+    private final Random random = new Random(42);
+    private final int players;
+    private final boolean passing;
+    private final int steersPerTick;
+    private int nextToSteer = 0;
+
+    SimulatedMatch(int players, boolean passing) {
+        this.players = players;
+        this.passing = passing;
+        this.steersPerTick = Math.max(1, players / 32); // Everyone changes direction about twice a second
+        long passCooldownNanos = passing ? 0 : (long) (Config.PASS_COOLDOWN.toMillis() * 1_000_000L);
+        this.simulation = new ServerSimulation(clock, new SilentListener(), Long.MAX_VALUE / 4, passCooldownNanos);
+
+        for (int id = 0; id < players; id++) {
+            double x = Config.WALL_SIZE + random.nextDouble() * (Config.SCREEN_WIDTH - 2 * Config.WALL_SIZE - Config.PLAYER_SIZE);
+            double y = Config.WALL_SIZE + random.nextDouble() * (Config.SCREEN_HEIGHT - 2 * Config.WALL_SIZE - Config.PLAYER_SIZE);
+            simulation.addPlayer(id, "player_" + id, new Point2D(x, y));
+            steer(id);
+        }
+        simulation.giveBombTo(0);
+    }
+
+    /** What GameServer does per tick: drain some inputs, then run the simulation step. */
+    Object tick() {
+        clock.advance(TICK_NANOS);
+        for (int i = 0; i < steersPerTick; i++) {
+            steer(nextToSteer);
+            nextToSteer = (nextToSteer + 1) % players;
+        }
+        if (passing) {
+            int holder = simulation.getBombHolderId();
+            simulation.applyInput(holder, GameServer.AXIS_UNCHANGED, GameServer.AXIS_UNCHANGED, true);
+        }
+        return simulation.step(TICK_SECONDS, clock.nanoTime());
+    }
+
+    private void steer(int id) {
+        simulation.applyInput(id, random.nextInt(3) - 1, random.nextInt(3) - 1, false);
+    }
+
+    private static final class SilentListener implements ServerSimulation.Listener {
+        @Override public void onBombPassed(int newHolderId) {}
+        @Override public void onPlayerEliminated(int clientId) {}
+        @Override public void onGameOver(String winnerUsername) {}
+    }
+}
@@ -1,5 +1,6 @@
 package com.demo.game;
 
+import com.demo.game.sim.SimConfig;
 import javafx.util.Duration;
 
 import java.util.List;
@@ -7,28 +8,42 @@ import java.util.List;
 public class Config {
 
     // Screen dimensions
-    public static final int SCREEN_WIDTH = 800;
-    public static final int SCREEN_HEIGHT = 600;
+    public static final int SCREEN_WIDTH = SimConfig.SCREEN_WIDTH;
+    public static final int SCREEN_HEIGHT = SimConfig.SCREEN_HEIGHT;
     public static final String GAME_TITLE = "Hot Potato Arena";
     public static final String GAME_VERSION = "0.1.0";
 
     // match rules
-    public static final int STARTING_LIVES = 3;
+    public static final int STARTING_LIVES = SimConfig.STARTING_LIVES;
     public static final int TOTAL_ROUNDS = 3;
     public static final int SCORE = 0;
 
-    // properties
-    public static final double PLAYER_SPEED = 200.0; // pixels per second
-    public static final int PLAYER_SIZE = 40;
-    public static final int BOMB_SIZE = 20;
-    public static final int WALL_SIZE = 20;
-
-    public static final Duration PASS_COOLDOWN= Duration.seconds(1.5);
-    public static final double PASS_RANGE = 50.0; // The distance the pass effect travels
-    public static final List<Double> AI_SPEEDS = List.of(150.0, 180.0, 210.0); // Speeds for levels 1, 2, 3
-    public static final Duration BOMB_TIMER_DURATION = Duration.seconds(5);
+    // properties (the numbers the headless simulation shares live in SimConfig)
+    public static final double PLAYER_SPEED = SimConfig.PLAYER_SPEED; // pixels per second
+    public static final int PLAYER_SIZE = SimConfig.PLAYER_SIZE;
+    public static final int BOMB_SIZE = SimConfig.BOMB_SIZE;
+    public static final int WALL_SIZE = SimConfig.WALL_SIZE;
+
+    public static final double PASS_COOLDOWN_SECONDS = SimConfig.PASS_COOLDOWN_SECONDS;
+    public static final double BOMB_TIMER_SECONDS = SimConfig.BOMB_TIMER_SECONDS;
+    public static final Duration PASS_COOLDOWN = Duration.seconds(PASS_COOLDOWN_SECONDS);
+    public static final double PASS_RANGE = SimConfig.PASS_RANGE; // The distance the pass effect travels
+    public static final List<Double> AI_SPEEDS = SimConfig.AI_SPEEDS; // Speeds for levels 1, 2, 3
+    public static final Duration BOMB_TIMER_DURATION = Duration.seconds(BOMB_TIMER_SECONDS);
     public static final int MAX_LEVELS = 3;
 
+    // networking
+    public static final Duration RECONNECT_GRACE_PERIOD = Duration.seconds(10); // How long a dropped player's slot is held
+    // How far behind the live match spectators watch; override with -Dspectator.delay.ms=...
+    public static final Duration SPECTATOR_DELAY = Duration.millis(Long.getLong("spectator.delay.ms", 2000L));
+
+    // inbound rate limits per connection (held movement keys resend every frame)
+    public static final double INPUT_MESSAGES_PER_SECOND = 240.0;
+    public static final double INPUT_MESSAGE_BURST = 120.0;
+    public static final double CONTROL_MESSAGES_PER_SECOND = 4.0;
+    public static final double CONTROL_MESSAGE_BURST = 8.0;
+    public static final int FLOOD_DISCONNECT_THRESHOLD = 500; // Messages past the rate limit within one second before a connection is cut
+
 
 
 
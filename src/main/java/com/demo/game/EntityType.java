@@ -1,5 +1,6 @@
 package com.demo.game;
 
 public enum EntityType {
-    PLAYER, AI, BOMB, WALL,PORTAL
+    PLAYER, AI, BOMB, WALL,PORTAL,
+    POOLED // Parked in the EntityPool between rounds
 }
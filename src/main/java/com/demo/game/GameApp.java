@@ -4,7 +4,6 @@ import com.almasb.fxgl.app.GameApplication;
 import com.almasb.fxgl.app.GameSettings;
 import com.almasb.fxgl.app.scene.FXGLMenu;
 import com.almasb.fxgl.app.scene.SceneFactory;
-import com.almasb.fxgl.core.math.Vec2;
 import com.almasb.fxgl.dsl.FXGL;
 import com.almasb.fxgl.entity.Entity;
 import com.almasb.fxgl.entity.SpawnData;
@@ -12,27 +11,36 @@ import com.almasb.fxgl.input.Input;
 import com.almasb.fxgl.input.UserAction;
 import com.almasb.fxgl.physics.CollisionHandler;
 import com.almasb.fxgl.physics.PhysicsComponent;
-import com.demo.game.components.AIComponent;
-import com.demo.game.components.BombComponent;
+import com.demo.game.components.EntityPool;
+import com.demo.game.components.LocalMatch;
 import com.demo.game.components.PlayerComponent;
 import com.demo.game.components.PortalComponent;
 import com.demo.game.controllers.MultiplayerMenuController;
 import com.demo.game.database.DatabaseConnection;
 import com.demo.game.database.UserDAO;
+import com.demo.game.diagnostics.TraceRecorder;
 import com.demo.game.events.BombExplodedEvent;
 import com.demo.game.factories.*;
+import com.demo.game.level.LevelData;
+import com.demo.game.level.LevelLoader;
 import com.demo.game.models.User;
 import com.demo.game.network.GameClient;
 import com.demo.game.network.messages.*;
+import com.demo.game.replay.ReplayReader;
+import com.demo.game.replay.ReplayRecorder;
 import com.demo.game.scenes.LoginScene;
 import com.demo.game.ui.MultiplayerManager;
 import com.demo.game.ui.SceneManager;
 import javafx.application.Platform;
 import javafx.geometry.Point2D;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.control.Slider;
 import javafx.scene.input.KeyCode;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -54,6 +62,10 @@ public class GameApp extends GameApplication {
     private Entity playerEntity;
     private PlayerComponent playerComponent;
 
+    // --- Level ---
+    private LevelData currentLevel;
+    private final List<Entity> wallEntities = new ArrayList<>(); // Removed when the level changes
+
     // --- Multiplayer Client Properties ---
     private GameClient gameClient;
     private Map<Integer, Entity> clientIdToEntity = new HashMap<>();
@@ -65,6 +77,18 @@ public class GameApp extends GameApplication {
     private Map<Integer, Point2D> targetPositions = new HashMap<>();
     private static final double INTERPOLATION_FACTOR = 0.7;
 
+    // --- Replays ---
+    private ReplayRecorder replayRecorder; // Records the match this client plays or spectates
+    private ReplayReader replayReader;     // Only set in REPLAY mode
+    private double replayTimeMillis = 0;
+    private double replaySpeed = 1.0;
+    private boolean replayPaused = false;
+    private Slider replayScrubber;
+    private Text replayStatusText;
+    private boolean updatingScrubber = false; // Set while playback moves the slider, so it does not seek
+    private static final long REPLAY_SKIP_MILLIS = 5000;
+    private static final double REPLAY_MAX_SPEED = 16.0;
+
     @Override
     protected void initSettings(GameSettings settings) {
         settings.setWidth(SCREEN_WIDTH);
@@ -91,6 +115,7 @@ public class GameApp extends GameApplication {
 
         FXGL.getPrimaryStage().setOnCloseRequest(e -> {
             System.out.println("Window closed, disconnecting...");
+            closeReplay();
             DatabaseConnection.getInstance().disconnect();
             MultiplayerMenuController.stopExistingConnections();
             Platform.exit();
@@ -111,6 +136,9 @@ public class GameApp extends GameApplication {
         System.out.println("initGame: Current Mode is " + currentMode);
 
         FXGL.getGameWorld().getEntitiesCopy().forEach(Entity::removeFromWorld);
+        EntityPool.getInstance().clear();
+        wallEntities.clear();
+        currentLevel = null; // Walls are spawned again for the new game
 
         FXGL.getGameWorld().addEntityFactory(new PlayerFactory());
         FXGL.getGameWorld().addEntityFactory(new AIFactory());
@@ -118,8 +146,11 @@ public class GameApp extends GameApplication {
         FXGL.getGameWorld().addEntityFactory(new WallFactory());
         FXGL.getGameWorld().addEntityFactory(new PortalFactory());
 
+        closeReplay();
         if (currentMode == GameMode.SINGLE_PLAYER) {
             initSinglePlayer();
+        } else if (currentMode == GameMode.REPLAY) {
+            initReplay();
         } else {
             initMultiplayerClient();
         }
@@ -128,10 +159,6 @@ public class GameApp extends GameApplication {
     // SINGLE PLAYER LOGIC
 
     private void initSinglePlayer() {
-        // --- FIX ---
-        // Spawn walls once at the very beginning of single-player mode.
-        spawnWalls();
-
         loadSinglePlayerArena();
         FXGL.getEventBus().addEventHandler(BombExplodedEvent.ANY, this::onSinglePlayerBombExploded);
     }
@@ -139,16 +166,32 @@ public class GameApp extends GameApplication {
     private void loadSinglePlayerArena() {
         // --- FIX ---
         // Clear all dynamic entities from the previous level/round before loading the new one.
-        // This prevents duplicate players and AI.
-        FXGL.getGameWorld().getEntitiesByType(EntityType.PLAYER, EntityType.AI, EntityType.BOMB, EntityType.PORTAL).forEach(Entity::removeFromWorld);
+        // This prevents duplicate players and AI. Characters and the bomb go back to the pool.
+        EntityPool pool = EntityPool.getInstance();
+        FXGL.getGameWorld().getEntitiesByType(EntityType.PLAYER, EntityType.AI, EntityType.BOMB).forEach(pool::release);
+        FXGL.getGameWorld().getEntitiesByType(EntityType.PORTAL).forEach(Entity::removeFromWorld);
 
-        // --- FIX ---
-        // spawnWalls() was moved to initSinglePlayer()
+        // Walls only change along with the level; the match starts over on every load
+        int level = FXGL.getip("level").get();
+        LevelData levelData = LevelLoader.load(LevelLoader.singlePlayerName(level));
+        if (levelData != currentLevel) {
+            spawnWalls(levelData);
+        }
+        LocalMatch match = LocalMatch.getInstance();
+        match.begin(levelData.toArena());
 
-        playerEntity = FXGL.spawn("player", new SpawnData(SCREEN_WIDTH / 2.0 - PLAYER_SIZE, SCREEN_HEIGHT / 2.0).put("username", currentUser.getUsername()));
+        // Enough of everything for the last level, built before the first round starts
+        pool.prewarm("player", 1, new SpawnData(0, 0).put("username", currentUser.getUsername()));
+        pool.prewarm("ai", MAX_LEVELS + 2, new SpawnData(0, 0).put("speed", AI_SPEEDS.get(0)));
+        pool.prewarm("bomb", 1, new SpawnData(0, 0));
+
+        Point2D playerSpawn = spawnPoint(LevelData.PLAYER, 0,
+                new Point2D(SCREEN_WIDTH / 2.0 - PLAYER_SIZE / 2.0, SCREEN_HEIGHT / 2.0 - PLAYER_SIZE / 2.0));
+        playerEntity = pool.obtain("player", new SpawnData(playerSpawn).put("username", currentUser.getUsername()));
         playerComponent = playerEntity.getComponent(PlayerComponent.class); // This field is still needed for input
+        playerComponent.setRespawnPosition(playerSpawn);
+        match.addPlayer(playerEntity);
 
-        int level = FXGL.getip("level").get();
         double aiSpeed = AI_SPEEDS.get(Math.min(level - 1, AI_SPEEDS.size() - 1));
 
         // --- FIX ---
@@ -156,13 +199,20 @@ public class GameApp extends GameApplication {
         int numAIs = level + 2;
 
         for (int i = 0; i < numAIs; i++) { // Use numAIs instead of level
-            FXGL.spawn("ai", new SpawnData(100 + i * 80, 100).put("speed", aiSpeed));
+            match.addAI(pool.obtain("ai", new SpawnData(aiSpawn(i)).put("speed", aiSpeed)), aiSpeed);
         }
 
-        Entity portal1 = FXGL.spawn("portal", 100, 300);
-        Entity portal2 = FXGL.spawn("portal", 650, 300);
-        portal1.getComponent(PortalComponent.class).setTarget(portal2);
-        portal2.getComponent(PortalComponent.class).setTarget(portal1);
+        List<LevelData.Portal> portals = levelData.getPortals();
+        List<Entity> portalEntities = new ArrayList<>();
+        for (LevelData.Portal portal : portals) {
+            portalEntities.add(FXGL.spawn("portal", portal.bounds.getMinX(), portal.bounds.getMinY()));
+        }
+        for (int i = 0; i < portals.size(); i++) {
+            int target = portals.get(i).target;
+            if (target >= 0 && target < portalEntities.size()) {
+                portalEntities.get(i).getComponent(PortalComponent.class).setTarget(portalEntities.get(target));
+            }
+        }
 
         // --- FIX ---
         // Pass the newly created player entity to startNewRound
@@ -179,6 +229,7 @@ public class GameApp extends GameApplication {
         if (entityToRespawn != null && entityToRespawn.isType(EntityType.PLAYER)) {
             // Use the component from the *passed-in* entity
             entityToRespawn.getComponent(PlayerComponent.class).respawn();
+            LocalMatch.getInstance().revive(entityToRespawn);
         } else if (playerEntity != null && playerEntity.isActive()) {
             // If the AI was eliminated, the player doesn't need to respawn,
             // but we still need to make sure the playerComponent field is valid for input
@@ -189,25 +240,26 @@ public class GameApp extends GameApplication {
 
         List<Entity> ais = FXGL.getGameWorld().getEntitiesByType(EntityType.AI);
         for (int i = 0; i < ais.size(); i++) {
-            ais.get(i).getComponent(PhysicsComponent.class).overwritePosition(
-                    new Vec2(100 + i * 80, 100).toPoint2D()
-            );
+            ais.get(i).getComponent(PhysicsComponent.class).overwritePosition(aiSpawn(i));
         }
 
         // --- FIX ---
         // Ensure the old bomb is gone before spawning a new one
-        FXGL.getGameWorld().getSingletonOptional(EntityType.BOMB).ifPresent(Entity::removeFromWorld);
+        EntityPool pool = EntityPool.getInstance();
+        FXGL.getGameWorld().getSingletonOptional(EntityType.BOMB).ifPresent(pool::release);
 
-        Entity bomb = FXGL.spawn("bomb", -100, -100);
-        List<Entity> characters = new ArrayList<>(ais);
-        characters.add(playerEntity); // playerEntity field is still correct
-        Entity holder = characters.get(FXGL.random(0, characters.size() - 1));
+        // The match hands it to a random character still in play
+        LocalMatch.getInstance().startRound(pool.obtain("bomb", new SpawnData(-100, -100)));
+    }
 
-        if (holder.isType(EntityType.PLAYER)) {
-            playerComponent.receiveBomb(bomb); // playerComponent field is still correct
-        } else {
-            holder.getComponent(AIComponent.class).receiveBomb(bomb);
-        }
+    // The level's spawn points, or the original row along the top for AIs it has no point for
+    private Point2D aiSpawn(int index) {
+        return spawnPoint(LevelData.AI, index, new Point2D(100 + index * 80, 100));
+    }
+
+    private Point2D spawnPoint(String kind, int index, Point2D fallback) {
+        List<Point2D> points = currentLevel.getSpawns(kind);
+        return (index < points.size()) ? points.get(index) : fallback;
     }
 
     private void onSinglePlayerBombExploded(BombExplodedEvent event) {
@@ -228,7 +280,7 @@ public class GameApp extends GameApplication {
                 startNewRound(eliminated);
             }
         } else if (eliminated.isType(EntityType.AI)) {
-            eliminated.removeFromWorld();
+            EntityPool.getInstance().release(eliminated);
             FXGL.inc("score", 100);
             if (FXGL.getGameWorld().getEntitiesByType(EntityType.AI).isEmpty()) {
                 nextLevel();
@@ -289,7 +341,7 @@ public class GameApp extends GameApplication {
         }
 
         myClientId = -1;
-        spawnWalls();
+        loadMultiplayerArena();
 
         gameClient.setOnMessageReceived(this::handleNetworkMessage);
         System.out.println("Multiplayer initialized. Message handler set.");
@@ -305,9 +357,18 @@ public class GameApp extends GameApplication {
     }
 
     private void handleNetworkMessage(NetworkMessage message) {
+        long traceStart = TraceRecorder.begin();
+        dispatchNetworkMessage(message);
+        if (TraceRecorder.ENABLED) {
+            TraceRecorder.end(message.getClass().getSimpleName(), "client.message", traceStart);
+        }
+    }
+
+    private void dispatchNetworkMessage(NetworkMessage message) {
         if (message instanceof GameStartMessage) {
             handleGameStart(((GameStartMessage) message).initialPositions, ((GameStartMessage) message).usernames);
         } else if (message instanceof GameStateUpdateMessage) {
+            if (replayRecorder != null) replayRecorder.recordSnapshot((GameStateUpdateMessage) message);
             handleGameStateUpdate((GameStateUpdateMessage) message);
         } else if (message instanceof BombPassMessage) {
             handleBombPass((BombPassMessage) message);
@@ -315,12 +376,29 @@ public class GameApp extends GameApplication {
             handlePlayerEliminated((PlayerEliminatedMessage) message);
         } else if (message instanceof GameOverMessage) {
             handleGameOver((GameOverMessage) message);
+        } else if (message instanceof GameResumeMessage) {
+            if (replayRecorder != null) replayRecorder.recordResume((GameResumeMessage) message);
+            handleGameResume((GameResumeMessage) message);
         }
     }
 
+    // Walls of the multiplayer arena, and a pooled player for each of its starting positions
+    private void loadMultiplayerArena() {
+        LevelData arena = LevelLoader.load(LevelLoader.arenaName());
+        spawnWalls(arena);
+        EntityPool pool = EntityPool.getInstance();
+        // Renamed when obtained; the factory still needs a name to build the label with
+        pool.prewarm("player", Math.max(1, arena.getSpawns(LevelData.START).size()),
+                new SpawnData(0, 0).put("username", currentUser.getUsername()));
+        pool.prewarm("bomb", 1, new SpawnData(0, 0));
+    }
+
     private void handleGameStart(Map<Integer, SPoint2D> initialPositions, List<String> usernames) {
         System.out.println("handleGameStart: Processing game start data...");
 
+        // Last match's players go back to the pool
+        EntityPool pool = EntityPool.getInstance();
+        clientIdToEntity.values().forEach(pool::release);
         clientIdToEntity.clear();
         targetPositions.clear();
 
@@ -329,12 +407,14 @@ public class GameApp extends GameApplication {
             return;
         }
 
+        GameMode mode = MultiplayerManager.getInstance().getGameMode();
+        boolean spectating = mode == GameMode.SPECTATOR || mode == GameMode.REPLAY;
         for (Map.Entry<Integer, SPoint2D> entry : initialPositions.entrySet()) {
             int clientId = entry.getKey();
             Point2D position = entry.getValue().toPoint2D();
             String username = (clientId < usernames.size()) ? usernames.get(clientId) : "Player " + clientId;
 
-            Entity pEntity = FXGL.spawn("player", new SpawnData(position).put("username", username));
+            Entity pEntity = pool.obtain("player", new SpawnData(position).put("username", username));
 
             if (pEntity == null || !pEntity.isActive()) {
                 System.err.println("    Spawned entity FAILED for client ID: " + clientId);
@@ -344,14 +424,18 @@ public class GameApp extends GameApplication {
             clientIdToEntity.put(clientId, pEntity);
             targetPositions.put(clientId, position);
 
-            if (username.startsWith(currentUser.getUsername())) {
+            if (!spectating && username.startsWith(currentUser.getUsername())) {
                 myClientId = clientId;
                 System.out.println("    Identified local player: ID=" + myClientId);
             }
         }
 
         if (bombEntity == null || !bombEntity.isActive()) {
-            bombEntity = FXGL.spawn("bomb", -100, -100);
+            bombEntity = pool.obtain("bomb", new SpawnData(-100, -100));
+        }
+        if (mode != GameMode.REPLAY) {
+            if (replayRecorder != null) replayRecorder.close();
+            replayRecorder = ReplayRecorder.start(initialPositions, usernames);
         }
         System.out.println("handleGameStart: Finished processing.");
     }
@@ -365,8 +449,13 @@ public class GameApp extends GameApplication {
         }
 
         this.currentBombHolderId = msg.bombHolderId;
-        Point2D currentBombPos = msg.bombPosition.toPoint2D();
+        attachBombToHolder(msg.bombPosition.toPoint2D());
+
+        double time = msg.bombTimerRemaining;
+        FXGL.set("bombTime", time >= 0 ? time : BOMB_TIMER_DURATION.toSeconds());
+    }
 
+    private void attachBombToHolder(Point2D currentBombPos) {
         if (currentBombHolderId == -1) {
             if (bombEntity.xProperty().isBound()) {
                 bombEntity.xProperty().unbind();
@@ -388,9 +477,43 @@ public class GameApp extends GameApplication {
                 bombEntity.setPosition(currentBombPos);
             }
         }
+    }
+
+    /**
+     * Applies the keyframe the server sends after our connection dropped and was resumed.
+     * Entities are snapped to their authoritative positions rather than interpolated.
+     */
+    private void handleGameResume(GameResumeMessage msg) {
+        if (bombEntity == null) return;
+        myClientId = msg.clientId;
+
+        targetPositions.clear();
+        for (int i = 0; i < msg.playerIds.length; i++) {
+            int clientId = msg.playerIds[i];
+            Entity entity = clientIdToEntity.get(clientId);
+            if (msg.eliminated[i]) {
+                if (entity != null) {
+                    entity.getViewComponent().setVisible(false);
+                    entity.getComponent(PhysicsComponent.class).overwritePosition(new Point2D(-200, -200));
+                }
+                continue;
+            }
+            Point2D position = new Point2D(msg.positions[i * 2], msg.positions[i * 2 + 1]);
+            targetPositions.put(clientId, position);
+            if (entity != null) {
+                entity.setPosition(position);
+            }
+        }
+
+        this.currentBombHolderId = msg.bombHolderId;
+        attachBombToHolder(new Point2D(-100, -100));
 
         double time = msg.bombTimerRemaining;
         FXGL.set("bombTime", time >= 0 ? time : BOMB_TIMER_DURATION.toSeconds());
+        // A replayed resume has no live connection to time
+        double resumeMs = (gameClient != null) ? gameClient.getLastResumeLatencyMs() : -1;
+        FXGL.getNotificationService().pushNotification(resumeMs >= 0
+                ? String.format("Reconnected in %.0f ms!", resumeMs) : "Reconnected!");
     }
 
     private void handleBombPass(BombPassMessage msg) {
@@ -418,27 +541,166 @@ public class GameApp extends GameApplication {
     }
 
     private void handleGameOver(GameOverMessage msg) {
+        boolean spectating = MultiplayerManager.getInstance().getGameMode() == GameMode.SPECTATOR;
         String message = msg.winnerUsername.equals("No one") ? "Game Over! It's a draw!"
-                : msg.winnerUsername.startsWith(currentUser.getUsername()) ? "You Win!"
+                : !spectating && msg.winnerUsername.startsWith(currentUser.getUsername()) ? "You Win!"
                 : msg.winnerUsername + " wins!";
 
+        if (replayRecorder != null) {
+            replayRecorder.finish(msg.winnerUsername);
+            replayRecorder = null;
+        }
         MultiplayerManager.getInstance().reset();
         MultiplayerMenuController.stopExistingConnections();
 
         FXGL.getDialogService().showMessageBox(message, () -> FXGL.getGameController().gotoMainMenu());
     }
 
-    private void spawnWalls() {
-        for (int x = 0; x < SCREEN_WIDTH; x += WALL_SIZE) {
-            FXGL.spawn("wall", x, 0);
-            FXGL.spawn("wall", x, SCREEN_HEIGHT - WALL_SIZE);
+    // =================================================================
+    //                   REPLAY PLAYBACK
+    // =================================================================
+
+    private void initReplay() {
+        Path file = MultiplayerManager.getInstance().getReplayFile();
+        gameClient = null;
+        myClientId = -1;
+        try {
+            replayReader = ReplayReader.open(file);
+        } catch (IOException e) {
+            System.err.println("Could not open replay " + file + ": " + e.getMessage());
+            MultiplayerManager.getInstance().reset();
+            Platform.runLater(() -> FXGL.getDialogService().showMessageBox("Could not open replay.",
+                    () -> FXGL.getGameController().gotoMainMenu()));
+            return;
+        }
+        System.out.println("Replay opened: " + file + " (" + replayReader.getDurationMillis() / 1000.0 + " s, "
+                + replayReader.getKeyframeCount() + " keyframes)");
+
+        loadMultiplayerArena();
+        handleGameStart(new HashMap<>(replayReader.getInitialPositions()), replayReader.getUsernames());
+        replayTimeMillis = 0;
+        replaySpeed = 1.0;
+        replayPaused = false;
+        applyReplayState(true);
+    }
+
+    private void closeReplay() {
+        if (replayRecorder != null) {
+            replayRecorder.close();
+            replayRecorder = null;
+        }
+        if (replayReader != null) {
+            try {
+                replayReader.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close replay: " + e.getMessage());
+            }
+            replayReader = null;
+        }
+    }
+
+    private void updateReplay(double tpf) {
+        if (replayReader == null) return;
+        if (!replayPaused) {
+            replayTimeMillis = Math.min(replayTimeMillis + tpf * 1000.0 * replaySpeed, replayReader.getDurationMillis());
+            if (replayReader.advanceTo((long) replayTimeMillis)) {
+                // Interpolation trails too far behind at high speed, so snap instead
+                applyReplayState(replaySpeed > 2.0);
+            }
+            if (replayReader.isAtEnd()) {
+                replayPaused = true;
+                String winner = replayReader.getWinner();
+                FXGL.getNotificationService().pushNotification(winner != null ? "Replay over: " + winner + " wins" : "End of recording");
+            }
         }
-        for (int y = WALL_SIZE; y < SCREEN_HEIGHT - WALL_SIZE; y += WALL_SIZE) {
-            FXGL.spawn("wall", 0, y);
-            FXGL.spawn("wall", SCREEN_WIDTH - WALL_SIZE, y);
+        updateReplayHud();
+    }
+
+    /** Jumps to any point of the replay through the keyframe index. */
+    private void seekReplay(double millis) {
+        if (replayReader == null) return;
+        replayTimeMillis = Math.max(0, Math.min(millis, replayReader.getDurationMillis()));
+        replayReader.seek((long) replayTimeMillis);
+        applyReplayState(true);
+        updateReplayHud();
+    }
+
+    // Shows the reader's state; players missing from it were eliminated by that point.
+    private void applyReplayState(boolean snap) {
+        handleGameStateUpdate(replayReader.currentState());
+        for (Map.Entry<Integer, Entity> entry : clientIdToEntity.entrySet()) {
+            Entity entity = entry.getValue();
+            entity.getViewComponent().setVisible(replayReader.isActive(entry.getKey()));
+            Point2D target = targetPositions.get(entry.getKey());
+            if (snap && target != null && entity.isActive()) {
+                entity.setPosition(target);
+            }
         }
     }
 
+    private void updateReplayHud() {
+        if (replayScrubber == null || replayReader == null) return;
+        updatingScrubber = true;
+        replayScrubber.setMax(Math.max(1, replayReader.getDurationMillis()));
+        replayScrubber.setValue(replayTimeMillis);
+        updatingScrubber = false;
+        replayStatusText.setText(String.format("%s / %s   %s%sx",
+                formatReplayTime(replayTimeMillis), formatReplayTime(replayReader.getDurationMillis()),
+                replayPaused ? "paused   " : "", replaySpeed));
+    }
+
+    private static String formatReplayTime(double millis) {
+        long seconds = (long) (millis / 1000);
+        return String.format("%d:%02d", seconds / 60, seconds % 60);
+    }
+
+    private void toggleReplayPause() {
+        if (replayReader == null) return;
+        if (replayPaused && replayReader.isAtEnd()) {
+            seekReplay(0); // Play again from the start
+        }
+        replayPaused = !replayPaused;
+        updateReplayHud();
+    }
+
+    private void changeReplaySpeed(double factor) {
+        replaySpeed = Math.max(0.25, Math.min(REPLAY_MAX_SPEED, replaySpeed * factor));
+        updateReplayHud();
+    }
+
+    // Logs the cost of the walls so the merged and tiled layouts (-Dwalls.merged) can be compared.
+    private void spawnWalls(LevelData level) {
+        long start = System.nanoTime();
+        wallEntities.forEach(Entity::removeFromWorld);
+        wallEntities.clear();
+        currentLevel = level;
+
+        int bodies = 0;
+        int viewNodes = 0;
+        if (WallFactory.MERGED) {
+            for (Rectangle2D run : level.getWalls()) {
+                wallEntities.add(FXGL.spawn("wall", new SpawnData(run.getMinX(), run.getMinY())
+                        .put("width", run.getWidth())
+                        .put("height", run.getHeight())));
+                bodies++;
+            }
+            wallEntities.add(FXGL.spawn("wallView", new SpawnData(0, 0).put("level", level)));
+            viewNodes++;
+        } else {
+            for (Rectangle2D run : level.getWalls()) {
+                for (double y = run.getMinY(); y < run.getMaxY(); y += WALL_SIZE) {
+                    for (double x = run.getMinX(); x < run.getMaxX(); x += WALL_SIZE) {
+                        wallEntities.add(FXGL.spawn("wallTile", x, y));
+                        bodies++;
+                    }
+                }
+            }
+            viewNodes = bodies;
+        }
+        System.out.printf("Walls of %s (%s): %d physics bodies, %d view nodes, spawned in %.2f ms%n", level.getName(),
+                WallFactory.MERGED ? "merged" : "tiled", bodies, viewNodes, (System.nanoTime() - start) / 1_000_000.0);
+    }
+
     // =================================================================
     //                   COMMON INITIALIZATION
     // =================================================================
@@ -547,6 +809,50 @@ public class GameApp extends GameApplication {
                 }
             }
         }, KeyCode.SPACE);
+
+        // Replay controls; they do nothing outside REPLAY mode
+        input.addAction(new UserAction("Replay Pause") {
+            @Override
+            protected void onActionBegin() {
+                if (MultiplayerManager.getInstance().getGameMode() == GameMode.REPLAY) toggleReplayPause();
+            }
+        }, KeyCode.P);
+        input.addAction(new UserAction("Replay Back") {
+            @Override
+            protected void onActionBegin() {
+                if (MultiplayerManager.getInstance().getGameMode() == GameMode.REPLAY) seekReplay(replayTimeMillis - REPLAY_SKIP_MILLIS);
+            }
+        }, KeyCode.LEFT);
+        input.addAction(new UserAction("Replay Forward") {
+            @Override
+            protected void onActionBegin() {
+                if (MultiplayerManager.getInstance().getGameMode() == GameMode.REPLAY) seekReplay(replayTimeMillis + REPLAY_SKIP_MILLIS);
+            }
+        }, KeyCode.RIGHT);
+        input.addAction(new UserAction("Replay Faster") {
+            @Override
+            protected void onActionBegin() {
+                if (MultiplayerManager.getInstance().getGameMode() == GameMode.REPLAY) changeReplaySpeed(2.0);
+            }
+        }, KeyCode.UP);
+        input.addAction(new UserAction("Replay Slower") {
+            @Override
+            protected void onActionBegin() {
+                if (MultiplayerManager.getInstance().getGameMode() == GameMode.REPLAY) changeReplaySpeed(0.5);
+            }
+        }, KeyCode.DOWN);
+
+        if (TraceRecorder.ENABLED) {
+            input.addAction(new UserAction("Dump Trace") {
+                @Override
+                protected void onActionBegin() {
+                    // Writing can take a moment with full buffers; keep it off the FX thread
+                    Thread dumper = new Thread(TraceRecorder::dump, "trace-dump");
+                    dumper.setDaemon(true);
+                    dumper.start();
+                }
+            }, KeyCode.F9);
+        }
     }
 
     private void sendInput(PlayerInputMessage.InputType inputType) {
@@ -606,25 +912,50 @@ public class GameApp extends GameApplication {
 
             FXGL.getGameScene().addUINode(scoreText);
             FXGL.getGameScene().addUINode(livesText);
+        } else if (currentMode == GameMode.REPLAY) {
+            replayScrubber = new Slider(0, 1, 0);
+            replayScrubber.setTranslateX(40);
+            replayScrubber.setTranslateY(SCREEN_HEIGHT - 60);
+            replayScrubber.setPrefWidth(SCREEN_WIDTH - 80);
+            replayScrubber.valueProperty().addListener((obs, oldValue, newValue) -> {
+                if (!updatingScrubber) seekReplay(newValue.doubleValue());
+            });
+
+            replayStatusText = new Text();
+            replayStatusText.setTranslateX(40);
+            replayStatusText.setTranslateY(SCREEN_HEIGHT - 70);
+            replayStatusText.setFill(Color.BLACK);
+            replayStatusText.setFont(FXGL.getUIFactoryService().newFont(14));
+
+            Text helpText = new Text("P pause   Left/Right skip 5 s   Up/Down speed   drag to scrub");
+            helpText.setTranslateX(SCREEN_WIDTH - 400);
+            helpText.setTranslateY(SCREEN_HEIGHT - 70);
+            helpText.setFill(Color.BLACK);
+            helpText.setFont(FXGL.getUIFactoryService().newFont(14));
+
+            FXGL.getGameScene().addUINode(replayScrubber);
+            FXGL.getGameScene().addUINode(replayStatusText);
+            FXGL.getGameScene().addUINode(helpText);
+            updateReplayHud();
         }
     }
 
     @Override
     protected void onUpdate(double tpf) {
+        long traceStart = TraceRecorder.begin();
         GameMode currentMode = MultiplayerManager.getInstance().getGameMode();
 
         if (currentMode == GameMode.SINGLE_PLAYER) {
-            FXGL.getGameWorld().getSingletonOptional(EntityType.BOMB).ifPresent(bomb -> {
-                BombComponent bombComp = bomb.getComponent(BombComponent.class);
-                double elapsed = bombComp.getElapsedTime();
-                if (elapsed >= 0) {
-                    double remaining = BOMB_TIMER_DURATION.toSeconds() - elapsed;
-                    FXGL.set("bombTime", Math.max(0, remaining));
-                } else {
-                    FXGL.set("bombTime", BOMB_TIMER_DURATION.toSeconds());
-                }
-            });
+            LocalMatch match = LocalMatch.getInstance();
+            match.update();
+            double remaining = match.getBombSecondsRemaining();
+            if (remaining >= 0) {
+                FXGL.set("bombTime", remaining);
+            }
         } else {
+            if (currentMode == GameMode.REPLAY) {
+                updateReplay(tpf);
+            }
             for (Map.Entry<Integer, Entity> entry : clientIdToEntity.entrySet()) {
                 Entity entity = entry.getValue();
                 Point2D targetPos = targetPositions.get(entry.getKey());
@@ -635,5 +966,6 @@ public class GameApp extends GameApplication {
                 }
             }
         }
+        TraceRecorder.end("GameApp.onUpdate", "client.frame", traceStart);
     }
 }
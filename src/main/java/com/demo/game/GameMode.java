@@ -7,5 +7,7 @@ package com.demo.game;
 public enum GameMode {
     SINGLE_PLAYER,
     MULTIPLAYER_HOST,
-    MULTIPLAYER_CLIENT
+    MULTIPLAYER_CLIENT,
+    SPECTATOR,
+    REPLAY
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+// File: com/demo/game/ai/AIAgents.java
+package com.demo.game.ai;
+
+/**
+ * A world whose AI characters an {@link AIScheduler} decides for: it says which characters are
+ * AIs, fills in a decision's inputs before the think phase and acts on the result afterwards.
+ * Both are called on the thread that owns the world, in batch order.
+ */
+public interface AIAgents extends WorldView {
+
+    boolean isAI(int index);
+
+    /** How far a pass reaches, center to center; the scheduler's distance bands scale with it. */
+    double getPassRange();
+
+    /** Fills in what {@link AIBrain} needs to know about AI {@code index}. */
+    void prepare(int index, AIDecision decision);
+
+    /** Acts on what {@link AIBrain} decided for AI {@code index}: its velocity and any pass. */
+    void apply(int index, AIDecision decision);
+}
@@ -0,0 +1,88 @@
+// File: com/demo/game/ai/AIBrain.java
+package com.demo.game.ai;
+
+/**
+ * The AI's decision: chase, evade or wander. A pure function of an {@link AIDecision}'s
+ * inputs, a {@link WorldView} and the {@link Navigation} fields; it only reads them, so
+ * any number of AIs can decide at once on different threads.
+ */
+public final class AIBrain {
+
+    private AIBrain() {}
+
+    public static void decide(WorldView world, Navigation navigation, AIDecision d) {
+        d.clearResult();
+        if (world.getPlayer() == -1) return; // Nobody to play against; stand still
+        int self = d.index;
+
+        if (d.hasBomb) {
+            // STATE: ATTACKING - Find the nearest target and move towards it.
+            int target = world.findNearest(self);
+            if (target == -1) {
+                d.keep = true;
+                return;
+            }
+            double dx = world.getCenterX(target) - world.getCenterX(self);
+            double dy = world.getCenterY(target) - world.getCenterY(self);
+            double distance = Math.sqrt(dx * dx + dy * dy);
+            // Close in directly once near, otherwise follow the path around walls
+            if (distance <= 2 * d.passRange || !followStep(world, navigation, d, true)) {
+                moveAlong(d, dx, dy, distance);
+            }
+            if (distance <= d.passRange && d.passReady) {
+                d.passTarget = target;
+            }
+
+        } else {
+            // AI does NOT have the bomb. Decide whether to evade or wander.
+            int bombHolder = world.getBombHolder();
+
+            if (bombHolder != -1) {
+                // STATE: EVADING - Someone has the bomb, run away!
+                if (navigation.isReady()) {
+                    followStep(world, navigation, d, false); // Stays put if there is nowhere safer to go
+                } else {
+                    double dx = world.getCenterX(self) - world.getCenterX(bombHolder);
+                    double dy = world.getCenterY(self) - world.getCenterY(bombHolder);
+                    moveAlong(d, dx, dy, Math.sqrt(dx * dx + dy * dy));
+                }
+            } else if (d.wanderDue) {
+                // STATE: WANDERING - No one has the bomb (it's between rounds). Move around.
+                d.newWander = true;
+            } else {
+                d.velocityX = d.wanderX * d.speed;
+                d.velocityY = d.wanderY * d.speed;
+            }
+        }
+    }
+
+    // Heads for the next cell of the chase or flee field. Returns false if there is no field yet
+    // or no better cell to go to.
+    private static boolean followStep(WorldView world, Navigation navigation, AIDecision d, boolean chasing) {
+        if (!navigation.isReady()) return false;
+        double x = world.getCenterX(d.index);
+        double y = world.getCenterY(d.index);
+        int step = chasing ? navigation.chaseStep(x, y) : navigation.fleeStep(x, y);
+        if (step == -1) return false;
+
+        NavigationGrid grid = navigation.getGrid();
+        int cell = grid.cellAt(x, y);
+        // A step that is not a neighbour goes through a portal: walk into the portal here
+        int aim = grid.isAdjacent(cell, step) ? step : cell;
+        double dx = grid.centerX(aim) - x;
+        double dy = grid.centerY(aim) - y;
+        moveAlong(d, dx, dy, Math.sqrt(dx * dx + dy * dy));
+        return true;
+    }
+
+    // Full speed along (dx, dy); standing still if there is no direction to move in.
+    private static void moveAlong(AIDecision d, double dx, double dy, double length) {
+        if (length == 0) {
+            d.velocityX = 0;
+            d.velocityY = 0;
+        } else {
+            d.velocityX = dx / length * d.speed;
+            d.velocityY = dy / length * d.speed;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+// File: com/demo/game/ai/AIDecision.java
+package com.demo.game.ai;
+
+/**
+ * One AI's inputs and result for a think. The world fills the inputs on its own thread,
+ * {@link AIBrain} computes the result from them and the frame's read-only world data (possibly
+ * on a worker thread), and the world applies it back on its own thread.
+ */
+public final class AIDecision {
+
+    // --- Inputs ---
+    public int index;            // The AI's index in the WorldView
+    public boolean hasBomb;
+    public double speed;
+    public double passRange;     // How close a character must be to take a pass
+    public boolean passReady;    // Pass cooldown has elapsed
+    public boolean wanderDue;    // Time to pick a new wander direction
+    public double wanderX, wanderY;
+
+    // --- Result ---
+    public boolean keep;         // Carry on with the current velocity
+    public double velocityX, velocityY;
+    public boolean newWander;    // Pick a new wander direction and move along it
+    public int passTarget;       // WorldView index to pass the bomb to, or -1
+
+    void clearResult() {
+        keep = false;
+        velocityX = 0;
+        velocityY = 0;
+        newWander = false;
+        passTarget = -1;
+    }
+}
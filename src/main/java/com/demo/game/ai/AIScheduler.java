@@ -0,0 +1,215 @@
+// File: com/demo/game/ai/AIScheduler.java
+package com.demo.game.ai;
+
+import com.demo.game.diagnostics.TraceRecorder;
+
+import java.util.Arrays;
+
+/**
+ * Spreads AI decisions (chase, evade or wander) across frames instead of re-deciding for
+ * every AI every frame. Between decisions an AI keeps steering with the velocity it last chose.
+ * <p>
+ * Each frame the scheduler walks the AIs round-robin, starting where the previous frame ran
+ * out, and picks the ones that are due, up to a fixed number of decisions per frame; whoever
+ * was skipped is first in line next frame. The number comes from the time budget once, at a
+ * nominal cost per decision, rather than from measured time, so which AIs think on a frame
+ * never depends on how fast the machine is. How often an AI is due depends on its distance to
+ * the bomb holder, in multiples of the pass range: close ones react every frame, distant ones
+ * every few frames. An AI holding the bomb thinks every frame regardless of the budget, since
+ * it is the one that has to pass.
+ * <p>
+ * The batch thinks in {@link AIThinkPhase}, across cores when it is large, and the results
+ * are applied in batch order on the world's thread, so a frame plays out the same with or
+ * without the worker threads, and a match with the same seed and inputs plays out the same
+ * on any machine.
+ * <p>
+ * A scheduler belongs to one match; the game's comes from {@link #fromSystemProperties()},
+ * headless matches use {@link #everyFrame()}.
+ * <pre>
+ *   -Dai.budgetMicros=1000     time per frame for AI decisions, at 2us each (0 for no limit)
+ *   -Dai.lod=false             every AI thinks every frame (the budget still applies)
+ *   -Dai.farEvery=8            frames between decisions for AIs far from the bomb
+ * </pre>
+ */
+public final class AIScheduler {
+
+    private static final long NOMINAL_NANOS_PER_THINK = 2_000; // Turns the budget into decisions per frame
+    private static final int NEAR_RANGES = 3; // Distance bands around the bomb holder, in pass ranges
+    private static final int MID_RANGES = 6;
+
+    private final int thinksPerFrame; // 0 for no limit
+    private final boolean lod;
+    private final int farEvery;
+    private final int midEvery;
+    private final boolean parallel;
+
+    private long[] lastThink = new long[16]; // Frame of each character's last decision, by world index
+    private int known = 0;                   // Characters lastThink has been set up for
+    private int cursor = 0;
+    private long frame = 0;
+    private double nanosPerThink = NOMINAL_NANOS_PER_THINK; // Running average of the think phase per AI, for reporting only
+
+    // --- Batch (reused every frame) ---
+    private AIDecision[] decisions = new AIDecision[16];
+    private int[] selected = new int[16];
+
+    // --- Stats (last frame) ---
+    private int aiCount = 0;
+    private int thoughtLastFrame = 0;
+    private int deferredLastFrame = 0;
+
+    /**
+     * @param budgetNanos time per frame for decisions, 0 for no limit; fixed as a number of decisions here
+     * @param lod         whether AIs far from the bomb think less often
+     * @param farEvery    frames between decisions for AIs far from the bomb
+     * @param parallel    whether large batches think across cores
+     */
+    public AIScheduler(long budgetNanos, boolean lod, int farEvery, boolean parallel) {
+        this.thinksPerFrame = (budgetNanos <= 0) ? 0 : (int) Math.max(1, Math.min(Integer.MAX_VALUE, budgetNanos / NOMINAL_NANOS_PER_THINK));
+        this.lod = lod;
+        this.farEvery = Math.max(1, farEvery);
+        this.midEvery = Math.max(1, this.farEvery / 2);
+        this.parallel = parallel;
+    }
+
+    /** The game's scheduler, configured by the system properties above. */
+    public static AIScheduler fromSystemProperties() {
+        return new AIScheduler(Math.max(0, Integer.getInteger("ai.budgetMicros", 1000)) * 1_000L,
+                Boolean.parseBoolean(System.getProperty("ai.lod", "true")),
+                Integer.getInteger("ai.farEvery", 8),
+                AIThinkPhase.PARALLEL);
+    }
+
+    /** Every AI thinks every frame, on the calling thread: the reference rules, for headless matches. */
+    public static AIScheduler everyFrame() {
+        return new AIScheduler(0, false, 1, false);
+    }
+
+    /** Runs this frame's decisions for the AIs of {@code world}. Call once per frame. */
+    public void runFrame(AIAgents world, Navigation navigation) {
+        frame++;
+        long traceStart = TraceRecorder.begin();
+        int count = world.size();
+        track(count);
+        thoughtLastFrame = 0;
+        deferredLastFrame = 0;
+        aiCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (world.isAI(i) && world.isActive(i)) aiCount++;
+        }
+        if (aiCount == 0) return;
+
+        navigation.update(world);
+        int holder = world.getBombHolder();
+
+        // Select: the holder outside the budget, then whoever is due, as many as the budget fits
+        int batch = 0;
+        if (holder != -1 && world.isAI(holder)) {
+            batch = select(holder, world, batch);
+        }
+        int limit = (thinksPerFrame == 0) ? Integer.MAX_VALUE : batch + Math.min(aiCount, thinksPerFrame);
+        if (cursor >= count) cursor = 0;
+        int start = cursor;
+        boolean outOfBudget = false;
+        for (int visited = 0; visited < count; visited++) {
+            int i = (start + visited) % count;
+            if (!world.isAI(i) || !world.isActive(i)) continue;
+            if (lastThink[i] == frame || frame - lastThink[i] < interval(i, world, holder)) continue;
+            if (!outOfBudget && batch >= limit) {
+                outOfBudget = true;
+                cursor = i; // Next frame starts with the first AI that missed out
+            }
+            if (outOfBudget) {
+                deferredLastFrame++;
+            } else {
+                batch = select(i, world, batch);
+            }
+        }
+
+        if (batch == 0) {
+            TraceRecorder.end("AIScheduler.runFrame", "client.ai", traceStart);
+            return;
+        }
+
+        // Think (read-only, maybe parallel), then apply in selection order on this thread
+        long thinkStart = System.nanoTime();
+        AIThinkPhase.run(world, navigation, decisions, batch, parallel);
+        long thinkNanos = System.nanoTime() - thinkStart;
+        nanosPerThink += (thinkNanos / (double) batch - nanosPerThink) * 0.1;
+        TraceRecorder.span("AIScheduler.think", "client.ai", thinkStart, thinkStart + thinkNanos);
+
+        long applyStart = TraceRecorder.begin();
+        for (int b = 0; b < batch; b++) {
+            world.apply(selected[b], decisions[b]);
+        }
+        TraceRecorder.end("AIScheduler.apply", "client.ai", applyStart);
+        thoughtLastFrame = batch;
+        TraceRecorder.end("AIScheduler.runFrame", "client.ai", traceStart);
+    }
+
+    // Characters that joined since the last frame are due immediately
+    private void track(int count) {
+        if (count > lastThink.length) {
+            lastThink = Arrays.copyOf(lastThink, Math.max(count, lastThink.length * 2));
+        }
+        for (int i = known; i < count; i++) {
+            lastThink[i] = frame - farEvery;
+        }
+        known = Math.max(known, count);
+    }
+
+    // Adds AI i to the batch with its inputs filled in; returns the new batch size.
+    private int select(int i, AIAgents world, int batch) {
+        if (batch == decisions.length) {
+            decisions = Arrays.copyOf(decisions, batch * 2);
+            selected = Arrays.copyOf(selected, batch * 2);
+        }
+        if (decisions[batch] == null) decisions[batch] = new AIDecision();
+        world.prepare(i, decisions[batch]);
+        selected[batch] = i;
+        lastThink[i] = frame;
+        return batch + 1;
+    }
+
+    // Frames between decisions for this AI
+    private int interval(int self, AIAgents world, int holder) {
+        if (!lod || holder == -1 || self == holder) return 1;
+        double dx = world.getCenterX(self) - world.getCenterX(holder);
+        double dy = world.getCenterY(self) - world.getCenterY(holder);
+        double distSq = dx * dx + dy * dy;
+        double range = world.getPassRange();
+        if (distSq <= sq(NEAR_RANGES * range)) return 1;
+        return (distSq <= sq(MID_RANGES * range)) ? midEvery : farEvery;
+    }
+
+    private static double sq(double value) {
+        return value * value;
+    }
+
+    // --- Queries ---
+
+    /** AIs still in the round last frame. */
+    public int getAICount() {
+        return aiCount;
+    }
+
+    /** AIs that made a decision last frame. */
+    public int getThoughtLastFrame() {
+        return thoughtLastFrame;
+    }
+
+    /** AIs that were due last frame but did not fit in the budget. */
+    public int getDeferredLastFrame() {
+        return deferredLastFrame;
+    }
+
+    /** Decisions a frame makes at most besides the holder's, or 0 for no limit. */
+    public int getThinksPerFrame() {
+        return thinksPerFrame;
+    }
+
+    /** Recent wall-clock cost of one decision, for diagnostics; it does not affect scheduling. */
+    public double getNanosPerThink() {
+        return nanosPerThink;
+    }
+}
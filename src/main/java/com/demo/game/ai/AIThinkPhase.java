@@ -0,0 +1,69 @@
+// File: com/demo/game/ai/AIThinkPhase.java
+package com.demo.game.ai;
+
+import com.demo.game.diagnostics.TraceRecorder;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs {@link AIBrain#decide} for a batch of AIs, on the common fork-join pool when the batch
+ * is large enough to be worth it. Each decision only reads the world and writes its own
+ * {@link AIDecision}, so the results are the same as running the batch in order on one thread;
+ * everything with side effects happens afterwards, in order, in the apply phase.
+ * <pre>
+ *   -Dai.parallel=false           always decide on the game thread
+ *   -Dai.parallelThreshold=64     smallest batch that is split across cores
+ * </pre>
+ */
+public final class AIThinkPhase {
+
+    public static final boolean PARALLEL = Boolean.parseBoolean(System.getProperty("ai.parallel", "true"));
+    private static final int THRESHOLD = Math.max(1, Integer.getInteger("ai.parallelThreshold", 64));
+    private static final int CHUNK = 16; // AIs per fork-join leaf
+
+    private AIThinkPhase() {}
+
+    /** Decides for {@code decisions[0..count)}. The world and navigation must not change until this returns. */
+    public static void run(WorldView world, Navigation navigation, AIDecision[] decisions, int count, boolean parallel) {
+        if (parallel && count >= THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            ForkJoinPool.commonPool().invoke(new Slice(world, navigation, decisions, 0, count));
+        } else {
+            decideRange(world, navigation, decisions, 0, count);
+        }
+    }
+
+    private static void decideRange(WorldView world, Navigation navigation, AIDecision[] decisions, int from, int to) {
+        long traceStart = TraceRecorder.begin();
+        for (int i = from; i < to; i++) {
+            AIBrain.decide(world, navigation, decisions[i]);
+        }
+        TraceRecorder.end("AIThinkPhase.decide", "client.ai", traceStart);
+    }
+
+    private static final class Slice extends RecursiveAction {
+        private final WorldView world;
+        private final Navigation navigation;
+        private final AIDecision[] decisions;
+        private final int from, to;
+
+        Slice(WorldView world, Navigation navigation, AIDecision[] decisions, int from, int to) {
+            this.world = world;
+            this.navigation = navigation;
+            this.decisions = decisions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK) {
+                decideRange(world, navigation, decisions, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Slice(world, navigation, decisions, from, mid),
+                    new Slice(world, navigation, decisions, mid, to));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+// File: com/demo/game/ai/FleeFieldCache.java
+package com.demo.game.ai;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Flee fields for one grid by the bomb holder's cell. A flee field depends on nothing else, so
+ * it is computed the first time any {@link Navigation} over the grid needs it and reused from
+ * then on, by every match on any thread: fields are only read once published. Meant for tools
+ * that play many matches on one arena; it keeps up to one field (an int per cell) for every
+ * cell a holder has stood in.
+ */
+public final class FleeFieldCache {
+
+    private final NavigationGrid grid;
+    private final AtomicReferenceArray<FlowField> fields;
+
+    public FleeFieldCache(NavigationGrid grid) {
+        this.grid = grid;
+        this.fields = new AtomicReferenceArray<>(grid.getCellCount());
+    }
+
+    public NavigationGrid getGrid() {
+        return grid;
+    }
+
+    /** The flee field for a holder in {@code cell}. Threads that miss at once may both compute it; one copy is kept. */
+    FlowField get(int cell) {
+        FlowField field = fields.get(cell);
+        if (field == null) {
+            field = Navigation.computeFlee(grid, new FlowField(grid), new FlowField(grid), cell);
+            if (!fields.compareAndSet(cell, null, field)) {
+                field = fields.get(cell);
+            }
+        }
+        return field;
+    }
+}
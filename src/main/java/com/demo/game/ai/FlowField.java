@@ -0,0 +1,128 @@
+// File: com/demo/game/ai/FlowField.java
+package com.demo.game.ai;
+
+import java.util.Arrays;
+
+/**
+ * Path costs over a {@link NavigationGrid} from a set of seed cells, computed once and then
+ * shared by every AI: the next step from any cell is the neighbour with the lowest cost, an
+ * O(1) lookup no matter how many AIs ask.
+ * <p>
+ * Seeds may start at any cost, negative included. Seeding every cell with minus a multiple of
+ * its distance from a threat and relaxing again gives a field that leads away from the threat
+ * along open paths, rather than into the nearest dead end.
+ */
+public final class FlowField {
+
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final NavigationGrid grid;
+    private final int[] cost;
+    private long[] heap = new long[64]; // (cost << 32 | cell), lazily deleted
+    private int heapSize = 0;
+
+    public FlowField(NavigationGrid grid) {
+        this.grid = grid;
+        this.cost = new int[grid.getCellCount()];
+        Arrays.fill(cost, UNREACHABLE);
+    }
+
+    // --- Building ---
+
+    /** Starts a new computation with every cell unreachable. */
+    public void clear() {
+        Arrays.fill(cost, UNREACHABLE);
+        heapSize = 0;
+    }
+
+    /** Seeds a cell; blocked cells are ignored. */
+    public void seed(int cell, int initialCost) {
+        if (grid.isBlocked(cell) || initialCost >= cost[cell]) return;
+        cost[cell] = initialCost;
+        push(initialCost, cell);
+    }
+
+    /** Relaxes outward from the seeds (Dijkstra). */
+    public void compute() {
+        while (heapSize > 0) {
+            long top = pop();
+            int cell = (int) top;
+            int c = (int) (top >> 32);
+            if (c != cost[cell]) continue; // Stale entry
+
+            for (int dir = 0; dir < NavigationGrid.directions(); dir++) {
+                int next = grid.neighbour(cell, dir);
+                if (next != -1) relax(next, c + NavigationGrid.stepCost(dir));
+            }
+            // Costs flow backwards along portals: to the cells whose portal comes out here
+            for (int source = grid.firstPortalSource(cell); source != -1; source = grid.nextPortalSource(source)) {
+                relax(source, c + NavigationGrid.PORTAL);
+            }
+        }
+    }
+
+    private void relax(int cell, int newCost) {
+        if (grid.isBlocked(cell) || newCost >= cost[cell]) return;
+        cost[cell] = newCost;
+        push(newCost, cell);
+    }
+
+    // --- Queries ---
+
+    public int getCost(int cell) {
+        return cost[cell];
+    }
+
+    /**
+     * The cell to move to from {@code cell}: the cheapest neighbour (or portal destination),
+     * or -1 if no neighbour is cheaper, i.e. this is as good as it gets. From a blocked cell it
+     * is the cheapest open neighbour, to get back into the open.
+     */
+    public int next(int cell) {
+        int best = -1;
+        int bestCost = grid.isBlocked(cell) ? UNREACHABLE : cost[cell];
+        for (int dir = 0; dir < NavigationGrid.directions(); dir++) {
+            int n = grid.neighbour(cell, dir);
+            if (n != -1 && cost[n] < bestCost) {
+                bestCost = cost[n];
+                best = n;
+            }
+        }
+        int portal = grid.getPortalTarget(cell);
+        if (portal != -1 && cost[portal] < bestCost) {
+            best = portal;
+        }
+        return best;
+    }
+
+    // --- Heap ---
+
+    private void push(int c, int cell) {
+        if (heapSize == heap.length) heap = Arrays.copyOf(heap, heap.length * 2);
+        long entry = ((long) c << 32) | (cell & 0xFFFFFFFFL);
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= entry) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = entry;
+    }
+
+    private long pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) child++;
+            if (heap[child] >= last) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+}
@@ -0,0 +1,161 @@
+// File: com/demo/game/ai/Navigation.java
+package com.demo.game.ai;
+
+import java.util.Arrays;
+
+/**
+ * The flow fields the AIs of one match steer by, shared by all of them. The arena brings its
+ * {@link NavigationGrid}, rasterized from the walls when the level was compiled; on top of it:
+ * <ul>
+ *   <li>danger: path distance from the bomb holder,</li>
+ *   <li>flee: derived from danger, leads away from the holder without running into corners,</li>
+ *   <li>chase: path distance to the nearest character the holder can pass to.</li>
+ * </ul>
+ * Fields are only recomputed when their inputs change cell: danger and flee when the holder
+ * does, chase when one of the targets does (and only if an AI is holding the bomb to use it).
+ * Asking for a step is then O(1) per AI. Many matches on one arena can also share flee fields
+ * through a {@link FleeFieldCache}.
+ */
+public final class Navigation {
+
+    private static final int FLEE_FACTOR_PERCENT = 120; // How much further than the threat an AI is willing to detour
+
+    private NavigationGrid grid;
+    private FleeFieldCache fleeCache; // Null: flee fields are computed here
+    private FlowField danger;
+    private FlowField ownFlee;
+    private FlowField flee;          // ownFlee, or the cache's field for the holder's cell
+    private FlowField chase;
+    private int dangerCell = -1;
+    private int[] chaseCells = new int[16];
+    private int[] scratch = new int[16];
+    private int chaseCount = -1;
+    private boolean chaseDirty = false;
+
+    private Navigation() {}
+
+    /** Navigation over an arena's grid. The grid is only read, so matches on the same arena can share it. */
+    public static Navigation forGrid(NavigationGrid grid) {
+        Navigation navigation = new Navigation();
+        navigation.useGrid(grid);
+        return navigation;
+    }
+
+    /** The same, taking flee fields from a cache shared with other matches on the grid. */
+    public static Navigation forGrid(NavigationGrid grid, FleeFieldCache fleeCache) {
+        if (fleeCache.getGrid() != grid) {
+            throw new IllegalArgumentException("The cache belongs to another grid");
+        }
+        Navigation navigation = new Navigation();
+        navigation.fleeCache = fleeCache;
+        navigation.useGrid(grid);
+        return navigation;
+    }
+
+    /** True once there is a grid to steer by. */
+    public boolean isReady() {
+        return grid != null;
+    }
+
+    public NavigationGrid getGrid() {
+        return grid;
+    }
+
+    // --- Per-frame Update ---
+
+    /**
+     * Brings the fields up to date with the world. Cheap when nothing changed cell. Call on
+     * the world's thread; afterwards the steering queries only read until the next update.
+     */
+    public void update(WorldView world) {
+        if (grid == null) return;
+
+        int holder = world.getBombHolder();
+        int holderCell = (holder == -1) ? -1 : cellOf(world, holder);
+        if (holderCell != dangerCell) {
+            dangerCell = holderCell;
+            computeDanger();
+        }
+
+        // Chase targets: everyone still in the round but the holder, as a sorted list of cells
+        int count = 0;
+        for (int i = 0; i < world.size(); i++) {
+            if (i == holder || !world.isActive(i)) continue;
+            if (count == scratch.length) scratch = Arrays.copyOf(scratch, count * 2);
+            scratch[count++] = cellOf(world, i);
+        }
+        Arrays.sort(scratch, 0, count);
+        if (count != chaseCount || !Arrays.equals(scratch, 0, count, chaseCells, 0, count)) {
+            int[] swap = chaseCells;
+            chaseCells = scratch;
+            scratch = swap;
+            chaseCount = count;
+            chaseDirty = true;
+        }
+        // Only an AI holding the bomb chases
+        if (chaseDirty && holder != -1 && holder != world.getPlayer()) {
+            computeChase();
+        }
+    }
+
+    private void useGrid(NavigationGrid grid) {
+        this.grid = grid;
+        danger = new FlowField(grid);
+        ownFlee = new FlowField(grid);
+        flee = ownFlee;
+        chase = new FlowField(grid);
+        dangerCell = -1;
+        chaseCount = -1;
+        computeDanger();
+    }
+
+    private void computeDanger() {
+        if (fleeCache != null && dangerCell != -1) {
+            flee = fleeCache.get(dangerCell);
+        } else {
+            flee = computeFlee(grid, danger, ownFlee, dangerCell);
+        }
+    }
+
+    /** Fills {@code flee} for a holder in {@code holderCell}, using {@code danger} as scratch; -1 leaves both empty. */
+    static FlowField computeFlee(NavigationGrid grid, FlowField danger, FlowField flee, int holderCell) {
+        danger.clear();
+        flee.clear();
+        if (holderCell == -1) return flee;
+        danger.seed(holderCell, 0);
+        danger.compute();
+        for (int cell = 0; cell < grid.getCellCount(); cell++) {
+            int distance = danger.getCost(cell);
+            if (distance != FlowField.UNREACHABLE) {
+                flee.seed(cell, -distance * FLEE_FACTOR_PERCENT / 100);
+            }
+        }
+        flee.compute();
+        return flee;
+    }
+
+    // --- Steering ---
+
+    /** The cell to head for when chasing from (x, y), or -1 if there is no better cell. */
+    public int chaseStep(double x, double y) {
+        return chase.next(grid.cellAt(x, y));
+    }
+
+    /** The cell to head for when fleeing the bomb holder from (x, y), or -1 to stay put. */
+    public int fleeStep(double x, double y) {
+        return flee.next(grid.cellAt(x, y));
+    }
+
+    private void computeChase() {
+        chase.clear();
+        for (int i = 0; i < chaseCount; i++) {
+            chase.seed(chaseCells[i], 0);
+        }
+        chase.compute();
+        chaseDirty = false;
+    }
+
+    private int cellOf(WorldView world, int index) {
+        return grid.cellAt(world.getCenterX(index), world.getCenterY(index));
+    }
+}
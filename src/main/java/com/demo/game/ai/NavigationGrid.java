@@ -0,0 +1,160 @@
+// File: com/demo/game/ai/NavigationGrid.java
+package com.demo.game.ai;
+
+import java.util.Arrays;
+
+/**
+ * The arena rasterized into square cells for path finding. A cell is blocked when a
+ * character's center cannot be there, i.e. its center lies within half a character of a wall.
+ * Portals add an extra edge from every cell they cover to the cell under their target.
+ * <p>
+ * Cells are numbered row by row. Moves go to the 8 neighbours, costing 10 straight and 14
+ * diagonally; a diagonal is only allowed when both cells beside it are open, so paths never
+ * clip a wall corner.
+ */
+public final class NavigationGrid {
+
+    public static final int STRAIGHT = 10;
+    public static final int DIAGONAL = 14;
+    public static final int PORTAL = 10;
+
+    private static final int[] DX = {1, -1, 0, 0, 1, 1, -1, -1};
+    private static final int[] DY = {0, 0, 1, -1, 1, -1, 1, -1};
+
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final boolean[] blocked;
+    private final int[] portalTarget; // Cell a portal here leads to, or -1
+    private final int[] portalSourceHead; // First cell whose portal leads here, or -1
+    private final int[] portalSourceNext; // Next cell whose portal leads to the same place, or -1
+
+    public NavigationGrid(double width, double height, double cellSize) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.blocked = new boolean[columns * rows];
+        this.portalTarget = new int[columns * rows];
+        this.portalSourceHead = new int[columns * rows];
+        this.portalSourceNext = new int[columns * rows];
+        Arrays.fill(portalTarget, -1);
+        Arrays.fill(portalSourceHead, -1);
+        Arrays.fill(portalSourceNext, -1);
+    }
+
+    /** Blocks every cell whose center lies inside the rectangle grown by {@code margin} on each side. */
+    public void blockRect(double x, double y, double width, double height, double margin) {
+        int fromColumn = Math.max(0, (int) Math.ceil((x - margin) / cellSize - 0.5));
+        int toColumn = Math.min(columns - 1, (int) Math.floor((x + width + margin) / cellSize - 0.5));
+        int fromRow = Math.max(0, (int) Math.ceil((y - margin) / cellSize - 0.5));
+        int toRow = Math.min(rows - 1, (int) Math.floor((y + height + margin) / cellSize - 0.5));
+        for (int r = fromRow; r <= toRow; r++) {
+            for (int c = fromColumn; c <= toColumn; c++) {
+                blocked[r * columns + c] = true;
+            }
+        }
+    }
+
+    /** Blocks one cell, for grids restored from a precompiled level. */
+    public void block(int cell) {
+        blocked[cell] = true;
+    }
+
+    /** Links every cell the source rectangle covers to the cell under (targetX, targetY). */
+    public void addPortal(double x, double y, double width, double height, double targetX, double targetY) {
+        int target = cellAt(targetX, targetY);
+        int fromColumn = column(x), toColumn = column(x + width - 1e-9);
+        int fromRow = row(y), toRow = row(y + height - 1e-9);
+        for (int r = fromRow; r <= toRow; r++) {
+            for (int c = fromColumn; c <= toColumn; c++) {
+                int cell = r * columns + c;
+                if (cell == target || portalTarget[cell] != -1) continue;
+                portalTarget[cell] = target;
+                portalSourceNext[cell] = portalSourceHead[target];
+                portalSourceHead[target] = cell;
+            }
+        }
+    }
+
+    // --- Cells ---
+
+    public int getCellCount() {
+        return blocked.length;
+    }
+
+    /** The cell containing (x, y); points outside the arena map to the nearest edge cell. */
+    public int cellAt(double x, double y) {
+        return row(y) * columns + column(x);
+    }
+
+    public boolean isBlocked(int cell) {
+        return blocked[cell];
+    }
+
+    public int getPortalTarget(int cell) {
+        return portalTarget[cell];
+    }
+
+    /** The first cell with a portal leading to {@code cell}, or -1; walk on with {@link #nextPortalSource}. */
+    public int firstPortalSource(int cell) {
+        return portalSourceHead[cell];
+    }
+
+    public int nextPortalSource(int source) {
+        return portalSourceNext[source];
+    }
+
+    public double centerX(int cell) {
+        return (cell % columns + 0.5) * cellSize;
+    }
+
+    public double centerY(int cell) {
+        return (cell / columns + 0.5) * cellSize;
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    /** True if {@code other} is one of the 8 cells around {@code cell}. */
+    public boolean isAdjacent(int cell, int other) {
+        int dc = Math.abs(cell % columns - other % columns);
+        int dr = Math.abs(cell / columns - other / columns);
+        return dc <= 1 && dr <= 1 && (dc | dr) != 0;
+    }
+
+    // --- Neighbours ---
+
+    /** Number of walking directions; {@link #neighbour} takes 0 until this. */
+    public static int directions() {
+        return DX.length;
+    }
+
+    /**
+     * The cell one step from {@code cell} in direction {@code dir}, or -1 if the step leaves the
+     * arena, enters a blocked cell or cuts a corner. Stepping out of a blocked cell is allowed,
+     * so a character pushed into one finds its way back.
+     */
+    public int neighbour(int cell, int dir) {
+        int c = cell % columns + DX[dir];
+        int r = cell / columns + DY[dir];
+        if (c < 0 || c >= columns || r < 0 || r >= rows) return -1;
+        int next = r * columns + c;
+        if (blocked[next]) return -1;
+        if (dir >= 4 && (blocked[cell / columns * columns + c] || blocked[r * columns + cell % columns])) return -1;
+        return next;
+    }
+
+    /** Cost of the step {@link #neighbour(int, int)} takes in direction {@code dir}. */
+    public static int stepCost(int dir) {
+        return (dir < 4) ? STRAIGHT : DIAGONAL;
+    }
+
+    private int column(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor(x / cellSize)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / cellSize)));
+    }
+}
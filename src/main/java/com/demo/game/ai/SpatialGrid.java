@@ -0,0 +1,113 @@
+// File: com/demo/game/ai/SpatialGrid.java
+package com.demo.game.ai;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid over the arena that buckets points by index, for nearest-neighbour queries
+ * that only look at the cells around the query point. Buckets are intrusive linked lists in
+ * int arrays, so rebuilding and querying allocate nothing once the arrays have grown.
+ * <p>
+ * Points outside the arena are kept in the edge cells. The search stays exact for them,
+ * because a cell's real extent only ever grows outward.
+ */
+public final class SpatialGrid {
+
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final int[] cellHead;
+    private int[] next = new int[16];
+    private double[] xs = new double[16];
+    private double[] ys = new double[16];
+    private int size = 0;
+
+    public SpatialGrid(double width, double height, double cellSize) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cellHead = new int[columns * rows];
+        Arrays.fill(cellHead, -1);
+    }
+
+    public void clear() {
+        Arrays.fill(cellHead, -1);
+        size = 0;
+    }
+
+    /** Adds a point; it gets the next index, starting from 0 after {@link #clear()}. */
+    public int add(double x, double y) {
+        if (size == next.length) {
+            int capacity = size * 2;
+            next = Arrays.copyOf(next, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+        }
+        int index = size++;
+        xs[index] = x;
+        ys[index] = y;
+        int cell = row(y) * columns + column(x);
+        next[index] = cellHead[cell];
+        cellHead[cell] = index;
+        return index;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getX(int index) {
+        return xs[index];
+    }
+
+    public double getY(int index) {
+        return ys[index];
+    }
+
+    /**
+     * The index of the point closest to (x, y) other than {@code exclude}, or -1 if there is
+     * none. Ties go to the lowest index, the same one a linear scan in insertion order finds.
+     */
+    public int nearest(double x, double y, int exclude) {
+        int column = column(x);
+        int row = row(y);
+        int maxRing = Math.max(Math.max(column, columns - 1 - column), Math.max(row, rows - 1 - row));
+        int best = -1;
+        double bestDistSq = Double.MAX_VALUE;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int dr = -ring; dr <= ring; dr++) {
+                int r = row + dr;
+                if (r < 0 || r >= rows) continue;
+                // Whole rows at the top and bottom of the ring, only the two ends in between
+                int step = (dr == -ring || dr == ring) ? 1 : Math.max(1, 2 * ring);
+                for (int dc = -ring; dc <= ring; dc += step) {
+                    int c = column + dc;
+                    if (c < 0 || c >= columns) continue;
+                    for (int i = cellHead[r * columns + c]; i != -1; i = next[i]) {
+                        if (i == exclude) continue;
+                        double dx = xs[i] - x;
+                        double dy = ys[i] - y;
+                        double distSq = dx * dx + dy * dy;
+                        if (distSq < bestDistSq || (distSq == bestDistSq && i < best)) {
+                            bestDistSq = distSq;
+                            best = i;
+                        }
+                    }
+                }
+            }
+            // Every cell further out is at least ring * cellSize away
+            double reach = ring * cellSize;
+            if (best != -1 && bestDistSq <= reach * reach) break;
+        }
+        return best;
+    }
+
+    private int column(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor(x / cellSize)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / cellSize)));
+    }
+}
@@ -0,0 +1,30 @@
+// File: com/demo/game/ai/WorldView.java
+package com.demo.game.ai;
+
+/**
+ * What the AIs need to know about the world: every character's center, the player, who holds
+ * the bomb and who is nearest to whom. Characters are numbered from 0 to {@link #size()}.
+ * <p>
+ * Queries only read, so while the think phase runs they may be asked from several threads at
+ * once; the world must not change until it is over.
+ */
+public interface WorldView {
+
+    int size();
+
+    double getCenterX(int index);
+
+    double getCenterY(int index);
+
+    /** False for characters that are out of the round; they are nobody's target. */
+    boolean isActive(int index);
+
+    /** The index of the player, or -1 if there is none. */
+    int getPlayer();
+
+    /** The index of the character holding the bomb, or -1 if nobody does. */
+    int getBombHolder();
+
+    /** The index of the active character nearest to the given one (by center), or -1 if it is alone. */
+    int findNearest(int index);
+}
@@ -0,0 +1,258 @@
+// File: com/demo/game/balance/BalanceSweep.java
+package com.demo.game.balance;
+
+import com.demo.game.ai.FleeFieldCache;
+import com.demo.game.level.LevelLoader;
+import com.demo.game.sim.Arena;
+import com.demo.game.sim.MatchRules;
+import com.demo.game.sim.SimConfig;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Balancing tool for the single-player rules: plays thousands of seeded, headless matches of
+ * one level, a bot for the player against the game's AIs, for every combination of the values
+ * given below, on all cores and with nothing rendered. Prints one report line per combination
+ * with the player's win rate, how long rounds last and how often the bomb is passed.
+ * <pre>
+ *   --level 1                 level played; also sets the AI count (level + 2) as in single player
+ *   --ais 3                   AI count, if not the level's
+ *   --speeds 150,180,210      AI speeds, pixels per second
+ *   --ranges 40,50,60         pass ranges, pixels
+ *   --cooldowns 1,1.5,2       pass cooldowns, seconds
+ *   --timers 4,5,6            bomb timers, seconds
+ *   --matches 200             matches per combination
+ *   --lives 3                 the player's lives
+ *   --hz 60                   simulation steps per second of play
+ *   --reaction 0.2            seconds between the player bot's decisions
+ *   --max-round 60            seconds before a round that has not exploded ends the match as a stalemate
+ *   --threads N               worker threads (default: all cores)
+ *   --seed 1                  base seed
+ *   --csv sweep.csv           also write the results as CSV
+ * </pre>
+ * Match {@code m} is seeded the same at every combination, so differences between lines come
+ * from the rules rather than from luck. The line for the game's current values is marked with
+ * {@code *}, and the summary warns when matches there, or at most combinations, mostly end in
+ * stalemates, since their other numbers then say little.
+ */
+public class BalanceSweep {
+
+    private int level = 1;
+    private int ais = -1;
+    private double[] speeds = toArray(SimConfig.AI_SPEEDS);
+    private double[] ranges = {40, SimConfig.PASS_RANGE, 60};
+    private double[] cooldowns = {1, SimConfig.PASS_COOLDOWN_SECONDS, 2};
+    private double[] timers = {4, SimConfig.BOMB_TIMER_SECONDS, 6};
+    private int matches = 200;
+    private int lives = SimConfig.STARTING_LIVES;
+    private double hz = 60;
+    private double reactionSeconds = 0.2;
+    private double maxRoundSeconds = 60;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long seed = 1;
+    private String csvPath;
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        BalanceSweep sweep = new BalanceSweep();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--level":     sweep.level = Integer.parseInt(value); break;
+                case "--ais":       sweep.ais = Integer.parseInt(value); break;
+                case "--speeds":    sweep.speeds = parseValues(value); break;
+                case "--ranges":    sweep.ranges = parseValues(value); break;
+                case "--cooldowns": sweep.cooldowns = parseValues(value); break;
+                case "--timers":    sweep.timers = parseValues(value); break;
+                case "--matches":   sweep.matches = Integer.parseInt(value); break;
+                case "--lives":     sweep.lives = Integer.parseInt(value); break;
+                case "--hz":        sweep.hz = Double.parseDouble(value); break;
+                case "--reaction":  sweep.reactionSeconds = Double.parseDouble(value); break;
+                case "--max-round": sweep.maxRoundSeconds = Double.parseDouble(value); break;
+                case "--threads":   sweep.threads = Integer.parseInt(value); break;
+                case "--seed":      sweep.seed = Long.parseLong(value); break;
+                case "--csv":       sweep.csvPath = value; break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    return;
+            }
+        }
+        sweep.run();
+    }
+
+    private static double[] parseValues(String value) {
+        String[] parts = value.split(",");
+        double[] values = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Double.parseDouble(parts[i].trim());
+        }
+        return values;
+    }
+
+    private static double[] toArray(List<Double> list) {
+        double[] values = new double[list.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = list.get(i);
+        }
+        return values;
+    }
+
+    private void run() throws InterruptedException, IOException {
+        Arena arena = LevelLoader.load(LevelLoader.singlePlayerName(level)).toArena();
+        FleeFieldCache fleeFields = new FleeFieldCache(arena.getNavigationGrid()); // Flee fields only depend on the arena
+        int aiCount = (ais > 0) ? ais : level + 2;
+
+        List<PointStats> points = new ArrayList<>();
+        for (double speed : speeds) {
+            for (double range : ranges) {
+                for (double cooldown : cooldowns) {
+                    for (double timer : timers) {
+                        points.add(new PointStats(speed, range, cooldown, timer));
+                    }
+                }
+            }
+        }
+        int total = points.size() * matches;
+        System.out.printf("Level %d (%s), %d AIs: %d combinations x %d matches = %d matches on %d threads%n",
+                level, arena.getName(), aiCount, points.size(), matches, total, threads);
+
+        double dt = 1.0 / hz;
+        long maxRoundNanos = MatchRules.nanos(maxRoundSeconds);
+        int reactionSteps = (int) Math.round(reactionSeconds * hz);
+        AtomicInteger finished = new AtomicInteger();
+        int progressEvery = Math.max(1, total / 10);
+
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            // One task per match; the AIs think on the match's own thread, so the pool is the only fan-out
+            pool.submit(() -> IntStream.range(0, total).parallel().forEach(task -> {
+                PointStats point = points.get(task / matches);
+                int match = task % matches;
+                MatchRules rules = MatchRules.defaults()
+                        .withPassRange(point.passRange)
+                        .withPassCooldown(MatchRules.nanos(point.passCooldownSeconds))
+                        .withBombTimer(MatchRules.nanos(point.bombTimerSeconds));
+                new SoloMatch(arena, rules, aiCount, point.aiSpeed, fleeFields, seed * 1_000_003L + match)
+                        .play(lives, dt, maxRoundNanos, new PlayerBot(reactionSteps), point);
+                int done = finished.incrementAndGet();
+                if (done % progressEvery == 0) {
+                    System.out.printf("  %d%% (%d matches, %.1f s)%n", done * 100L / total, done,
+                            (System.nanoTime() - start) / 1_000_000_000.0);
+                }
+            })).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A match failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        report(points);
+        long simulated = 0;
+        for (PointStats point : points) {
+            simulated += point.simulatedNanos.sum();
+        }
+        System.out.printf("%d matches in %.1f s: %.0f s of play, %.0fx real time%n",
+                total, elapsedSeconds, simulated / 1_000_000_000.0, simulated / 1_000_000_000.0 / elapsedSeconds);
+        if (csvPath != null) {
+            writeCsv(points);
+            System.out.println("Wrote " + csvPath);
+        }
+    }
+
+    // --- Report ---
+
+    private void report(List<PointStats> points) {
+        System.out.printf("%n  %6s %6s %8s %6s | %6s %6s %6s | %8s %8s %8s | %7s %7s%n",
+                "speed", "range", "cooldown", "timer", "win", "loss", "stale",
+                "rounds", "p50", "p90", "passes", "player");
+        for (PointStats point : points) {
+            double matchCount = Math.max(1, point.matches());
+            double roundCount = Math.max(1, point.rounds.sum());
+            boolean current = isCurrent(point);
+            System.out.printf("%s %6.0f %6.0f %7.1fs %5.1fs | %5.1f%% %5.1f%% %5.1f%% | %8.2f %8s %8s | %7.2f %7.2f%n",
+                    current ? "*" : " ", point.aiSpeed, point.passRange, point.passCooldownSeconds, point.bombTimerSeconds,
+                    point.wins.sum() * 100 / matchCount, point.losses.sum() * 100 / matchCount,
+                    point.stalemates.sum() * 100 / matchCount,
+                    point.rounds.sum() / matchCount,
+                    formatSeconds(roundSeconds(point, 50)), formatSeconds(roundSeconds(point, 90)),
+                    point.passes.sum() / roundCount, point.playerPasses.sum() / matchCount);
+        }
+        System.out.println("  rounds: per match; p50/p90: length of rounds that exploded (- if none did); passes: per round; player: passes by the player per match");
+        summarizeStalemates(points);
+    }
+
+    // Stalemated matches never finish a round, so their lines' other numbers say little; call them out
+    private void summarizeStalemates(List<PointStats> points) {
+        int mostlyStale = 0;
+        for (PointStats point : points) {
+            if (stalemateShare(point) > 0.5) mostlyStale++;
+        }
+        System.out.println();
+        if (mostlyStale > 0) {
+            System.out.printf("WARNING: %d of %d combinations end in a stalemate in over half their matches: the bomb is passed"
+                    + " back and forth within range and never explodes. Their win rates and round lengths are not meaningful.%n",
+                    mostlyStale, points.size());
+        }
+        for (PointStats point : points) {
+            if (!isCurrent(point)) continue;
+            double share = stalemateShare(point);
+            if (share > 0.5) {
+                System.out.printf("WARNING: at the game's current values (*), %.0f%% of matches are stalemates"
+                        + " (%.1f passes per round); the shipped balance mostly plays out as endless passing, not finished rounds.%n",
+                        share * 100, point.passes.sum() / (double) Math.max(1, point.rounds.sum()));
+            } else {
+                System.out.printf("At the game's current values (*): %.1f%% wins, %.1f%% stalemates.%n",
+                        point.wins.sum() * 100.0 / Math.max(1, point.matches()), share * 100);
+            }
+        }
+    }
+
+    private static double stalemateShare(PointStats point) {
+        return point.stalemates.sum() / (double) Math.max(1, point.matches());
+    }
+
+    /** Seconds at the given percentile of exploded rounds, or NaN if none exploded. Both outputs use this. */
+    private static double roundSeconds(PointStats point, double percentile) {
+        if (point.roundLength.getCount() == 0) return Double.NaN;
+        return point.roundLength.getPercentileNanos(percentile) / 1_000_000_000.0;
+    }
+
+    private static String formatSeconds(double seconds) {
+        return Double.isNaN(seconds) ? "-" : String.format("%.2fs", seconds);
+    }
+
+    private boolean isCurrent(PointStats point) {
+        return SimConfig.AI_SPEEDS.get(Math.min(level - 1, SimConfig.AI_SPEEDS.size() - 1)) == point.aiSpeed
+                && point.passRange == SimConfig.PASS_RANGE
+                && point.passCooldownSeconds == SimConfig.PASS_COOLDOWN_SECONDS
+                && point.bombTimerSeconds == SimConfig.BOMB_TIMER_SECONDS;
+    }
+
+    private void writeCsv(List<PointStats> points) throws IOException {
+        try (PrintWriter out = new PrintWriter(new FileWriter(csvPath))) {
+            out.println("ai_speed,pass_range,pass_cooldown_s,bomb_timer_s,matches,wins,losses,stalemates,"
+                    + "rounds,round_p50_s,round_p90_s,passes,player_passes");
+            for (PointStats point : points) {
+                out.printf(Locale.ROOT, "%s,%s,%s,%s,%d,%d,%d,%d,%d,%s,%s,%d,%d%n",
+                        point.aiSpeed, point.passRange, point.passCooldownSeconds, point.bombTimerSeconds,
+                        point.matches(), point.wins.sum(), point.losses.sum(), point.stalemates.sum(),
+                        point.rounds.sum(), csvSeconds(roundSeconds(point, 50)), csvSeconds(roundSeconds(point, 90)),
+                        point.passes.sum(), point.playerPasses.sum());
+            }
+        }
+    }
+
+    private static String csvSeconds(double seconds) {
+        return Double.isNaN(seconds) ? "" : String.format(Locale.ROOT, "%.3f", seconds);
+    }
+}
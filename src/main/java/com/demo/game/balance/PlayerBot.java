@@ -0,0 +1,48 @@
+// File: com/demo/game/balance/PlayerBot.java
+package com.demo.game.balance;
+
+import com.demo.game.sim.Simulation;
+
+/**
+ * Stands in for the person at the keyboard in headless matches. Like the key bindings it sets
+ * each axis to full player speed or stops it, so diagonals are faster than straight lines, and
+ * it only looks again every few steps, like a reaction time. Holding the bomb it runs at the
+ * nearest character and keeps pressing pass, which only works in range and off cooldown; the
+ * rest of the time it runs straight away from whoever holds it. It does not path around walls.
+ */
+final class PlayerBot {
+
+    private static final double DEAD_ZONE = 4.0; // Pixels; closer than this on an axis, that key is let go
+
+    private final int reactionSteps;
+    private int wait = 0;
+
+    PlayerBot(int reactionSteps) {
+        this.reactionSteps = Math.max(1, reactionSteps);
+    }
+
+    /** Presses and releases keys for {@code player}. Call once before every step. */
+    void steer(Simulation simulation, int player) {
+        int holder = simulation.getBombHolder();
+        if (holder == player) simulation.tryPass(player);
+        if (--wait > 0) return;
+        wait = reactionSteps;
+
+        holder = simulation.getBombHolder();
+        int other = (holder == player) ? simulation.findNearest(player) : holder;
+        if (holder == -1 || other == -1) {
+            simulation.setVelocity(player, 0, 0);
+            return;
+        }
+        double toward = (holder == player) ? 1 : -1;
+        double speed = simulation.getRules().playerSpeed;
+        double dx = simulation.getCenterX(other) - simulation.getCenterX(player);
+        double dy = simulation.getCenterY(other) - simulation.getCenterY(player);
+        simulation.setVelocity(player, toward * key(dx) * speed, toward * key(dy) * speed);
+    }
+
+    private static int key(double delta) {
+        if (Math.abs(delta) < DEAD_ZONE) return 0;
+        return (delta > 0) ? 1 : -1;
+    }
+}
@@ -0,0 +1,34 @@
+// File: com/demo/game/balance/PointStats.java
+package com.demo.game.balance;
+
+import com.demo.game.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Counters shared by every match played at one point of a sweep's grid. */
+class PointStats {
+    final double aiSpeed;
+    final double passRange;
+    final double passCooldownSeconds;
+    final double bombTimerSeconds;
+
+    final LatencyHistogram roundLength = new LatencyHistogram(); // Simulation time, bomb handed out -> explosion; cut-off rounds are left out
+    final LongAdder wins = new LongAdder();
+    final LongAdder losses = new LongAdder();
+    final LongAdder stalemates = new LongAdder(); // A round ran past the cut-off
+    final LongAdder rounds = new LongAdder();
+    final LongAdder passes = new LongAdder();
+    final LongAdder playerPasses = new LongAdder();
+    final LongAdder simulatedNanos = new LongAdder();
+
+    PointStats(double aiSpeed, double passRange, double passCooldownSeconds, double bombTimerSeconds) {
+        this.aiSpeed = aiSpeed;
+        this.passRange = passRange;
+        this.passCooldownSeconds = passCooldownSeconds;
+        this.bombTimerSeconds = bombTimerSeconds;
+    }
+
+    long matches() {
+        return wins.sum() + losses.sum() + stalemates.sum();
+    }
+}
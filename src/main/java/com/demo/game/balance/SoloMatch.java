@@ -0,0 +1,121 @@
+// File: com/demo/game/balance/SoloMatch.java
+package com.demo.game.balance;
+
+import com.demo.game.ai.FleeFieldCache;
+import com.demo.game.sim.Arena;
+import com.demo.game.sim.MatchRules;
+import com.demo.game.sim.SimConfig;
+import com.demo.game.sim.Simulation;
+
+/**
+ * One single-player level played headless, by the rules GameApp plays it by: every round the
+ * player and the AIs still in play go back to their spawn points and the bomb goes to one of
+ * them at random. An AI caught by the explosion is out for the rest of the level; the player
+ * loses a life and plays on. The level is won when no AI is left and lost with the last life.
+ * <p>
+ * Passes restart the bomb's timer, so a round can go on for as long as the holder keeps
+ * finding someone in range. A round still going after the cut-off ends the match as a
+ * stalemate rather than letting it run forever.
+ */
+final class SoloMatch implements Simulation.Listener {
+
+    enum Outcome { WIN, LOSS, STALEMATE }
+
+    private final Simulation simulation;
+    private final int player;
+    private final double[] playerSpawn;
+    private final double[] aiSpawns;
+
+    private int exploded = -1;
+    private int passes = 0;
+    private int playerPasses = 0;
+
+    SoloMatch(Arena arena, MatchRules rules, int ais, double aiSpeed, FleeFieldCache fleeFields, long seed) {
+        simulation = new Simulation(arena, rules, seed);
+        simulation.setListener(this);
+        simulation.setFleeFieldCache(fleeFields);
+
+        double[] spawns = arena.getSpawns(Arena.PLAYER);
+        playerSpawn = (spawns.length >= 2) ? spawns : new double[] {
+                SimConfig.SCREEN_WIDTH / 2.0 - SimConfig.PLAYER_SIZE / 2.0, SimConfig.SCREEN_HEIGHT / 2.0 - SimConfig.PLAYER_SIZE / 2.0};
+        player = simulation.addCharacter(playerSpawn[0], playerSpawn[1], false, rules.playerSpeed);
+
+        // The level's points, or the original row along the top for AIs it has no point for
+        spawns = arena.getSpawns(Arena.AI);
+        aiSpawns = new double[ais * 2];
+        for (int i = 0; i < ais; i++) {
+            boolean listed = i * 2 + 1 < spawns.length;
+            aiSpawns[i * 2] = listed ? spawns[i * 2] : 100 + i * 80;
+            aiSpawns[i * 2 + 1] = listed ? spawns[i * 2 + 1] : 100;
+            simulation.addCharacter(aiSpawns[i * 2], aiSpawns[i * 2 + 1], true, aiSpeed);
+        }
+    }
+
+    /** Plays the level to the end, {@code dt} seconds per step, and adds what happened to {@code stats}. */
+    Outcome play(int lives, double dt, long maxRoundNanos, PlayerBot bot, PointStats stats) {
+        Outcome outcome = null;
+        while (outcome == null) {
+            startRound();
+            long roundStart = simulation.getTime();
+            int passesBefore = passes;
+            while (exploded == -1 && simulation.getTime() - roundStart < maxRoundNanos) {
+                bot.steer(simulation, player);
+                simulation.step(dt);
+            }
+            stats.rounds.increment();
+            stats.passes.add(passes - passesBefore);
+            if (exploded == -1) {
+                outcome = Outcome.STALEMATE;
+            } else {
+                stats.roundLength.record(simulation.getTime() - roundStart);
+                if (exploded == player) {
+                    if (--lives <= 0) {
+                        outcome = Outcome.LOSS;
+                    } else {
+                        simulation.revive(player);
+                    }
+                } else if (simulation.getActiveCount() == 1) {
+                    outcome = Outcome.WIN; // Only the player is left
+                }
+            }
+        }
+
+        switch (outcome) {
+            case WIN:  stats.wins.increment(); break;
+            case LOSS: stats.losses.increment(); break;
+            default:   stats.stalemates.increment(); break;
+        }
+        stats.playerPasses.add(playerPasses);
+        stats.simulatedNanos.add(simulation.getTime());
+        return outcome;
+    }
+
+    // Everyone still in play back to their spawn point, standing, and the bomb to one of them
+    private void startRound() {
+        exploded = -1;
+        simulation.setPosition(player, playerSpawn[0], playerSpawn[1]);
+        simulation.setVelocity(player, 0, 0);
+        int next = 0;
+        for (int i = 0; i < simulation.size(); i++) {
+            if (i == player || simulation.isEliminated(i)) continue;
+            simulation.setPosition(i, aiSpawns[next * 2], aiSpawns[next * 2 + 1]);
+            simulation.setVelocity(i, 0, 0);
+            next++;
+        }
+        simulation.giveBombToRandom();
+    }
+
+    // --- Simulation.Listener ---
+
+    @Override
+    public void onBombGiven(int from, int to) {
+        if (from == -1) return;
+        passes++;
+        if (from == player) playerPasses++;
+    }
+
+    @Override
+    public void onExploded(int holder) {
+        exploded = holder;
+    }
+}
@@ -0,0 +1,168 @@
+// File: com/demo/game/components/EntityPool.java
+package com.demo.game.components;
+
+import com.almasb.fxgl.dsl.FXGL;
+import com.almasb.fxgl.entity.Entity;
+import com.almasb.fxgl.entity.SpawnData;
+import com.almasb.fxgl.entity.component.Component;
+import com.almasb.fxgl.physics.PhysicsComponent;
+import com.demo.game.EntityType;
+import javafx.geometry.Point2D;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Keeps player, AI and bomb entities alive between rounds and levels. Instead of being removed
+ * from the world, a released entity is parked: hidden, moved off-screen to a spot of its own,
+ * its body deactivated, its components paused and its type set to {@link EntityType#POOLED} so
+ * no query or collision handler sees it. {@link #obtain} wakes a parked entity and lets its
+ * {@link Poolable} components reset themselves from the spawn data, so textures, bodies and
+ * text nodes are built once per game rather than once per round.
+ * <p>
+ * Entities that were not obtained from the pool are removed from the world as before.
+ * <pre>
+ *   -Dpool.enabled=false   spawn and remove every time, as before
+ * </pre>
+ */
+public final class EntityPool {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("pool.enabled", "true"));
+    private static final double PARK_Y = -1000;
+    private static final double PARK_SPACING = 100; // Parked bodies never overlap
+
+    private static final EntityPool INSTANCE = new EntityPool();
+
+    private final Map<String, ArrayDeque<Entity>> parked = new HashMap<>();
+    private final Map<Entity, Pooled> pooled = new IdentityHashMap<>(); // Every entity the pool made, in play or not
+    private int created = 0;
+    private int reused = 0;
+
+    private static final class Pooled {
+        final String name;
+        final Serializable type;
+        final Point2D parkingSpot;
+        boolean inPlay = true;
+
+        Pooled(String name, Serializable type, Point2D parkingSpot) {
+            this.name = name;
+            this.type = type;
+            this.parkingSpot = parkingSpot;
+        }
+    }
+
+    private EntityPool() {}
+
+    public static EntityPool getInstance() {
+        return INSTANCE;
+    }
+
+    /** Spawns the entity the factory registers under {@code name}, reusing a parked one if there is one. */
+    public Entity obtain(String name, SpawnData data) {
+        if (!ENABLED) return FXGL.spawn(name, data);
+        ArrayDeque<Entity> free = parked.get(name);
+        Entity entity = (free != null) ? free.pollFirst() : null;
+        if (entity == null) {
+            entity = FXGL.spawn(name, data);
+            pooled.put(entity, new Pooled(name, entity.getType(), nextParkingSpot()));
+            created++;
+            return entity;
+        }
+
+        Pooled info = pooled.get(entity);
+        info.inPlay = true;
+        reused++;
+        data.getData().forEach(entity::setProperty);
+        entity.setType(info.type);
+        Point2D position = new Point2D(data.getX(), data.getY());
+        PhysicsComponent physics = physicsOf(entity);
+        if (physics != null) {
+            physics.getBody().setActive(true);
+            physics.setLinearVelocity(0, 0);
+            physics.overwritePosition(position);
+        } else {
+            entity.setPosition(position);
+        }
+        entity.getViewComponent().setVisible(true);
+        for (Component component : entity.getComponents()) {
+            component.resume();
+            if (component instanceof Poolable) ((Poolable) component).onObtained(data);
+        }
+        return entity;
+    }
+
+    /** Parks an entity obtained from the pool; any other entity is removed from the world. */
+    public void release(Entity entity) {
+        Pooled info = pooled.get(entity);
+        if (info == null) {
+            entity.removeFromWorld();
+            return;
+        }
+        if (!info.inPlay) return;
+        info.inPlay = false;
+
+        for (Component component : entity.getComponents()) {
+            if (component instanceof Poolable) ((Poolable) component).onReleased();
+            component.pause();
+        }
+        entity.getViewComponent().setVisible(false);
+        PhysicsComponent physics = physicsOf(entity);
+        if (physics != null) {
+            physics.setLinearVelocity(0, 0);
+            physics.overwritePosition(info.parkingSpot);
+            physics.getBody().setActive(false);
+        } else {
+            entity.setPosition(info.parkingSpot);
+        }
+        entity.setType(EntityType.POOLED);
+        parked.computeIfAbsent(info.name, k -> new ArrayDeque<>()).addLast(entity);
+    }
+
+    /** Makes sure at least {@code count} entities of {@code name} exist, so the next obtains do not spawn. */
+    public void prewarm(String name, int count, SpawnData template) {
+        if (!ENABLED) return;
+        ArrayDeque<Entity> free = parked.get(name);
+        int missing = count - countInPlay(name) - ((free != null) ? free.size() : 0);
+        for (int i = 0; i < missing; i++) {
+            Entity entity = FXGL.spawn(name, template);
+            pooled.put(entity, new Pooled(name, entity.getType(), nextParkingSpot()));
+            created++;
+            release(entity);
+        }
+    }
+
+    /** Forgets every entity; call when the game world is cleared. */
+    public void clear() {
+        parked.clear();
+        pooled.clear();
+        created = 0;
+        reused = 0;
+    }
+
+    public int getCreatedCount() {
+        return created;
+    }
+
+    public int getReusedCount() {
+        return reused;
+    }
+
+    private int countInPlay(String name) {
+        int count = 0;
+        for (Pooled info : pooled.values()) {
+            if (info.inPlay && info.name.equals(name)) count++;
+        }
+        return count;
+    }
+
+    private Point2D nextParkingSpot() {
+        return new Point2D(-PARK_SPACING * (pooled.size() + 1), PARK_Y);
+    }
+
+    private static PhysicsComponent physicsOf(Entity entity) {
+        return entity.hasComponent(PhysicsComponent.class) ? entity.getComponent(PhysicsComponent.class) : null;
+    }
+}
@@ -0,0 +1,180 @@
+// File: com/demo/game/components/LocalMatch.java
+package com.demo.game.components;
+
+import com.almasb.fxgl.dsl.FXGL;
+import com.almasb.fxgl.entity.Entity;
+import com.almasb.fxgl.physics.PhysicsComponent;
+import com.demo.game.Config;
+import com.demo.game.ai.AIScheduler;
+import com.demo.game.events.BombExplodedEvent;
+import com.demo.game.events.BombTransferEvent;
+import com.demo.game.sim.Arena;
+import com.demo.game.sim.MatchRules;
+import com.demo.game.sim.Simulation;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The single-player match: a {@link Simulation} that decides who holds the bomb, when it goes
+ * off, who can take a pass and where the AIs head, and the entities that show it. FXGL's
+ * physics still moves the characters and carries them through portals, so every frame
+ * {@link #update()} copies their positions into the simulation, lets the AIs think and the bomb
+ * tick there, and sends the AIs' chosen velocities back to their bodies.
+ * <p>
+ * What the simulation decides comes back as events: a {@link BombTransferEvent} whenever the
+ * bomb changes hands and a {@link BombExplodedEvent} when it goes off, by which time the holder
+ * has been taken out of play and the bomb parked. Every holder lookup is O(1).
+ */
+public final class LocalMatch implements Simulation.Listener {
+
+    private static final double BOMB_OFFSET = Config.PLAYER_SIZE / 2.0 - Config.BOMB_SIZE / 2.0;
+    private static final LocalMatch INSTANCE = new LocalMatch();
+
+    private Simulation simulation;
+    private final List<Entity> characters = new ArrayList<>(); // By simulation index
+    private final Map<Entity, Integer> indexes = new IdentityHashMap<>();
+    private Entity bomb;
+
+    private LocalMatch() {}
+
+    public static LocalMatch getInstance() {
+        return INSTANCE;
+    }
+
+    // --- Setup ---
+
+    /** Starts a fresh simulation on the arena, e.g. for a new level. Characters are added again afterwards. */
+    public void begin(Arena arena) {
+        simulation = new Simulation(arena, MatchRules.defaults(), new Random().nextLong());
+        simulation.setScheduler(AIScheduler.fromSystemProperties());
+        simulation.setListener(this);
+        characters.clear();
+        indexes.clear();
+        bomb = null;
+    }
+
+    public void addPlayer(Entity player) {
+        add(player, false, Config.PLAYER_SPEED);
+    }
+
+    public void addAI(Entity ai, double speed) {
+        add(ai, true, speed);
+    }
+
+    private void add(Entity entity, boolean ai, double speed) {
+        indexes.put(entity, simulation.addCharacter(entity.getX(), entity.getY(), ai, speed));
+        characters.add(entity);
+    }
+
+    /** Starts a round: {@code bomb} goes to a random character still in play. */
+    public void startRound(Entity bomb) {
+        this.bomb = bomb;
+        syncFromWorld();
+        simulation.giveBombToRandom();
+    }
+
+    /** Puts a respawned character back into play. */
+    public void revive(Entity entity) {
+        Integer index = indexes.get(entity);
+        if (index != null) simulation.revive(index);
+    }
+
+    // --- Per Frame ---
+
+    /** Advances the match to this frame. Call once per frame in single player. */
+    public void update() {
+        if (simulation == null) return;
+        syncFromWorld();
+        simulation.think();
+        for (int i = 0; i < characters.size(); i++) {
+            if (simulation.isAI(i) && simulation.isActive(i)) {
+                characters.get(i).getComponent(PhysicsComponent.class)
+                        .setLinearVelocity(simulation.getVelocityX(i), simulation.getVelocityY(i));
+            }
+        }
+        simulation.updateBomb(); // Last: an explosion may start the next round or level
+    }
+
+    // Physics moved everyone; the simulation only decides
+    private void syncFromWorld() {
+        simulation.setTime(MatchRules.nanos(FXGL.getGameTimer().getNow()));
+        for (int i = 0; i < characters.size(); i++) {
+            if (simulation.isActive(i)) {
+                Entity entity = characters.get(i);
+                simulation.setPosition(i, entity.getX(), entity.getY());
+            }
+        }
+    }
+
+    // --- Player Actions ---
+
+    /** Passes the bomb on if {@code passer} holds it, the cooldown is over and someone is in range. */
+    public void tryPass(Entity passer) {
+        Integer index = indexes.get(passer);
+        if (simulation == null || index == null) return;
+        syncFromWorld();
+        simulation.tryPass(index);
+    }
+
+    // --- Simulation.Listener ---
+
+    @Override
+    public void onBombGiven(int from, int to) {
+        Entity previous = (from != -1) ? characters.get(from) : null;
+        Entity holder = characters.get(to);
+        if (bomb != null) {
+            bomb.xProperty().unbind();
+            bomb.yProperty().unbind();
+            bomb.xProperty().bind(holder.xProperty().add(BOMB_OFFSET));
+            bomb.yProperty().bind(holder.yProperty().add(BOMB_OFFSET));
+        }
+        if (previous != null) FXGL.play("pass.wav");
+        FXGL.getEventBus().fireEvent(new BombTransferEvent(previous, holder));
+    }
+
+    @Override
+    public void onExploded(int holder) {
+        Entity eliminated = characters.get(holder);
+        if (eliminated.hasComponent(PlayerComponent.class)) {
+            eliminated.getComponent(PlayerComponent.class).eliminate();
+        } else if (eliminated.hasComponent(AIComponent.class)) {
+            eliminated.getComponent(AIComponent.class).eliminate();
+        }
+        // Parked before the event: the round it starts may hand out this very bomb again
+        Entity exploded = bomb;
+        bomb = null;
+        if (exploded != null) EntityPool.getInstance().release(exploded);
+        FXGL.getEventBus().fireEvent(new BombExplodedEvent(eliminated));
+    }
+
+    // --- Queries ---
+
+    /** The character holding the bomb, or null. */
+    public Entity getHolder() {
+        int holder = (simulation != null) ? simulation.getBombHolder() : -1;
+        return (holder != -1) ? characters.get(holder) : null;
+    }
+
+    public boolean holds(Entity entity) {
+        return entity != null && getHolder() == entity;
+    }
+
+    /** The bomb in play, or null. */
+    public Entity getBomb() {
+        return bomb;
+    }
+
+    /** Seconds left before the bomb goes off, or -1 if nobody holds it. */
+    public double getBombSecondsRemaining() {
+        return (simulation != null) ? simulation.getBombSecondsRemaining() : -1;
+    }
+
+    /** The simulation behind the match, for diagnostics. */
+    public Simulation getSimulation() {
+        return simulation;
+    }
+}
@@ -1,40 +1,46 @@
 package com.demo.game.components;
 
-import com.almasb.fxgl.core.math.Vec2;
-import com.almasb.fxgl.dsl.FXGL;
-import com.almasb.fxgl.entity.Entity;
+import com.almasb.fxgl.entity.SpawnData;
 import com.almasb.fxgl.entity.component.Component;
 import com.almasb.fxgl.physics.PhysicsComponent;
-import com.almasb.fxgl.time.LocalTimer;
 import com.demo.game.Config;
-import com.demo.game.EntityType;
 import javafx.geometry.Point2D;
-import javafx.util.Duration;
+import javafx.scene.text.Text;
 
-import static com.demo.game.Config.PASS_COOLDOWN;
-
-public class PlayerComponent extends Component {
+public class PlayerComponent extends Component implements Poolable {
 
     private PhysicsComponent physicsComponent;
-    private boolean hasBomb = false;
     private Point2D lastDirection = new Point2D(1, 0);
-    private LocalTimer passCoolDownTimer;
-    private Entity bombEntity = null;
+    private Point2D respawnPosition = new Point2D(
+            Config.SCREEN_WIDTH / 2.0 - Config.PLAYER_SIZE / 2.0,
+            Config.SCREEN_HEIGHT / 2.0 - Config.PLAYER_SIZE / 2.0);
 
-    public boolean hasBomb() {
-        return hasBomb;
+    /** The name shown above a player: "Player" if there is none, without the host tag. */
+    public static String displayName(String username) {
+        return (username == null) ? "Player" : username.replace(" (Host)", "");
     }
 
-    public void setHasBomb(boolean hasBomb) {
-        this.hasBomb = hasBomb;
+    /** Single player only: the bomb is tracked by {@link LocalMatch}. */
+    public boolean hasBomb() {
+        return LocalMatch.getInstance().holds(entity);
     }
 
     @Override
     public void onAdded() {
         // Initialize physics component here to prevent NullPointerException
         physicsComponent = entity.getComponent(PhysicsComponent.class);
-        passCoolDownTimer = FXGL.newLocalTimer();
-        passCoolDownTimer.capture();
+    }
+
+    @Override
+    public void onObtained(SpawnData data) {
+        Text usernameText = entity.getObject("usernameText");
+        usernameText.setText(displayName(data.hasKey("username") ? data.get("username") : null));
+        lastDirection = new Point2D(1, 0);
+    }
+
+    @Override
+    public void onReleased() {
+        physicsComponent.setLinearVelocity(0, 0);
     }
 
     public void moveLeft() {
@@ -72,68 +78,26 @@ public class PlayerComponent extends Component {
         }
     }
 
-    /**
-     * Called when the player receives the bomb (e.g., from an AI pass or game start).
-     * @param bomb The bomb Entity being received.
-     */
-    public void receiveBomb(Entity bomb) {
-        if (!hasBomb) {
-            this.bombEntity = bomb; // Keep track of the bomb entity
-            this.hasBomb = true;
-
-            // Start the bomb timer
-            bomb.getComponent(BombComponent.class).startTimer();
-
-            // Bind the bomb's position to the player's position
-            // This makes the bomb move with the player
-            bomb.xProperty().bind(entity.xProperty().add(Config.PLAYER_SIZE / 2.0 - Config.BOMB_SIZE / 2.0));
-            bomb.yProperty().bind(entity.yProperty().add(Config.PLAYER_SIZE / 2.0 - Config.BOMB_SIZE / 2.0));
-
-            // Reset the pass cooldown timer
-            passCoolDownTimer.capture();
-        }
-    }
-
-
-    // --- FIX: The missing passBomb() method ---
+    /** Passes the bomb to the closest AI in range, if the player holds it and the cooldown is over. */
     public void passBomb() {
-        if (hasBomb && passCoolDownTimer.elapsed(PASS_COOLDOWN)) {
-            // Find the closest AI that is within passing range
-            FXGL.getGameWorld()
-                    .getClosestEntity(entity, e -> e.isType(EntityType.AI))
-                    .ifPresent(closestAI -> {
-                        if (entity.distance(closestAI) <= Config.PASS_RANGE) {
-                            // Transfer the bomb
-                            this.hasBomb = false;
-                            // Unbind the bomb from the player's position properties
-                            bombEntity.xProperty().unbind();
-                            bombEntity.yProperty().unbind();
-
-
-                            // Give bomb to the closest AI
-                            closestAI.getComponent(AIComponent.class).receiveBomb(bombEntity);
-
-                            FXGL.play("pass.wav");
-                            passCoolDownTimer.capture();
-                        }
-                    });
-        }
+        LocalMatch.getInstance().tryPass(entity);
     }
 
     public void eliminate() {
-        this.hasBomb = false;
-        this.bombEntity = null;
         entity.getViewComponent().setVisible(false);
-        entity.getComponent(PhysicsComponent.class).overwritePosition(new Vec2(-100, -100).toPoint2D());
+        physicsComponent.setLinearVelocity(0, 0);
+        physicsComponent.overwritePosition(new Point2D(-100, -100));
+    }
+
+    /** Where respawn() puts the player; the level's player spawn point. */
+    public void setRespawnPosition(Point2D position) {
+        this.respawnPosition = position;
     }
 
     public void respawn() {
         entity.getViewComponent().setVisible(true);
 
-        double respawnX = Config.SCREEN_WIDTH / 2.0 - Config.PLAYER_SIZE / 2.0;
-        double respawnY = Config.SCREEN_HEIGHT / 2.0 - Config.PLAYER_SIZE / 2.0;
-
-        entity.setPosition(respawnX, respawnY);
+        entity.setPosition(respawnPosition);
 
         physicsComponent.setVelocityX(0);
         physicsComponent.setVelocityY(0);
@@ -0,0 +1,18 @@
+// File: com/demo/game/components/Poolable.java
+package com.demo.game.components;
+
+import com.almasb.fxgl.entity.SpawnData;
+
+/**
+ * A component whose entity {@link EntityPool} may park and hand out again instead of removing
+ * it from the world. Whatever {@code onAdded} set up for a fresh entity has to be set up again
+ * in {@link #onObtained}.
+ */
+public interface Poolable {
+
+    /** The entity is back in play, with the spawn data a fresh spawn would have been given. */
+    void onObtained(SpawnData data);
+
+    /** The entity is about to be parked: drop references to other entities and registries. */
+    void onReleased();
+}
@@ -32,6 +32,10 @@ public class PortalComponent extends Component {
         this.targetPortal = target;
     }
 
+    public Entity getTarget() {
+        return targetPortal;
+    }
+
     public void teleport(Entity entityToTeleport) {
         if (onCooldown || targetPortal == null) {
             return; // Portal is waiting or has no target
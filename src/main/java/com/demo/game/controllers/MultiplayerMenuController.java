@@ -6,6 +6,7 @@ import com.almasb.fxgl.dsl.FXGL;
 import com.demo.game.network.GameClient;
 import com.demo.game.network.GameServer;
 import com.demo.game.network.messages.NetworkMessage; // Base message
+import com.demo.game.replay.ReplayRecorder;
 import com.demo.game.GameMode;
 import com.demo.game.ui.MultiplayerManager;
 import javafx.application.Platform;
@@ -16,7 +17,9 @@ import javafx.scene.Parent;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
+import javafx.stage.FileChooser;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.function.Consumer;
 
@@ -26,6 +29,7 @@ public class MultiplayerMenuController {
     @FXML private Label statusLabel;
     @FXML private Button hostButton;
     @FXML private Button joinButton;
+    @FXML private Button spectateButton;
 
     // Keep track of our network instances
     private static GameServer gameServerInstance;
@@ -73,9 +77,48 @@ public class MultiplayerMenuController {
         handleJoinGameInternal(ip);
     }
 
+    @FXML
+    private void handleSpectateGame() {
+        // Ensure previous instances are stopped
+        stopExistingConnections();
+
+        String ip = ipField.getText().trim();
+        if (ip.isEmpty()) {
+            ip = "localhost";
+        }
+
+        statusLabel.setText("Connecting to " + ip + " as a spectator...");
+        hostButton.setDisable(true);
+        joinButton.setDisable(true);
+        spectateButton.setDisable(true);
+
+        MultiplayerManager.getInstance().setGameMode(GameMode.SPECTATOR);
+        handleJoinGameInternal(ip);
+    }
+
+    @FXML
+    private void handleWatchReplay() {
+        stopExistingConnections();
+
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Open Replay");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Hot Potato replays", "*.hpr"));
+        File replayDir = new File(ReplayRecorder.directory());
+        if (replayDir.isDirectory()) {
+            chooser.setInitialDirectory(replayDir);
+        }
+        File file = chooser.showOpenDialog(FXGL.getPrimaryStage());
+        if (file == null) return;
+
+        MultiplayerManager.getInstance().setGameMode(GameMode.REPLAY);
+        MultiplayerManager.getInstance().setReplayFile(file.toPath());
+        FXGL.getGameController().startNewGame();
+    }
+
     // Internal method to handle client connection logic
     private void handleJoinGameInternal(String ipAddress) {
-        gameClientInstance = new GameClient(ipAddress, GameServer.PORT);
+        boolean spectating = MultiplayerManager.getInstance().getGameMode() == GameMode.SPECTATOR;
+        gameClientInstance = new GameClient(ipAddress, GameServer.PORT, spectating);
 
         // Define what happens when connection status changes
         gameClientInstance.setOnConnectionStatusChanged(isConnected -> {
@@ -89,6 +132,7 @@ public class MultiplayerMenuController {
                     // Re-enable buttons on failure/disconnect
                     hostButton.setDisable(false);
                     joinButton.setDisable(false);
+                    spectateButton.setDisable(false);
                     // Clean up potentially failed client instance
                     gameClientInstance = null;
                     clientThread = null;
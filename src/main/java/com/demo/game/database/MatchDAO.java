@@ -1,6 +1,7 @@
 package com.demo.game.database;
 
 import java.sql.Connection;
+import com.demo.game.diagnostics.DatabaseQueryEvent;
 import com.demo.game.models.User;
 
 import java.sql.*;
@@ -19,14 +20,19 @@ public class MatchDAO {
      */
     public int createMatch() {
         String sql = "INSERT INTO hot_potato.matches (start_time) VALUES (CURRENT_TIMESTAMP)";
+        DatabaseQueryEvent event = new DatabaseQueryEvent();
+        event.begin();
         try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            stmt.executeUpdate();
+            event.rows = stmt.executeUpdate();
+            event.succeeded = true;
             ResultSet rs = stmt.getGeneratedKeys();
             if (rs.next()) {
                 return rs.getInt(1);
             }
         } catch (SQLException e) {
             System.err.println("Failed to create match: " + e.getMessage());
+        } finally {
+            event.finish("MatchDAO.createMatch", sql);
         }
         return -1;
     }
@@ -38,6 +44,8 @@ public class MatchDAO {
      */
     public void addParticipants(int matchId, List<User> users) {
         String sql = "INSERT INTO hot_potato.match_participants (match_id, user_id) VALUES (?, ?)";
+        DatabaseQueryEvent event = new DatabaseQueryEvent();
+        event.begin();
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             for (User user : users) {
                 stmt.setInt(1, matchId);
@@ -45,8 +53,12 @@ public class MatchDAO {
                 stmt.addBatch();
             }
             stmt.executeBatch();
+            event.rows = users.size();
+            event.succeeded = true;
         } catch (SQLException e) {
             System.err.println("Failed to add participants: " + e.getMessage());
+        } finally {
+            event.finish("MatchDAO.addParticipants", sql);
         }
     }
 
@@ -56,8 +68,10 @@ public class MatchDAO {
      * @param winnerId The user ID of the winner.
      */
     public void concludeMatch(int matchId, int winnerId) {
-        String updateWinnerSql = "UPDATE hot_potato.match_participants SET is_winner = TRUE WHERE match_id = ? AND user_id = ?";
-        String updateEndTimeSql = "UPDATE hot_potato.matches SET end_time = CURRENT_TIMESTAMP WHERE match_id = ?";
+        final String updateWinnerSql = "UPDATE hot_potato.match_participants SET is_winner = TRUE WHERE match_id = ? AND user_id = ?";
+        final String updateEndTimeSql = "UPDATE hot_potato.matches SET end_time = CURRENT_TIMESTAMP WHERE match_id = ?";
+        DatabaseQueryEvent event = new DatabaseQueryEvent();
+        event.begin();
 
         try (PreparedStatement winnerStmt = connection.prepareStatement(updateWinnerSql);
              PreparedStatement endTimeStmt = connection.prepareStatement(updateEndTimeSql)) {
@@ -65,14 +79,17 @@ public class MatchDAO {
             // Set winner
             winnerStmt.setInt(1, matchId);
             winnerStmt.setInt(2, winnerId);
-            winnerStmt.executeUpdate();
+            event.rows = winnerStmt.executeUpdate();
 
             // Set end time
             endTimeStmt.setInt(1, matchId);
-            endTimeStmt.executeUpdate();
+            event.rows += endTimeStmt.executeUpdate();
+            event.succeeded = true;
 
         } catch (SQLException e) {
             System.err.println("Failed to conclude match: " + e.getMessage());
+        } finally {
+            event.finish("MatchDAO.concludeMatch", updateWinnerSql + "; " + updateEndTimeSql);
         }
     }
 }
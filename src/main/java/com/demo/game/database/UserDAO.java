@@ -11,6 +11,7 @@ import java.util.List;
 import java.util.AbstractMap;
 import java.util.Map;
 
+import com.demo.game.diagnostics.DatabaseQueryEvent;
 import com.demo.game.models.User;
 // Import our centralized password utility
 import com.demo.game.utils.PasswordUtils;
@@ -27,6 +28,8 @@ public class UserDAO {
 
     public boolean registerUser(String username, String email, String password) {
         String sql = "INSERT INTO hot_potato.users (username, email, password_hash) VALUES (?, ?, ?)";
+        DatabaseQueryEvent event = new DatabaseQueryEvent();
+        event.begin();
 
         try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             // Use PasswordUtils for consistent, secure hashing
@@ -37,6 +40,8 @@ public class UserDAO {
             stmt.setString(3, hashedPassword);
 
             int rowsAffected = stmt.executeUpdate();
+            event.rows = rowsAffected;
+            event.succeeded = true;
 
             // Create default settings for new user
             if (rowsAffected > 0) {
@@ -53,26 +58,37 @@ public class UserDAO {
         } catch (SQLException e) {
             System.err.println("Registration failed: " + e.getMessage());
             return false;
+        } finally {
+            event.finish("UserDAO.registerUser", sql);
         }
     }
 
     // Updated to take user ID directly for reliability
     private void createDefaultSettings(int userId) {
         String sql = "INSERT INTO hot_potato.user_settings (user_id) VALUES (?)";
+        DatabaseQueryEvent event = new DatabaseQueryEvent();
+        event.begin();
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, userId);
-            stmt.executeUpdate();
+            event.rows = stmt.executeUpdate();
+            event.succeeded = true;
         } catch (SQLException e) {
             System.err.println("Failed to create default settings: " + e.getMessage());
+        } finally {
+            event.finish("UserDAO.createDefaultSettings", sql);
         }
     }
 
     public User loginUser(String username, String password) {
         String sql = "SELECT * FROM hot_potato.users WHERE username = ?";
+        DatabaseQueryEvent event = new DatabaseQueryEvent();
+        event.begin();
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, username);
             try (ResultSet rs = stmt.executeQuery()) {
+                event.succeeded = true;
                 if (rs.next()) {
+                    event.rows = 1;
                     String storedHash = rs.getString("password_hash");
 
                     // Use PasswordUtils to securely verify
@@ -95,6 +111,8 @@ public class UserDAO {
             }
         } catch (SQLException e) {
             System.err.println("Login failed: " + e.getMessage());
+        } finally {
+            event.finish("UserDAO.loginUser", sql);
         }
 
         return null;
@@ -102,22 +120,32 @@ public class UserDAO {
 
     private void updateLastLogin(int userId) {
         String sql = "UPDATE hot_potato.users SET last_login = CURRENT_TIMESTAMP WHERE id = ?";
+        DatabaseQueryEvent event = new DatabaseQueryEvent();
+        event.begin();
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, userId);
-            stmt.executeUpdate();
+            event.rows = stmt.executeUpdate();
+            event.succeeded = true;
         } catch (SQLException e) {
             System.err.println("Failed to update last login: " + e.getMessage());
+        } finally {
+            event.finish("UserDAO.updateLastLogin", sql);
         }
     }
 
     public void updateHighScore(int userId, int score) {
         String sql = "UPDATE hot_potato.users SET high_score = GREATEST(high_score, ?) WHERE id = ?";
+        DatabaseQueryEvent event = new DatabaseQueryEvent();
+        event.begin();
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, score);
             stmt.setInt(2, userId);
-            stmt.executeUpdate();
+            event.rows = stmt.executeUpdate();
+            event.succeeded = true;
         } catch (SQLException e) {
             System.err.println("Failed to update high score: " + e.getMessage());
+        } finally {
+            event.finish("UserDAO.updateHighScore", sql);
         }
     }
 
@@ -132,6 +160,8 @@ public class UserDAO {
         // For now, "Deathmatch" leaderboard will just be the 'high_score' column.
         // We can change this later to a 'deathmatch_wins' column if we add one.
         String sql = "SELECT username, high_score FROM hot_potato.users ORDER BY high_score DESC LIMIT 10";
+        DatabaseQueryEvent event = new DatabaseQueryEvent();
+        event.begin();
 
         try (PreparedStatement stmt = connection.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
@@ -141,8 +171,12 @@ public class UserDAO {
                 int score = rs.getInt("high_score");
                 leaderboard.add(new AbstractMap.SimpleEntry<>(username, score));
             }
+            event.rows = leaderboard.size();
+            event.succeeded = true;
         } catch (SQLException e) {
             System.err.println("Failed to get leaderboard: " + e.getMessage());
+        } finally {
+            event.finish("UserDAO.getDeathmatchLeaderboard", sql);
         }
         return leaderboard;
     }
@@ -153,13 +187,19 @@ public class UserDAO {
     public boolean updatePassword(int userId, String newPassword) {
         String hashedPassword = PasswordUtils.hashPassword(newPassword);
         String sql = "UPDATE hot_potato.users SET password_hash = ? WHERE id = ?";
+        DatabaseQueryEvent event = new DatabaseQueryEvent();
+        event.begin();
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, hashedPassword);
             stmt.setInt(2, userId);
-            return stmt.executeUpdate() > 0;
+            event.rows = stmt.executeUpdate();
+            event.succeeded = true;
+            return event.rows > 0;
         } catch (SQLException e) {
             System.err.println("Failed to update password: " + e.getMessage());
             return false;
+        } finally {
+            event.finish("UserDAO.updatePassword", sql);
         }
     }
 
@@ -168,13 +208,19 @@ public class UserDAO {
      */
     public boolean updateUsername(int userId, String newUsername) {
         String sql = "UPDATE hot_potato.users SET username = ? WHERE id = ?";
+        DatabaseQueryEvent event = new DatabaseQueryEvent();
+        event.begin();
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, newUsername);
             stmt.setInt(2, userId);
-            return stmt.executeUpdate() > 0;
+            event.rows = stmt.executeUpdate();
+            event.succeeded = true;
+            return event.rows > 0;
         } catch (SQLException e) {
             System.err.println("Failed to update username: " + e.getMessage());
             return false;
+        } finally {
+            event.finish("UserDAO.updateUsername", sql);
         }
     }
 
@@ -183,13 +229,19 @@ public class UserDAO {
      */
     public boolean updateProfilePicture(int userId, InputStream photoStream, long photoLength) {
         String sql = "UPDATE hot_potato.users SET profile_picture = ? WHERE id = ?";
+        DatabaseQueryEvent event = new DatabaseQueryEvent();
+        event.begin();
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setBinaryStream(1, photoStream, photoLength);
             stmt.setInt(2, userId);
-            return stmt.executeUpdate() > 0;
+            event.rows = stmt.executeUpdate();
+            event.succeeded = true;
+            return event.rows > 0;
         } catch (SQLException e) {
             System.err.println("Failed to update profile picture: " + e.getMessage());
             return false;
+        } finally {
+            event.finish("UserDAO.updateProfilePicture", sql);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+// File: com/demo/game/diagnostics/BombPassEvent.java
+package com.demo.game.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** A pass attempt handled by the server, including the search for a target. */
+@Name("com.demo.game.BombPass")
+@Label("Bomb Pass Attempt")
+@Category({"Hot Potato", "Server"})
+@StackTrace(false)
+public class BombPassEvent extends Event {
+
+    @Label("Passer Id")
+    public int passerId;
+
+    @Label("Target Id")
+    @Description("The player who received the bomb, or -1 if the pass was refused.")
+    public int targetId;
+
+    @Label("Outcome")
+    @Description("passed, not holder, cooldown or no target")
+    public String outcome;
+}
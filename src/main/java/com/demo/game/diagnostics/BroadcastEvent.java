@@ -0,0 +1,37 @@
+// File: com/demo/game/diagnostics/BroadcastEvent.java
+package com.demo.game.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/** A message encoded once and written to every client in a room. The duration covers both. */
+@Name("com.demo.game.Broadcast")
+@Label("Broadcast")
+@Category({"Hot Potato", "Server"})
+@StackTrace(false)
+public class BroadcastEvent extends Event {
+
+    @Label("Room")
+    public String room;
+
+    @Label("Message Type")
+    public String messageType;
+
+    @Label("Frame Size")
+    @DataAmount
+    public int frameBytes;
+
+    @Label("Recipients")
+    @Description("Player connections the frame was written to; spectators are fed by the relay.")
+    public int recipients;
+
+    @Label("Encode Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long encodeNanos;
+}
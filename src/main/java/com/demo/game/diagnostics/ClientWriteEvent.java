@@ -0,0 +1,40 @@
+// File: com/demo/game/diagnostics/ClientWriteEvent.java
+package com.demo.game.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One frame written to one client's transport. Only slow writes are kept by default, since a
+ * full room produces one of these per client per tick; the project's .jfc records all of them.
+ */
+@Name("com.demo.game.ClientWrite")
+@Label("Client Write")
+@Category({"Hot Potato", "Server"})
+@Threshold("1 ms")
+@StackTrace(false)
+public class ClientWriteEvent extends Event {
+
+    @Label("Client Id")
+    public int clientId;
+
+    @Label("Spectator")
+    public boolean spectator;
+
+    @Label("Frame Size")
+    @DataAmount
+    public int frameBytes;
+
+    @Label("Outbound Queue Depth")
+    @Description("Frames still waiting for this spectator after this one; always 0 for players.")
+    public int queuedFrames;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
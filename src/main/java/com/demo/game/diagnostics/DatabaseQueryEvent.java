@@ -0,0 +1,40 @@
+// File: com/demo/game/diagnostics/DatabaseQueryEvent.java
+package com.demo.game.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One DAO call, from preparing the statement to reading the last row. Calls that hash or verify a
+ * password include that work, and calls made from inside another call (e.g. the last-login update
+ * during a login) show up as nested events.
+ */
+@Name("com.demo.game.DatabaseQuery")
+@Label("Database Query")
+@Category({"Hot Potato", "Database"})
+public class DatabaseQueryEvent extends Event {
+
+    @Label("Operation")
+    public String operation; // e.g. "UserDAO.loginUser"
+
+    @Label("SQL")
+    public String sql;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+
+    /** Ends the event and commits it if a recording wants it; call from a finally block. */
+    public void finish(String operation, String sql) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.sql = sql;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+// File: com/demo/game/diagnostics/ServerTickEvent.java
+package com.demo.game.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One server tick, with the time spent in each phase. The event's own duration is the whole tick.
+ * <p>
+ * All events in this package cost nothing unless a flight recording is running. To record a
+ * match with the project's settings on top of the JDK defaults:
+ * <pre>
+ *   -XX:StartFlightRecording:settings=default,settings=jfr/hotpotato.jfc,filename=match.jfr
+ * </pre>
+ * or attach to a running server with {@code jcmd <pid> JFR.start settings=jfr/hotpotato.jfc}.
+ */
+@Name("com.demo.game.ServerTick")
+@Label("Server Tick")
+@Category({"Hot Potato", "Server"})
+@Description("One authoritative game tick and the duration of each of its phases.")
+@StackTrace(false)
+public class ServerTickEvent extends Event {
+
+    @Label("Room")
+    public String room;
+
+    @Label("Players")
+    public int players;
+
+    @Label("Simulation")
+    @Description("Movement, bomb timer and eliminations.")
+    @Timespan(Timespan.NANOSECONDS)
+    public long simulationNanos;
+
+    @Label("Snapshot Build")
+    @Timespan(Timespan.NANOSECONDS)
+    public long snapshotBuildNanos;
+
+    @Label("Broadcast")
+    @Description("Encoding the snapshot and writing it to every client.")
+    @Timespan(Timespan.NANOSECONDS)
+    public long broadcastNanos;
+}
@@ -0,0 +1,214 @@
+// File: com/demo/game/diagnostics/TraceRecorder.java
+package com.demo.game.diagnostics;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records timed spans into per-thread ring buffers and writes them out in the Chrome trace event
+ * format, which chrome://tracing and https://ui.perfetto.dev open as a timeline.
+ * <pre>
+ *   long start = TraceRecorder.begin();
+ *   ... work ...
+ *   TraceRecorder.end("tick", "server", start);
+ * </pre>
+ * Tracing is off unless the game is started with {@code -Dtrace.enabled=true}; the flag is a
+ * constant, so disabled calls compile away. While on, a span costs two clock reads and four
+ * array stores on the calling thread, nothing is allocated and no locks are taken. Each thread
+ * keeps its most recent spans and older ones are overwritten. A thread's buffer outlives it
+ * until the next dump has written it out, and only the most recent dead threads' buffers are
+ * kept, so pool threads that come and go do not pile up.
+ * <pre>
+ *   -Dtrace.enabled=true       record spans
+ *   -Dtrace.bufferSize=16384   spans kept per thread
+ *   -Dtrace.maxDeadThreads=32  buffers of finished threads kept for the next dump
+ *   -Dtrace.dir=traces         where dump() writes its files
+ *   -Dtrace.dumpOnExit=true    write a dump when the JVM exits
+ * </pre>
+ * Dumps are taken on demand: F9 in the game window, {@code /trace} on the metrics HTTP endpoint,
+ * or {@link #dump()} from code. Span names must be constants or other long-lived strings; they
+ * are stored by reference and only read when a dump is written.
+ */
+public final class TraceRecorder {
+
+    public static final boolean ENABLED = Boolean.getBoolean("trace.enabled");
+
+    private static final int BUFFER_SIZE = Integer.getInteger("trace.bufferSize", 16384);
+    private static final int MAX_DEAD_THREADS = Math.max(0, Integer.getInteger("trace.maxDeadThreads", 32));
+    private static final long BASE_NANOS = System.nanoTime();
+    private static final AtomicInteger NEXT_TID = new AtomicInteger(1);
+    private static final List<ThreadBuffer> BUFFERS = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<ThreadBuffer> CURRENT = ThreadLocal.withInitial(TraceRecorder::register);
+
+    static {
+        if (ENABLED && Boolean.getBoolean("trace.dumpOnExit")) {
+            Runtime.getRuntime().addShutdownHook(new Thread(TraceRecorder::dump, "trace-dump"));
+        }
+    }
+
+    private TraceRecorder() {}
+
+    /** Start time for a span, or 0 when tracing is off. */
+    public static long begin() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    /** Records a span from {@code startNanos} (a value from {@link #begin()}) until now. */
+    public static void end(String name, String category, long startNanos) {
+        if (!ENABLED) return;
+        CURRENT.get().add(name, category, startNanos, System.nanoTime() - startNanos);
+    }
+
+    /** Records a span whose start and end were already measured with System.nanoTime(). */
+    public static void span(String name, String category, long startNanos, long endNanos) {
+        if (!ENABLED) return;
+        CURRENT.get().add(name, category, startNanos, endNanos - startNanos);
+    }
+
+    private static ThreadBuffer register() {
+        ThreadBuffer buffer = new ThreadBuffer(Thread.currentThread(), NEXT_TID.getAndIncrement(), BUFFER_SIZE);
+        pruneDeadThreads();
+        BUFFERS.add(buffer);
+        return buffer;
+    }
+
+    // Drops the oldest finished threads' buffers beyond MAX_DEAD_THREADS (runs once per new thread)
+    private static void pruneDeadThreads() {
+        int dead = 0;
+        for (ThreadBuffer buffer : BUFFERS) {
+            if (!buffer.owner.isAlive()) dead++;
+        }
+        for (ThreadBuffer buffer : BUFFERS) {
+            if (dead <= MAX_DEAD_THREADS) break;
+            if (!buffer.owner.isAlive() && BUFFERS.remove(buffer)) dead--;
+        }
+    }
+
+    // --- Dumping ---
+
+    /** Writes every thread's spans to a new file under trace.dir. Returns the file, or null on failure. */
+    public static File dump() {
+        if (!ENABLED) {
+            System.out.println("Tracing is off; start with -Dtrace.enabled=true to record spans.");
+            return null;
+        }
+        File dir = new File(System.getProperty("trace.dir", "traces"));
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS"));
+        File file = new File(dir, "trace-" + ProcessHandle.current().pid() + "-" + stamp + ".json");
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            System.err.println("Could not create trace directory " + dir);
+            return null;
+        }
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            writeJson(out);
+            System.out.println("Trace written to " + file.getPath());
+            return file;
+        } catch (IOException e) {
+            System.err.println("Failed to write trace: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** Writes the recorded spans as a Chrome trace event JSON object. Finished threads' spans are written once, then dropped. */
+    public static void writeJson(Writer out) throws IOException {
+        long pid = ProcessHandle.current().pid();
+        out.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+        boolean first = true;
+        for (ThreadBuffer buffer : BUFFERS) {
+            if (!first) out.write(",\n");
+            first = false;
+            out.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":" + pid + ",\"tid\":" + buffer.tid
+                    + ",\"args\":{\"name\":\"" + escape(buffer.threadName) + "\"}}");
+            buffer.writeSpans(out, pid);
+            if (!buffer.owner.isAlive()) BUFFERS.remove(buffer); // Nothing more will be added to it
+        }
+        out.write("\n]}\n");
+        out.flush();
+    }
+
+    private static String escape(String text) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') sb.append('\\');
+            sb.append(c < 0x20 ? ' ' : c);
+        }
+        return sb.toString();
+    }
+
+    /** One thread's spans. Written only by its owner; dumps read it without stopping the thread. */
+    private static final class ThreadBuffer {
+        final Thread owner;
+        final String threadName;
+        final int tid;
+        final String[] names;
+        final String[] categories;
+        final long[] starts;
+        final long[] durations;
+        final int mask;
+        volatile long written = 0; // Spans ever added; published after the slot is filled
+
+        ThreadBuffer(Thread owner, int tid, int size) {
+            int capacity = Integer.highestOneBit(Math.max(2, size - 1)) << 1;
+            this.owner = owner;
+            this.threadName = owner.getName();
+            this.tid = tid;
+            this.names = new String[capacity];
+            this.categories = new String[capacity];
+            this.starts = new long[capacity];
+            this.durations = new long[capacity];
+            this.mask = capacity - 1;
+        }
+
+        void add(String name, String category, long start, long duration) {
+            long index = written;
+            int slot = (int) (index & mask);
+            names[slot] = name;
+            categories[slot] = category;
+            starts[slot] = start;
+            durations[slot] = duration;
+            written = index + 1;
+        }
+
+        // Follows the thread's metadata event, so every span starts with a comma
+        void writeSpans(Writer out, long pid) throws IOException {
+            long end = written;
+            long from = Math.max(0, end - names.length);
+            StringBuilder sb = new StringBuilder(128);
+            for (long i = from; i < end; i++) {
+                int slot = (int) (i & mask);
+                String name = names[slot];
+                String category = categories[slot];
+                long start = starts[slot];
+                long duration = durations[slot];
+                // The owner may have lapped us while we read; skip slots it has reused or is refilling
+                if (i <= written - names.length) continue;
+
+                sb.setLength(0);
+                sb.append(",\n{\"name\":\"").append(escape(name))
+                        .append("\",\"cat\":\"").append(escape(category))
+                        .append("\",\"ph\":\"X\",\"ts\":").append(micros(start - BASE_NANOS))
+                        .append(",\"dur\":").append(micros(duration))
+                        .append(",\"pid\":").append(pid)
+                        .append(",\"tid\":").append(tid).append('}');
+                out.write(sb.toString());
+            }
+        }
+
+        private static String micros(long nanos) {
+            return String.format(Locale.ROOT, "%.3f", nanos / 1000.0);
+        }
+    }
+}
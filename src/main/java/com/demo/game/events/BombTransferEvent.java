@@ -0,0 +1,32 @@
+package com.demo.game.events;
+
+import com.almasb.fxgl.entity.Entity;
+import javafx.event.Event;
+import javafx.event.EventType;
+
+/**
+ * A LOCAL event fired by LocalMatch whenever a character receives the bomb in single player,
+ * at the start of a round as well as on a pass.
+ */
+public class BombTransferEvent extends Event {
+
+    public static final EventType<BombTransferEvent> ANY = new EventType<>(Event.ANY, "BOMB_TRANSFER_EVENT");
+
+    private final Entity previousHolder;
+    private final Entity newHolder;
+
+    public BombTransferEvent(Entity previousHolder, Entity newHolder) {
+        super(ANY);
+        this.previousHolder = previousHolder;
+        this.newHolder = newHolder;
+    }
+
+    /** Who had the bomb before, or null if nobody did (a new round). */
+    public Entity getPreviousHolder() {
+        return previousHolder;
+    }
+
+    public Entity getNewHolder() {
+        return newHolder;
+    }
+}
@@ -22,16 +22,8 @@ public class PlayerFactory implements EntityFactory {
         physics.setBodyType(BodyType.DYNAMIC);
         //physics.setFixedRotation(true); // Prevent player from spinning
 
-        // Get username from spawn data, default to "Player"
-        String username = data.get("username");
-        if (username == null) {
-            username = "Player";
-        }
-
-        // Remove "(Host)" tag for in-game display
-        username = username.replace(" (Host)", "");
-
-        Text usernameText = new Text(username);
+        // Username from spawn data without the host tag; the pool renames the Text on reuse
+        Text usernameText = new Text(PlayerComponent.displayName(data.hasKey("username") ? data.get("username") : null));
         usernameText.setFill(Color.BLACK);
         // Position text above the player
         usernameText.setTranslateY(-10);
@@ -40,6 +32,7 @@ public class PlayerFactory implements EntityFactory {
                 .type(EntityType.PLAYER)
                 .viewWithBBox(FXGL.texture("player.png", Config.PLAYER_SIZE, Config.PLAYER_SIZE))
                 .view(usernameText) // Add username text
+                .with("usernameText", usernameText)
                 .with(physics)
                 .with(new PlayerComponent())
                 .with(new NetworkComponent()) // ADD NETWORK COMPONENT
@@ -10,13 +10,51 @@ import com.almasb.fxgl.physics.HitBox;
 import com.almasb.fxgl.physics.PhysicsComponent;
 import com.demo.game.Config;
 import com.demo.game.EntityType;
+import com.demo.game.level.LevelData;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Arena walls. A level's merged wall rectangles are spawned as "wall" runs, each one static
+ * body with no view, plus a single "wallView" that draws all of them from an image rendered
+ * once per level (pass the {@link LevelData} as "level"). Start the game with
+ * {@code -Dwalls.merged=false} to spawn the old grid of 20x20 "wallTile" entities instead, one
+ * body and one node each, for comparison.
+ */
 public class WallFactory implements EntityFactory {
 
+    public static final boolean MERGED = Boolean.parseBoolean(System.getProperty("walls.merged", "true"));
+
+    private static final int WALL_ARGB = 0xFF808080; // Color.GRAY
+    private static final Map<LevelData, WritableImage> IMAGES = new IdentityHashMap<>(); // Rendered on first use
+
     @Spawns("wall")
     public Entity newWall(SpawnData data) {
+        double width = data.hasKey("width") ? data.<Double>get("width") : Config.WALL_SIZE;
+        double height = data.hasKey("height") ? data.<Double>get("height") : Config.WALL_SIZE;
+        return FXGL.entityBuilder(data)
+                .type(EntityType.WALL)
+                .bbox(new HitBox(BoundingShape.box(width, height)))
+                .with(new PhysicsComponent()) // Static by default
+                .build();
+    }
+
+    @Spawns("wallView")
+    public Entity newWallView(SpawnData data) {
+        return FXGL.entityBuilder(data)
+                .view(new ImageView(wallImage(data.get("level"))))
+                .build();
+    }
+
+    @Spawns("wallTile")
+    public Entity newWallTile(SpawnData data) {
         return FXGL.entityBuilder(data)
                 .type(EntityType.WALL)
                 // Use the constant from your Config file
@@ -25,4 +63,23 @@ public class WallFactory implements EntityFactory {
                 .viewWithBBox(new Rectangle(Config.WALL_SIZE, Config.WALL_SIZE, Color.GRAY))
                 .build();
     }
+
+    private static WritableImage wallImage(LevelData level) {
+        WritableImage image = IMAGES.get(level);
+        if (image == null) {
+            image = new WritableImage(Config.SCREEN_WIDTH, Config.SCREEN_HEIGHT);
+            PixelWriter pixels = image.getPixelWriter();
+            for (Rectangle2D run : level.getWalls()) {
+                int maxX = Math.min(Config.SCREEN_WIDTH, (int) run.getMaxX());
+                int maxY = Math.min(Config.SCREEN_HEIGHT, (int) run.getMaxY());
+                for (int y = Math.max(0, (int) run.getMinY()); y < maxY; y++) {
+                    for (int x = Math.max(0, (int) run.getMinX()); x < maxX; x++) {
+                        pixels.setArgb(x, y, WALL_ARGB);
+                    }
+                }
+            }
+            IMAGES.put(level, image);
+        }
+        return image;
+    }
 }
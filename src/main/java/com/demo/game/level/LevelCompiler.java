@@ -0,0 +1,229 @@
+// File: com/demo/game/level/LevelCompiler.java
+package com.demo.game.level;
+
+import com.demo.game.ai.NavigationGrid;
+import javafx.geometry.Point2D;
+import javafx.geometry.Rectangle2D;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns a Tiled map (TMX) into {@link LevelData}. What is read:
+ * <ul>
+ *   <li>Objects in any object layer, by their {@code type} property (or the object's type or
+ *       class attribute): "wall" rectangles, "portal" rectangles whose {@code target} property is
+ *       the id of the portal they lead to, and "player", "ai", "bomb" and "start" spawn points
+ *       (the object's top-left corner). Objects of any other type are ignored.</li>
+ *   <li>Tile layers in CSV encoding: every non-empty tile is a wall.</li>
+ * </ul>
+ * Walls are then merged: tiles into runs, and rectangles that share a whole edge into one, so
+ * a border drawn as dozens of pieces ends up as a handful of colliders.
+ */
+public final class LevelCompiler {
+
+    private LevelCompiler() {}
+
+    // --- TMX ---
+
+    public static LevelData compileTmx(String name, byte[] tmx) throws IOException {
+        List<Rectangle2D> walls = new ArrayList<>();
+        Map<String, Rectangle2D> portalBounds = new LinkedHashMap<>(); // By object id
+        Map<String, String> portalTargets = new HashMap<>();
+        Map<String, List<Point2D>> spawns = new LinkedHashMap<>();
+
+        try {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            XMLStreamReader xml = factory.createXMLStreamReader(new ByteArrayInputStream(tmx));
+            int tileWidth = 0, tileHeight = 0, layerWidth = 0;
+            boolean inCsv = false;
+            StringBuilder csv = new StringBuilder();
+            RawObject object = null;
+
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (xml.getLocalName()) {
+                        case "map":
+                            tileWidth = intAttribute(xml, "tilewidth", 0);
+                            tileHeight = intAttribute(xml, "tileheight", 0);
+                            break;
+                        case "layer":
+                            layerWidth = intAttribute(xml, "width", 0);
+                            break;
+                        case "data":
+                            inCsv = "csv".equals(xml.getAttributeValue(null, "encoding"));
+                            csv.setLength(0);
+                            break;
+                        case "object":
+                            object = new RawObject();
+                            object.id = xml.getAttributeValue(null, "id");
+                            object.x = doubleAttribute(xml, "x");
+                            object.y = doubleAttribute(xml, "y");
+                            object.width = doubleAttribute(xml, "width");
+                            object.height = doubleAttribute(xml, "height");
+                            String type = xml.getAttributeValue(null, "type");
+                            if (type == null) type = xml.getAttributeValue(null, "class");
+                            object.type = type;
+                            break;
+                        case "property":
+                            if (object != null) {
+                                String property = xml.getAttributeValue(null, "name");
+                                String value = xml.getAttributeValue(null, "value");
+                                if ("type".equals(property)) object.type = value;
+                                if ("target".equals(property)) object.target = value;
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                } else if (event == XMLStreamConstants.CHARACTERS && inCsv) {
+                    csv.append(xml.getText());
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String element = xml.getLocalName();
+                    if ("data".equals(element) && inCsv) {
+                        addTileWalls(csv, layerWidth, tileWidth, tileHeight, walls);
+                        inCsv = false;
+                    } else if ("object".equals(element) && object != null) {
+                        addObject(object, walls, portalBounds, portalTargets, spawns);
+                        object = null;
+                    }
+                }
+            }
+            xml.close();
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new IOException("Invalid TMX level " + name + ": " + e.getMessage(), e);
+        }
+
+        // Portal targets are object ids in the file; the compiled level refers to portals by index
+        List<String> portalIds = new ArrayList<>(portalBounds.keySet());
+        List<LevelData.Portal> portals = new ArrayList<>();
+        for (String id : portalIds) {
+            String target = portalTargets.get(id);
+            portals.add(new LevelData.Portal(portalBounds.get(id), target != null ? portalIds.indexOf(target) : -1));
+        }
+        return compile(name, walls, portals, spawns);
+    }
+
+    private static final class RawObject {
+        String id, type, target;
+        double x, y, width, height;
+    }
+
+    private static void addObject(RawObject object, List<Rectangle2D> walls, Map<String, Rectangle2D> portalBounds,
+                                  Map<String, String> portalTargets, Map<String, List<Point2D>> spawns) {
+        if (object.type == null) return;
+        String type = object.type.trim().toLowerCase();
+        switch (type) {
+            case "wall":
+                if (object.width > 0 && object.height > 0) {
+                    walls.add(new Rectangle2D(object.x, object.y, object.width, object.height));
+                }
+                break;
+            case "portal":
+                if (object.width > 0 && object.height > 0 && object.id != null) {
+                    portalBounds.put(object.id, new Rectangle2D(object.x, object.y, object.width, object.height));
+                    if (object.target != null) portalTargets.put(object.id, object.target.trim());
+                }
+                break;
+            case LevelData.PLAYER:
+            case LevelData.AI:
+            case LevelData.BOMB:
+            case LevelData.START:
+                spawns.computeIfAbsent(type, k -> new ArrayList<>()).add(new Point2D(object.x, object.y));
+                break;
+            default:
+                break;
+        }
+    }
+
+    // One run per horizontal stretch of solid tiles; compile() merges runs stacked on each other
+    private static void addTileWalls(CharSequence csv, int layerWidth, int tileWidth, int tileHeight, List<Rectangle2D> walls) {
+        if (layerWidth <= 0 || tileWidth <= 0 || tileHeight <= 0) return;
+        String[] cells = csv.toString().split(",");
+        int runStart = -1;
+        for (int i = 0; i <= cells.length; i++) {
+            boolean solid = i < cells.length && Long.parseLong(cells[i].trim()) != 0;
+            boolean rowStart = i % layerWidth == 0;
+            if (runStart != -1 && (!solid || rowStart)) {
+                int row = runStart / layerWidth;
+                walls.add(new Rectangle2D((runStart % layerWidth) * tileWidth, row * tileHeight,
+                        (i - runStart) * tileWidth, tileHeight));
+                runStart = -1;
+            }
+            if (solid && runStart == -1) runStart = i;
+        }
+    }
+
+    // --- Compilation ---
+
+    static LevelData compile(String name, List<Rectangle2D> walls, List<LevelData.Portal> portals,
+                             Map<String, List<Point2D>> spawns) {
+        List<Rectangle2D> merged = mergeWalls(walls);
+
+        NavigationGrid grid = LevelData.newEmptyGrid();
+        for (Rectangle2D wall : merged) {
+            grid.blockRect(wall.getMinX(), wall.getMinY(), wall.getWidth(), wall.getHeight(), LevelData.WALL_MARGIN);
+        }
+        long[] blocked = new long[(grid.getCellCount() + 63) / 64];
+        for (int cell = 0; cell < grid.getCellCount(); cell++) {
+            if (grid.isBlocked(cell)) blocked[cell >>> 6] |= 1L << cell;
+        }
+        return new LevelData(name, merged, new ArrayList<>(portals), new LinkedHashMap<>(spawns), blocked);
+    }
+
+    /** Joins rectangles that share a whole edge until no two do. */
+    static List<Rectangle2D> mergeWalls(List<Rectangle2D> walls) {
+        List<Rectangle2D> merged = new ArrayList<>(walls);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < merged.size() && !changed; i++) {
+                for (int j = i + 1; j < merged.size(); j++) {
+                    Rectangle2D joined = join(merged.get(i), merged.get(j));
+                    if (joined != null) {
+                        merged.set(i, joined);
+                        merged.remove(j);
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return merged;
+    }
+
+    private static Rectangle2D join(Rectangle2D a, Rectangle2D b) {
+        if (a.getMinY() == b.getMinY() && a.getHeight() == b.getHeight()
+                && (a.getMaxX() == b.getMinX() || b.getMaxX() == a.getMinX())) {
+            double minX = Math.min(a.getMinX(), b.getMinX());
+            return new Rectangle2D(minX, a.getMinY(), a.getWidth() + b.getWidth(), a.getHeight());
+        }
+        if (a.getMinX() == b.getMinX() && a.getWidth() == b.getWidth()
+                && (a.getMaxY() == b.getMinY() || b.getMaxY() == a.getMinY())) {
+            double minY = Math.min(a.getMinY(), b.getMinY());
+            return new Rectangle2D(a.getMinX(), minY, a.getWidth(), a.getHeight() + b.getHeight());
+        }
+        return null;
+    }
+
+    private static int intAttribute(XMLStreamReader xml, String name, int fallback) {
+        String value = xml.getAttributeValue(null, name);
+        return (value != null) ? Integer.parseInt(value.trim()) : fallback;
+    }
+
+    private static double doubleAttribute(XMLStreamReader xml, String name) {
+        String value = xml.getAttributeValue(null, name);
+        return (value != null) ? Double.parseDouble(value.trim()) : 0;
+    }
+}
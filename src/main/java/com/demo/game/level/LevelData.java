@@ -0,0 +1,170 @@
+// File: com/demo/game/level/LevelData.java
+package com.demo.game.level;
+
+import com.demo.game.ai.NavigationGrid;
+import com.demo.game.sim.Arena;
+import com.demo.game.sim.SimConfig;
+import javafx.geometry.Point2D;
+import javafx.geometry.Rectangle2D;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A level compiled for play: wall colliders already merged into as few rectangles as possible,
+ * portal pairs, spawn points by kind, and the navigation grid rasterized from the walls. Built
+ * by {@link LevelCompiler} from a TMX file and stored by {@link LevelLoader} in its binary
+ * cache, so a launch that has seen the level before never touches the XML.
+ * <p>
+ * Spawn kinds are "player" and "ai" (single-player starting positions), "bomb", and "start"
+ * (multiplayer starting positions, handed out by the server in shuffled order).
+ */
+public final class LevelData {
+
+    public static final String PLAYER = Arena.PLAYER;
+    public static final String AI = Arena.AI;
+    public static final String BOMB = Arena.BOMB;
+    public static final String START = Arena.START;
+
+    /** Navigation cell size and how far a character's center stays from a wall. */
+    public static final double CELL_SIZE = Arena.CELL_SIZE;
+    public static final double WALL_MARGIN = Arena.WALL_MARGIN;
+
+    /** A portal; characters touching it come out at the center of portal {@code target}. */
+    public static final class Portal {
+        public final Rectangle2D bounds;
+        public final int target; // Index into getPortals(), or -1
+
+        public Portal(Rectangle2D bounds, int target) {
+            this.bounds = bounds;
+            this.target = target;
+        }
+    }
+
+    private static LevelData builtIn; // Compiled on first use
+
+    private final String name;
+    private final List<Rectangle2D> walls;
+    private final List<Portal> portals;
+    private final Map<String, List<Point2D>> spawns;
+    private final long[] blockedCells; // Navigation grid bitmap, one bit per cell
+    private Arena arena; // Converted on first use
+
+    LevelData(String name, List<Rectangle2D> walls, List<Portal> portals,
+              Map<String, List<Point2D>> spawns, long[] blockedCells) {
+        this.name = name;
+        this.walls = Collections.unmodifiableList(walls);
+        this.portals = Collections.unmodifiableList(portals);
+        this.spawns = Collections.unmodifiableMap(spawns);
+        this.blockedCells = blockedCells;
+    }
+
+    /** The arena used when there is no level file: the screen border, two portals and the original spawn points. */
+    public static synchronized LevelData builtIn() {
+        if (builtIn == null) {
+            builtIn = compileBuiltIn();
+        }
+        return builtIn;
+    }
+
+    // The built-in arena's geometry lives in Arena, where code without JavaFX can reach it
+    private static LevelData compileBuiltIn() {
+        Arena arena = Arena.builtIn();
+        double[] flat = arena.getWalls();
+        List<Rectangle2D> walls = new ArrayList<>();
+        for (int w = 0; w < flat.length; w += 4) {
+            walls.add(new Rectangle2D(flat[w], flat[w + 1], flat[w + 2], flat[w + 3]));
+        }
+        double[] portalRects = arena.getPortals();
+        List<Portal> portals = new ArrayList<>();
+        for (int p = 0; p < arena.getPortalCount(); p++) {
+            portals.add(new Portal(new Rectangle2D(portalRects[p * 4], portalRects[p * 4 + 1],
+                    portalRects[p * 4 + 2], portalRects[p * 4 + 3]), arena.getPortalTarget(p)));
+        }
+
+        Map<String, List<Point2D>> spawns = new LinkedHashMap<>();
+        for (String kind : List.of(PLAYER, AI, START)) {
+            double[] points = arena.getSpawns(kind);
+            List<Point2D> list = new ArrayList<>();
+            for (int p = 0; p < points.length; p += 2) {
+                list.add(new Point2D(points[p], points[p + 1]));
+            }
+            spawns.put(kind, list);
+        }
+        return LevelCompiler.compile("built-in", walls, portals, spawns);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Rectangle2D> getWalls() {
+        return walls;
+    }
+
+    public List<Portal> getPortals() {
+        return portals;
+    }
+
+    /** Spawn points of one kind, in the order the level lists them; empty if it has none. */
+    public List<Point2D> getSpawns(String kind) {
+        return spawns.getOrDefault(kind, List.of());
+    }
+
+    Map<String, List<Point2D>> getAllSpawns() {
+        return spawns;
+    }
+
+    long[] getBlockedCells() {
+        return blockedCells;
+    }
+
+    /**
+     * The level as the simulation sees it, with the navigation grid restored from the compiled
+     * bitmap. Converted once; the arena is shared by every match on this level.
+     */
+    public synchronized Arena toArena() {
+        if (arena == null) {
+            double[] wallRects = new double[walls.size() * 4];
+            for (int w = 0; w < walls.size(); w++) {
+                putRect(wallRects, w, walls.get(w));
+            }
+            double[] portalRects = new double[portals.size() * 4];
+            int[] targets = new int[portals.size()];
+            for (int p = 0; p < portals.size(); p++) {
+                putRect(portalRects, p, portals.get(p).bounds);
+                targets[p] = portals.get(p).target;
+            }
+            Map<String, double[]> points = new LinkedHashMap<>();
+            spawns.forEach((kind, list) -> {
+                double[] flat = new double[list.size() * 2];
+                for (int i = 0; i < list.size(); i++) {
+                    flat[i * 2] = list.get(i).getX();
+                    flat[i * 2 + 1] = list.get(i).getY();
+                }
+                points.put(kind, flat);
+            });
+            NavigationGrid grid = newEmptyGrid();
+            for (int cell = 0; cell < grid.getCellCount(); cell++) {
+                if ((blockedCells[cell >>> 6] & (1L << cell)) != 0) grid.block(cell);
+            }
+            Arena.linkPortals(grid, portalRects, targets);
+            arena = new Arena(name, SimConfig.SCREEN_WIDTH, SimConfig.SCREEN_HEIGHT, wallRects, portalRects, targets, points, grid);
+        }
+        return arena;
+    }
+
+    private static void putRect(double[] flat, int index, Rectangle2D rect) {
+        flat[index * 4] = rect.getMinX();
+        flat[index * 4 + 1] = rect.getMinY();
+        flat[index * 4 + 2] = rect.getWidth();
+        flat[index * 4 + 3] = rect.getHeight();
+    }
+
+    static NavigationGrid newEmptyGrid() {
+        return new NavigationGrid(SimConfig.SCREEN_WIDTH, SimConfig.SCREEN_HEIGHT, CELL_SIZE);
+    }
+}
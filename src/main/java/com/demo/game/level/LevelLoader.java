@@ -0,0 +1,245 @@
+// File: com/demo/game/level/LevelLoader.java
+package com.demo.game.level;
+
+import javafx.geometry.Point2D;
+import javafx.geometry.Rectangle2D;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads levels by name from {@code assets/levels/<name>.tmx}. The first launch that sees a
+ * level compiles it with {@link LevelCompiler} and writes the result to a binary cache file
+ * named after the SHA-256 of the TMX contents; later launches read that file instead, which
+ * skips XML parsing, wall merging and rasterizing. Editing the TMX changes the hash, so a stale
+ * cache is never used, and the old file is deleted when the new one is written. Loaded levels
+ * are also kept in memory for the life of the process.
+ * <p>
+ * A name with no TMX resource gets {@link LevelData#builtIn()}.
+ * <pre>
+ *   -Dlevel.cacheDir=level-cache   where compiled levels are stored
+ *   -Dlevel.cache=false            always compile from the TMX
+ *   -Dlevel.arena=arena            the level multiplayer matches are played on, server and clients alike
+ * </pre>
+ * Cache layout (big-endian): magic, version, the TMX hash, then walls ({@code short n, n x 4
+ * floats}), portals ({@code short n, n x (4 floats, short target)}), spawns ({@code short kinds,
+ * kinds x (utf kind, short n, n x 2 floats)}) and the navigation bitmap ({@code int words, words
+ * x long}).
+ */
+public final class LevelLoader {
+
+    public static final int MAGIC = 0x48504C56; // "HPLV"
+    public static final int VERSION = 1;        // Bump whenever the compiler's output changes
+
+    private static final String RESOURCE_DIR = "/assets/levels/";
+    private static final boolean CACHE_ENABLED = Boolean.parseBoolean(System.getProperty("level.cache", "true"));
+    private static final Map<String, LevelData> LOADED = new HashMap<>();
+
+    private LevelLoader() {}
+
+    /** The level multiplayer matches use. */
+    public static String arenaName() {
+        return System.getProperty("level.arena", "arena");
+    }
+
+    /** The level for single-player level {@code number}. */
+    public static String singlePlayerName(int number) {
+        return "level" + number;
+    }
+
+    public static synchronized LevelData load(String name) {
+        LevelData level = LOADED.get(name);
+        if (level == null) {
+            level = loadUncached(name);
+            LOADED.put(name, level);
+        }
+        return level;
+    }
+
+    private static LevelData loadUncached(String name) {
+        long start = System.nanoTime();
+        byte[] tmx;
+        try (InputStream in = LevelLoader.class.getResourceAsStream(RESOURCE_DIR + name + ".tmx")) {
+            if (in == null) return LevelData.builtIn();
+            tmx = in.readAllBytes();
+        } catch (IOException e) {
+            System.err.println("Could not read level " + name + ", using the built-in arena: " + e.getMessage());
+            return LevelData.builtIn();
+        }
+
+        byte[] hash = sha256(tmx);
+        File cacheFile = new File(cacheDirectory(), name + "-" + hex(hash, 8) + ".hpl");
+        if (CACHE_ENABLED && cacheFile.isFile()) {
+            try {
+                LevelData level = readCache(name, cacheFile, hash);
+                System.out.printf("Level %s loaded from cache in %.2f ms%n", name, (System.nanoTime() - start) / 1_000_000.0);
+                return level;
+            } catch (IOException e) {
+                System.err.println("Ignoring level cache " + cacheFile + ": " + e.getMessage());
+            }
+        }
+
+        LevelData level;
+        try {
+            level = LevelCompiler.compileTmx(name, tmx);
+        } catch (IOException e) {
+            System.err.println(e.getMessage() + "; using the built-in arena");
+            return LevelData.builtIn();
+        }
+        System.out.printf("Level %s compiled from TMX in %.2f ms (%d walls after merging)%n",
+                name, (System.nanoTime() - start) / 1_000_000.0, level.getWalls().size());
+        if (CACHE_ENABLED) writeCache(name, cacheFile, hash, level);
+        return level;
+    }
+
+    private static File cacheDirectory() {
+        return new File(System.getProperty("level.cacheDir", "level-cache"));
+    }
+
+    // --- Cache File ---
+
+    private static void writeCache(String name, File file, byte[] hash, LevelData level) {
+        File dir = file.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            System.err.println("Could not create level cache directory " + dir);
+            return;
+        }
+        File temp = new File(dir, file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.write(hash);
+            out.writeShort(level.getWalls().size());
+            for (Rectangle2D wall : level.getWalls()) {
+                writeRect(out, wall);
+            }
+            out.writeShort(level.getPortals().size());
+            for (LevelData.Portal portal : level.getPortals()) {
+                writeRect(out, portal.bounds);
+                out.writeShort(portal.target);
+            }
+            out.writeShort(level.getAllSpawns().size());
+            for (Map.Entry<String, List<Point2D>> kind : level.getAllSpawns().entrySet()) {
+                out.writeUTF(kind.getKey());
+                out.writeShort(kind.getValue().size());
+                for (Point2D point : kind.getValue()) {
+                    out.writeFloat((float) point.getX());
+                    out.writeFloat((float) point.getY());
+                }
+            }
+            long[] blocked = level.getBlockedCells();
+            out.writeInt(blocked.length);
+            for (long word : blocked) {
+                out.writeLong(word);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not write level cache " + file + ": " + e.getMessage());
+            temp.delete();
+            return;
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write level cache " + file + ": " + e.getMessage());
+            temp.delete();
+            return;
+        }
+        // Caches of earlier versions of this level
+        File[] stale = dir.listFiles((d, fileName) -> fileName.startsWith(name + "-") && fileName.endsWith(".hpl")
+                && !fileName.equals(file.getName()));
+        if (stale != null) {
+            for (File old : stale) {
+                old.delete();
+            }
+        }
+    }
+
+    private static LevelData readCache(String name, File file, byte[] expectedHash) throws IOException {
+        byte[] bytes;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            bytes = in.readAllBytes();
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != MAGIC) throw new IOException("not a level cache");
+        int version = in.readInt();
+        if (version != VERSION) throw new IOException("cache version " + version + ", expected " + VERSION);
+        byte[] hash = new byte[expectedHash.length];
+        in.readFully(hash);
+        if (!MessageDigest.isEqual(hash, expectedHash)) throw new IOException("cache is for a different TMX");
+
+        int count = in.readShort();
+        List<Rectangle2D> walls = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            walls.add(readRect(in));
+        }
+        count = in.readShort();
+        List<LevelData.Portal> portals = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Rectangle2D bounds = readRect(in);
+            portals.add(new LevelData.Portal(bounds, in.readShort()));
+        }
+        count = in.readShort();
+        Map<String, List<Point2D>> spawns = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String kind = in.readUTF();
+            int points = in.readShort();
+            List<Point2D> list = new ArrayList<>(points);
+            for (int p = 0; p < points; p++) {
+                list.add(new Point2D(in.readFloat(), in.readFloat()));
+            }
+            spawns.put(kind, list);
+        }
+        long[] blocked = new long[in.readInt()];
+        if (blocked.length != (LevelData.newEmptyGrid().getCellCount() + 63) / 64) {
+            throw new IOException("navigation grid size differs from this build's arena");
+        }
+        for (int i = 0; i < blocked.length; i++) {
+            blocked[i] = in.readLong();
+        }
+        return new LevelData(name, walls, portals, spawns, blocked);
+    }
+
+    private static void writeRect(DataOutputStream out, Rectangle2D rect) throws IOException {
+        out.writeFloat((float) rect.getMinX());
+        out.writeFloat((float) rect.getMinY());
+        out.writeFloat((float) rect.getWidth());
+        out.writeFloat((float) rect.getHeight());
+    }
+
+    private static Rectangle2D readRect(DataInputStream in) throws IOException {
+        return new Rectangle2D(in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat());
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every JVM", e);
+        }
+    }
+
+    private static String hex(byte[] bytes, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(String.format("%02x", bytes[i]));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,148 @@
+// File: com/demo/game/loadtest/Bot.java
+package com.demo.game.loadtest;
+
+import com.demo.game.Config;
+import com.demo.game.network.GameClient;
+import com.demo.game.network.TransportConnector;
+import com.demo.game.network.messages.GameStateUpdateMessage;
+import com.demo.game.network.messages.NetworkMessage;
+import com.demo.game.network.messages.PlayerInputMessage;
+import com.demo.game.network.messages.PlayerInputMessage.InputType;
+import com.demo.game.network.messages.SPoint2D;
+
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A scripted player that speaks the real client protocol.
+ * <p>
+ * It steers like {@link com.demo.game.components.AIComponent}: chase the nearest player while
+ * holding the bomb and try to pass it when in range, run from the holder otherwise, and wander
+ * when nobody has it. Inputs are sent the way the game client sends them, as held keys that
+ * repeat every frame and a STOP when released.
+ */
+class Bot {
+
+    private static final long WANDER_CHANGE_NANOS = 2_000_000_000L;
+    private static final long PASS_RETRY_NANOS = (long) (Config.PASS_COOLDOWN.toMillis() * 1_000_000L);
+    private static final double AXIS_DEADZONE = 0.3; // Fraction of the direction below which an axis is released
+
+    private final GameClient client;
+    private final SwarmStats stats;
+    private final Random random;
+
+    // Only touched on the client's receiver thread (callbacks run inline)
+    private int heldX = 0;
+    private int heldY = 0;
+    private double wanderX, wanderY;
+    private long nextWanderChangeNanos = 0;
+    private long lastPassAttemptNanos = Long.MIN_VALUE / 2;
+
+    Bot(String name, TransportConnector connector, SwarmStats stats, long seed) {
+        this.stats = stats;
+        this.random = new Random(seed);
+        this.client = new GameClient(() -> new CountingTransport(connector.connect(), stats), name, false);
+        client.setUsername(name);
+        client.setCallbackExecutor(Runnable::run);
+        client.setOnMessageReceived(this::onMessage);
+    }
+
+    void start() {
+        Thread thread = new Thread(client, "bot-" + client.hashCode());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void stop() {
+        client.stopClient();
+    }
+
+    private void onMessage(NetworkMessage message) {
+        if (message instanceof GameStateUpdateMessage) {
+            GameStateUpdateMessage update = (GameStateUpdateMessage) message;
+            stats.snapshotLatency.record(System.nanoTime() - update.serverTimeNanos);
+            steer(update);
+        }
+    }
+
+    private void steer(GameStateUpdateMessage update) {
+        int myId = client.getAssignedClientId();
+        Map<Integer, SPoint2D> positions = update.playerPositions;
+        SPoint2D me = positions.get(myId);
+        if (me == null) { // Eliminated
+            hold(0, 0);
+            return;
+        }
+
+        long now = System.nanoTime();
+        double dx, dy;
+        if (update.bombHolderId == myId) {
+            // Attacking: head for the nearest player and pass when close enough
+            SPoint2D target = null;
+            double bestDistSq = Double.MAX_VALUE;
+            for (Map.Entry<Integer, SPoint2D> entry : positions.entrySet()) {
+                if (entry.getKey() == myId) continue;
+                SPoint2D p = entry.getValue();
+                double distSq = (p.x - me.x) * (p.x - me.x) + (p.y - me.y) * (p.y - me.y);
+                if (distSq < bestDistSq) {
+                    bestDistSq = distSq;
+                    target = p;
+                }
+            }
+            if (target == null) {
+                hold(0, 0);
+                return;
+            }
+            dx = target.x - me.x;
+            dy = target.y - me.y;
+            if (bestDistSq <= Config.PASS_RANGE * Config.PASS_RANGE && now - lastPassAttemptNanos >= PASS_RETRY_NANOS) {
+                lastPassAttemptNanos = now;
+                stats.passesAttempted.increment();
+                client.sendMessage(new PlayerInputMessage(InputType.PASS_BOMB));
+            }
+        } else if (update.bombHolderId != -1 && positions.containsKey(update.bombHolderId)) {
+            // Evading: run directly away from the holder
+            SPoint2D holder = positions.get(update.bombHolderId);
+            dx = me.x - holder.x;
+            dy = me.y - holder.y;
+        } else {
+            // Wandering: pick a new random heading every couple of seconds
+            if (now >= nextWanderChangeNanos) {
+                double angle = random.nextDouble() * Math.PI * 2;
+                wanderX = Math.cos(angle);
+                wanderY = Math.sin(angle);
+                nextWanderChangeNanos = now + WANDER_CHANGE_NANOS;
+            }
+            dx = wanderX;
+            dy = wanderY;
+        }
+
+        double length = Math.sqrt(dx * dx + dy * dy);
+        if (length == 0) {
+            hold(0, 0);
+            return;
+        }
+        hold(axis(dx / length), axis(dy / length));
+    }
+
+    private static int axis(double component) {
+        if (Math.abs(component) < AXIS_DEADZONE) return 0;
+        return component < 0 ? -1 : 1;
+    }
+
+    // Mirrors GameApp's key handling: held keys repeat every frame, released keys send one STOP.
+    private void hold(int x, int y) {
+        if (x != 0) {
+            client.sendMessage(new PlayerInputMessage(x < 0 ? InputType.MOVE_LEFT : InputType.MOVE_RIGHT));
+        } else if (heldX != 0) {
+            client.sendMessage(new PlayerInputMessage(InputType.STOP_X));
+        }
+        if (y != 0) {
+            client.sendMessage(new PlayerInputMessage(y < 0 ? InputType.MOVE_UP : InputType.MOVE_DOWN));
+        } else if (heldY != 0) {
+            client.sendMessage(new PlayerInputMessage(InputType.STOP_Y));
+        }
+        heldX = x;
+        heldY = y;
+    }
+}
@@ -0,0 +1,167 @@
+// File: com/demo/game/loadtest/BotSwarm.java
+package com.demo.game.loadtest;
+
+import com.demo.game.metrics.LatencyHistogram;
+import com.demo.game.network.GameServer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Capacity test for GameServer: runs a ramp of in-process rooms full of scripted bots and
+ * prints one report line per step, so the point where ticks blow their budget is easy to spot.
+ * <pre>
+ *   --rooms 1,2,4,8,16,32   room counts to ramp through
+ *   --bots 6                bots per room
+ *   --warmup 3              seconds before measuring each step
+ *   --seconds 15            seconds measured per step
+ *   --tcp 20000             use real sockets from this port upwards instead of the in-memory transport
+ *   --seed 1                bot behaviour seed
+ * </pre>
+ * Finished matches are replaced with fresh rooms during a step so the load stays constant.
+ * Rooms still keep a black box, but it is not written out at every game over unless
+ * {@code -Dblackbox.dumpOnGameOver=true} is given, and matches are only journaled with
+ * {@code -Djournal.enabled=true}.
+ */
+public class BotSwarm {
+
+    private static final double TICK_BUDGET_NANOS = 1_000_000_000.0 / GameServer.GAME_UPDATE_RATE_HZ;
+
+    private int[] roomSteps = {1, 2, 4, 8, 16, 32};
+    private int botsPerRoom = 6;
+    private int warmupSeconds = 3;
+    private int measureSeconds = 15;
+    private int basePort = -1;
+    private long seed = 1;
+
+    private int nextPort;
+    private int roomCounter = 0;
+
+    public static void main(String[] args) throws InterruptedException {
+        if (System.getProperty("blackbox.dumpOnGameOver") == null) {
+            System.setProperty("blackbox.dumpOnGameOver", "false"); // Recycled rooms would write a file per match
+        }
+        if (System.getProperty("journal.enabled") == null) {
+            System.setProperty("journal.enabled", "false"); // Same for match journals
+        }
+        BotSwarm swarm = new BotSwarm();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--rooms":   swarm.roomSteps = parseSteps(value); break;
+                case "--bots":    swarm.botsPerRoom = Integer.parseInt(value); break;
+                case "--warmup":  swarm.warmupSeconds = Integer.parseInt(value); break;
+                case "--seconds": swarm.measureSeconds = Integer.parseInt(value); break;
+                case "--tcp":     swarm.basePort = Integer.parseInt(value); break;
+                case "--seed":    swarm.seed = Long.parseLong(value); break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    return;
+            }
+        }
+        swarm.run();
+        System.exit(0); // Bot and server threads are daemons, but executors inside them are not
+    }
+
+    private static int[] parseSteps(String value) {
+        String[] parts = value.split(",");
+        int[] steps = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            steps[i] = Integer.parseInt(parts[i].trim());
+        }
+        return steps;
+    }
+
+    private void run() throws InterruptedException {
+        nextPort = basePort;
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%6s %6s | %9s %9s %9s %9s | %8s | %9s %9s | %9s %9s | %6s | %7s",
+                "rooms", "bots", "tick p50", "tick p99", "p99.9", "max", "ticks/s", "snap p50", "snap p99",
+                "out KB/s", "in KB/s", "cpu%", "matches"));
+
+        for (int rooms : roomSteps) {
+            System.out.println("=== Load step: " + rooms + " rooms x " + botsPerRoom + " bots ===");
+            report.add(runStep(rooms));
+        }
+
+        System.out.println();
+        System.out.println("Bot swarm report (" + (basePort < 0 ? "in-memory transport" : "TCP") + ", "
+                + Runtime.getRuntime().availableProcessors() + " CPUs, tick budget "
+                + LatencyHistogram.formatNanos((long) TICK_BUDGET_NANOS) + ")");
+        report.forEach(System.out::println);
+    }
+
+    private String runStep(int roomCount) throws InterruptedException {
+        SwarmStats stats = new SwarmStats();
+        LatencyHistogram ticks = new LatencyHistogram();
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < roomCount; i++) {
+            rooms.add(openRoom(stats));
+        }
+
+        sleepRecycling(rooms, stats, null, warmupSeconds * 1000L);
+        for (Room room : rooms) room.server.getTickDurations().reset();
+        stats.reset();
+
+        long cpuBefore = processCpuNanos();
+        long start = System.nanoTime();
+        sleepRecycling(rooms, stats, ticks, measureSeconds * 1000L);
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        double cpuPercent = 100.0 * (processCpuNanos() - cpuBefore) / (elapsedSeconds * 1_000_000_000.0)
+                / Runtime.getRuntime().availableProcessors();
+
+        for (Room room : rooms) {
+            room.server.getTickDurations().addTo(ticks);
+            room.close();
+        }
+
+        double ticksPerRoom = ticks.getCount() / elapsedSeconds / roomCount;
+        boolean overBudget = ticks.getPercentileNanos(99) > TICK_BUDGET_NANOS
+                || ticksPerRoom < GameServer.GAME_UPDATE_RATE_HZ * 0.95;
+        return String.format("%6d %6d | %9s %9s %9s %9s | %8.1f | %9s %9s | %9.1f %9.1f | %6.1f | %7d%s",
+                roomCount, roomCount * botsPerRoom,
+                LatencyHistogram.formatNanos(ticks.getPercentileNanos(50)),
+                LatencyHistogram.formatNanos(ticks.getPercentileNanos(99)),
+                LatencyHistogram.formatNanos(ticks.getPercentileNanos(99.9)),
+                LatencyHistogram.formatNanos(ticks.getMaxNanos()),
+                ticksPerRoom,
+                LatencyHistogram.formatNanos(stats.snapshotLatency.getPercentileNanos(50)),
+                LatencyHistogram.formatNanos(stats.snapshotLatency.getPercentileNanos(99)),
+                stats.bytesReceived.sum() / 1024.0 / elapsedSeconds,
+                stats.bytesSent.sum() / 1024.0 / elapsedSeconds,
+                cpuPercent,
+                stats.matchesCompleted.sum(),
+                overBudget ? "  <- over budget" : "");
+    }
+
+    private Room openRoom(SwarmStats stats) throws InterruptedException {
+        int port = (basePort < 0) ? -1 : nextPort++;
+        Room room = Room.open("room" + (roomCounter++), botsPerRoom, port, stats, seed + roomCounter);
+        if (!room.startMatch(10_000)) {
+            System.err.println("Not every bot reached the lobby in time; starting anyway.");
+            room.server.submitTask(room.server::startGame);
+        }
+        return room;
+    }
+
+    // Sleeps for the given time, replacing rooms whose match has ended.
+    private void sleepRecycling(List<Room> rooms, SwarmStats stats, LatencyHistogram ticks, long millis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + millis;
+        while (System.currentTimeMillis() < deadline) {
+            Thread.sleep(250);
+            for (int i = 0; i < rooms.size(); i++) {
+                Room room = rooms.get(i);
+                if (!room.server.isGameOver()) continue;
+                if (ticks != null) room.server.getTickDurations().addTo(ticks);
+                room.close();
+                stats.matchesCompleted.increment();
+                rooms.set(i, openRoom(stats));
+            }
+        }
+    }
+
+    private static long processCpuNanos() {
+        return ProcessHandle.current().info().totalCpuDuration().map(Duration::toNanos).orElse(0L);
+    }
+}
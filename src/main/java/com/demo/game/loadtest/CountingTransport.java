@@ -0,0 +1,48 @@
+// File: com/demo/game/loadtest/CountingTransport.java
+package com.demo.game.loadtest;
+
+import com.demo.game.network.Transport;
+
+import java.io.IOException;
+
+/** Counts the frames and bytes a bot sends and receives. */
+class CountingTransport implements Transport {
+
+    private final Transport inner;
+    private final SwarmStats stats;
+
+    CountingTransport(Transport inner, SwarmStats stats) {
+        this.inner = inner;
+        this.stats = stats;
+    }
+
+    @Override
+    public void send(byte[] frame) throws IOException {
+        inner.send(frame);
+        stats.framesSent.increment();
+        stats.bytesSent.add(frame.length);
+    }
+
+    @Override
+    public byte[] receive() throws IOException {
+        byte[] frame = inner.receive();
+        stats.framesReceived.increment();
+        stats.bytesReceived.add(frame.length);
+        return frame;
+    }
+
+    @Override
+    public void close() {
+        inner.close();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return inner.isClosed();
+    }
+
+    @Override
+    public String getRemoteDescription() {
+        return inner.getRemoteDescription();
+    }
+}
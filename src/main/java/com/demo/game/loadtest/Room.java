@@ -0,0 +1,68 @@
+// File: com/demo/game/loadtest/Room.java
+package com.demo.game.loadtest;
+
+import com.demo.game.network.GameServer;
+import com.demo.game.network.LoopbackListener;
+import com.demo.game.network.SocketTransport;
+import com.demo.game.network.SocketListener;
+import com.demo.game.network.TransportConnector;
+import com.demo.game.network.TransportListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** One real-time GameServer in this process plus the bots playing on it. */
+class Room {
+
+    final GameServer server;
+    private final List<Bot> bots = new ArrayList<>();
+    private final int botCount;
+
+    private Room(GameServer server, int botCount) {
+        this.server = server;
+        this.botCount = botCount;
+    }
+
+    /** Starts the server and connects its bots. Pass a port of -1 to use the in-memory transport. */
+    static Room open(String name, int botCount, int port, SwarmStats stats, long seed) {
+        TransportListener listener;
+        TransportConnector connector;
+        if (port < 0) {
+            LoopbackListener loopback = new LoopbackListener(name);
+            listener = loopback;
+            connector = loopback::connect;
+        } else {
+            listener = new SocketListener(port);
+            connector = () -> SocketTransport.connect("localhost", port);
+        }
+
+        Room room = new Room(new GameServer(listener, false), botCount);
+        Thread serverThread = new Thread(room.server, name + "-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        for (int i = 0; i < botCount; i++) {
+            Bot bot = new Bot(name + "-bot" + i, connector, stats, seed * 31 + i);
+            room.bots.add(bot);
+            bot.start();
+        }
+        return room;
+    }
+
+    /** Waits for every bot to register in the lobby, then starts the match. */
+    boolean startMatch(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (server.getCurrentPlayerUsernames().size() < botCount) {
+            if (System.currentTimeMillis() > deadline) return false;
+            Thread.sleep(20);
+        }
+        server.submitTask(server::startGame);
+        return true;
+    }
+
+    // Server first, so it does not hold slots for bots that are about to leave anyway.
+    void close() {
+        server.stopServer();
+        bots.forEach(Bot::stop);
+    }
+}
@@ -0,0 +1,27 @@
+// File: com/demo/game/loadtest/SwarmStats.java
+package com.demo.game.loadtest;
+
+import com.demo.game.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Counters shared by every bot in one step of a load test. */
+class SwarmStats {
+    final LatencyHistogram snapshotLatency = new LatencyHistogram(); // Server tick -> bot callback
+    final LongAdder bytesSent = new LongAdder();     // Bots -> servers
+    final LongAdder bytesReceived = new LongAdder(); // Servers -> bots
+    final LongAdder framesSent = new LongAdder();
+    final LongAdder framesReceived = new LongAdder();
+    final LongAdder passesAttempted = new LongAdder();
+    final LongAdder matchesCompleted = new LongAdder();
+
+    void reset() {
+        snapshotLatency.reset();
+        bytesSent.reset();
+        bytesReceived.reset();
+        framesSent.reset();
+        framesReceived.reset();
+        passesAttempted.reset();
+        matchesCompleted.reset();
+    }
+}
@@ -0,0 +1,326 @@
+// File: com/demo/game/logging/AsyncLog.java
+package com.demo.game.logging;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The log behind every {@link Logger}: a preallocated ring of {@link LogRecord} slots filled by
+ * any thread and drained by one background writer.
+ * <p>
+ * Logging never blocks and never allocates on the calling thread. A caller claims a slot with a
+ * compare-and-set, fills it in and publishes it; formatting and all I/O happen on the writer
+ * thread. If the writer falls a whole buffer behind, new records are dropped and counted rather
+ * than making the tick thread wait. Settings are read once at startup:
+ * <pre>
+ *   -Dlog.level=DEBUG        lowest level written (INFO by default)
+ *   -Dlog.console=false      do not echo records to stdout/stderr (on by default)
+ *   -Dlog.dir=logs           directory for the log files
+ *   -Dlog.file=game          file name, giving logs/game.log, logs/game.1.log, ...
+ *   -Dlog.maxFileMb=10       size at which the current file is rolled over
+ *   -Dlog.maxFiles=5         rolled files kept besides the current one
+ *   -Dlog.bufferSize=8192    ring buffer slots, rounded up to a power of two
+ * </pre>
+ * Records are written one per line in logfmt style so they can be grepped or parsed:
+ * <pre>
+ *   2025-10-20 13:09:30.512 INFO  server [pool-2-thread-1] bomb_passed room=0.0.0.0:12345 client=2 tick=481 target=0
+ * </pre>
+ */
+public final class AsyncLog {
+
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long STALL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    // A slot claimed but not published for this long is skipped, e.g. the caller threw before log()
+    private static final long STALL_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final class Holder {
+        static final AsyncLog GLOBAL = fromSystemProperties();
+    }
+
+    private final LogRecord[] slots;
+    private final int mask;
+    private final Level threshold;
+    private final boolean console;
+    private final File directory;
+    private final String fileName;
+    private final long maxFileBytes;
+    private final int maxFiles;
+
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed = 0;
+    private volatile long flushRequested = 0; // Sequence flush() waits to see written out
+    private volatile long flushed = 0;        // Everything before this is in the console and file
+    private final LongAdder dropped = new LongAdder();
+
+    // --- Writer thread state ---
+    private final StringBuilder line = new StringBuilder(256);
+    private Writer file;
+    private long fileBytes;
+    private boolean fileDisabled;
+    private long droppedReported;
+    private final Thread writerThread;
+
+    public AsyncLog(int bufferSize, Level threshold, boolean console, File directory, String fileName,
+                    long maxFileBytes, int maxFiles) {
+        int capacity = Integer.highestOneBit(Math.max(2, bufferSize - 1)) << 1;
+        this.slots = new LogRecord[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new LogRecord(this);
+        }
+        this.mask = capacity - 1;
+        this.threshold = threshold;
+        this.console = console;
+        this.directory = directory;
+        this.fileName = fileName;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+
+        writerThread = new Thread(this::drain, "log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "log-flush"));
+    }
+
+    public static AsyncLog global() {
+        return Holder.GLOBAL;
+    }
+
+    private static AsyncLog fromSystemProperties() {
+        Level level;
+        try {
+            level = Level.valueOf(System.getProperty("log.level", "INFO").trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Ignoring invalid log.level: " + System.getProperty("log.level"));
+            level = Level.INFO;
+        }
+        return new AsyncLog(
+                Integer.getInteger("log.bufferSize", 8192),
+                level,
+                Boolean.parseBoolean(System.getProperty("log.console", "true")),
+                new File(System.getProperty("log.dir", "logs")),
+                System.getProperty("log.file", "game"),
+                Long.getLong("log.maxFileMb", 10) * 1024 * 1024,
+                Integer.getInteger("log.maxFiles", 5));
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.compareTo(threshold) >= 0;
+    }
+
+    /** Records dropped because the writer was a whole buffer behind. */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    LogRecord claim(Level level, String logger, String room, String event) {
+        if (level.compareTo(threshold) < 0) return LogRecord.DISCARD;
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= slots.length) {
+                dropped.increment();
+                return LogRecord.DISCARD;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        LogRecord record = slots[(int) (sequence & mask)];
+        record.start(sequence, level, logger, room, event);
+        return record;
+    }
+
+    /** Waits (briefly) until everything logged so far has been written and flushed. */
+    public void flush() {
+        long target = claimed.get();
+        long deadline = System.nanoTime() + STALL_TIMEOUT_NANOS * 2;
+        while (flushed < target && System.nanoTime() < deadline) {
+            if (flushRequested < target) flushRequested = target; // Re-raised if a concurrent flush() lowered it
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(STALL_PARK_NANOS);
+        }
+    }
+
+    // True while the writer has not moved past the record, i.e. its producer may still publish it
+    boolean isPending(long sequence) {
+        return sequence >= consumed;
+    }
+
+    // --- Writer Thread ---
+
+    private void drain() {
+        long stalledSince = -1;
+        while (true) {
+            long next = consumed;
+            if (next >= flushRequested && flushRequested > flushed) {
+                flushOutputs(); // Asked for while records keep coming, so it cannot wait for the idle pass
+                flushed = next;
+            }
+            LogRecord record = slots[(int) (next & mask)];
+            if (record.published == next) {
+                write(record);
+                record.clear();
+                consumed = next + 1;
+                stalledSince = -1;
+                continue;
+            }
+
+            if (claimed.get() == next) {
+                flushOutputs(); // Caught up
+                flushed = next;
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+
+            // Claimed but not yet published: the producer is still filling it in
+            long now = System.nanoTime();
+            if (stalledSince < 0) {
+                stalledSince = now;
+            } else if (now - stalledSince > STALL_TIMEOUT_NANOS) {
+                dropped.increment();
+                consumed = next + 1;
+                stalledSince = -1;
+                continue;
+            }
+            LockSupport.parkNanos(STALL_PARK_NANOS);
+        }
+    }
+
+    private void write(LogRecord record) {
+        long droppedNow = dropped.sum();
+        if (droppedNow != droppedReported) {
+            line.setLength(0);
+            line.append(TIMESTAMP.format(Instant.now())).append(" WARN  log [log-writer] log_dropped count=")
+                    .append(droppedNow - droppedReported).append('\n');
+            droppedReported = droppedNow;
+            output(line, true);
+        }
+
+        line.setLength(0);
+        line.append(TIMESTAMP.format(Instant.ofEpochMilli(record.timeMillis))).append(' ');
+        String levelName = record.level.name();
+        line.append(levelName);
+        for (int i = levelName.length(); i < 6; i++) line.append(' ');
+        line.append(record.logger).append(" [").append(record.thread).append("] ").append(record.event);
+
+        if (record.room != null) appendField("room", record.room);
+        if (record.client >= 0) line.append(" client=").append(record.client);
+        if (record.tick >= 0) line.append(" tick=").append(record.tick);
+        for (int i = 0; i < record.fieldCount; i++) {
+            if (record.kinds[i] == LogRecord.LONG) {
+                line.append(' ').append(record.keys[i]).append('=').append(record.longValues[i]);
+            } else if (record.kinds[i] == LogRecord.DOUBLE) {
+                line.append(' ').append(record.keys[i]).append('=').append(record.doubleValues[i]);
+            } else {
+                appendField(record.keys[i], record.stringValues[i]);
+            }
+        }
+        if (record.message != null) appendField("msg", record.message);
+        line.append('\n');
+
+        if (record.cause != null) {
+            StringWriter trace = new StringWriter();
+            record.cause.printStackTrace(new PrintWriter(trace));
+            line.append(trace);
+        }
+        output(line, record.level.compareTo(Level.WARN) >= 0);
+    }
+
+    private void appendField(String key, String value) {
+        line.append(' ').append(key).append('=');
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        boolean quote = value.isEmpty();
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ' ' || c == '"' || c == '=' || c == '\n';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') line.append('\\');
+            line.append(c == '\n' ? ' ' : c);
+        }
+        line.append('"');
+    }
+
+    private void output(CharSequence text, boolean toStderr) {
+        if (console) {
+            (toStderr ? System.err : System.out).print(text);
+        }
+        if (directory == null || fileDisabled) return;
+        try {
+            if (file == null || fileBytes >= maxFileBytes) {
+                rollOver();
+            }
+            file.append(text);
+            fileBytes += text.length();
+        } catch (IOException e) {
+            System.err.println("Log file disabled after write failure: " + e.getMessage());
+            closeFile();
+            file = null;
+            fileDisabled = true; // Keep logging to the console only
+        }
+    }
+
+    // Opens the current file, first shifting game.log -> game.1.log -> game.2.log ... if it is full
+    private void rollOver() throws IOException {
+        closeFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("cannot create " + directory);
+        }
+        File current = new File(directory, fileName + ".log");
+        if (file != null || current.length() >= maxFileBytes) {
+            new File(directory, fileName + "." + maxFiles + ".log").delete();
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                File rolled = new File(directory, fileName + "." + i + ".log");
+                if (rolled.exists()) rolled.renameTo(new File(directory, fileName + "." + (i + 1) + ".log"));
+            }
+            if (current.exists()) current.renameTo(new File(directory, fileName + ".1.log"));
+        }
+        file = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(current, true), StandardCharsets.UTF_8));
+        fileBytes = current.length();
+    }
+
+    private void flushOutputs() {
+        if (console) {
+            System.out.flush();
+        }
+        if (file != null) {
+            try {
+                file.flush();
+            } catch (IOException e) {
+                System.err.println("Failed to flush log file: " + e.getMessage());
+            }
+        }
+    }
+
+    private void closeFile() {
+        if (file == null) return;
+        try {
+            file.close();
+        } catch (IOException e) {
+            // Nothing more we can do with it
+        }
+    }
+}
@@ -0,0 +1,6 @@
+// File: com/demo/game/logging/Level.java
+package com.demo.game.logging;
+
+public enum Level {
+    DEBUG, INFO, WARN, ERROR
+}
@@ -0,0 +1,150 @@
+// File: com/demo/game/logging/LogRecord.java
+package com.demo.game.logging;
+
+/**
+ * One slot of the log ring buffer. A {@link Logger} hands out a claimed slot; the caller fills
+ * in the fields it has and must finish with {@link #log()}, which publishes it to the writer.
+ * <pre>
+ *   log.info("bomb_passed").client(passerId).tick(tick).with("target", targetId).log();
+ * </pre>
+ * Slots are reused, so keep nothing from a record after calling {@code log()}. Values are stored
+ * as-is and only formatted on the writer thread; pass constants or existing strings rather than
+ * building new ones if the call is on the tick thread.
+ */
+public final class LogRecord {
+
+    static final int MAX_FIELDS = 6;
+
+    static final byte LONG = 0;
+    static final byte DOUBLE = 1;
+    static final byte STRING = 2;
+
+    // Returned when the level is off or the buffer is full; every call on it is ignored
+    static final LogRecord DISCARD = new LogRecord(null);
+
+    private final AsyncLog owner;
+    volatile long published = -1; // Sequence this slot holds once log() has been called
+    long sequence;
+    private Thread producer; // Thread that claimed the slot for this sequence
+
+    Level level;
+    long timeMillis;
+    String thread;
+    String logger;
+    String room;
+    String event;
+    int client;
+    long tick;
+    String message;
+    Throwable cause;
+
+    final String[] keys = new String[MAX_FIELDS];
+    final byte[] kinds = new byte[MAX_FIELDS];
+    final long[] longValues = new long[MAX_FIELDS];
+    final double[] doubleValues = new double[MAX_FIELDS];
+    final String[] stringValues = new String[MAX_FIELDS];
+    int fieldCount;
+
+    LogRecord(AsyncLog owner) {
+        this.owner = owner;
+    }
+
+    void start(long sequence, Level level, String logger, String room, String event) {
+        this.sequence = sequence;
+        this.producer = Thread.currentThread();
+        this.level = level;
+        this.timeMillis = System.currentTimeMillis();
+        this.thread = producer.getName();
+        this.logger = logger;
+        this.room = room;
+        this.event = event;
+        this.client = -1;
+        this.tick = -1;
+        this.message = null;
+        this.cause = null;
+        this.fieldCount = 0;
+    }
+
+    // Drops references once written so the buffer does not keep old strings alive
+    void clear() {
+        thread = null;
+        producer = null;
+        room = null;
+        message = null;
+        cause = null;
+        for (int i = 0; i < fieldCount; i++) {
+            stringValues[i] = null;
+        }
+    }
+
+    public LogRecord room(String room) {
+        if (owner != null) this.room = room;
+        return this;
+    }
+
+    public LogRecord client(int clientId) {
+        if (owner != null) this.client = clientId;
+        return this;
+    }
+
+    public LogRecord tick(long tick) {
+        if (owner != null) this.tick = tick;
+        return this;
+    }
+
+    public LogRecord with(String key, long value) {
+        int i = nextField(key);
+        if (i >= 0) {
+            kinds[i] = LONG;
+            longValues[i] = value;
+        }
+        return this;
+    }
+
+    public LogRecord with(String key, double value) {
+        int i = nextField(key);
+        if (i >= 0) {
+            kinds[i] = DOUBLE;
+            doubleValues[i] = value;
+        }
+        return this;
+    }
+
+    public LogRecord with(String key, String value) {
+        int i = nextField(key);
+        if (i >= 0) {
+            kinds[i] = STRING;
+            stringValues[i] = value;
+        }
+        return this;
+    }
+
+    public LogRecord message(String message) {
+        if (owner != null) this.message = message;
+        return this;
+    }
+
+    public LogRecord cause(Throwable cause) {
+        if (owner != null) this.cause = cause;
+        return this;
+    }
+
+    /**
+     * Publishes the record. Never blocks. A producer stalled for so long that the writer gave up
+     * on its slot publishes nothing: the record was already counted as dropped, and the slot may
+     * since have been claimed for a newer sequence by another thread.
+     */
+    public void log() {
+        if (owner == null) return;
+        long claimedSequence = sequence;
+        if (producer == Thread.currentThread() && owner.isPending(claimedSequence)) {
+            published = claimedSequence;
+        }
+    }
+
+    private int nextField(String key) {
+        if (owner == null || fieldCount == MAX_FIELDS) return -1; // Extra fields are dropped
+        keys[fieldCount] = key;
+        return fieldCount++;
+    }
+}
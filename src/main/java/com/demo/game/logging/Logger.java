@@ -0,0 +1,49 @@
+// File: com/demo/game/logging/Logger.java
+package com.demo.game.logging;
+
+/**
+ * A named source of structured log records, optionally bound to a room so every record it
+ * produces carries that field. Loggers are cheap, immutable and safe to share between threads.
+ */
+public final class Logger {
+
+    private final AsyncLog log;
+    private final String name;
+    private final String room;
+
+    Logger(AsyncLog log, String name, String room) {
+        this.log = log;
+        this.name = name;
+        this.room = room;
+    }
+
+    /** A logger writing to the process-wide log. */
+    public static Logger get(String name) {
+        return new Logger(AsyncLog.global(), name, null);
+    }
+
+    /** The same logger with every record tagged with the given room. */
+    public Logger forRoom(String room) {
+        return new Logger(log, name, room);
+    }
+
+    public boolean isEnabled(Level level) {
+        return log.isEnabled(level);
+    }
+
+    public LogRecord debug(String event) {
+        return log.claim(Level.DEBUG, name, room, event);
+    }
+
+    public LogRecord info(String event) {
+        return log.claim(Level.INFO, name, room, event);
+    }
+
+    public LogRecord warn(String event) {
+        return log.claim(Level.WARN, name, room, event);
+    }
+
+    public LogRecord error(String event) {
+        return log.claim(Level.ERROR, name, room, event);
+    }
+}
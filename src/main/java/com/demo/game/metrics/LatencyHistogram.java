@@ -0,0 +1,137 @@
+// File: com/demo/game/metrics/LatencyHistogram.java
+package com.demo.game.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size, log-linear histogram of durations in nanoseconds.
+ * <p>
+ * Every power of two is split into 32 linear sub-buckets, so any recorded value is reported
+ * within about 3% of its true value, from 1ns up to {@code Long.MAX_VALUE}. {@link #record}
+ * is a handful of arithmetic operations and atomic increments: it never locks and never
+ * allocates, so it is safe to call from the tick loop and from many threads at once.
+ * Readers see a consistent-enough view for reporting, not an atomic snapshot.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucketIndex(nanos));
+        totalCount.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        long mantissa = value >>> (msb - SUB_BUCKET_BITS); // In [SUB_BUCKETS, 2 * SUB_BUCKETS)
+        return (msb - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + (int) (mantissa - SUB_BUCKETS);
+    }
+
+    /** The largest value that falls into the given bucket. */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int shift = index / SUB_BUCKETS - 1;
+        long mantissa = (index % SUB_BUCKETS) + SUB_BUCKETS;
+        long lower = mantissa << shift;
+        return lower + ((1L << shift) - 1);
+    }
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    public double getMeanNanos() {
+        long count = totalCount.get();
+        return count == 0 ? 0.0 : (double) totalNanos.get() / count;
+    }
+
+    /** The value at or below which the given percentage (0-100) of recorded values fall. */
+    public long getPercentileNanos(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(bucketUpperBound(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    /**
+     * How many recorded values are at or below {@code nanos}, to bucket resolution.
+     * Used to export cumulative histogram buckets.
+     */
+    public long getCountAtOrBelow(long nanos) {
+        if (nanos < 0) return 0;
+        int last = bucketIndex(nanos);
+        long count = 0;
+        for (int i = 0; i <= last; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /** Adds this histogram's counts into {@code target}, e.g. to combine per-room histograms. */
+    public void addTo(LatencyHistogram target) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long c = counts.get(i);
+            if (c != 0) target.counts.addAndGet(i, c);
+        }
+        target.totalCount.addAndGet(totalCount.get());
+        target.totalNanos.addAndGet(totalNanos.get());
+        long max = maxNanos.get();
+        long targetMax = target.maxNanos.get();
+        while (max > targetMax && !target.maxNanos.compareAndSet(targetMax, max)) {
+            targetMax = target.maxNanos.get();
+        }
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    /** e.g. "p50=1.2ms p99=3.4ms p99.9=5.0ms max=7.1ms (n=3600)" */
+    public String summarize() {
+        return String.format("p50=%s p99=%s p99.9=%s max=%s (n=%d)",
+                formatNanos(getPercentileNanos(50)), formatNanos(getPercentileNanos(99)),
+                formatNanos(getPercentileNanos(99.9)), formatNanos(getMaxNanos()), getCount());
+    }
+
+    public static String formatNanos(long nanos) {
+        if (nanos < 1_000) return nanos + "ns";
+        if (nanos < 1_000_000) return String.format("%.1fus", nanos / 1_000.0);
+        if (nanos < 1_000_000_000) return String.format("%.2fms", nanos / 1_000_000.0);
+        return String.format("%.2fs", nanos / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,17 @@
+// File: com/demo/game/metrics/MetricSink.java
+package com.demo.game.metrics;
+
+/**
+ * Receives the current value of every metric during a scrape. Labels are given as
+ * alternating name/value pairs, e.g. {@code "room", "port 12345", "phase", "encode"}.
+ */
+public interface MetricSink {
+
+    void gauge(String name, String help, double value, String... labels);
+
+    /** A monotonically increasing total. */
+    void counter(String name, String help, double value, String... labels);
+
+    /** A latency distribution, recorded in nanoseconds and exported in seconds. */
+    void histogram(String name, String help, LatencyHistogram histogram, String... labels);
+}
@@ -0,0 +1,130 @@
+// File: com/demo/game/metrics/MetricsExporters.java
+package com.demo.game.metrics;
+
+import com.demo.game.diagnostics.TraceRecorder;
+import com.demo.game.network.BlackBoxRecorder;
+import com.demo.game.network.NetworkConditions;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publishes the global MetricsRegistry. Started once, the first time a server starts.
+ * <pre>
+ *   -Dmetrics.jmx=false         do not register the com.demo.game:type=Metrics MBean (on by default)
+ *   -Dmetrics.http.port=9404    serve Prometheus text at http://127.0.0.1:9404/metrics (off by default)
+ * </pre>
+ * The HTTP endpoint only binds to the loopback interface. When tracing is on, it also serves the
+ * recorded spans as a Chrome trace at {@code /trace}, and {@code /blackbox} dumps every open
+ * room's black box to disk. With the network simulator on, {@code /netsim} shows its conditions
+ * and changes them from the query string, e.g. {@code /netsim?latencyMs=120&lossPercent=5}.
+ */
+public final class MetricsExporters {
+
+    private static final AtomicBoolean STARTED = new AtomicBoolean(false);
+
+    private MetricsExporters() {}
+
+    public static void startFromSystemProperties() {
+        if (!STARTED.compareAndSet(false, true)) return;
+
+        if (Boolean.parseBoolean(System.getProperty("metrics.jmx", "true"))) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(
+                        new MetricsMBean(MetricsRegistry.global()), new ObjectName("com.demo.game:type=Metrics"));
+            } catch (Exception e) {
+                System.err.println("Could not register metrics MBean: " + e.getMessage());
+            }
+        }
+
+        int port = Integer.getInteger("metrics.http.port", 0);
+        if (port > 0) {
+            // Started from a daemon thread so the server's dispatcher thread is a daemon too
+            // and never keeps the game running after the window closes.
+            Thread starter = new Thread(() -> startHttp(port), "metrics-http-start");
+            starter.setDaemon(true);
+            starter.start();
+        }
+    }
+
+    private static void startHttp(int port) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext("/metrics", exchange -> {
+                byte[] body = PrometheusTextFormat.scrape(MetricsRegistry.global()).getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", PrometheusTextFormat.CONTENT_TYPE);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.createContext("/trace", exchange -> {
+                if (!TraceRecorder.ENABLED) {
+                    byte[] body = "Tracing is off; start with -Dtrace.enabled=true\n".getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(404, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                    return;
+                }
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.getResponseHeaders().set("Content-Disposition", "attachment; filename=\"trace.json\"");
+                exchange.sendResponseHeaders(200, 0); // Streamed
+                try (Writer out = new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)) {
+                    TraceRecorder.writeJson(out);
+                }
+            });
+            server.createContext("/blackbox", exchange -> {
+                int rooms = BlackBoxRecorder.dumpAll("on-demand");
+                byte[] body = ("Dumping " + rooms + " room(s) to " + System.getProperty("blackbox.dir", "blackbox") + "/\n")
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.createContext("/netsim", exchange -> {
+                NetworkConditions conditions = NetworkConditions.global();
+                int status = 200;
+                String text;
+                if (!conditions.isEnabled()) {
+                    status = 404;
+                    text = "The network simulator is off; start with -Dnetsim.enabled=true";
+                } else {
+                    try {
+                        String query = exchange.getRequestURI().getQuery();
+                        if (query != null) {
+                            for (String pair : query.split("&")) {
+                                int equals = pair.indexOf('=');
+                                if (equals < 0) throw new IllegalArgumentException("Expected name=value: " + pair);
+                                conditions.configure(pair.substring(0, equals), pair.substring(equals + 1));
+                            }
+                        }
+                        text = conditions.toString();
+                    } catch (IllegalArgumentException e) {
+                        status = 400;
+                        text = e.getMessage();
+                    }
+                }
+                byte[] body = (text + "\n").getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(status, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+            System.out.println("Metrics available at http://127.0.0.1:" + port + "/metrics");
+        } catch (IOException e) {
+            System.err.println("Could not start metrics endpoint on port " + port + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+// File: com/demo/game/metrics/MetricsMBean.java
+package com.demo.game.metrics;
+
+import javax.management.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exposes every metric in a registry as a read-only JMX attribute, named like the Prometheus
+ * sample, e.g. {@code game_tick_phase_seconds{room="port 12345",phase="send"}.p99}.
+ * The attribute list is rebuilt on every request, so rooms and clients come and go live.
+ */
+public class MetricsMBean implements DynamicMBean {
+
+    private final MetricsRegistry registry;
+
+    public MetricsMBean(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    private Map<String, Double> snapshot() {
+        Map<String, Double> values = new LinkedHashMap<>();
+        registry.collect(new MetricSink() {
+            @Override
+            public void gauge(String name, String help, double value, String... labels) {
+                values.put(name + labels(labels), value);
+            }
+
+            @Override
+            public void counter(String name, String help, double value, String... labels) {
+                values.put(name + labels(labels), value);
+            }
+
+            @Override
+            public void histogram(String name, String help, LatencyHistogram histogram, String... labels) {
+                String key = name + labels(labels);
+                values.put(key + ".count", (double) histogram.getCount());
+                values.put(key + ".p50", histogram.getPercentileNanos(50) / 1_000_000_000.0);
+                values.put(key + ".p99", histogram.getPercentileNanos(99) / 1_000_000_000.0);
+                values.put(key + ".p999", histogram.getPercentileNanos(99.9) / 1_000_000_000.0);
+                values.put(key + ".max", histogram.getMaxNanos() / 1_000_000_000.0);
+            }
+        });
+        return values;
+    }
+
+    private static String labels(String[] labels) {
+        if (labels.length == 0) return "";
+        StringBuilder out = new StringBuilder("{");
+        for (int i = 0; i + 1 < labels.length; i += 2) {
+            if (i > 0) out.append(',');
+            out.append(labels[i]).append("=\"").append(labels[i + 1]).append('"');
+        }
+        return out.append('}').toString();
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Double value = snapshot().get(attribute);
+        if (value == null) throw new AttributeNotFoundException(attribute);
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        Map<String, Double> values = snapshot();
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            Double value = values.get(attribute);
+            if (value != null) list.add(new Attribute(attribute, value));
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        Map<String, Double> values = snapshot();
+        MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[values.size()];
+        int i = 0;
+        for (String name : values.keySet()) {
+            attributes[i++] = new MBeanAttributeInfo(name, "double", name, true, false, false);
+        }
+        return new MBeanInfo(getClass().getName(), "Hot Potato Arena server metrics",
+                attributes, null, null, null);
+    }
+}
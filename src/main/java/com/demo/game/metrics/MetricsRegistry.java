@@ -0,0 +1,44 @@
+// File: com/demo/game/metrics/MetricsRegistry.java
+package com.demo.game.metrics;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The process-wide list of metric sources. Nothing is copied or aggregated on the hot path:
+ * components keep their own counters and histograms and register a {@link Collector} that
+ * reads them only when an exporter (HTTP or JMX) asks.
+ */
+public final class MetricsRegistry {
+
+    /** Reports a component's current metrics to a sink. Called on the exporter's thread. */
+    @FunctionalInterface
+    public interface Collector {
+        void collect(MetricSink sink);
+    }
+
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+
+    private final CopyOnWriteArrayList<Collector> collectors = new CopyOnWriteArrayList<>();
+
+    public static MetricsRegistry global() {
+        return GLOBAL;
+    }
+
+    public void register(Collector collector) {
+        collectors.add(collector);
+    }
+
+    public void unregister(Collector collector) {
+        collectors.remove(collector);
+    }
+
+    public void collect(MetricSink sink) {
+        for (Collector collector : collectors) {
+            try {
+                collector.collect(sink);
+            } catch (RuntimeException e) {
+                System.err.println("Metrics collector failed: " + e.getMessage());
+            }
+        }
+    }
+}
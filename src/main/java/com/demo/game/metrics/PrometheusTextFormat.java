@@ -0,0 +1,98 @@
+// File: com/demo/game/metrics/PrometheusTextFormat.java
+package com.demo.game.metrics;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Renders one scrape of a MetricsRegistry in the Prometheus text exposition format (0.0.4). */
+public final class PrometheusTextFormat implements MetricSink {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    // Histogram bucket bounds, in seconds; chosen around the 16.7ms tick budget.
+    private static final double[] BUCKETS = {
+            0.00001, 0.00005, 0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005,
+            0.01, 0.0167, 0.025, 0.05, 0.1, 0.25, 1.0
+    };
+
+    // Samples of one family must be contiguous, but collectors report room by room.
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    private static final class Family {
+        final String header;
+        final List<String> lines = new ArrayList<>();
+
+        Family(String name, String help, String type) {
+            this.header = "# HELP " + name + " " + help + "\n# TYPE " + name + " " + type + "\n";
+        }
+    }
+
+    public static String scrape(MetricsRegistry registry) {
+        PrometheusTextFormat format = new PrometheusTextFormat();
+        registry.collect(format);
+        return format.render();
+    }
+
+    @Override
+    public void gauge(String name, String help, double value, String... labels) {
+        family(name, help, "gauge").lines.add(name + labelSet(labels, null, null) + " " + number(value));
+    }
+
+    @Override
+    public void counter(String name, String help, double value, String... labels) {
+        family(name, help, "counter").lines.add(name + labelSet(labels, null, null) + " " + number(value));
+    }
+
+    @Override
+    public void histogram(String name, String help, LatencyHistogram histogram, String... labels) {
+        List<String> lines = family(name, help, "histogram").lines;
+        for (double bound : BUCKETS) {
+            long count = histogram.getCountAtOrBelow((long) (bound * 1_000_000_000L));
+            lines.add(name + "_bucket" + labelSet(labels, "le", BigDecimal.valueOf(bound).toPlainString()) + " " + count);
+        }
+        lines.add(name + "_bucket" + labelSet(labels, "le", "+Inf") + " " + histogram.getCount());
+        lines.add(name + "_sum" + labelSet(labels, null, null) + " " + number(histogram.getTotalNanos() / 1_000_000_000.0));
+        lines.add(name + "_count" + labelSet(labels, null, null) + " " + histogram.getCount());
+    }
+
+    private Family family(String name, String help, String type) {
+        return families.computeIfAbsent(name, n -> new Family(n, help, type));
+    }
+
+    public String render() {
+        StringBuilder out = new StringBuilder();
+        for (Family family : families.values()) {
+            out.append(family.header);
+            for (String line : family.lines) {
+                out.append(line).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    private static String labelSet(String[] labels, String extraName, String extraValue) {
+        if (labels.length == 0 && extraName == null) return "";
+        StringBuilder out = new StringBuilder("{");
+        for (int i = 0; i + 1 < labels.length; i += 2) {
+            if (out.length() > 1) out.append(',');
+            out.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+        }
+        if (extraName != null) {
+            if (out.length() > 1) out.append(',');
+            out.append(extraName).append("=\"").append(extraValue).append('"');
+        }
+        return out.append('}').toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String number(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) return Long.toString((long) value);
+        return Double.toString(value);
+    }
+}
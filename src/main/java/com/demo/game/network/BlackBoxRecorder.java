@@ -0,0 +1,246 @@
+// File: com/demo/game/network/BlackBoxRecorder.java
+package com.demo.game.network;
+
+import com.demo.game.network.messages.SPoint2D;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A room's black box: the most recent inputs, snapshots and match events, kept in a fixed-size
+ * off-heap ring so recording creates no garbage. When the ring is full the oldest records are
+ * overwritten; the default size holds roughly a minute of an eight-player match.
+ * <p>
+ * The ring is written to a file when the match ends, when a tick fails, or on demand through
+ * {@link #dumpAll(String)} (also reachable as {@code /blackbox} on the metrics HTTP endpoint).
+ * {@link BlackBoxViewer} decodes and steps through a dump.
+ * <pre>
+ *   -Dblackbox.enabled=false          do not record (on by default)
+ *   -Dblackbox.sizeKb=1024            ring size per room
+ *   -Dblackbox.dir=blackbox           where dumps are written
+ *   -Dblackbox.dumpOnGameOver=false   only dump on errors and on demand
+ * </pre>
+ * File layout (big-endian): magic, version, room, dump wall-clock millis, reason, data length,
+ * then the records oldest first. Each record is {@code int length, byte type, int tick,
+ * long serverNanos} followed by a type-specific payload.
+ */
+public class BlackBoxRecorder {
+
+    public static final int MAGIC = 0x48504242; // "HPBB"
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 17;
+
+    // --- Record Types ---
+    public static final byte INPUT = 1;        // int client, byte axisX, byte axisY (AXIS_UNCHANGED if not sent), byte pass
+    public static final byte SNAPSHOT = 2;     // int holder, float bombX, float bombY, float secondsLeft, short n, n x (int id, float x, float y)
+    public static final byte BOMB_PASSED = 3;  // int newHolder
+    public static final byte ELIMINATED = 4;   // int client
+    public static final byte GAME_OVER = 5;    // string winner
+    public static final byte JOIN = 6;         // int client, string username
+    public static final byte LEAVE = 7;        // int client
+    public static final byte MATCH_START = 8;  // short n, n x (int id, float x, float y)
+    public static final byte ERROR = 9;        // string message
+
+    public static final byte AXIS_UNCHANGED = Byte.MIN_VALUE;
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("blackbox.enabled", "true"));
+    private static final int SIZE_KB = Integer.getInteger("blackbox.sizeKb", 1024);
+    private static final boolean DUMP_ON_GAME_OVER = Boolean.parseBoolean(System.getProperty("blackbox.dumpOnGameOver", "true"));
+    private static final int MAX_STRING_BYTES = 255;
+
+    private static final List<BlackBoxRecorder> LIVE = new CopyOnWriteArrayList<>();
+
+    private final String room;
+    private final ByteBuffer ring;    // Off-heap; null when recording is disabled
+    private final ByteBuffer scratch; // One record is assembled here before it is copied into the ring
+    private long head = 0; // Bytes ever written
+    private long tail = 0; // Stream offset of the oldest record still in the ring
+
+    public BlackBoxRecorder(String room) {
+        this(room, ENABLED ? SIZE_KB * 1024 : 0);
+    }
+
+    public BlackBoxRecorder(String room, int capacityBytes) {
+        this.room = room;
+        this.ring = (capacityBytes > 0) ? ByteBuffer.allocateDirect(capacityBytes) : null;
+        this.scratch = (capacityBytes > 0) ? ByteBuffer.allocate(Math.min(capacityBytes, 64 * 1024)) : null;
+    }
+
+    public boolean isEnabled() {
+        return ring != null;
+    }
+
+    /** Makes this recorder part of {@link #dumpAll(String)} until {@link #close()}. */
+    public void open() {
+        if (isEnabled()) LIVE.add(this);
+    }
+
+    public void close() {
+        LIVE.remove(this);
+    }
+
+    boolean shouldDumpOnGameOver() {
+        return DUMP_ON_GAME_OVER;
+    }
+
+    // --- Recording (any server thread) ---
+
+    public synchronized void recordInput(long tick, long nanos, int clientId, int axisX, int axisY, boolean pass) {
+        if (!begin(INPUT, tick, nanos)) return;
+        scratch.putInt(clientId).put(axisByte(axisX)).put(axisByte(axisY)).put((byte) (pass ? 1 : 0));
+        commit();
+    }
+
+    public synchronized void recordSnapshot(long tick, long nanos, int holderId, SPoint2D bombPosition,
+                                            double secondsLeft, Map<Integer, SPoint2D> positions) {
+        if (!begin(SNAPSHOT, tick, nanos)) return;
+        scratch.putInt(holderId).putFloat((float) bombPosition.x).putFloat((float) bombPosition.y).putFloat((float) secondsLeft);
+        putPositions(positions);
+        commit();
+    }
+
+    public synchronized void recordMatchStart(long tick, long nanos, Map<Integer, SPoint2D> positions) {
+        if (!begin(MATCH_START, tick, nanos)) return;
+        putPositions(positions);
+        commit();
+    }
+
+    public synchronized void recordClientEvent(byte type, long tick, long nanos, int clientId) {
+        if (!begin(type, tick, nanos)) return;
+        scratch.putInt(clientId);
+        commit();
+    }
+
+    public synchronized void recordJoin(long tick, long nanos, int clientId, String username) {
+        if (!begin(JOIN, tick, nanos)) return;
+        scratch.putInt(clientId);
+        putString(username);
+        commit();
+    }
+
+    public synchronized void recordText(byte type, long tick, long nanos, String text) {
+        if (!begin(type, tick, nanos)) return;
+        putString(text);
+        commit();
+    }
+
+    private boolean begin(byte type, long tick, long nanos) {
+        if (ring == null) return false;
+        scratch.clear();
+        scratch.putInt(0).put(type).putInt((int) tick).putLong(nanos); // Length is patched in commit()
+        return true;
+    }
+
+    private static byte axisByte(int axis) {
+        return (axis == GameServer.AXIS_UNCHANGED) ? AXIS_UNCHANGED : (byte) axis;
+    }
+
+    private void putPositions(Map<Integer, SPoint2D> positions) {
+        int fits = (scratch.remaining() - Short.BYTES) / 12;
+        int count = Math.min(positions.size(), Math.min(fits, Short.MAX_VALUE));
+        scratch.putShort((short) count);
+        int written = 0;
+        for (Map.Entry<Integer, SPoint2D> entry : positions.entrySet()) {
+            if (written++ == count) break;
+            scratch.putInt(entry.getKey()).putFloat((float) entry.getValue().x).putFloat((float) entry.getValue().y);
+        }
+    }
+
+    private void putString(String text) {
+        byte[] bytes = (text != null ? text : "").getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, Math.min(MAX_STRING_BYTES, scratch.remaining() - Short.BYTES));
+        scratch.putShort((short) length).put(bytes, 0, length);
+    }
+
+    private void commit() {
+        int length = scratch.position();
+        scratch.putInt(0, length);
+        int capacity = ring.capacity();
+        while (head + length - tail > capacity) {
+            tail += intAt(tail); // Overwrite the oldest record
+        }
+        int start = (int) (head % capacity);
+        int first = Math.min(length, capacity - start);
+        ring.put(start, scratch.array(), 0, first);
+        if (first < length) {
+            ring.put(0, scratch.array(), first, length - first);
+        }
+        head += length;
+    }
+
+    // Reads a record length that may straddle the end of the ring
+    private int intAt(long offset) {
+        int capacity = ring.capacity();
+        int value = 0;
+        for (int i = 0; i < Integer.BYTES; i++) {
+            value = (value << 8) | (ring.get((int) ((offset + i) % capacity)) & 0xFF);
+        }
+        return value;
+    }
+
+    // --- Dumping ---
+
+    /** Copies the ring and writes it to a file on a background thread. */
+    public void dump(String reason) {
+        if (ring == null) return;
+        byte[] data = snapshotBytes();
+        Thread writer = new Thread(() -> writeDump(reason, data), "blackbox-dump");
+        writer.setDaemon(false); // Let a dump taken during shutdown finish
+        writer.start();
+    }
+
+    /** Dumps every open room. Returns the number of rooms dumped. */
+    public static int dumpAll(String reason) {
+        List<BlackBoxRecorder> recorders = new ArrayList<>(LIVE);
+        for (BlackBoxRecorder recorder : recorders) {
+            recorder.dump(reason);
+        }
+        return recorders.size();
+    }
+
+    private synchronized byte[] snapshotBytes() {
+        int length = (int) (head - tail);
+        byte[] data = new byte[length];
+        int capacity = ring.capacity();
+        int start = (int) (tail % capacity);
+        int first = Math.min(length, capacity - start);
+        ring.get(start, data, 0, first);
+        if (first < length) {
+            ring.get(0, data, first, length - first);
+        }
+        return data;
+    }
+
+    private void writeDump(String reason, byte[] data) {
+        File dir = new File(System.getProperty("blackbox.dir", "blackbox"));
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS"));
+        File file = new File(dir, room.replaceAll("[^A-Za-z0-9_.-]", "_") + "-" + stamp + "-" + reason + ".hpbb");
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            System.err.println("Could not create black box directory " + dir);
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(room);
+            out.writeLong(System.currentTimeMillis());
+            out.writeUTF(reason);
+            out.writeInt(data.length);
+            out.write(data);
+            System.out.println("Black box for " + room + " written to " + file.getPath() + " (" + data.length / 1024 + " KB)");
+        } catch (IOException e) {
+            System.err.println("Failed to write black box: " + e.getMessage());
+        }
+    }
+}
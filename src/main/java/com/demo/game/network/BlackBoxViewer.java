@@ -0,0 +1,200 @@
+// File: com/demo/game/network/BlackBoxViewer.java
+package com.demo.game.network;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes a black box dump written by {@link BlackBoxRecorder}.
+ * <pre>
+ *   java -cp Game.jar com.demo.game.network.BlackBoxViewer blackbox/room-....hpbb [options]
+ *
+ *   --events       hide snapshots, show only inputs and match events
+ *   --from N       start at server tick N
+ *   --to N         stop after server tick N
+ *   --step         interactive: Enter shows the next tick, a number jumps to that tick, q quits
+ * </pre>
+ */
+public class BlackBoxViewer {
+
+    private static final String[] TYPE_NAMES = {
+            "?", "INPUT", "SNAPSHOT", "BOMB_PASSED", "ELIMINATED", "GAME_OVER", "JOIN", "LEAVE", "MATCH_START", "ERROR"
+    };
+
+    private static final class Entry {
+        final int tick;
+        final long nanos;
+        final byte type;
+        final String text;
+
+        Entry(int tick, long nanos, byte type, String text) {
+            this.tick = tick;
+            this.nanos = nanos;
+            this.type = type;
+            this.text = text;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: BlackBoxViewer <dump.hpbb> [--events] [--from TICK] [--to TICK] [--step]");
+            System.exit(2);
+        }
+        boolean eventsOnly = false;
+        boolean step = false;
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--events": eventsOnly = true; break;
+                case "--step":   step = true; break;
+                case "--from":   from = Long.parseLong(args[++i]); break;
+                case "--to":     to = Long.parseLong(args[++i]); break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new FileInputStream(args[0]))) {
+            if (in.readInt() != BlackBoxRecorder.MAGIC) throw new IOException("Not a black box dump: " + args[0]);
+            int version = in.readInt();
+            if (version != BlackBoxRecorder.VERSION) throw new IOException("Unsupported dump version " + version);
+            String room = in.readUTF();
+            long dumpedAt = in.readLong();
+            String reason = in.readUTF();
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            System.out.println("Room:    " + room);
+            System.out.println("Dumped:  " + Instant.ofEpochMilli(dumpedAt) + " (" + reason + ")");
+            decode(ByteBuffer.wrap(data), entries);
+        }
+        if (entries.isEmpty()) {
+            System.out.println("The black box is empty.");
+            return;
+        }
+
+        Entry first = entries.get(0);
+        Entry last = entries.get(entries.size() - 1);
+        int[] counts = new int[TYPE_NAMES.length];
+        for (Entry entry : entries) counts[entry.type < counts.length ? entry.type : 0]++;
+        System.out.printf("Covers:  ticks %d-%d, %.1f s, %d records (%d snapshots, %d inputs)%n%n",
+                first.tick, last.tick, (last.nanos - first.nanos) / 1e9, entries.size(),
+                counts[BlackBoxRecorder.SNAPSHOT], counts[BlackBoxRecorder.INPUT]);
+
+        List<Entry> shown = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.tick < from || entry.tick > to) continue;
+            if (eventsOnly && entry.type == BlackBoxRecorder.SNAPSHOT) continue;
+            shown.add(entry);
+        }
+        if (step) {
+            stepThrough(shown, first.nanos);
+        } else {
+            for (Entry entry : shown) print(entry, first.nanos);
+        }
+    }
+
+    // Shows one tick's records at a time
+    private static void stepThrough(List<Entry> entries, long baseNanos) throws IOException {
+        BufferedReader console = new BufferedReader(new InputStreamReader(System.in));
+        int i = 0;
+        while (i < entries.size()) {
+            int tick = entries.get(i).tick;
+            while (i < entries.size() && entries.get(i).tick == tick) {
+                print(entries.get(i++), baseNanos);
+            }
+            System.out.print("-- [Enter] next tick, <tick> jump, q quit > ");
+            String command = console.readLine();
+            if (command == null || command.trim().equalsIgnoreCase("q")) return;
+            if (!command.isBlank()) {
+                try {
+                    long target = Long.parseLong(command.trim());
+                    i = 0;
+                    while (i < entries.size() && entries.get(i).tick < target) i++;
+                } catch (NumberFormatException e) {
+                    System.out.println("Not a tick number: " + command);
+                }
+            }
+        }
+        System.out.println("-- end of dump");
+    }
+
+    private static void print(Entry entry, long baseNanos) {
+        String name = (entry.type > 0 && entry.type < TYPE_NAMES.length) ? TYPE_NAMES[entry.type] : "TYPE_" + entry.type;
+        System.out.printf("%9.3fs  tick %-7d %-12s %s%n", (entry.nanos - baseNanos) / 1e9, entry.tick, name, entry.text);
+    }
+
+    private static void decode(ByteBuffer data, List<Entry> out) {
+        while (data.remaining() >= BlackBoxRecorder.HEADER_BYTES) {
+            int start = data.position();
+            int length = data.getInt();
+            byte type = data.get();
+            int tick = data.getInt();
+            long nanos = data.getLong();
+            if (length < BlackBoxRecorder.HEADER_BYTES || start + length > data.limit()) {
+                System.out.println("(stopping at a damaged record at byte " + start + ")");
+                return;
+            }
+            ByteBuffer payload = data.slice(data.position(), start + length - data.position());
+            out.add(new Entry(tick, nanos, type, describe(type, payload)));
+            data.position(start + length);
+        }
+    }
+
+    private static String describe(byte type, ByteBuffer p) {
+        switch (type) {
+            case BlackBoxRecorder.INPUT:
+                return String.format("client %d  x=%s y=%s%s", p.getInt(), axis(p.get()), axis(p.get()), p.get() != 0 ? "  PASS" : "");
+            case BlackBoxRecorder.SNAPSHOT: {
+                int holder = p.getInt();
+                String bomb = String.format("bomb on %d at (%.0f,%.0f) %.2fs", holder, p.getFloat(), p.getFloat(), p.getFloat());
+                return bomb + " | " + positions(p);
+            }
+            case BlackBoxRecorder.MATCH_START:
+                return positions(p);
+            case BlackBoxRecorder.BOMB_PASSED:
+                return "to client " + p.getInt();
+            case BlackBoxRecorder.ELIMINATED:
+            case BlackBoxRecorder.LEAVE:
+                return "client " + p.getInt();
+            case BlackBoxRecorder.JOIN:
+                return "client " + p.getInt() + " as " + string(p);
+            case BlackBoxRecorder.GAME_OVER:
+                return "winner " + string(p);
+            case BlackBoxRecorder.ERROR:
+                return string(p);
+            default:
+                return p.remaining() + " bytes";
+        }
+    }
+
+    private static String axis(byte value) {
+        return (value == BlackBoxRecorder.AXIS_UNCHANGED) ? "." : String.valueOf(value);
+    }
+
+    private static String positions(ByteBuffer p) {
+        int count = p.getShort();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append("  ");
+            sb.append(p.getInt()).append(String.format(":(%.0f,%.0f)", p.getFloat(), p.getFloat()));
+        }
+        return sb.toString();
+    }
+
+    private static String string(ByteBuffer p) {
+        byte[] bytes = new byte[p.getShort()];
+        p.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
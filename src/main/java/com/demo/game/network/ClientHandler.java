@@ -1,97 +1,298 @@
 // File: com/demo/game/network/ClientHandler.java
 package com.demo.game.network;
 
+import com.demo.game.Config;
+import com.demo.game.diagnostics.ClientWriteEvent;
+import com.demo.game.diagnostics.TraceRecorder;
+import com.demo.game.logging.LogRecord;
+import com.demo.game.logging.Logger;
 import com.demo.game.network.messages.*;
 
 import java.io.*;
-import java.net.*;
+import java.net.SocketException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 public class ClientHandler implements Runnable {
 
-    private final Socket socket;
-    private final int clientId;
+    // About two seconds of snapshots; a spectator further behind than this skips frames.
+    private static final int SPECTATOR_QUEUE_CAPACITY = 120;
+
+    private final Transport transport;
+    private volatile int clientId; // Re-bound when this connection resumes an existing session
     private final GameServer server;
-    private ObjectOutputStream outputStream;
-    private ObjectInputStream inputStream;
+    private final Logger log;
     private volatile boolean running = false;
 
-    public ClientHandler(Socket socket, int clientId, GameServer server) {
-        this.socket = socket;
+    // --- Spectator Mode ---
+    // Once the server has moved a connection onto the SpectatorRelay, a writer thread drains the
+    // frames the relay hands it. The handler's own thread keeps reading, so a spectator that
+    // disconnects is noticed at once; anything else a spectator sends is discarded.
+    private volatile BlockingQueue<byte[]> spectatorFrames;
+    private volatile long spectatorFramesSkipped = 0; // Only written by the relay thread
+
+    // --- Inbound Flood Protection ---
+    // Budgets are only touched by this handler's reader thread.
+    private final TokenBucket inputBudget = new TokenBucket(Config.INPUT_MESSAGES_PER_SECOND, Config.INPUT_MESSAGE_BURST);
+    private final TokenBucket controlBudget = new TokenBucket(Config.CONTROL_MESSAGES_PER_SECOND, Config.CONTROL_MESSAGE_BURST);
+    private long floodWindowStartNanos = System.nanoTime();
+    private int overBudgetInWindow = 0;
+
+    // Inputs are coalesced: the reader records the latest change per axis and at most one drain
+    // task per client sits in the server's task queue, however fast the client sends. Nothing is
+    // discarded: movement past the input budget is still folded into the latest axis state (the
+    // client repeats it every frame anyway), and stop and pass edges, which the client sends only
+    // once, always reach the server.
+    private final AtomicInteger pendingAxisX = new AtomicInteger(GameServer.AXIS_UNCHANGED);
+    private final AtomicInteger pendingAxisY = new AtomicInteger(GameServer.AXIS_UNCHANGED);
+    private final AtomicBoolean pendingPass = new AtomicBoolean(false);
+    private final AtomicBoolean inputTaskQueued = new AtomicBoolean(false);
+    private final Runnable inputDrainTask = this::drainPendingInput;
+
+    // --- Traffic Counters (written by the reader thread, read by anyone) ---
+    private volatile long messagesReceived = 0;
+    private volatile long bytesReceived = 0;
+    private volatile long inputsCoalesced = 0;
+    private volatile long inputsThrottled = 0; // Past the input budget; folded in without a drain of their own
+    private volatile long controlDropped = 0;
+    private volatile boolean throttled = false; // Latches on the first dropped message
+
+    // Outbound frames come from the tick, task and relay threads
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+
+    public ClientHandler(Transport transport, int clientId, GameServer server) {
+        this.transport = transport;
         this.clientId = clientId;
         this.server = server;
+        this.log = server.getLog();
     }
 
     @Override
     public void run() {
         running = true;
         try {
-            outputStream = new ObjectOutputStream(socket.getOutputStream());
-            inputStream = new ObjectInputStream(socket.getInputStream());
-
             // Loop to read messages from the client
             while (running) {
                 try {
-                    NetworkMessage message = (NetworkMessage) inputStream.readObject();
+                    byte[] frame = transport.receive();
+                    bytesReceived += frame.length;
+                    long start = TraceRecorder.begin();
+                    NetworkMessage message = MessageCodec.decode(frame);
                     handleMessage(message);
+                    if (TraceRecorder.ENABLED) {
+                        TraceRecorder.end(message.getClass().getSimpleName(), "server.message", start);
+                    }
                 } catch (ClassNotFoundException e) {
-                    System.err.println("Client " + clientId + " sent unknown message type: " + e.getMessage());
+                    log.warn("unknown_message").client(clientId).message(e.getMessage()).log();
                 } catch (EOFException | SocketException e) {
                     // Client disconnected abruptly
-                    System.out.println("Client " + clientId + " connection lost.");
+                    log.info("connection_lost").client(clientId).log();
                     running = false; // Exit loop
                 } catch (IOException e) {
                     if (running) {
-                        System.err.println("IO Error reading from client " + clientId + ": " + e.getMessage());
+                        log.warn("read_failed").client(clientId).message(e.getMessage()).log();
                         running = false; // Assume disconnection on other IO errors
                     }
                 }
             }
-        } catch (IOException e) {
-            System.err.println("Error setting up streams for client " + clientId + ": " + e.getMessage());
         } finally {
-            server.submitTask(() -> server.removeClient(clientId)); // Ensure removal happens on the game thread
+            server.submitTask(() -> server.removeClient(this)); // Ensure removal happens on the game thread
             closeConnection();
         }
     }
 
     private void handleMessage(NetworkMessage message) {
+        messagesReceived++;
+        long now = System.nanoTime();
+
+        if (message instanceof PlayerInputMessage) {
+            boolean withinBudget = inputBudget.tryAcquire(now);
+            if (!withinBudget) {
+                inputsThrottled++;
+                onOverBudget(now);
+            }
+            if (!isSpectator()) queueInput(((PlayerInputMessage) message).inputType, withinBudget);
+            return;
+        }
+
+        if (!controlBudget.tryAcquire(now)) {
+            controlDropped++;
+            onOverBudget(now);
+            return;
+        }
+
+        if (isSpectator()) return; // Watching only
+
         // Enqueue the handling logic to run on the server's main game thread
         if (message instanceof ClientInfoMessage) {
             server.submitTask(() -> server.handleClientInfo(clientId, (ClientInfoMessage) message));
-        } else if (message instanceof PlayerInputMessage) {
-            server.submitTask(() -> server.handlePlayerInput(clientId, (PlayerInputMessage) message));
+        } else if (message instanceof ResumeSessionMessage) {
+            server.submitTask(() -> server.handleResumeSession(this, (ResumeSessionMessage) message));
+        } else if (message instanceof SpectateRequestMessage) {
+            server.submitTask(() -> server.handleSpectateRequest(this));
         }
         // Add more message types here if needed (e.g., chat messages)
     }
 
+    // Folds one input into the pending state. Movement past the budget waits for the next drain;
+    // a stop or pass edge always makes sure one is queued.
+    private void queueInput(PlayerInputMessage.InputType inputType, boolean withinBudget) {
+        boolean edge = false;
+        switch (inputType) {
+            case MOVE_LEFT:  pendingAxisX.set(-1); break;
+            case MOVE_RIGHT: pendingAxisX.set( 1); break;
+            case STOP_X:     pendingAxisX.set( 0); edge = true; break;
+            case MOVE_UP:    pendingAxisY.set(-1); break;
+            case MOVE_DOWN:  pendingAxisY.set( 1); break;
+            case STOP_Y:     pendingAxisY.set( 0); edge = true; break;
+            case PASS_BOMB:  pendingPass.set(true); edge = true; break;
+        }
+        if (!withinBudget && !edge) {
+            inputsCoalesced++;
+        } else if (inputTaskQueued.compareAndSet(false, true)) {
+            server.submitTask(inputDrainTask);
+        } else {
+            inputsCoalesced++;
+        }
+    }
+
+    // Runs on the server's task thread
+    private void drainPendingInput() {
+        long start = TraceRecorder.begin();
+        // Clear the flag first so input arriving while we drain schedules another pass.
+        inputTaskQueued.set(false);
+        int axisX = pendingAxisX.getAndSet(GameServer.AXIS_UNCHANGED);
+        int axisY = pendingAxisY.getAndSet(GameServer.AXIS_UNCHANGED);
+        boolean pass = pendingPass.getAndSet(false);
+        server.handlePlayerInput(clientId, axisX, axisY, pass);
+        TraceRecorder.end("input drain", "server.message", start);
+    }
+
+    private void onOverBudget(long now) {
+        if (now - floodWindowStartNanos > 1_000_000_000L) {
+            floodWindowStartNanos = now;
+            overBudgetInWindow = 0;
+        }
+        overBudgetInWindow++;
+        if (!throttled) {
+            throttled = true;
+            trafficRecord(log.info("client_throttled")).log();
+        }
+        if (overBudgetInWindow > Config.FLOOD_DISCONNECT_THRESHOLD) {
+            trafficRecord(log.warn("client_flooding")).message("Exceeded the flood threshold, disconnecting.").log();
+            closeConnection();
+        }
+    }
+
+    // Called by the server on its task thread once it has accepted this connection as a spectator
+    void startSpectating() {
+        spectatorFrames = new ArrayBlockingQueue<>(SPECTATOR_QUEUE_CAPACITY);
+        Thread writer = new Thread(this::pumpSpectatorFrames, "spectator-" + clientId);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Writes relayed frames until the spectator disconnects (runs on the writer thread)
+    private void pumpSpectatorFrames() {
+        while (running) {
+            try {
+                byte[] frame = spectatorFrames.poll(1, TimeUnit.SECONDS);
+                if (frame != null) {
+                    sendFrame(frame);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+    }
+
+    // Called by the SpectatorRelay thread. Never blocks; a lagging spectator drops the frame instead.
+    void offerSpectatorFrame(byte[] frame) {
+        BlockingQueue<byte[]> queue = spectatorFrames;
+        if (queue != null && !queue.offer(frame)) {
+            spectatorFramesSkipped++;
+        }
+    }
+
+    public boolean isSpectator() {
+        return spectatorFrames != null;
+    }
+
+    public long getSpectatorFramesSkipped() {
+        return spectatorFramesSkipped;
+    }
+
+    public long getMessagesReceived() { return messagesReceived; }
+    public long getBytesReceived() { return bytesReceived; }
+    public long getMessagesSent() { return messagesSent.sum(); }
+    public long getBytesSent() { return bytesSent.sum(); }
+    public long getInputsCoalesced() { return inputsCoalesced; }
+    public long getInputsThrottled() { return inputsThrottled; }
+    public long getControlDropped() { return controlDropped; }
+    public boolean isThrottled() { return throttled; }
+
+    private LogRecord trafficRecord(LogRecord record) {
+        return record.client(clientId)
+                .with("received", messagesReceived)
+                .with("coalesced", inputsCoalesced)
+                .with("inputThrottled", inputsThrottled)
+                .with("controlDropped", controlDropped);
+    }
+
     // Sends a message to this specific client
-    public synchronized void sendMessage(NetworkMessage message) {
-        if (!running || outputStream == null) return;
+    public void sendMessage(NetworkMessage message) {
+        if (!running) return;
         try {
-            outputStream.writeObject(message);
-            outputStream.reset(); // Important to clear object stream cache
-            outputStream.flush();
-        } catch (SocketException e) {
-            System.out.println("Failed to send message to client " + clientId + " (disconnected?).");
-            running = false; // Stop trying to send/receive if socket is broken
+            sendFrame(MessageCodec.encode(message));
         } catch (IOException e) {
-            System.err.println("IO Error sending message to client " + clientId + ": " + e.getMessage());
-            running = false;
+            log.error("encode_failed").client(clientId).with("type", message.getClass().getSimpleName()).cause(e).log();
         }
     }
 
-    public void closeConnection() {
-        running = false;
+    // Sends an already-encoded frame; broadcasts share one frame across all clients
+    public void sendFrame(byte[] frame) {
+        if (!running) return;
+        ClientWriteEvent event = new ClientWriteEvent();
+        event.begin();
+        long start = TraceRecorder.begin();
         try {
-            if (outputStream != null) outputStream.close();
-            if (inputStream != null) inputStream.close();
-            if (socket != null && !socket.isClosed()) socket.close();
+            transport.send(frame);
+            messagesSent.increment();
+            bytesSent.add(frame.length);
+            event.succeeded = true;
         } catch (IOException e) {
-            System.err.println("Error closing connection for client " + clientId + ": " + e.getMessage());
+            log.warn("write_failed").client(clientId).message(e.getMessage()).log();
+            running = false;
+        }
+        TraceRecorder.end("send", "server.net", start);
+        event.end();
+        if (event.shouldCommit()) {
+            BlockingQueue<byte[]> queue = spectatorFrames;
+            event.clientId = clientId;
+            event.spectator = queue != null;
+            event.frameBytes = frame.length;
+            event.queuedFrames = (queue != null) ? queue.size() : 0;
+            event.commit();
         }
     }
 
+    public void closeConnection() {
+        running = false;
+        transport.close();
+    }
+
     public int getClientId() {
         return clientId;
     }
+
+    // Called by the server (on its task thread) when this connection takes over a held slot
+    void rebind(int clientId) {
+        this.clientId = clientId;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,204 @@
+// File: com/demo/game/network/ConditionedTransport.java
+package com.demo.game.network;
+
+import com.demo.game.network.messages.GameStateUpdateMessage;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps another transport and applies the current {@link NetworkConditions} to every frame
+ * in both directions: latency, jitter, loss, reordering and a bandwidth cap.
+ * <p>
+ * Loss and reordering only hit state snapshots, the one message a game would send unreliably
+ * anyway since each is superseded by the next. Everything else keeps its delivery and order,
+ * with latency and jitter only: inputs include one-shot stop and pass edges that are never
+ * resent, and a dropped lobby, session or game-over message would just hang the protocol
+ * instead of testing prediction and interpolation.
+ * <p>
+ * Outbound frames wait in a delay queue and are handed to the real transport by a delivery
+ * thread when they are due. Inbound frames are read by a pump thread and scheduled the same
+ * way; {@link #receive()} simply takes the next due frame.
+ */
+public class ConditionedTransport implements Transport {
+
+    // Marks the end of the inbound stream; travels through the delay queue like any other frame.
+    private static final byte[] END_OF_STREAM = new byte[0];
+    private static final String SNAPSHOT_CLASS = GameStateUpdateMessage.class.getName();
+
+    private final Transport inner;
+    private final NetworkConditions conditions;
+    private final Link outbound;
+    private final Link inbound;
+    private final Thread deliveryThread;
+    private final Thread pumpThread;
+
+    private volatile boolean closed = false;
+    private volatile IOException sendFailure;
+
+    public ConditionedTransport(Transport inner, NetworkConditions conditions) {
+        this.inner = inner;
+        this.conditions = conditions;
+        this.outbound = new Link(conditions.nextLinkSeed());
+        this.inbound = new Link(conditions.nextLinkSeed());
+
+        deliveryThread = new Thread(this::deliverOutbound, "netsim-out-" + inner.getRemoteDescription());
+        pumpThread = new Thread(this::pumpInbound, "netsim-in-" + inner.getRemoteDescription());
+        deliveryThread.setDaemon(true);
+        pumpThread.setDaemon(true);
+        deliveryThread.start();
+        pumpThread.start();
+    }
+
+    @Override
+    public void send(byte[] frame) throws IOException {
+        if (sendFailure != null) throw sendFailure;
+        if (closed) throw new IOException("Transport closed");
+        outbound.schedule(frame, isReliable(frame));
+    }
+
+    @Override
+    public byte[] receive() throws IOException {
+        try {
+            byte[] frame = inbound.queue.take().frame;
+            if (frame == END_OF_STREAM) {
+                inbound.queue.offer(new ScheduledFrame(END_OF_STREAM, System.nanoTime(), Long.MAX_VALUE)); // Keep failing on later calls
+                throw new EOFException("Connection closed");
+            }
+            return frame;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a frame", e);
+        }
+    }
+
+    private void deliverOutbound() {
+        while (!closed) {
+            try {
+                inner.send(outbound.queue.take().frame);
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                sendFailure = e;
+                return;
+            }
+        }
+    }
+
+    private void pumpInbound() {
+        try {
+            while (!closed) {
+                byte[] frame = inner.receive();
+                inbound.schedule(frame, isReliable(frame));
+            }
+        } catch (IOException e) {
+            // Peer went away; frames already in flight are still delivered before the end marker.
+        }
+        inbound.schedule(END_OF_STREAM, true);
+    }
+
+    // Only snapshots may be lost or overtaken
+    private static boolean isReliable(byte[] frame) {
+        return !SNAPSHOT_CLASS.equals(MessageCodec.peekClassName(frame));
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        inner.close();
+        deliveryThread.interrupt();
+        inbound.queue.offer(new ScheduledFrame(END_OF_STREAM, System.nanoTime(), Long.MIN_VALUE));
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed || inner.isClosed();
+    }
+
+    @Override
+    public String getRemoteDescription() {
+        return inner.getRemoteDescription() + " (simulated: " + conditions + ")";
+    }
+
+    public long getFramesDropped() {
+        return outbound.dropped + inbound.dropped;
+    }
+
+    public long getFramesReordered() {
+        return outbound.reordered + inbound.reordered;
+    }
+
+    /** One direction of the simulated link. */
+    private final class Link {
+        final DelayQueue<ScheduledFrame> queue = new DelayQueue<>();
+        private final Random random;
+        private long linkFreeAtNanos = Long.MIN_VALUE;   // When the simulated wire finishes sending the previous frame
+        private long lastDeliveryNanos = Long.MIN_VALUE; // In-order frames never arrive before their predecessor
+        private long sequence = 0;
+        volatile long dropped = 0;
+        volatile long reordered = 0;
+
+        Link(long seed) {
+            this.random = new Random(seed);
+        }
+
+        synchronized void schedule(byte[] frame, boolean reliable) {
+            long now = System.nanoTime();
+            if (!reliable && random.nextDouble() * 100.0 < conditions.getLossPercent()) {
+                dropped++;
+                return;
+            }
+
+            long departure = now;
+            int kbps = conditions.getBandwidthKbps();
+            if (kbps > 0) {
+                long transmitNanos = frame.length * 8L * 1_000_000L / kbps;
+                departure = Math.max(now, linkFreeAtNanos) + transmitNanos;
+                linkFreeAtNanos = departure;
+            }
+
+            double jitterMs = conditions.getJitterMs();
+            double delayMs = conditions.getLatencyMs() + (jitterMs > 0 ? (random.nextDouble() * 2 - 1) * jitterMs : 0);
+            long deliverAt = departure + (long) (Math.max(0, delayMs) * 1_000_000L);
+
+            if (!reliable && random.nextDouble() * 100.0 < conditions.getReorderPercent()) {
+                // Hold this frame back by a bit more than the jitter window so later frames overtake it.
+                deliverAt += (long) ((jitterMs * 2 + 5) * 1_000_000L);
+                reordered++;
+            } else {
+                deliverAt = Math.max(deliverAt, lastDeliveryNanos);
+                lastDeliveryNanos = deliverAt;
+            }
+            queue.offer(new ScheduledFrame(frame, deliverAt, sequence++));
+        }
+    }
+
+    private static final class ScheduledFrame implements Delayed {
+        final byte[] frame;
+        final long deliverAtNanos;
+        final long sequence;
+
+        ScheduledFrame(byte[] frame, long deliverAtNanos, long sequence) {
+            this.frame = frame;
+            this.deliverAtNanos = deliverAtNanos;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deliverAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            ScheduledFrame o = (ScheduledFrame) other;
+            int byTime = Long.compare(deliverAtNanos, o.deliverAtNanos);
+            return (byTime != 0) ? byTime : Long.compare(sequence, o.sequence);
+        }
+    }
+}
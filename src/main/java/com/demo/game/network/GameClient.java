@@ -1,6 +1,8 @@
 // File: com/demo/game/network/GameClient.java
 package com.demo.game.network;
 
+import com.demo.game.Config;
+import com.demo.game.metrics.MetricsExporters;
 import com.demo.game.models.User;
 import com.demo.game.network.messages.*;
 import com.demo.game.ui.SceneManager; // To get the client's username
@@ -12,22 +14,40 @@ import java.util.function.Consumer;
 
 public class GameClient implements Runnable {
 
-    private final String serverAddress;
-    private final int serverPort;
-    private Socket socket;
-    private ObjectOutputStream outputStream;
-    private ObjectInputStream inputStream;
+    private final TransportConnector connector;
+    private final String serverDescription;
+    private volatile Transport transport; // Swapped for a fresh one when a session is resumed
     private volatile boolean running = false;
     private final BlockingQueue<NetworkMessage> outgoingMessages = new LinkedBlockingQueue<>();
     private final ExecutorService networkExecutor = Executors.newFixedThreadPool(2); // One for sending, one for receiving
 
+    // --- Session Resume ---
+    private volatile String sessionToken;
+    private volatile int assignedClientId = -1;
+    private volatile long disconnectedAtNanos = -1;
+    private volatile double lastResumeLatencyMs = -1;
+
     // Callbacks to notify the UI/Game Layer
     private Consumer<NetworkMessage> onMessageReceived;
     private Consumer<Boolean> onConnectionStatusChanged; // True for connected, false for disconnected
+    private Executor callbackExecutor = javafx.application.Platform::runLater; // Headless clients run callbacks directly
+    private String username; // Defaults to the logged-in user
+
+    private final boolean spectator; // Spectators watch the relayed stream and never send inputs
 
     public GameClient(String serverAddress, int serverPort) {
-        this.serverAddress = serverAddress;
-        this.serverPort = serverPort;
+        this(serverAddress, serverPort, false);
+    }
+
+    public GameClient(String serverAddress, int serverPort, boolean spectator) {
+        this(() -> SocketTransport.connect(serverAddress, serverPort), serverAddress + ":" + serverPort, spectator);
+    }
+
+    /** Connects through any transport, e.g. {@code loopbackListener::connect} for an in-process server. */
+    public GameClient(TransportConnector connector, String serverDescription, boolean spectator) {
+        this.connector = connector;
+        this.serverDescription = serverDescription;
+        this.spectator = spectator;
     }
 
     // Setters for callbacks (must be set before starting the client thread)
@@ -39,14 +59,24 @@ public class GameClient implements Runnable {
         this.onConnectionStatusChanged = onConnectionStatusChanged;
     }
 
+    // Where message and status callbacks run. Defaults to the JavaFX thread.
+    public void setCallbackExecutor(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
     @Override
     public void run() {
         running = true;
+        if (NetworkConditions.global().isEnabled()) {
+            MetricsExporters.startFromSystemProperties(); // Serves /netsim when this client joined someone else's server
+        }
         try {
-            socket = new Socket(serverAddress, serverPort);
-            outputStream = new ObjectOutputStream(socket.getOutputStream());
-            inputStream = new ObjectInputStream(socket.getInputStream());
-            System.out.println("Connected to server: " + serverAddress + ":" + serverPort);
+            transport = openTransport();
+            System.out.println("Connected to server: " + serverDescription);
 
             // Notify UI/Game of successful connection
             if (onConnectionStatusChanged != null) {
@@ -58,9 +88,11 @@ public class GameClient implements Runnable {
             networkExecutor.submit(this::receiveMessages);
 
             // Send initial info
-            User localUser = SceneManager.getInstance().getCurrentUser();
-            String username = (localUser != null) ? localUser.getUsername() : "Player";
-            sendMessage(new ClientInfoMessage(username));
+            if (username == null) {
+                User localUser = SceneManager.getInstance().getCurrentUser();
+                username = (localUser != null) ? localUser.getUsername() : "Player";
+            }
+            sendMessage(spectator ? new SpectateRequestMessage() : new ClientInfoMessage(username));
 
 
         } catch (IOException e) {
@@ -87,19 +119,21 @@ public class GameClient implements Runnable {
         while (running) {
             try {
                 NetworkMessage message = outgoingMessages.take(); // Blocks until message is available
-                if (outputStream != null) {
-                    try {
-                        outputStream.writeObject(message);
-                        outputStream.reset(); // Clear object stream cache
-                        outputStream.flush();
-                    } catch (SocketException e) {
+                Transport current = transport;
+                if (current == null) continue;
+                try {
+                    current.send(MessageCodec.encode(message));
+                } catch (IOException e) {
+                    if (sessionToken != null) {
+                        // The receiver thread owns reconnecting; inputs sent meanwhile are simply dropped.
+                        continue;
+                    }
+                    if (e instanceof SocketException) {
                         System.out.println("Server connection lost while sending.");
                         stopClient(); // Trigger shutdown
-                    } catch (IOException e) {
-                        if (running) {
-                            System.err.println("IO Error sending message: " + e.getMessage());
-                            stopClient();
-                        }
+                    } else if (running) {
+                        System.err.println("IO Error sending message: " + e.getMessage());
+                        stopClient();
                     }
                 }
             } catch (InterruptedException e) {
@@ -114,36 +148,108 @@ public class GameClient implements Runnable {
     private void receiveMessages() {
         while (running) {
             try {
-                if (inputStream != null) {
-                    NetworkMessage message = (NetworkMessage) inputStream.readObject();
+                Transport current = transport;
+                if (current != null) {
+                    NetworkMessage message = MessageCodec.decode(current.receive());
+                    if (!handleSessionMessage(message)) continue;
                     // Pass the received message to the UI/Game layer via callback
                     if (onMessageReceived != null) {
-                        // Crucially, ensure the callback runs on the JavaFX thread if it updates UI/FXGL
-                        javafx.application.Platform.runLater(() -> onMessageReceived.accept(message));
+                        // Crucially, ensure the callback runs on the JavaFX thread if it updates UI/FXGL (see setCallbackExecutor)
+                        callbackExecutor.execute(() -> onMessageReceived.accept(message));
                     }
                 } else {
-                    // InputStream closed, likely disconnected
+                    // Transport closed, likely disconnected
                     if (running) stopClient();
                 }
             } catch (ClassNotFoundException e) {
                 System.err.println("Received unknown message type from server: " + e.getMessage());
             } catch (EOFException | SocketException e) {
                 System.out.println("Server connection closed.");
-                stopClient(); // Trigger shutdown
+                if (!tryResumeSession()) stopClient(); // Trigger shutdown
             } catch (IOException e) {
                 if (running) {
                     System.err.println("IO Error receiving message: " + e.getMessage());
-                    stopClient();
+                    if (!tryResumeSession()) stopClient();
                 }
             }
         }
         System.out.println("GameClient receiver thread finished.");
     }
 
+    // --- Session Resume Logic (Runs on the receiver thread) ---
+
+    /**
+     * Consumes session bookkeeping messages. Returns true if the message should
+     * also be passed on to the UI/Game layer.
+     */
+    private boolean handleSessionMessage(NetworkMessage message) {
+        if (message instanceof SessionTokenMessage) {
+            SessionTokenMessage tokenMsg = (SessionTokenMessage) message;
+            sessionToken = tokenMsg.sessionToken;
+            assignedClientId = tokenMsg.clientId;
+            return false;
+        }
+        if (message instanceof GameResumeMessage) {
+            assignedClientId = ((GameResumeMessage) message).clientId;
+            if (disconnectedAtNanos > 0) {
+                lastResumeLatencyMs = (System.nanoTime() - disconnectedAtNanos) / 1_000_000.0;
+                disconnectedAtNanos = -1;
+                System.out.printf("Session resumed as client %d, %.1f ms after the connection dropped.%n",
+                        assignedClientId, lastResumeLatencyMs);
+            }
+            return true;
+        }
+        if (message instanceof ResumeRejectedMessage) {
+            System.out.println("Server rejected session resume: " + ((ResumeRejectedMessage) message).reason);
+            sessionToken = null;
+            stopClient();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Tries to reconnect and present the session token until the server's grace period
+     * runs out. Returns false if there is no session to resume or every attempt failed.
+     */
+    private boolean tryResumeSession() {
+        String token = sessionToken;
+        if (!running || token == null) return false;
+
+        if (disconnectedAtNanos < 0) {
+            disconnectedAtNanos = System.nanoTime();
+        }
+        long deadline = disconnectedAtNanos + (long) (Config.RECONNECT_GRACE_PERIOD.toMillis() * 1_000_000L);
+        long backoffMs = 50;
+        closeTransport();
+
+        while (running && System.nanoTime() < deadline) {
+            try {
+                Transport resumed = openTransport();
+                resumed.send(MessageCodec.encode(new ResumeSessionMessage(token)));
+                transport = resumed;
+                System.out.println("Reconnected to server, waiting for session keyframe...");
+                return true;
+            } catch (IOException e) {
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+                backoffMs = Math.min(backoffMs * 2, 1000);
+            }
+        }
+        System.out.println("Could not resume session before the grace period ended.");
+        sessionToken = null;
+        return false;
+    }
+
     // --- Public Methods ---
 
     // Method for the game/UI to send a message
     public void sendMessage(NetworkMessage message) {
+        if (spectator && message instanceof PlayerInputMessage) return;
         if (running) {
             outgoingMessages.offer(message); // Non-blocking add to queue
         }
@@ -156,24 +262,41 @@ public class GameClient implements Runnable {
 
         // Signal disconnection
         if (onConnectionStatusChanged != null) {
-            javafx.application.Platform.runLater(() -> onConnectionStatusChanged.accept(false));
+            callbackExecutor.execute(() -> onConnectionStatusChanged.accept(false));
         }
 
         // Interrupt threads and close resources
         networkExecutor.shutdownNow(); // Interrupt sender/receiver threads
         outgoingMessages.clear(); // Clear any pending messages
 
-        try {
-            if (outputStream != null) outputStream.close();
-            if (inputStream != null) inputStream.close();
-            if (socket != null && !socket.isClosed()) socket.close();
-        } catch (IOException e) {
-            System.err.println("Error closing client socket/streams: " + e.getMessage());
-        }
+        closeTransport();
         System.out.println("Client connection stopped.");
     }
 
+    private Transport openTransport() throws IOException {
+        return NetworkConditions.global().wrap(connector.connect());
+    }
+
+    private void closeTransport() {
+        Transport current = transport;
+        if (current != null) current.close();
+    }
+
     public boolean isRunning() {
         return running;
     }
+
+    public boolean isSpectator() {
+        return spectator;
+    }
+
+    /** The client ID the server assigned to this connection, or -1 before it has joined. */
+    public int getAssignedClientId() {
+        return assignedClientId;
+    }
+
+    /** Time from losing the connection to receiving the resume keyframe, or -1 if never resumed. */
+    public double getLastResumeLatencyMs() {
+        return lastResumeLatencyMs;
+    }
 }
\ No newline at end of file
@@ -1,15 +1,18 @@
 // File: com/demo/game/network/GameServer.java
 package com.demo.game.network;
 
-import com.almasb.fxgl.core.math.Vec2;
-import com.almasb.fxgl.dsl.FXGL;
-import com.almasb.fxgl.time.LocalTimer;
 import com.demo.game.Config;
+import com.demo.game.diagnostics.BroadcastEvent;
+import com.demo.game.diagnostics.ServerTickEvent;
+import com.demo.game.diagnostics.TraceRecorder;
+import com.demo.game.level.LevelLoader;
+import com.demo.game.logging.Logger;
+import com.demo.game.metrics.LatencyHistogram;
+import com.demo.game.metrics.MetricsExporters;
+import com.demo.game.metrics.MetricsRegistry;
 import com.demo.game.models.User;
 import com.demo.game.network.messages.*;
 import com.demo.game.ui.SceneManager;
-import javafx.geometry.Point2D;
-import javafx.util.Duration;
 
 import java.io.*;
 import java.net.*;
@@ -20,88 +23,107 @@ import java.util.stream.Collectors;
 public class GameServer implements Runnable {
     // ... (constants remain the same) ...
     public static final int PORT = 12345;
-    private static final double GAME_UPDATE_RATE_HZ = 60.0;
+    public static final double GAME_UPDATE_RATE_HZ = 60.0;
     private static final double GAME_UPDATE_INTERVAL_MS = 1000.0 / GAME_UPDATE_RATE_HZ;
+    /** Passed to handlePlayerInput for an axis the client did not change. */
+    public static final int AXIS_UNCHANGED = Integer.MIN_VALUE;
 
-    private ServerSocket serverSocket;
+    private final TransportListener listener;
+    private final ServerClock clock;
+    private final boolean stepped; // Ticked by the caller through step() instead of the game loop executor
     private final ConcurrentHashMap<Integer, ClientHandler> clients = new ConcurrentHashMap<>();
     private final BlockingQueue<Runnable> taskQueue = new LinkedBlockingQueue<>();
     private final ExecutorService taskExecutor = Executors.newSingleThreadExecutor();
-    private int nextClientId = 1; // **FIX**: Start non-host IDs from 1
+    private int nextClientId = 0; // Never reused, so a new connection cannot take a held slot's id
     private volatile boolean running = false;
     private ScheduledExecutorService gameLoopExecutor;
 
     // --- Lobby State ---
     private final ConcurrentHashMap<Integer, String> playerUsernames = new ConcurrentHashMap<>();
+    private volatile int hostId = -1; // The first player to register in an empty room
+
+    // --- Session State ---
+    // Tokens handed out on join, and the disconnect time of players whose slot is held for a reconnect.
+    private final ConcurrentHashMap<String, Integer> sessionTokens = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Long> disconnectedAt = new ConcurrentHashMap<>();
+
+    // --- Instrumentation ---
+    private final ServerMetrics metrics;
+    private final Logger log;
+    private final BlackBoxRecorder blackBox;
+    private final MatchJournal journal;
+
+    // --- Spectators ---
+    private final SpectatorRelay spectatorRelay = new SpectatorRelay((long) Config.SPECTATOR_DELAY.toMillis());
 
     // --- Authoritative Game State ---
-    // ... (playerStates, bombHolderId, etc. remain the same) ...
+    // The rules live in ServerSimulation; this class feeds it inputs and broadcasts what it reports.
+    // Inputs and ticks take turns under simulationLock, and the simulation's clock only moves when
+    // one of them starts, so the journal can record exactly what the rules saw and in what order.
     private volatile boolean gameStarted = false;
-    private volatile boolean gameOver = false;
-    private final ConcurrentHashMap<Integer, PlayerServerState> playerStates = new ConcurrentHashMap<>();
-    private volatile int bombHolderId = -1;
-    private volatile Point2D bombPosition = new Point2D(-100, -100);
-    private LocalTimer bombTimer;
-    private volatile double bombStartTime = -1;
-    private LocalTimer passCooldownTimer;
-    private volatile double lastTickTime = System.nanoTime() / 1_000_000_000.0;
-
-    // ... (PlayerServerState inner class remains the same) ...
-    private static class PlayerServerState {
-        int id;
-        String username;
-        Point2D position;
-        Vec2 velocity = new Vec2();
-        boolean eliminated = false;
-        Point2D inputDirection = Point2D.ZERO;
-
-        PlayerServerState(int id, String username, Point2D position) {
-            this.id = id;
-            this.username = username;
-            this.position = position;
-        }
-    }
-
+    private final ServerSimulation simulation;
+    private final ServerClock.Manual simulationTime = new ServerClock.Manual();
+    private final Object simulationLock = new Object();
+    private volatile long lastTickNanos;
 
     public GameServer() {
         // **FIX**: No longer pre-populate the host.
         // The host will connect as a client and be assigned ID 0.
-        bombTimer = FXGL.newLocalTimer();
-        passCooldownTimer = FXGL.newLocalTimer();
+        this(new SocketListener(PORT), false);
+    }
+
+    /**
+     * A server accepting connections from the given listener. A stepped server runs on a manual
+     * clock and never ticks by itself: the owner calls {@link #step(double)} as fast as it likes,
+     * which lets headless matches over a {@link LoopbackListener} run faster than real time.
+     */
+    public GameServer(TransportListener listener, boolean stepped) {
+        this.listener = listener;
+        this.stepped = stepped;
+        this.clock = stepped ? new ServerClock.Manual() : ServerClock.SYSTEM;
+        this.simulation = new ServerSimulation(simulationTime, new SimulationBroadcaster());
+        this.metrics = new ServerMetrics(this, listener.describe());
+        this.log = Logger.get("server").forRoom(listener.describe());
+        this.simulation.setRoom(listener.describe());
+        this.simulation.setArena(LevelLoader.load(LevelLoader.arenaName()).toArena().withoutPortals());
+        this.spectatorRelay.setRoom(listener.describe());
+        this.blackBox = new BlackBoxRecorder(listener.describe());
+        this.journal = new MatchJournal(listener.describe());
+        this.lastTickNanos = clock.nanoTime();
     }
 
     @Override
     public void run() {
         running = true;
-        taskExecutor.submit(this::processTasks);
+        if (!stepped) taskExecutor.submit(this::processTasks);
+        spectatorRelay.start();
+        MetricsExporters.startFromSystemProperties();
+        MetricsRegistry.global().register(metrics);
+        ServerMetrics.ROOMS_OPEN.incrementAndGet();
+        blackBox.open();
 
         try {
-            serverSocket = new ServerSocket(PORT);
-            System.out.println("Server started on port " + PORT);
+            listener.open();
+            log.info("server_started").log();
 
             while (running) {
                 try {
-                    Socket clientSocket = serverSocket.accept();
-                    System.out.println("Client connected: " + clientSocket.getInetAddress());
-
-                    // **FIX**: Assign ID 0 to the first client (the host),
-                    // and incrementing IDs to all others.
-                    int clientId = (clients.isEmpty()) ? 0 : nextClientId++;
+                    Transport transport = listener.accept(); // The network simulator, if on, sits on the client side
 
-                    ClientHandler handler = new ClientHandler(clientSocket, clientId, this);
+                    int clientId = nextClientId++;
+                    log.info("client_connected").client(clientId).with("remote", transport.getRemoteDescription()).log();
+                    ClientHandler handler = new ClientHandler(transport, clientId, this);
                     clients.put(clientId, handler);
-                    new Thread(handler).start();
+                    new Thread(handler, "client-" + clientId).start();
 
-                } catch (SocketTimeoutException e) {
-                    // Ignore
                 } catch (IOException e) {
                     if (running) {
-                        System.err.println("Error accepting client connection: " + e.getMessage());
+                        log.warn("accept_failed").message(e.getMessage()).log();
                     }
                 }
             }
         } catch (IOException e) {
-            System.err.println("Could not start server: " + e.getMessage());
+            log.error("server_start_failed").message(e.getMessage()).log();
         } finally {
             stopServer();
         }
@@ -113,133 +135,211 @@ public class GameServer implements Runnable {
     }
     private void processTasks() {
         while (running) {
-            try { Runnable task = taskQueue.take(); task.run(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); running = false; } catch (Exception e) { System.err.println("Error processing game task: " + e.getMessage()); e.printStackTrace(); }
+            try { Runnable task = taskQueue.take(); task.run(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); running = false; } catch (Exception e) { onTaskFailed(e); }
+        }
+    }
+
+    private void onTaskFailed(Exception e) {
+        log.error("task_failed").cause(e).log();
+        blackBox.recordText(BlackBoxRecorder.ERROR, simulation.getTick(), clock.nanoTime(), "Task failed: " + e);
+        blackBox.dump("error");
+    }
+
+    // --- Stepped Mode ---
+
+    /**
+     * Advances a stepped server by {@code dtSeconds} of game time on the calling thread:
+     * runs every task queued so far (joins, inputs, startGame) and then one game tick.
+     */
+    public void step(double dtSeconds) {
+        if (!stepped) throw new IllegalStateException("step() is only available on a stepped server");
+        ((ServerClock.Manual) clock).advance((long) (dtSeconds * 1_000_000_000L));
+        Runnable task;
+        while ((task = taskQueue.poll()) != null) {
+            try { task.run(); } catch (Exception e) { onTaskFailed(e); }
         }
+        gameTick();
+    }
+
+    public boolean isGameStarted() {
+        return gameStarted;
+    }
+
+    public boolean isGameOver() {
+        return simulation.isGameOver();
+    }
+
+    public int getConnectedClientCount() {
+        return clients.size();
     }
 
     // --- Server Actions (Called via submitTask) ---
 
     public void handleClientInfo(int clientId, ClientInfoMessage msg) {
-        if (gameStarted) return;
+        ClientHandler handler = clients.get(clientId);
+        if (gameStarted || handler == null) return; // Spectators have left the player list
 
-        // **FIX**: Add (Host) tag to client 0
-        String username = (clientId == 0) ? msg.username + " (Host)" : msg.username;
+        if (hostId == -1) hostId = clientId;
+        String username = (clientId == hostId) ? msg.username + " (Host)" : msg.username;
         playerUsernames.put(clientId, username);
-        System.out.println("Client " + clientId + " registered as: " + username);
+        log.info("client_registered").client(clientId).with("username", username).log();
+        blackBox.recordJoin(simulation.getTick(), clock.nanoTime(), clientId, username);
+
+        String token = UUID.randomUUID().toString();
+        sessionTokens.values().remove(clientId);
+        sessionTokens.put(token, clientId);
+        handler.sendMessage(new SessionTokenMessage(clientId, token));
 
         broadcastLobbyUpdate();
     }
 
-    // ... (handlePlayerInput and handlePassBombAttempt remain the same) ...
-    public void handlePlayerInput(int clientId, PlayerInputMessage msg) {
-        if (!gameStarted || gameOver) return;
-        PlayerServerState state = playerStates.get(clientId);
-        if (state == null || state.eliminated) return;
-
-        switch (msg.inputType) {
-            case MOVE_LEFT:  state.inputDirection = new Point2D(-1, state.inputDirection.getY()); break;
-            case MOVE_RIGHT: state.inputDirection = new Point2D( 1, state.inputDirection.getY()); break;
-            case MOVE_UP:    state.inputDirection = new Point2D(state.inputDirection.getX(), -1); break;
-            case MOVE_DOWN:  state.inputDirection = new Point2D(state.inputDirection.getX(),  1); break;
-            case STOP_X:     state.inputDirection = new Point2D(0, state.inputDirection.getY()); break;
-            case STOP_Y:     state.inputDirection = new Point2D(state.inputDirection.getX(),  0); break;
-            case PASS_BOMB:  handlePassBombAttempt(clientId); break;
+    /**
+     * Re-attaches a reconnecting connection to the slot its session token belongs to,
+     * then sends it a single keyframe of the current match state.
+     */
+    public void handleResumeSession(ClientHandler handler, ResumeSessionMessage msg) {
+        Integer slotId = (msg.sessionToken != null) ? sessionTokens.get(msg.sessionToken) : null;
+        boolean gameOver = simulation.isGameOver();
+        if (!gameStarted || gameOver || slotId == null || !simulation.isActive(slotId)) {
+            log.info("resume_rejected").client(handler.getClientId()).with("reason", gameOver ? "match over" : "session expired").log();
+            handler.sendMessage(new ResumeRejectedMessage(gameOver ? "Match is over." : "Session expired."));
+            handler.closeConnection();
+            return;
         }
-        if (state.inputDirection.magnitude() > 0) {
-            state.inputDirection = state.inputDirection.normalize();
+
+        int provisionalId = handler.getClientId();
+        clients.remove(provisionalId, handler);
+        handler.rebind(slotId);
+        ClientHandler stale = clients.put(slotId, handler);
+        if (stale != null && stale != handler) {
+            // The old connection has not noticed it is dead yet; it no longer owns the slot.
+            stale.closeConnection();
         }
-        state.velocity = new Vec2(state.inputDirection.multiply(Config.PLAYER_SPEED));
+
+        Long since = disconnectedAt.remove(slotId);
+        long heldNanos = (since != null) ? clock.nanoTime() - since : 0;
+        metrics.resumeHeld.record(heldNanos);
+        double heldMs = heldNanos / 1_000_000.0;
+        log.info("client_resumed").client(slotId).with("connection", provisionalId).with("heldMs", heldMs).log();
+
+        handler.sendMessage(simulation.buildResumeKeyframe(slotId));
     }
-    private void handlePassBombAttempt(int passerId) {
-        if (bombHolderId != passerId || gameOver) return;
-        if (!passCooldownTimer.elapsed(Config.PASS_COOLDOWN)) return;
-        PlayerServerState passerState = playerStates.get(passerId);
-        if (passerState == null || passerState.eliminated) return;
-        PlayerServerState target = null;
-        double closestDistSq = Config.PASS_RANGE * Config.PASS_RANGE;
-        for(PlayerServerState potentialTarget : playerStates.values()) {
-            if (potentialTarget.id != passerId && !potentialTarget.eliminated) {
-                double dx = passerState.position.getX() - potentialTarget.position.getX();
-                double dy = passerState.position.getY() - potentialTarget.position.getY();
-                double distSq = dx * dx + dy * dy;
-                if (distSq <= closestDistSq) {
-                    closestDistSq = distSq;
-                    target = potentialTarget;
-                }
-            }
+
+    /**
+     * Applies a client's coalesced input: the latest requested direction on each axis
+     * (-1, 0, 1, or AXIS_UNCHANGED) and whether a pass was requested since the last drain.
+     */
+    public void handlePlayerInput(int clientId, int axisX, int axisY, boolean passBomb) {
+        if (!gameStarted || disconnectedAt.containsKey(clientId)) return; // A held slot only moves again once resumed
+        long start = System.nanoTime();
+        synchronized (simulationLock) {
+            long now = syncSimulationTime();
+            blackBox.recordInput(simulation.getTick(), now, clientId, axisX, axisY, passBomb);
+            journal.recordInput(now, clientId, axisX, axisY, passBomb);
+            simulation.applyInput(clientId, axisX, axisY, passBomb);
         }
-        if (target != null) {
-            System.out.println("Server: Player " + passerId + " passing bomb to " + target.id);
-            bombHolderId = target.id;
-            bombTimer.capture();
-            bombStartTime = FXGL.getGameTimer().getNow();
-            passCooldownTimer.capture();
-            broadcast(new BombPassMessage(target.id));
+        journal.finish(); // Written out here if the input ended the match
+        metrics.inputDrain.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Moves a connection out of the player list and onto the spectator relay. Only a connection
+     * that has not joined as a player may watch: one that registered or holds a match slot is
+     * left as it is, or it would stay behind in the lobby and the simulation as a ghost.
+     */
+    public void handleSpectateRequest(ClientHandler handler) {
+        int clientId = handler.getClientId();
+        if (playerUsernames.containsKey(clientId) || sessionTokens.containsValue(clientId) || simulation.isActive(clientId)) {
+            log.info("spectate_rejected").client(clientId).with("reason", "already playing").log();
+            return;
         }
+        if (!clients.remove(clientId, handler)) return;
+        handler.startSpectating();
+        spectatorRelay.addSpectator(handler);
     }
-    // ... (removeClient remains the same) ...
-    public void removeClient(int clientId) {
-        clients.remove(clientId);
+
+    public void removeClient(ClientHandler handler) {
+        int clientId = handler.getClientId();
+        if (handler.isSpectator()) {
+            spectatorRelay.removeSpectator(handler);
+            return;
+        }
+        if (!clients.remove(clientId, handler)) {
+            // This connection was superseded by a resumed session (or never owned a slot).
+            return;
+        }
+        log.info("client_disconnected").client(clientId).tick(simulation.getTick()).log();
+        blackBox.recordClientEvent(BlackBoxRecorder.LEAVE, simulation.getTick(), clock.nanoTime(), clientId);
+
+        if (gameStarted && !simulation.isGameOver() && simulation.isActive(clientId) && sessionTokens.containsValue(clientId)) {
+            // Hold the slot so a brief network drop does not end the player's match.
+            synchronized (simulationLock) {
+                long now = syncSimulationTime();
+                journal.recordClientEvent(MatchJournal.HOLD, now, clientId);
+                simulation.holdPlayer(clientId);
+                disconnectedAt.put(clientId, now);
+            }
+            log.info("slot_held").client(clientId).with("graceSeconds", Config.RECONNECT_GRACE_PERIOD.toSeconds()).log();
+            return;
+        }
+
+        sessionTokens.values().remove(clientId);
         playerUsernames.remove(clientId);
-        PlayerServerState removedPlayer = playerStates.remove(clientId);
-        System.out.println("Client " + clientId + " disconnected.");
+        if (playerUsernames.isEmpty() && disconnectedAt.isEmpty()) hostId = -1; // An empty room's next player hosts it
         if (!gameStarted) {
             broadcastLobbyUpdate();
-        } else if (removedPlayer != null && !removedPlayer.eliminated) {
-            removedPlayer.eliminated = true;
-            if (bombHolderId == clientId) {
-                resetBomb();
+        } else {
+            synchronized (simulationLock) {
+                journal.recordClientEvent(MatchJournal.LEAVE, syncSimulationTime(), clientId);
+                simulation.removePlayer(clientId);
             }
-            checkWinCondition();
+            journal.finish();
         }
     }
 
-
-    public void startGame() {
-        if (gameStarted) return;
-        System.out.println("Server starting game...");
-
-        List<Point2D> spawnPoints = List.of(
-                new Point2D(100, 100), new Point2D(Config.SCREEN_WIDTH - 100, 100),
-                new Point2D(100, Config.SCREEN_HEIGHT - 100), new Point2D(Config.SCREEN_WIDTH - 100, Config.SCREEN_HEIGHT - 100),
-                new Point2D(Config.SCREEN_WIDTH / 2.0, 100), new Point2D(Config.SCREEN_WIDTH / 2.0, Config.SCREEN_HEIGHT - 100)
-        );
-
-        // **FIX**: Use SPoint2D for the message
-        Map<Integer, SPoint2D> initialPositions = new HashMap<>();
-        List<Integer> playerIds = new ArrayList<>(playerUsernames.keySet());
-        Collections.shuffle(playerIds);
-
-        int spawnIndex = 0;
-        playerStates.clear();
-
-        for (int id : playerIds) {
-            Point2D pos = spawnPoints.get(spawnIndex % spawnPoints.size());
-            // **FIX**: Convert to SPoint2D for the map
-            initialPositions.put(id, new SPoint2D(pos));
-            playerStates.put(id, new PlayerServerState(id, playerUsernames.get(id), pos));
-            spawnIndex++;
+    // Eliminates held players whose grace period ran out without a reconnect (simulationLock held).
+    private void expireHeldSlots(long now) {
+        if (disconnectedAt.isEmpty()) return;
+        long graceNanos = (long) (Config.RECONNECT_GRACE_PERIOD.toMillis() * 1_000_000L);
+        for (Map.Entry<Integer, Long> entry : disconnectedAt.entrySet()) {
+            if (now - entry.getValue() < graceNanos) continue;
+            int clientId = entry.getKey();
+            disconnectedAt.remove(clientId);
+            sessionTokens.values().remove(clientId);
+            log.info("slot_expired").client(clientId).tick(simulation.getTick()).log();
+            journal.recordClientEvent(MatchJournal.EXPIRE, now, clientId);
+            simulation.eliminate(clientId);
         }
+    }
 
-        if (!playerIds.isEmpty()) {
-            bombHolderId = playerIds.get(new Random().nextInt(playerIds.size()));
-            bombTimer.capture();
-            bombStartTime = FXGL.getGameTimer().getNow();
-            passCooldownTimer.capture();
-            System.out.println("Initial bomb holder: " + bombHolderId);
-        } else {
-            bombHolderId = -1;
-            bombStartTime = -1;
-        }
+    // Freezes the simulation's clock at the current server time for one input or tick (simulationLock held).
+    private long syncSimulationTime() {
+        long now = clock.nanoTime();
+        simulationTime.set(now);
+        return now;
+    }
 
-        PlayerServerState initialHolderState = playerStates.get(bombHolderId);
-        bombPosition = (initialHolderState != null) ? initialHolderState.position : new Point2D(-100,-100);
 
+    public void startGame() {
+        if (gameStarted) return;
+        log.info("match_starting").with("players", playerUsernames.size()).log();
+
+        Map<Integer, String> players = new TreeMap<>(playerUsernames);
+        long seed = ThreadLocalRandom.current().nextLong();
+        Map<Integer, SPoint2D> initialPositions;
+        synchronized (simulationLock) {
+            long now = syncSimulationTime();
+            journal.start(now, seed, players, simulation.getBombTimerNanos(), simulation.getPassCooldownNanos(),
+                    simulation.getArena());
+            initialPositions = simulation.startMatch(players, seed);
+            blackBox.recordMatchStart(simulation.getTick(), now, initialPositions);
+        }
         gameStarted = true;
-        gameOver = false;
+        ServerMetrics.ROOMS_IN_MATCH.incrementAndGet();
+        log.info("match_seed").with("seed", seed).log();
 
         // **FIX**: Get usernames *in order of their IDs*
-        List<String> orderedUsernames = playerIds.stream()
+        List<String> orderedUsernames = initialPositions.keySet().stream()
                 .sorted() // Sort by ID (0, 1, 2...)
                 .map(playerUsernames::get)
                 .collect(Collectors.toList());
@@ -247,127 +347,141 @@ public class GameServer implements Runnable {
         // **FIX**: Send the message with SPoint2D map
         broadcast(new GameStartMessage(initialPositions, orderedUsernames));
 
-        lastTickTime = System.nanoTime() / 1_000_000_000.0;
+        lastTickNanos = clock.nanoTime();
+        if (stepped) return; // The owner drives the ticks
         if (gameLoopExecutor != null) gameLoopExecutor.shutdownNow();
         gameLoopExecutor = Executors.newSingleThreadScheduledExecutor();
         gameLoopExecutor.scheduleAtFixedRate(this::gameTick, 0, (long)GAME_UPDATE_INTERVAL_MS, TimeUnit.MILLISECONDS);
-        System.out.println("Game loop started.");
+        log.info("game_loop_started").log();
     }
 
     // --- Game Loop (Runs on gameLoopExecutor) ---
     private void gameTick() {
-        if (!running || !gameStarted || gameOver) {
+        if (!running || !gameStarted || simulation.isGameOver()) {
             return;
         }
 
+        ServerTickEvent tickEvent = new ServerTickEvent();
+        tickEvent.begin();
+        long tickStartNanos = System.nanoTime();
         try {
-            double now = System.nanoTime() / 1_000_000_000.0;
-            double tpf = now - lastTickTime;
-            lastTickTime = now;
+            long now = clock.nanoTime();
+            double tpf = (now - lastTickNanos) / 1_000_000_000.0;
+            lastTickNanos = now;
             if (tpf > 0.1) tpf = 0.1;
 
-            // 1. Update Player Positions
-            // **FIX**: Use SPoint2D for the message map
-            Map<Integer, SPoint2D> currentPositions = new HashMap<>();
-            for (PlayerServerState state : playerStates.values()) {
-                if (!state.eliminated) {
-                    Vec2 currentVelocity = state.velocity;
-                    state.position = state.position.add(currentVelocity.mul(tpf).toPoint2D());
-
-                    // ... (clamping logic remains the same) ...
-                    state.position = new Point2D(
-                            Math.max(Config.WALL_SIZE, Math.min(state.position.getX(), Config.SCREEN_WIDTH - Config.WALL_SIZE - Config.PLAYER_SIZE)),
-                            Math.max(Config.WALL_SIZE, Math.min(state.position.getY(), Config.SCREEN_HEIGHT - Config.WALL_SIZE - Config.PLAYER_SIZE))
-                    );
-
-                    // **FIX**: Convert to SPoint2D for the message
-                    currentPositions.put(state.id, new SPoint2D(state.position));
+            long phaseStart;
+            long simulated;
+            GameStateUpdateMessage update = null;
+            synchronized (simulationLock) {
+                simulationTime.set(now);
+                expireHeldSlots(now);
+                if (simulation.isGameOver()) return;
+
+                // Movement, bomb timer and explosions
+                journal.recordTick(now, tpf);
+                phaseStart = System.nanoTime();
+                simulation.integrateMovement(tpf);
+                double bombTimeRemaining = simulation.updateBomb();
+                simulated = System.nanoTime();
+                if (!simulation.isGameOver()) {
+                    update = simulation.buildSnapshot(bombTimeRemaining, System.nanoTime());
                 }
             }
-
-            // 2. Update Bomb Position & Check Timer
-            // ... (bomb logic remains the same) ...
-            double bombTimeRemaining = -1.0;
-            if (bombHolderId != -1) {
-                PlayerServerState holder = playerStates.get(bombHolderId);
-                if (holder != null && !holder.eliminated) {
-                    bombPosition = holder.position.add(Config.PLAYER_SIZE / 2.0 - Config.BOMB_SIZE / 2.0, Config.PLAYER_SIZE / 2.0 - Config.BOMB_SIZE / 2.0);
-                    if (bombStartTime > 0) {
-                        double elapsedSeconds = FXGL.getGameTimer().getNow() - bombStartTime;
-                        bombTimeRemaining = Math.max(0.0, Config.BOMB_TIMER_DURATION.toSeconds() - elapsedSeconds);
-                    } else {
-                        bombTimeRemaining = Config.BOMB_TIMER_DURATION.toSeconds();
-                    }
-                    if (bombTimer.elapsed(Config.BOMB_TIMER_DURATION)) {
-                        System.out.println("Server: Bomb exploded on player " + bombHolderId);
-                        holder.eliminated = true;
-                        broadcast(new PlayerEliminatedMessage(bombHolderId));
-                        resetBomb();
-                        checkWinCondition();
-                        bombTimeRemaining = -1.0;
-                    }
-                } else {
-                    resetBomb();
-                    bombTimeRemaining = -1.0;
-                    bombStartTime = -1.0;
-                }
-            } else {
-                bombPosition = new Point2D(-100, -100);
-                bombTimeRemaining = -1.0;
-                bombStartTime = -1.0;
-            }
-
-            // 3. Broadcast Game State Update
-            if (!gameOver) {
-                // **FIX**: Convert bombPosition to SPoint2D for the message
-                broadcast(new GameStateUpdateMessage(currentPositions, bombHolderId, new SPoint2D(bombPosition), bombTimeRemaining));
+            metrics.simulation.record(simulated - phaseStart);
+            tickEvent.simulationNanos = simulated - phaseStart;
+            TraceRecorder.span("simulation", "server.tick", phaseStart, simulated);
+
+            if (update != null) {
+                blackBox.recordSnapshot(simulation.getTick(), now, update.bombHolderId, update.bombPosition,
+                        update.bombTimerRemaining, update.playerPositions);
+                long built = System.nanoTime();
+                metrics.snapshotBuild.record(built - simulated);
+                broadcast(update);
+                long sent = System.nanoTime();
+                tickEvent.snapshotBuildNanos = built - simulated;
+                tickEvent.broadcastNanos = sent - built;
+                TraceRecorder.span("snapshot", "server.tick", simulated, built);
+                TraceRecorder.span("broadcast", "server.tick", built, sent);
             }
 
         } catch (Exception e) {
-            System.err.println("Error during game tick: " + e.getMessage());
-            e.printStackTrace();
+            log.error("tick_failed").tick(simulation.getTick()).cause(e).log();
+            blackBox.recordText(BlackBoxRecorder.ERROR, simulation.getTick(), clock.nanoTime(), "Tick failed: " + e);
+            blackBox.dump("error");
+        } finally {
+            journal.finish(); // Written out here, outside the lock, if the tick ended the match
+            long tickEndNanos = System.nanoTime();
+            metrics.tick.record(tickEndNanos - tickStartNanos);
+            TraceRecorder.span("tick", "server.tick", tickStartNanos, tickEndNanos);
+            if (tickEvent.shouldCommit()) {
+                tickEvent.room = metrics.getRoom();
+                tickEvent.players = simulation.getPlayerCount();
+                tickEvent.commit();
+            }
         }
     }
 
-    // ... (resetBomb and checkWinCondition remain the same) ...
-    private void resetBomb() {
-        List<Integer> activePlayerIds = playerStates.values().stream().filter(p -> !p.eliminated).map(p -> p.id).collect(Collectors.toList());
-        if (!activePlayerIds.isEmpty()) {
-            bombHolderId = activePlayerIds.get(new Random().nextInt(activePlayerIds.size()));
-            bombTimer.capture();
-            bombStartTime = FXGL.getGameTimer().getNow();
-            passCooldownTimer.capture();
-            System.out.println("Server: Bomb reset and given to " + bombHolderId);
-            broadcast(new BombPassMessage(bombHolderId));
-        } else {
-            bombHolderId = -1;
-            bombStartTime = -1;
-            bombPosition = new Point2D(-100,-100);
-            System.out.println("Server: Bomb reset, no active players left.");
+    // Turns what the simulation reports into broadcasts (runs on whichever thread drove it).
+    private class SimulationBroadcaster implements ServerSimulation.Listener {
+        @Override
+        public void onBombPassed(int newHolderId) {
+            blackBox.recordClientEvent(BlackBoxRecorder.BOMB_PASSED, simulation.getTick(), clock.nanoTime(), newHolderId);
+            broadcast(new BombPassMessage(newHolderId));
         }
-    }
-    private void checkWinCondition() {
-        if (gameOver) return;
-        List<PlayerServerState> activePlayers = playerStates.values().stream().filter(p -> !p.eliminated).collect(Collectors.toList());
-        if (activePlayers.size() <= 1) {
-            gameOver = true;
-            String winnerUsername = activePlayers.isEmpty() ? "No one" : activePlayers.get(0).username;
-            System.out.println("Server: Game Over! Winner: " + winnerUsername);
+
+        @Override
+        public void onPlayerEliminated(int clientId) {
+            blackBox.recordClientEvent(BlackBoxRecorder.ELIMINATED, simulation.getTick(), clock.nanoTime(), clientId);
+            broadcast(new PlayerEliminatedMessage(clientId));
+        }
+
+        @Override
+        public void onGameOver(String winnerUsername) {
+            ServerMetrics.ROOMS_IN_MATCH.decrementAndGet();
             broadcast(new GameOverMessage(winnerUsername));
+            blackBox.recordText(BlackBoxRecorder.GAME_OVER, simulation.getTick(), clock.nanoTime(), winnerUsername);
+            journal.end(simulationTime.nanoTime(), simulation.getTick(), simulation.stateDigest(), winnerUsername);
+            if (blackBox.shouldDumpOnGameOver()) blackBox.dump("game-over");
             if (gameLoopExecutor != null) {
+                // Usually called from the loop itself (inside simulationLock), so never wait for it here:
+                // the current tick finishes and no further one is scheduled.
                 gameLoopExecutor.shutdown();
-                try {
-                    if (!gameLoopExecutor.awaitTermination(1, TimeUnit.SECONDS)) { gameLoopExecutor.shutdownNow(); }
-                } catch (InterruptedException e) { gameLoopExecutor.shutdownNow(); Thread.currentThread().interrupt(); }
-                System.out.println("Game loop stopped.");
+                log.info("game_loop_stopped").log();
             }
         }
     }
 
     // ... (Broadcasting and Shutdown methods remain the same) ...
     public void broadcast(NetworkMessage message) {
+        // Encode once and share the same frame between every player and the spectator relay
+        BroadcastEvent event = new BroadcastEvent();
+        event.begin();
+        byte[] frame;
+        long start = System.nanoTime();
+        try {
+            frame = MessageCodec.encode(message);
+        } catch (IOException e) {
+            log.error("broadcast_encode_failed").with("type", message.getClass().getSimpleName()).cause(e).log();
+            return;
+        }
+        long encoded = System.nanoTime();
+        metrics.encode.record(encoded - start);
+        TraceRecorder.span("encode", "server.net", start, encoded);
         for (ClientHandler handler : clients.values()) {
-            handler.sendMessage(message);
+            handler.sendFrame(frame);
+        }
+        spectatorRelay.publish(message, frame);
+        long sent = System.nanoTime();
+        metrics.send.record(sent - encoded);
+        TraceRecorder.span("send all", "server.net", encoded, sent);
+        if (event.shouldCommit()) {
+            event.room = metrics.getRoom();
+            event.messageType = message.getClass().getSimpleName();
+            event.frameBytes = frame.length;
+            event.recipients = clients.size();
+            event.encodeNanos = encoded - start;
+            event.commit();
         }
     }
     public void broadcastLobbyUpdate() {
@@ -377,24 +491,51 @@ public class GameServer implements Runnable {
     public List<String> getCurrentPlayerUsernames() {
         return new ArrayList<>(playerUsernames.values());
     }
+    public LatencyHistogram getTickDurations() {
+        return metrics.tick;
+    }
+    int getTaskQueueDepth() {
+        return taskQueue.size();
+    }
+    Collection<ClientHandler> getClientHandlers() {
+        return clients.values();
+    }
+
+    // Connections and the spectator relay log under this server's room
+    Logger getLog() {
+        return log;
+    }
+    public int getSpectatorCount() {
+        return spectatorRelay.getSpectatorCount();
+    }
+
+    /** Writes this room's black box (the last minute or so of inputs, snapshots and events) to a file. */
+    public void dumpBlackBox(String reason) {
+        blackBox.dump(reason);
+    }
+
     public void stopServer() {
         if (!running) return;
-        System.out.println("Stopping server...");
+        log.info("server_stopping").log();
         running = false;
-        gameOver = true;
+        MetricsRegistry.global().unregister(metrics);
+        blackBox.close();
+        synchronized (simulationLock) {
+            journal.end(clock.nanoTime(), simulation.getTick(), simulation.stateDigest(), null); // No-op if the match already ended
+        }
+        journal.finish();
+        ServerMetrics.ROOMS_OPEN.decrementAndGet();
+        if (gameStarted && !simulation.isGameOver()) ServerMetrics.ROOMS_IN_MATCH.decrementAndGet();
         if (gameLoopExecutor != null) { gameLoopExecutor.shutdownNow(); }
         taskExecutor.shutdownNow();
+        spectatorRelay.stop();
         clients.values().forEach(ClientHandler::closeConnection);
         clients.clear();
-        playerStates.clear();
+        simulation.clear();
         playerUsernames.clear();
-        try {
-            if (serverSocket != null && !serverSocket.isClosed()) {
-                serverSocket.close();
-            }
-        } catch (IOException e) {
-            System.err.println("Error closing server socket: " + e.getMessage());
-        }
-        System.out.println("Server stopped.");
+        sessionTokens.clear();
+        disconnectedAt.clear();
+        listener.close();
+        log.info("server_stopped").log();
     }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+// File: com/demo/game/network/LoopbackListener.java
+package com.demo.game.network;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An in-memory stand-in for a server socket. Any number of servers and clients can run in one
+ * JVM without ports: give the listener to a GameServer and {@code listener::connect} to each
+ * GameClient as its TransportConnector.
+ */
+public class LoopbackListener implements TransportListener {
+
+    private static final LoopbackTransport[] CLOSED = new LoopbackTransport[0];
+
+    private final String name;
+    private final BlockingQueue<LoopbackTransport[]> pending = new LinkedBlockingQueue<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private volatile boolean closed = false;
+
+    public LoopbackListener(String name) {
+        this.name = name;
+    }
+
+    /** Called by clients. Returns the client end immediately; the server end waits in accept(). */
+    public Transport connect() throws IOException {
+        if (closed) throw new ConnectException("Loopback server " + name + " is not accepting connections");
+        LoopbackTransport[] ends = LoopbackTransport.pair(name + "#" + connectionCount.incrementAndGet());
+        pending.offer(ends);
+        return ends[0];
+    }
+
+    @Override
+    public void open() {
+        closed = false;
+    }
+
+    @Override
+    public Transport accept() throws IOException {
+        try {
+            LoopbackTransport[] ends = pending.take();
+            if (ends == CLOSED) {
+                pending.offer(CLOSED);
+                throw new IOException("Loopback listener closed");
+            }
+            return ends[1];
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while accepting", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        pending.offer(CLOSED);
+    }
+
+    @Override
+    public String describe() {
+        return "loopback " + name;
+    }
+}
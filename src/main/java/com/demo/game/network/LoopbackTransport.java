@@ -0,0 +1,74 @@
+// File: com/demo/game/network/LoopbackTransport.java
+package com.demo.game.network;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * One end of an in-memory connection. Frames are handed to the peer's queue as-is, so both
+ * sides still go through MessageCodec exactly as they would over a socket, minus the kernel.
+ */
+public class LoopbackTransport implements Transport {
+
+    // Queued behind any frames still in flight so the reader sees them before end-of-stream.
+    private static final byte[] END_OF_STREAM = new byte[0];
+
+    private final String name;
+    private final BlockingQueue<byte[]> inbox = new LinkedBlockingQueue<>();
+    private LoopbackTransport peer;
+    private volatile boolean closed = false;
+
+    private LoopbackTransport(String name) {
+        this.name = name;
+    }
+
+    /** Creates two connected ends; index 0 is the client side, index 1 the server side. */
+    public static LoopbackTransport[] pair(String description) {
+        LoopbackTransport client = new LoopbackTransport(description + " (client end)");
+        LoopbackTransport server = new LoopbackTransport(description + " (server end)");
+        client.peer = server;
+        server.peer = client;
+        return new LoopbackTransport[] { client, server };
+    }
+
+    @Override
+    public void send(byte[] frame) throws IOException {
+        if (closed || peer.closed) throw new IOException("Loopback connection closed");
+        peer.inbox.offer(frame);
+    }
+
+    @Override
+    public byte[] receive() throws IOException {
+        try {
+            byte[] frame = inbox.take();
+            if (frame == END_OF_STREAM) {
+                inbox.offer(END_OF_STREAM); // Keep failing on later calls
+                throw new EOFException("Loopback connection closed");
+            }
+            return frame;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a frame", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        inbox.offer(END_OF_STREAM);
+        peer.inbox.offer(END_OF_STREAM);
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public String getRemoteDescription() {
+        return peer.name;
+    }
+}
@@ -0,0 +1,226 @@
+// File: com/demo/game/network/MatchJournal.java
+package com.demo.game.network;
+
+import com.demo.game.sim.Arena;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+/**
+ * Everything that decides how a match plays out, in the order the server applied it: the seed
+ * and players at the start, every input, hold, leave and expired slot, and the time and length
+ * of every tick. {@link MatchReplay} feeds a journal back into a fresh ServerSimulation and
+ * checks it ends in the same state.
+ * <p>
+ * Records are appended to a memory-mapped file, so writing one is a few puts with no system
+ * call; the mapping grows a chunk at a time and the file is trimmed when the match ends.
+ * <pre>
+ *   -Djournal.enabled=false   do not journal matches (on by default)
+ *   -Djournal.dir=journal     where journals are written
+ *   -Djournal.chunkKb=256     how much of the file is mapped at a time
+ * </pre>
+ * File layout (big-endian): magic, version, room, wall-clock millis, bomb timer nanos, pass
+ * cooldown nanos, seed, the arena (width and height as doubles, walls as {@code short n, n x 4
+ * doubles}, start points as {@code short n, n x (double x, double y)}), then the records. Each record is {@code byte type, long serverNanos}
+ * followed by a type-specific payload; a zero type byte marks the end of the data.
+ */
+public class MatchJournal {
+
+    public static final int MAGIC = 0x48504D4A; // "HPMJ"
+    public static final int VERSION = 3; // 2: spawn points in the header, 3: the arena's walls too
+
+    // --- Record Types ---
+    public static final byte START = 1;   // short n, n x (int id, string username)
+    public static final byte INPUT = 2;   // int client, byte axisX, byte axisY (AXIS_UNCHANGED if not sent), byte pass
+    public static final byte HOLD = 3;    // int client
+    public static final byte LEAVE = 4;   // int client
+    public static final byte EXPIRE = 5;  // int client
+    public static final byte TICK = 6;    // double tpf
+    public static final byte END = 7;     // long tick, long stateDigest, byte gameOver, string winner
+
+    public static final byte AXIS_UNCHANGED = Byte.MIN_VALUE;
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("journal.enabled", "true"));
+    private static final int CHUNK_BYTES = Integer.getInteger("journal.chunkKb", 256) * 1024;
+    private static final int MAX_STRING_BYTES = 255;
+
+    private final String room;
+    private FileChannel channel;   // Null until the match starts and after it ends
+    private MappedByteBuffer mapped;
+    private long mappedBase;       // File offset of the current mapping
+    private File file;
+
+    // Handed from end() to finish(): the ended journal, still to be forced to disk and trimmed
+    private FileChannel endedChannel;
+    private MappedByteBuffer endedMapped;
+    private File endedFile;
+    private long endedLength;
+
+    public MatchJournal(String room) {
+        this.room = room;
+    }
+
+    public synchronized boolean isOpen() {
+        return channel != null;
+    }
+
+    // --- Recording (called with the server's simulation lock held) ---
+
+    /** Creates the journal file for a match. Does nothing when journaling is disabled. */
+    public synchronized void start(long nanos, long seed, Map<Integer, String> players,
+                                   long bombTimerNanos, long passCooldownNanos, Arena arena) {
+        if (!ENABLED || channel != null) return;
+        File dir = new File(System.getProperty("journal.dir", "journal"));
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS"));
+        file = new File(dir, room.replaceAll("[^A-Za-z0-9_.-]", "_") + "-" + stamp + ".hpj");
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            System.err.println("Could not create journal directory " + dir);
+            return;
+        }
+        try {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            mappedBase = 0;
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, CHUNK_BYTES);
+        } catch (IOException e) {
+            System.err.println("Could not open match journal " + file + ": " + e.getMessage());
+            closeQuietly();
+            return;
+        }
+
+        double[] walls = arena.getWalls();
+        double[] starts = arena.getSpawns(Arena.START);
+        ensure(96 + room.length() * 3 + (walls.length + starts.length) * Double.BYTES);
+        mapped.putInt(MAGIC).putInt(VERSION);
+        putString(room);
+        mapped.putLong(System.currentTimeMillis()).putLong(bombTimerNanos).putLong(passCooldownNanos).putLong(seed);
+        mapped.putDouble(arena.getWidth()).putDouble(arena.getHeight());
+        mapped.putShort((short) (walls.length / 4));
+        for (double value : walls) {
+            mapped.putDouble(value);
+        }
+        mapped.putShort((short) (starts.length / 2));
+        for (double value : starts) {
+            mapped.putDouble(value);
+        }
+
+        if (!begin(START, nanos, Short.BYTES + players.size() * (Integer.BYTES + Short.BYTES + MAX_STRING_BYTES))) return;
+        mapped.putShort((short) players.size());
+        for (Map.Entry<Integer, String> player : players.entrySet()) {
+            mapped.putInt(player.getKey());
+            putString(player.getValue());
+        }
+    }
+
+    public synchronized void recordInput(long nanos, int clientId, int axisX, int axisY, boolean pass) {
+        if (!begin(INPUT, nanos, 7)) return;
+        mapped.putInt(clientId).put(axisByte(axisX)).put(axisByte(axisY)).put((byte) (pass ? 1 : 0));
+    }
+
+    /** A HOLD, LEAVE or EXPIRE record. */
+    public synchronized void recordClientEvent(byte type, long nanos, int clientId) {
+        if (!begin(type, nanos, Integer.BYTES)) return;
+        mapped.putInt(clientId);
+    }
+
+    public synchronized void recordTick(long nanos, double tpf) {
+        if (!begin(TICK, nanos, Double.BYTES)) return;
+        mapped.putDouble(tpf);
+    }
+
+    /**
+     * Writes the final state and stops recording; later records are ignored. {@code winner} is
+     * null for a match that was abandoned before it finished. The file is only forced to disk
+     * and closed by {@link #finish()}.
+     */
+    public synchronized void end(long nanos, long tick, long stateDigest, String winner) {
+        if (!begin(END, nanos, 2 * Long.BYTES + 1 + Short.BYTES + MAX_STRING_BYTES)) return;
+        mapped.putLong(tick).putLong(stateDigest).put((byte) (winner != null ? 1 : 0));
+        putString(winner);
+        endedLength = mappedBase + mapped.position();
+        endedChannel = channel;
+        endedMapped = mapped;
+        endedFile = file;
+        channel = null;
+        mapped = null;
+    }
+
+    // --- Closing (called without the simulation lock: forcing the mapping can take a while) ---
+
+    /** Forces a journal {@link #end ended} since the last call to disk, trims it and closes it. Otherwise does nothing. */
+    public void finish() {
+        FileChannel ended;
+        MappedByteBuffer endedData;
+        File endedPath;
+        long length;
+        synchronized (this) {
+            if (endedChannel == null) return;
+            ended = endedChannel;
+            endedData = endedMapped;
+            endedPath = endedFile;
+            length = endedLength;
+            endedChannel = null;
+            endedMapped = null;
+        }
+        endedData.force();
+        try {
+            ended.truncate(length); // Readers also stop at the zero padding if this is refused
+        } catch (IOException e) {
+            // Some platforms will not shrink a file that is still mapped
+        }
+        try {
+            ended.close();
+        } catch (IOException e) {
+            // Nothing left to save
+        }
+        System.out.println("Match journal for " + room + " written to " + endedPath.getPath() + " (" + length / 1024 + " KB)");
+    }
+
+    private boolean begin(byte type, long nanos, int payloadBytes) {
+        if (channel == null) return false;
+        if (!ensure(1 + Long.BYTES + payloadBytes + 1)) return false; // Leave room for the end marker
+        mapped.put(type).putLong(nanos);
+        return true;
+    }
+
+    // Maps the next chunk of the file when the current one cannot take another record
+    private boolean ensure(int bytes) {
+        if (mapped.remaining() >= bytes) return true;
+        try {
+            mappedBase += mapped.position();
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, mappedBase, Math.max(CHUNK_BYTES, bytes));
+            return true;
+        } catch (IOException e) {
+            System.err.println("Match journal for " + room + " stopped: " + e.getMessage());
+            closeQuietly();
+            return false;
+        }
+    }
+
+    private static byte axisByte(int axis) {
+        return (axis == GameServer.AXIS_UNCHANGED) ? AXIS_UNCHANGED : (byte) axis;
+    }
+
+    private void putString(String text) {
+        byte[] bytes = (text != null ? text : "").getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_STRING_BYTES);
+        mapped.putShort((short) length).put(bytes, 0, length);
+    }
+
+    private void closeQuietly() {
+        try {
+            if (channel != null) channel.close();
+        } catch (IOException e) {
+            // Nothing left to save
+        }
+        channel = null;
+        mapped = null;
+    }
+}
@@ -0,0 +1,200 @@
+// File: com/demo/game/network/MatchReplay.java
+package com.demo.game.network;
+
+import com.demo.game.sim.Arena;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Re-simulates a match from its {@link MatchJournal} with no clients, network or frame pacing,
+ * and checks that it ends in exactly the state the server recorded. A mismatch means the rules
+ * depend on something the journal does not capture, which is worth knowing before it shows
+ * up as a desync.
+ * <pre>
+ *   java com.demo.game.network.MatchReplay journal/room-20250101-120000-000.hpj [more.hpj ...]
+ * </pre>
+ * Exits with status 1 if any replay diverged.
+ */
+public class MatchReplay {
+
+    /** What one replay found. */
+    public static class Result {
+        public String room;
+        public long seed;
+        public int players;
+        public long ticks;
+        public long inputs;
+        public double matchSeconds;
+        public double replayMillis;
+        public boolean ended;        // The journal has an END record
+        public boolean finished;     // The match reached game over rather than being abandoned
+        public String expectedWinner;
+        public String replayedWinner;
+        public long expectedDigest;
+        public long replayedDigest;
+        public long expectedTick;
+
+        public boolean matches() {
+            return ended && expectedDigest == replayedDigest && expectedTick == ticks
+                    && (!finished || expectedWinner.equals(replayedWinner));
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: MatchReplay <journal.hpj> [more.hpj ...]");
+            System.exit(2);
+        }
+        boolean allMatch = true;
+        for (String arg : args) {
+            Result result = replay(Paths.get(arg));
+            allMatch &= result.matches();
+            System.out.println(describe(arg, result));
+        }
+        System.exit(allMatch ? 0 : 1);
+    }
+
+    static String describe(String name, Result r) {
+        StringBuilder line = new StringBuilder(name).append(": ");
+        line.append(String.format("%s, seed %d, %d players, %d ticks, %d inputs, %.1f s of play in %.1f ms (%.0fx real time)",
+                r.room, r.seed, r.players, r.ticks, r.inputs, r.matchSeconds, r.replayMillis,
+                r.replayMillis > 0 ? r.matchSeconds * 1000.0 / r.replayMillis : 0.0));
+        if (!r.ended) {
+            return line.append(" -- INCOMPLETE: no end record").toString();
+        }
+        line.append(r.finished ? ", winner " + r.replayedWinner : ", abandoned");
+        if (r.matches()) {
+            return line.append(String.format(" -- OK (state %016x)", r.replayedDigest)).toString();
+        }
+        return line.append(String.format(" -- DIVERGED: expected state %016x at tick %d (winner %s), replay has %016x at tick %d (winner %s)",
+                r.expectedDigest, r.expectedTick, r.expectedWinner, r.replayedDigest, r.ticks, r.replayedWinner)).toString();
+    }
+
+    /** Replays one journal file. */
+    public static Result replay(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return replay(in);
+        }
+    }
+
+    static Result replay(MappedByteBuffer in) throws IOException {
+        if (in.getInt() != MatchJournal.MAGIC) throw new IOException("Not a match journal");
+        int version = in.getInt();
+        if (version != MatchJournal.VERSION) throw new IOException("Unsupported journal version " + version);
+
+        Result result = new Result();
+        result.room = getString(in);
+        in.getLong(); // Wall-clock start
+        long bombTimerNanos = in.getLong();
+        long passCooldownNanos = in.getLong();
+        result.seed = in.getLong();
+        double width = in.getDouble();
+        double height = in.getDouble();
+        double[] walls = new double[in.getShort() * 4];
+        for (int i = 0; i < walls.length; i++) {
+            walls[i] = in.getDouble();
+        }
+        double[] starts = new double[in.getShort() * 2];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = in.getDouble();
+        }
+
+        ServerClock.Manual clock = new ServerClock.Manual();
+        String[] winner = new String[1];
+        ServerSimulation simulation = new ServerSimulation(clock, new ServerSimulation.Listener() {
+            @Override public void onBombPassed(int newHolderId) {}
+            @Override public void onPlayerEliminated(int clientId) {}
+            @Override public void onGameOver(String winnerUsername) { winner[0] = winnerUsername; }
+        }, bombTimerNanos, passCooldownNanos);
+        simulation.setRoom(result.room + " (replay)");
+        simulation.setArena(new Arena(result.room, width, height, walls, new double[0], new int[0],
+                Map.of(Arena.START, starts), null));
+
+        long startReplay = System.nanoTime();
+        long firstNanos = Long.MIN_VALUE;
+        long lastNanos = 0;
+        try {
+            while (in.hasRemaining()) {
+                byte type = in.get();
+                if (type == 0) break; // Zero padding after the last record
+                long nanos = in.getLong();
+                clock.set(nanos);
+                if (firstNanos == Long.MIN_VALUE) firstNanos = nanos;
+                lastNanos = nanos;
+
+                switch (type) {
+                    case MatchJournal.START:
+                        Map<Integer, String> players = new LinkedHashMap<>();
+                        int count = in.getShort();
+                        for (int i = 0; i < count; i++) {
+                            int id = in.getInt();
+                            players.put(id, getString(in));
+                        }
+                        result.players = count;
+                        simulation.startMatch(players, result.seed);
+                        break;
+                    case MatchJournal.INPUT:
+                        int clientId = in.getInt();
+                        int axisX = axis(in.get());
+                        int axisY = axis(in.get());
+                        boolean pass = in.get() != 0;
+                        simulation.applyInput(clientId, axisX, axisY, pass);
+                        result.inputs++;
+                        break;
+                    case MatchJournal.HOLD:
+                        simulation.holdPlayer(in.getInt());
+                        break;
+                    case MatchJournal.LEAVE:
+                        simulation.removePlayer(in.getInt());
+                        break;
+                    case MatchJournal.EXPIRE:
+                        simulation.eliminate(in.getInt());
+                        break;
+                    case MatchJournal.TICK:
+                        simulation.integrateMovement(in.getDouble());
+                        simulation.updateBomb();
+                        break;
+                    case MatchJournal.END:
+                        result.ended = true;
+                        result.expectedTick = in.getLong();
+                        result.expectedDigest = in.getLong();
+                        result.finished = in.get() != 0;
+                        result.expectedWinner = getString(in);
+                        in.position(in.limit());
+                        break;
+                    default:
+                        throw new IOException("Unknown record type " + type + " at offset " + (in.position() - 9));
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            // Truncated journal (the server died mid-match); report what was replayed
+        }
+
+        result.replayMillis = (System.nanoTime() - startReplay) / 1_000_000.0;
+        result.matchSeconds = (firstNanos == Long.MIN_VALUE) ? 0.0 : (lastNanos - firstNanos) / 1_000_000_000.0;
+        result.ticks = simulation.getTick();
+        result.replayedDigest = simulation.stateDigest();
+        result.replayedWinner = winner[0];
+        return result;
+    }
+
+    private static int axis(byte value) {
+        return (value == MatchJournal.AXIS_UNCHANGED) ? GameServer.AXIS_UNCHANGED : value;
+    }
+
+    private static String getString(MappedByteBuffer in) {
+        byte[] bytes = new byte[in.getShort()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
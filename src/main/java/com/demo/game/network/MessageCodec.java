@@ -0,0 +1,65 @@
+// File: com/demo/game/network/MessageCodec.java
+package com.demo.game.network;
+
+import com.demo.game.network.messages.NetworkMessage;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes messages into self-contained frames and back.
+ * <p>
+ * Each frame is a length prefix followed by one serialized message. Because a frame does not
+ * depend on the state of any particular connection's stream, the server can encode a broadcast
+ * once and write the same bytes to every player and spectator.
+ */
+public final class MessageCodec {
+
+    /** Frames larger than this are treated as a corrupt or hostile stream. */
+    public static final int MAX_FRAME_SIZE = 1 << 20;
+
+    private MessageCodec() {}
+
+    public static byte[] encode(NetworkMessage message) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(message);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static NetworkMessage decode(byte[] frame) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(frame))) {
+            return (NetworkMessage) in.readObject();
+        }
+    }
+
+    /**
+     * The class name of the message in a frame, read from the serialization header without
+     * decoding the rest, or null if the frame does not start with one.
+     */
+    public static String peekClassName(byte[] frame) {
+        // Stream magic and version (4 bytes), TC_OBJECT, TC_CLASSDESC, then the name as modified UTF-8
+        if (frame.length < 8 || (frame[4] & 0xFF) != 0x73 || (frame[5] & 0xFF) != 0x72) return null;
+        int length = ((frame[6] & 0xFF) << 8) | (frame[7] & 0xFF);
+        if (frame.length < 8 + length) return null;
+        return new String(frame, 8, length, StandardCharsets.UTF_8);
+    }
+
+    public static void writeFrame(DataOutputStream out, byte[] frame) throws IOException {
+        out.writeInt(frame.length);
+        out.write(frame);
+        out.flush();
+    }
+
+    /** Blocks until a full frame has arrived. Throws EOFException when the peer closes the stream. */
+    public static byte[] readFrame(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_FRAME_SIZE) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+        byte[] frame = new byte[length];
+        in.readFully(frame);
+        return frame;
+    }
+}
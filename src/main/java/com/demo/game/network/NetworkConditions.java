@@ -0,0 +1,137 @@
+// File: com/demo/game/network/NetworkConditions.java
+package com.demo.game.network;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Settings for the built-in network condition simulator.
+ * <p>
+ * The simulator is installed on every connection a {@link GameClient} opens when the game is
+ * started with {@code -Dnetsim.enabled=true}, and conditions both directions of it from there.
+ * The server never wraps its side, so a host playing over its own in-process server sees each
+ * link simulated once, not twice. Individual conditions start from the {@code netsim.*}
+ * properties below and can be changed while the game runs through the setters, or over the
+ * metrics endpoint's {@code /netsim} page (see {@link #configure}); live connections pick up the
+ * new values on their next frame. Setting everything to zero makes the shim a pass-through.
+ * <pre>
+ *   -Dnetsim.latencyMs=60       one-way delay added in each direction
+ *   -Dnetsim.jitterMs=15        uniform +/- variation on top of the latency
+ *   -Dnetsim.lossPercent=1.5    chance a snapshot is silently dropped
+ *   -Dnetsim.reorderPercent=2   chance a snapshot is held back so later frames overtake it
+ *   -Dnetsim.bandwidthKbps=512  per-direction link capacity, 0 for unlimited
+ *   -Dnetsim.seed=42            makes loss/jitter/reordering reproducible
+ * </pre>
+ * Loss and reordering emulate sending snapshots over an unreliable datagram channel: only
+ * snapshots are dropped or held back, which shows how prediction and interpolation cope with
+ * missing or late ones. Every other message, inputs included, is delayed and jittered but keeps
+ * TCP's delivery and ordering, as it would on a reliable channel: the client sends stop and pass
+ * inputs only once, and the lobby, sessions and game over must still work.
+ */
+public class NetworkConditions {
+
+    private static final NetworkConditions GLOBAL = fromSystemProperties();
+
+    private final boolean enabled;
+    private final long seed;
+    private final AtomicLong linkCounter = new AtomicLong();
+
+    private volatile double latencyMs;
+    private volatile double jitterMs;
+    private volatile double lossPercent;
+    private volatile double reorderPercent;
+    private volatile int bandwidthKbps;
+
+    public NetworkConditions(boolean enabled, long seed) {
+        this.enabled = enabled;
+        this.seed = seed;
+    }
+
+    /** The process-wide settings read from system properties at startup. */
+    public static NetworkConditions global() {
+        return GLOBAL;
+    }
+
+    private static NetworkConditions fromSystemProperties() {
+        NetworkConditions conditions = new NetworkConditions(
+                Boolean.getBoolean("netsim.enabled"),
+                Long.getLong("netsim.seed", System.nanoTime()));
+        conditions.setLatencyMs(doubleProperty("netsim.latencyMs"));
+        conditions.setJitterMs(doubleProperty("netsim.jitterMs"));
+        conditions.setLossPercent(doubleProperty("netsim.lossPercent"));
+        conditions.setReorderPercent(doubleProperty("netsim.reorderPercent"));
+        conditions.setBandwidthKbps(Integer.getInteger("netsim.bandwidthKbps", 0));
+        if (conditions.isEnabled()) {
+            System.out.println("Network simulator enabled: " + conditions);
+        }
+        return conditions;
+    }
+
+    private static double doubleProperty(String key) {
+        String value = System.getProperty(key);
+        if (value == null) return 0.0;
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring invalid value for " + key + ": " + value);
+            return 0.0;
+        }
+    }
+
+    /** Wraps the transport in the simulator if it is enabled, otherwise returns it unchanged. */
+    public Transport wrap(Transport transport) {
+        return enabled ? new ConditionedTransport(transport, this) : transport;
+    }
+
+    // Each direction of each connection gets its own random stream, derived from the seed.
+    long nextLinkSeed() {
+        return seed + 0x9E3779B97F4A7C15L * linkCounter.incrementAndGet();
+    }
+
+    /**
+     * Changes one condition by the name of its property without the {@code netsim.} prefix,
+     * e.g. {@code configure("lossPercent", "2.5")}. Throws IllegalArgumentException for an
+     * unknown name or a value that is not a number.
+     */
+    public void configure(String name, String value) {
+        try {
+            switch (name) {
+                case "latencyMs":      setLatencyMs(Double.parseDouble(value.trim())); break;
+                case "jitterMs":       setJitterMs(Double.parseDouble(value.trim())); break;
+                case "lossPercent":    setLossPercent(Double.parseDouble(value.trim())); break;
+                case "reorderPercent": setReorderPercent(Double.parseDouble(value.trim())); break;
+                case "bandwidthKbps":  setBandwidthKbps(Integer.parseInt(value.trim())); break;
+                default: throw new IllegalArgumentException("Unknown network condition: " + name);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + name + ": " + value);
+        }
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    public double getLatencyMs() { return latencyMs; }
+    public void setLatencyMs(double latencyMs) { this.latencyMs = Math.max(0, latencyMs); }
+
+    public double getJitterMs() { return jitterMs; }
+    public void setJitterMs(double jitterMs) { this.jitterMs = Math.max(0, jitterMs); }
+
+    public double getLossPercent() { return lossPercent; }
+    public void setLossPercent(double lossPercent) { this.lossPercent = clampPercent(lossPercent); }
+
+    public double getReorderPercent() { return reorderPercent; }
+    public void setReorderPercent(double reorderPercent) { this.reorderPercent = clampPercent(reorderPercent); }
+
+    public int getBandwidthKbps() { return bandwidthKbps; }
+    public void setBandwidthKbps(int bandwidthKbps) { this.bandwidthKbps = Math.max(0, bandwidthKbps); }
+
+    private static double clampPercent(double percent) {
+        return Math.max(0, Math.min(100, percent));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("latency=%.0fms jitter=%.0fms loss=%.1f%% reorder=%.1f%% bandwidth=%s",
+                latencyMs, jitterMs, lossPercent, reorderPercent,
+                bandwidthKbps > 0 ? bandwidthKbps + "kbps" : "unlimited");
+    }
+}
@@ -0,0 +1,28 @@
+// File: com/demo/game/network/ServerClock.java
+package com.demo.game.network;
+
+/** The time source for the server simulation. Real time in production, manual when stepped. */
+public interface ServerClock {
+
+    ServerClock SYSTEM = System::nanoTime;
+
+    long nanoTime();
+
+    /** A clock that only moves when told to, for running matches faster than real time. */
+    final class Manual implements ServerClock {
+        private volatile long now = 0;
+
+        @Override
+        public long nanoTime() {
+            return now;
+        }
+
+        public void advance(long nanos) {
+            now += nanos;
+        }
+
+        public void set(long nanos) {
+            now = nanos;
+        }
+    }
+}
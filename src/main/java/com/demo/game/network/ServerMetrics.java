@@ -0,0 +1,74 @@
+// File: com/demo/game/network/ServerMetrics.java
+package com.demo.game.network;
+
+import com.demo.game.metrics.LatencyHistogram;
+import com.demo.game.metrics.MetricSink;
+import com.demo.game.metrics.MetricsRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One room's measurements. The histograms are written on the tick and task threads; the rest
+ * is read from the server and its connections when a scrape asks for it.
+ */
+class ServerMetrics implements MetricsRegistry.Collector {
+
+    // Process-wide room counts
+    static final AtomicInteger ROOMS_OPEN = new AtomicInteger();
+    static final AtomicInteger ROOMS_IN_MATCH = new AtomicInteger();
+
+    static {
+        MetricsRegistry.global().register(sink -> {
+            sink.gauge("game_rooms_open", "Game servers currently accepting connections.", ROOMS_OPEN.get());
+            sink.gauge("game_rooms_in_match", "Game servers with a match in progress.", ROOMS_IN_MATCH.get());
+        });
+    }
+
+    final LatencyHistogram tick = new LatencyHistogram();          // Whole gameTick
+    final LatencyHistogram inputDrain = new LatencyHistogram();    // One client's coalesced input applied
+    final LatencyHistogram simulation = new LatencyHistogram();    // Movement, bomb timer, eliminations
+    final LatencyHistogram snapshotBuild = new LatencyHistogram();
+    final LatencyHistogram encode = new LatencyHistogram();        // Per broadcast
+    final LatencyHistogram send = new LatencyHistogram();          // Per broadcast, all recipients
+    final LatencyHistogram resumeHeld = new LatencyHistogram();    // Slot held from disconnect to resume
+
+    private final GameServer server;
+    private final String room;
+
+    ServerMetrics(GameServer server, String room) {
+        this.server = server;
+        this.room = room;
+    }
+
+    String getRoom() {
+        return room;
+    }
+
+    @Override
+    public void collect(MetricSink sink) {
+        String help = "Time spent in each phase of the server tick.";
+        sink.histogram("game_tick_seconds", "Duration of a whole server tick.", tick, "room", room);
+        sink.histogram("game_tick_phase_seconds", help, inputDrain, "room", room, "phase", "input_drain");
+        sink.histogram("game_tick_phase_seconds", help, simulation, "room", room, "phase", "simulation");
+        sink.histogram("game_tick_phase_seconds", help, snapshotBuild, "room", room, "phase", "snapshot_build");
+        sink.histogram("game_tick_phase_seconds", help, encode, "room", room, "phase", "encode");
+        sink.histogram("game_tick_phase_seconds", help, send, "room", room, "phase", "send");
+        sink.histogram("game_resume_seconds", "How long a dropped player's slot was held before the reconnect resumed it.", resumeHeld, "room", room);
+
+        sink.gauge("game_task_queue_depth", "Tasks waiting for the server's task thread.", server.getTaskQueueDepth(), "room", room);
+        sink.gauge("game_players_connected", "Player connections in the room.", server.getConnectedClientCount(), "room", room);
+        sink.gauge("game_spectators_connected", "Spectator connections in the room.", server.getSpectatorCount(), "room", room);
+
+        for (ClientHandler client : server.getClientHandlers()) {
+            String id = String.valueOf(client.getClientId());
+            sink.counter("game_client_messages_in_total", "Messages received from a client.", client.getMessagesReceived(), "room", room, "client", id);
+            sink.counter("game_client_bytes_in_total", "Bytes received from a client.", client.getBytesReceived(), "room", room, "client", id);
+            sink.counter("game_client_messages_out_total", "Messages sent to a client.", client.getMessagesSent(), "room", room, "client", id);
+            sink.counter("game_client_bytes_out_total", "Bytes sent to a client.", client.getBytesSent(), "room", room, "client", id);
+            sink.counter("game_client_inputs_coalesced_total", "Movement inputs merged into an already queued drain.", client.getInputsCoalesced(), "room", room, "client", id);
+            sink.counter("game_client_inputs_throttled_total", "Inputs past the rate limit, folded into the pending input without a drain of their own.", client.getInputsThrottled(), "room", room, "client", id);
+            sink.counter("game_client_messages_dropped_total", "Control messages dropped by the rate limiter.", client.getControlDropped(), "room", room, "client", id, "kind", "control");
+            sink.gauge("game_client_throttled", "1 once a client has gone past its rate limit.", client.isThrottled() ? 1 : 0, "room", room, "client", id);
+        }
+    }
+}
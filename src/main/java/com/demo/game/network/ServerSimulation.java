@@ -0,0 +1,436 @@
+// File: com/demo/game/network/ServerSimulation.java
+package com.demo.game.network;
+
+import com.demo.game.diagnostics.BombPassEvent;
+import com.demo.game.logging.Logger;
+import com.demo.game.network.messages.*;
+import com.demo.game.sim.Arena;
+import com.demo.game.sim.MatchRules;
+import com.demo.game.sim.SimConfig;
+import com.demo.game.sim.Simulation;
+import javafx.geometry.Point2D;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The authoritative match the server runs every tick. The rules themselves (movement against
+ * the arena's walls, the bomb timer, passes and eliminations) are the shared {@link Simulation}
+ * core's; this class maps client ids onto it, turns inputs into velocities, keeps the core's
+ * time on the server clock, and adds what only a multiplayer match has: the win check, players
+ * leaving, and the snapshot to broadcast.
+ * <p>
+ * It knows nothing about connections. Anything the players need to be told about is reported
+ * through a {@link Listener}, which lets GameServer broadcast it and lets benchmarks drive the
+ * simulation on its own.
+ */
+public class ServerSimulation {
+
+    /** Things that happen during a tick or an input that players need to hear about. */
+    public interface Listener {
+        void onBombPassed(int newHolderId);
+        void onPlayerEliminated(int clientId);
+        void onGameOver(String winnerUsername);
+    }
+
+    private static final Point2D OFF_SCREEN = new Point2D(-100, -100);
+    private static final double BOMB_OFFSET = SimConfig.PLAYER_SIZE / 2.0 - SimConfig.BOMB_SIZE / 2.0;
+
+    private final ServerClock clock;
+    private final Listener listener;
+    private final MatchRules rules;
+    private Arena arena = Arena.builtIn().withoutPortals();
+    private Simulation core;
+    private Logger log = Logger.get("simulation");
+    private volatile long tick = 0; // Counted by integrateMovement, which runs once per tick
+
+    private final ConcurrentHashMap<Integer, PlayerServerState> playerStates = new ConcurrentHashMap<>();
+    private int[] clientIdOfIndex = new int[16];
+    private volatile boolean gameOver = false;
+    private volatile Point2D bombPosition = OFF_SCREEN;
+
+    static class PlayerServerState {
+        final int id;
+        final String username;
+        final int index; // In the core
+        double inputX, inputY;
+
+        PlayerServerState(int id, String username, int index) {
+            this.id = id;
+            this.username = username;
+            this.index = index;
+        }
+    }
+
+    public ServerSimulation(ServerClock clock, Listener listener) {
+        this(clock, listener, MatchRules.nanos(SimConfig.BOMB_TIMER_SECONDS), MatchRules.nanos(SimConfig.PASS_COOLDOWN_SECONDS));
+    }
+
+    /** A simulation with non-default bomb timer and pass cooldown, e.g. for benchmarks. */
+    public ServerSimulation(ServerClock clock, Listener listener, long bombTimerNanos, long passCooldownNanos) {
+        this.clock = clock;
+        this.listener = listener;
+        this.rules = MatchRules.defaults().withBombTimer(bombTimerNanos).withPassCooldown(passCooldownNanos);
+        this.core = new Simulation(arena, rules, new Random().nextLong());
+    }
+
+    /** Tags this simulation's log records with the room it belongs to. */
+    public void setRoom(String room) {
+        log = Logger.get("simulation").forRoom(room);
+    }
+
+    // --- Match Setup ---
+
+    /** The arena matches are played on: its walls stop players and its "start" points are where they begin. */
+    public void setArena(Arena arena) {
+        this.arena = arena;
+        this.core = new Simulation(arena, rules, new Random().nextLong());
+        playerStates.clear();
+    }
+
+    public Arena getArena() {
+        return arena;
+    }
+
+    /**
+     * Places every registered player on a spawn point in shuffled order and hands the bomb to
+     * one of them. Returns the starting positions for the GameStartMessage.
+     */
+    public Map<Integer, SPoint2D> startMatch(Map<Integer, String> usernames) {
+        return startMatch(usernames, new Random().nextLong());
+    }
+
+    /**
+     * Starts a match whose every random choice (spawn order, first holder, holder after an
+     * explosion) follows from {@code seed}, so the same seed and inputs play out the same way.
+     */
+    public Map<Integer, SPoint2D> startMatch(Map<Integer, String> usernames, long seed) {
+        // **FIX**: Use SPoint2D for the message
+        Map<Integer, SPoint2D> initialPositions = new HashMap<>();
+        List<Integer> playerIds = new ArrayList<>(usernames.keySet());
+        Collections.sort(playerIds); // Shuffle from a fixed order, whatever order the map iterates in
+        core = new Simulation(arena, rules, seed);
+        syncTime();
+        Collections.shuffle(playerIds, core.getRandom());
+
+        double[] spawns = arena.getSpawns(Arena.START);
+        if (spawns.length == 0) spawns = Arena.builtIn().getSpawns(Arena.START);
+        int spawnIndex = 0;
+        playerStates.clear();
+
+        for (int id : playerIds) {
+            int point = spawnIndex % (spawns.length / 2);
+            Point2D pos = new Point2D(spawns[point * 2], spawns[point * 2 + 1]);
+            // **FIX**: Convert to SPoint2D for the map
+            initialPositions.put(id, new SPoint2D(pos));
+            add(id, usernames.get(id), pos);
+            spawnIndex++;
+        }
+
+        if (!playerIds.isEmpty()) {
+            int first = playerIds.get(core.getRandom().nextInt(playerIds.size()));
+            core.giveBomb(playerStates.get(first).index);
+            log.info("bomb_initial_holder").client(first).tick(tick).log();
+        }
+
+        int holder = core.getBombHolder();
+        bombPosition = (holder != -1) ? bombPositionOf(holder) : OFF_SCREEN;
+        gameOver = false;
+        return initialPositions;
+    }
+
+    /** Adds a player directly, bypassing the lobby. Used to set up benchmarks and tests. */
+    public void addPlayer(int id, String username, Point2D position) {
+        add(id, username, position);
+    }
+
+    private void add(int id, String username, Point2D position) {
+        int index = core.addCharacter(position.getX(), position.getY(), false, rules.playerSpeed);
+        if (index == clientIdOfIndex.length) clientIdOfIndex = Arrays.copyOf(clientIdOfIndex, index * 2);
+        clientIdOfIndex[index] = id;
+        playerStates.put(id, new PlayerServerState(id, username, index));
+    }
+
+    /** Gives the bomb to a specific player and restarts its timer. */
+    public void giveBombTo(int clientId) {
+        PlayerServerState state = playerStates.get(clientId);
+        if (state == null) return;
+        syncTime();
+        core.giveBomb(state.index);
+    }
+
+    public void clear() {
+        playerStates.clear();
+        core = new Simulation(arena, rules, new Random().nextLong());
+        bombPosition = OFF_SCREEN;
+    }
+
+    // --- Inputs ---
+
+    /**
+     * Applies a client's coalesced input: the latest requested direction on each axis
+     * (-1, 0, 1, or GameServer.AXIS_UNCHANGED) and whether a pass was requested.
+     */
+    public void applyInput(int clientId, int axisX, int axisY, boolean passBomb) {
+        if (gameOver) return;
+        PlayerServerState state = playerStates.get(clientId);
+        if (state == null || core.isEliminated(state.index)) return;
+
+        if (axisX != GameServer.AXIS_UNCHANGED) state.inputX = axisX;
+        if (axisY != GameServer.AXIS_UNCHANGED) state.inputY = axisY;
+        if (passBomb) {
+            tryPass(clientId);
+        }
+        double length = Math.sqrt(state.inputX * state.inputX + state.inputY * state.inputY);
+        if (length > 0) {
+            state.inputX /= length;
+            state.inputY /= length;
+        }
+        core.setVelocity(state.index, state.inputX * rules.playerSpeed, state.inputY * rules.playerSpeed);
+    }
+
+    /** Passes the bomb to the nearest player in range if the passer holds it and is off cooldown. */
+    public boolean tryPass(int passerId) {
+        BombPassEvent event = new BombPassEvent();
+        event.begin();
+        syncTime();
+        PlayerServerState passer = playerStates.get(passerId);
+        int target = -1;
+        String outcome;
+        if (passer == null || core.getBombHolder() != passer.index || gameOver) {
+            outcome = "not holder";
+        } else if (!core.isPassReady()) {
+            outcome = "cooldown";
+        } else {
+            target = core.tryPass(passer.index);
+            outcome = (target == -1) ? "no target" : "passed";
+        }
+        int targetId = (target != -1) ? clientIdOfIndex[target] : -1;
+        event.end();
+        if (event.shouldCommit()) {
+            event.passerId = passerId;
+            event.targetId = targetId;
+            event.outcome = outcome;
+            event.commit();
+        }
+        if (targetId == -1) return false;
+
+        log.info("bomb_passed").client(passerId).tick(tick).with("target", targetId).log();
+        listener.onBombPassed(targetId);
+        return true;
+    }
+
+    /** The closest active player within PASS_RANGE of the passer, or -1 if there is none. */
+    public int findPassTarget(int passerId) {
+        PlayerServerState passer = playerStates.get(passerId);
+        if (passer == null) return -1;
+        int target = core.findPassTarget(passer.index);
+        return (target != -1) ? clientIdOfIndex[target] : -1;
+    }
+
+    // --- Tick Phases ---
+
+    /**
+     * One full simulation step. Returns the snapshot to broadcast, or null if the match ended
+     * during this step.
+     */
+    public GameStateUpdateMessage step(double tpf, long serverTimeNanos) {
+        integrateMovement(tpf);
+        double bombTimeRemaining = updateBomb();
+        return gameOver ? null : buildSnapshot(bombTimeRemaining, serverTimeNanos);
+    }
+
+    /** Moves every active player by its velocity, stopping at the arena's walls. */
+    public void integrateMovement(double tpf) {
+        tick++;
+        syncTime();
+        core.move(tpf);
+    }
+
+    /**
+     * Keeps the bomb on its holder and explodes it when the timer runs out.
+     * Returns the time left on the bomb, or -1 if nobody holds it.
+     */
+    public double updateBomb() {
+        syncTime();
+        int holder = core.getBombHolder();
+        if (holder == -1) {
+            bombPosition = OFF_SCREEN;
+            return -1.0;
+        }
+        bombPosition = bombPositionOf(holder);
+        if (core.updateBomb() == -1) {
+            return core.getBombSecondsRemaining();
+        }
+        int eliminatedId = clientIdOfIndex[holder];
+        log.info("bomb_exploded").client(eliminatedId).tick(tick).log();
+        listener.onPlayerEliminated(eliminatedId);
+        resetBomb();
+        checkWinCondition();
+        return -1.0;
+    }
+
+    // **FIX**: Use SPoint2D for the message map
+    public GameStateUpdateMessage buildSnapshot(double bombTimeRemaining, long serverTimeNanos) {
+        Map<Integer, SPoint2D> currentPositions = new HashMap<>();
+        for (PlayerServerState state : playerStates.values()) {
+            if (!core.isEliminated(state.index)) {
+                currentPositions.put(state.id, new SPoint2D(core.getX(state.index), core.getY(state.index)));
+            }
+        }
+        return new GameStateUpdateMessage(currentPositions, getBombHolderId(), new SPoint2D(bombPosition), bombTimeRemaining, serverTimeNanos);
+    }
+
+    /** Hands the bomb to a random active player, or clears it if nobody is left. */
+    public void resetBomb() {
+        syncTime();
+        int holder = core.giveBombToRandom();
+        if (holder != -1) {
+            int holderId = clientIdOfIndex[holder];
+            log.info("bomb_reset").client(holderId).tick(tick).log();
+            listener.onBombPassed(holderId);
+        } else {
+            bombPosition = OFF_SCREEN;
+            log.info("bomb_reset").tick(tick).message("No active players left.").log();
+        }
+    }
+
+    /** Ends the match once at most one player is left. Returns true if the match is over. */
+    public boolean checkWinCondition() {
+        if (gameOver) return true;
+        List<PlayerServerState> activePlayers = new ArrayList<>();
+        for (PlayerServerState state : playerStates.values()) {
+            if (!core.isEliminated(state.index)) activePlayers.add(state);
+        }
+        if (activePlayers.size() <= 1) {
+            gameOver = true;
+            String winnerUsername = activePlayers.isEmpty() ? "No one" : activePlayers.get(0).username;
+            log.info("game_over").tick(tick).with("winner", winnerUsername).log();
+            listener.onGameOver(winnerUsername);
+        }
+        return gameOver;
+    }
+
+    /** Eliminates a held player who did not come back in time; everyone is told. */
+    void eliminate(int clientId) {
+        PlayerServerState player = playerStates.get(clientId);
+        if (player == null || core.isEliminated(player.index)) return;
+        boolean heldBomb = core.getBombHolder() == player.index;
+        core.eliminate(player.index);
+        listener.onPlayerEliminated(clientId);
+        if (heldBomb) {
+            resetBomb();
+        }
+        checkWinCondition();
+    }
+
+    /** Stops a disconnected player where they stand while their slot is held for a reconnect. */
+    void holdPlayer(int clientId) {
+        PlayerServerState player = playerStates.get(clientId);
+        if (player == null) return;
+        player.inputX = 0;
+        player.inputY = 0;
+        core.setVelocity(player.index, 0, 0);
+    }
+
+    /** Drops a player who left for good, passing the bomb on if they held it. */
+    void removePlayer(int clientId) {
+        PlayerServerState removedPlayer = playerStates.remove(clientId);
+        if (removedPlayer == null || core.isEliminated(removedPlayer.index)) return;
+        boolean heldBomb = core.getBombHolder() == removedPlayer.index;
+        core.eliminate(removedPlayer.index);
+        if (heldBomb) {
+            resetBomb();
+        }
+        checkWinCondition();
+    }
+
+    /** A single keyframe of the match for a client resuming its session. */
+    GameResumeMessage buildResumeKeyframe(int clientId) {
+        List<PlayerServerState> states = new ArrayList<>(playerStates.values());
+        int[] ids = new int[states.size()];
+        float[] positions = new float[states.size() * 2];
+        boolean[] eliminated = new boolean[states.size()];
+        for (int i = 0; i < states.size(); i++) {
+            PlayerServerState s = states.get(i);
+            ids[i] = s.id;
+            positions[i * 2] = (float) core.getX(s.index);
+            positions[i * 2 + 1] = (float) core.getY(s.index);
+            eliminated[i] = core.isEliminated(s.index);
+        }
+        syncTime();
+        return new GameResumeMessage(clientId, ids, positions, eliminated, getBombHolderId(), core.getBombSecondsRemaining());
+    }
+
+    // --- Queries ---
+
+    /** True if the client is a player of this match who is still in it. */
+    boolean isActive(int clientId) {
+        PlayerServerState state = playerStates.get(clientId);
+        return state != null && !core.isEliminated(state.index);
+    }
+
+    /** Ticks simulated since this simulation was created. */
+    public long getTick() {
+        return tick;
+    }
+
+    public int getPlayerCount() {
+        return playerStates.size();
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public int getBombHolderId() {
+        int holder = core.getBombHolder();
+        return (holder != -1) ? clientIdOfIndex[holder] : -1;
+    }
+
+    long getBombTimerNanos() {
+        return rules.bombTimerNanos;
+    }
+
+    long getPassCooldownNanos() {
+        return rules.passCooldownNanos;
+    }
+
+    /**
+     * A hash of everything the rules depend on: each player's position, velocity and state, the
+     * bomb holder and timers, and the tick count. Two simulations fed the same seed and inputs
+     * have the same digest; {@link MatchReplay} uses it to check a replay ended where the match did.
+     */
+    public long stateDigest() {
+        List<Integer> ids = new ArrayList<>(playerStates.keySet());
+        Collections.sort(ids);
+        long hash = 0xCBF29CE484222325L;
+        for (int id : ids) {
+            int index = playerStates.get(id).index;
+            hash = mix(hash, id);
+            hash = mix(hash, Double.doubleToLongBits(core.getX(index)));
+            hash = mix(hash, Double.doubleToLongBits(core.getY(index)));
+            hash = mix(hash, Double.doubleToLongBits(core.getVelocityX(index)));
+            hash = mix(hash, Double.doubleToLongBits(core.getVelocityY(index)));
+            hash = mix(hash, core.isEliminated(index) ? 1 : 0);
+        }
+        hash = mix(hash, getBombHolderId());
+        hash = mix(hash, core.getBombStart());
+        hash = mix(hash, core.getPassCooldownStart());
+        hash = mix(hash, gameOver ? 1 : 0);
+        return mix(hash, tick);
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * 0x100000001B3L;
+    }
+
+    // The core has no clock of its own; it runs on the server's
+    private void syncTime() {
+        core.setTime(clock.nanoTime());
+    }
+
+    private Point2D bombPositionOf(int index) {
+        return new Point2D(core.getX(index) + BOMB_OFFSET, core.getY(index) + BOMB_OFFSET);
+    }
+}
@@ -0,0 +1,42 @@
+// File: com/demo/game/network/SocketListener.java
+package com.demo.game.network;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+/** Accepts clients over TCP on a fixed port. */
+public class SocketListener implements TransportListener {
+
+    private final int port;
+    private ServerSocket serverSocket;
+
+    public SocketListener(int port) {
+        this.port = port;
+    }
+
+    @Override
+    public void open() throws IOException {
+        serverSocket = new ServerSocket(port);
+    }
+
+    @Override
+    public Transport accept() throws IOException {
+        return new SocketTransport(serverSocket.accept());
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (serverSocket != null && !serverSocket.isClosed()) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Error closing server socket: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "port " + port;
+    }
+}
@@ -0,0 +1,56 @@
+// File: com/demo/game/network/SocketTransport.java
+package com.demo.game.network;
+
+import java.io.*;
+import java.net.Socket;
+
+/** The production transport: length-prefixed frames over a TCP socket. */
+public class SocketTransport implements Transport {
+
+    private final Socket socket;
+    private final DataOutputStream outputStream;
+    private final DataInputStream inputStream;
+
+    public SocketTransport(Socket socket) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true); // Small frames every tick; don't let Nagle batch them
+        this.outputStream = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.inputStream = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    }
+
+    public static SocketTransport connect(String host, int port) throws IOException {
+        return new SocketTransport(new Socket(host, port));
+    }
+
+    @Override
+    public void send(byte[] frame) throws IOException {
+        synchronized (outputStream) {
+            MessageCodec.writeFrame(outputStream, frame);
+        }
+    }
+
+    @Override
+    public byte[] receive() throws IOException {
+        return MessageCodec.readFrame(inputStream);
+    }
+
+    // Deliberately not synchronized with send: closing the socket is what unblocks a stuck writer.
+    @Override
+    public void close() {
+        try {
+            if (!socket.isClosed()) socket.close();
+        } catch (IOException e) {
+            System.err.println("Error closing socket to " + getRemoteDescription() + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return socket.isClosed();
+    }
+
+    @Override
+    public String getRemoteDescription() {
+        return String.valueOf(socket.getRemoteSocketAddress());
+    }
+}
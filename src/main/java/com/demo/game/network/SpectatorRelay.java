@@ -0,0 +1,137 @@
+// File: com/demo/game/network/SpectatorRelay.java
+package com.demo.game.network;
+
+import com.demo.game.logging.Logger;
+import com.demo.game.network.messages.GameStartMessage;
+import com.demo.game.network.messages.NetworkMessage;
+import com.demo.game.network.messages.PlayerEliminatedMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans a room's broadcast stream out to any number of spectators.
+ * <p>
+ * The server hands each encoded broadcast to {@link #publish} exactly once, which is a single
+ * queue insert no matter how many people are watching. The relay's own thread releases frames
+ * once they are older than the spectator delay and offers the same shared byte array to every
+ * spectator's outbound queue, so adding watchers never touches the game tick thread.
+ */
+public class SpectatorRelay implements Runnable {
+
+    private final long delayNanos;
+    private final DelayQueue<DelayedFrame> pending = new DelayQueue<>();
+    private final AtomicLong sequence = new AtomicLong(); // Keeps frames with equal release times in order
+    private final CopyOnWriteArrayList<ClientHandler> spectators = new CopyOnWriteArrayList<>();
+
+    // Frames a spectator needs to make sense of the (delayed) stream if it joins mid-match.
+    private final List<byte[]> joinFrames = new ArrayList<>();
+
+    private volatile boolean running = false;
+    private Logger log = Logger.get("spectators");
+    private Thread relayThread;
+
+    public SpectatorRelay(long delayMillis) {
+        this.delayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+    }
+
+    public void start() {
+        running = true;
+        relayThread = new Thread(this, "spectator-relay");
+        relayThread.setDaemon(true);
+        relayThread.start();
+    }
+
+    public void stop() {
+        running = false;
+        if (relayThread != null) relayThread.interrupt();
+        spectators.forEach(ClientHandler::closeConnection);
+        spectators.clear();
+        pending.clear();
+    }
+
+    /** Called by the server for every broadcast. Cheap and non-blocking. */
+    public void publish(NetworkMessage message, byte[] frame) {
+        if (!running) return;
+        boolean joinFrame = message instanceof GameStartMessage || message instanceof PlayerEliminatedMessage;
+        boolean resetsJoinFrames = message instanceof GameStartMessage;
+        pending.offer(new DelayedFrame(frame, System.nanoTime() + delayNanos, sequence.incrementAndGet(), joinFrame, resetsJoinFrames));
+    }
+
+    /** Tags this relay's log records with the room it belongs to. */
+    public void setRoom(String room) {
+        log = Logger.get("spectators").forRoom(room);
+    }
+
+    public synchronized void addSpectator(ClientHandler spectator) {
+        for (byte[] frame : joinFrames) {
+            spectator.offerSpectatorFrame(frame);
+        }
+        spectators.add(spectator);
+        log.info("spectator_joined").client(spectator.getClientId()).with("watching", spectators.size()).log();
+    }
+
+    public void removeSpectator(ClientHandler spectator) {
+        if (spectators.remove(spectator)) {
+            log.info("spectator_left").client(spectator.getClientId()).with("watching", spectators.size()).log();
+        }
+    }
+
+    public int getSpectatorCount() {
+        return spectators.size();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                DelayedFrame next = pending.take();
+                release(next);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (Exception e) {
+                log.error("relay_failed").cause(e).log();
+            }
+        }
+    }
+
+    private synchronized void release(DelayedFrame delayed) {
+        if (delayed.resetsJoinFrames) joinFrames.clear();
+        if (delayed.joinFrame) joinFrames.add(delayed.frame);
+
+        for (ClientHandler spectator : spectators) {
+            spectator.offerSpectatorFrame(delayed.frame);
+        }
+    }
+
+    private static final class DelayedFrame implements Delayed {
+        final byte[] frame;
+        final long releaseAtNanos;
+        final long sequence;
+        final boolean joinFrame;
+        final boolean resetsJoinFrames;
+
+        DelayedFrame(byte[] frame, long releaseAtNanos, long sequence, boolean joinFrame, boolean resetsJoinFrames) {
+            this.frame = frame;
+            this.releaseAtNanos = releaseAtNanos;
+            this.sequence = sequence;
+            this.joinFrame = joinFrame;
+            this.resetsJoinFrames = resetsJoinFrames;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(releaseAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            DelayedFrame o = (DelayedFrame) other;
+            int byTime = Long.compare(releaseAtNanos, o.releaseAtNanos);
+            return (byTime != 0) ? byTime : Long.compare(sequence, o.sequence);
+        }
+    }
+}
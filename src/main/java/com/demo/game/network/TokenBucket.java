@@ -0,0 +1,35 @@
+// File: com/demo/game/network/TokenBucket.java
+package com.demo.game.network;
+
+/**
+ * A classic token bucket used to rate-limit one connection's inbound messages.
+ * Not thread-safe: each bucket is only touched by its connection's reader thread.
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+
+    TokenBucket(double tokensPerSecond, double burst) {
+        this.capacity = burst;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000.0;
+        this.tokens = burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /** Takes one token if available. Returns false if the caller is over budget. */
+    boolean tryAcquire(long nowNanos) {
+        long elapsed = nowNanos - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+            lastRefillNanos = nowNanos;
+        }
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return true;
+        }
+        return false;
+    }
+}
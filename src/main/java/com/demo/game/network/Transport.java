@@ -0,0 +1,26 @@
+// File: com/demo/game/network/Transport.java
+package com.demo.game.network;
+
+import java.io.IOException;
+
+/**
+ * A bidirectional pipe of encoded message frames between one client and the server.
+ * ClientHandler and GameClient only ever talk to a Transport, so the same server and
+ * client code runs over sockets, through the network condition simulator, or in memory.
+ */
+public interface Transport {
+
+    /** Sends one encoded frame. Safe to call from several threads. */
+    void send(byte[] frame) throws IOException;
+
+    /** Blocks until the next frame arrives. Throws EOFException once the peer has closed. */
+    byte[] receive() throws IOException;
+
+    /** Closes both directions and unblocks any thread waiting in send or receive. */
+    void close();
+
+    boolean isClosed();
+
+    /** A human-readable description of the other end, for logging. */
+    String getRemoteDescription();
+}
@@ -0,0 +1,10 @@
+// File: com/demo/game/network/TransportConnector.java
+package com.demo.game.network;
+
+import java.io.IOException;
+
+/** How a GameClient opens (and, when resuming a session, re-opens) its connection to a server. */
+@FunctionalInterface
+public interface TransportConnector {
+    Transport connect() throws IOException;
+}
@@ -0,0 +1,17 @@
+// File: com/demo/game/network/TransportListener.java
+package com.demo.game.network;
+
+import java.io.IOException;
+
+/** Accepts incoming client transports for a GameServer: a server socket, or an in-memory listener. */
+public interface TransportListener {
+
+    void open() throws IOException;
+
+    /** Blocks until the next client connects. Throws once the listener has been closed. */
+    Transport accept() throws IOException;
+
+    void close();
+
+    String describe();
+}
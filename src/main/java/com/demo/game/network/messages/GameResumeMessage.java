@@ -0,0 +1,38 @@
+package com.demo.game.network.messages;
+
+/**
+ * Sent by the server to a client that resumed its session mid-match.
+ * A single compact keyframe of the full game state, so the client can pick up
+ * where it left off without going back through the lobby.
+ */
+public class GameResumeMessage extends NetworkMessage {
+    private static final long serialVersionUID = 1L;
+
+    /** The slot the resumed client has been re-attached to. */
+    public final int clientId;
+
+    /** Client IDs of every player in the match, eliminated ones included. */
+    public final int[] playerIds;
+
+    /** Interleaved x/y positions, two entries per player in playerIds order. */
+    public final float[] positions;
+
+    /** Elimination flags in playerIds order. */
+    public final boolean[] eliminated;
+
+    /** The client ID of the player currently holding the bomb. -1 if no one. */
+    public final int bombHolderId;
+
+    /** The remaining time on the bomb's timer, for UI display. */
+    public final double bombTimerRemaining;
+
+    public GameResumeMessage(int clientId, int[] playerIds, float[] positions, boolean[] eliminated,
+                             int bombHolderId, double bombTimerRemaining) {
+        this.clientId = clientId;
+        this.playerIds = playerIds;
+        this.positions = positions;
+        this.eliminated = eliminated;
+        this.bombHolderId = bombHolderId;
+        this.bombTimerRemaining = bombTimerRemaining;
+    }
+}
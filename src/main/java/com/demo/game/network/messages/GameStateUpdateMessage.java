@@ -21,10 +21,17 @@ public class GameStateUpdateMessage extends NetworkMessage {
     /** The remaining time on the bomb's timer, for UI display. */
     public final double bombTimerRemaining;
 
-    public GameStateUpdateMessage(Map<Integer, SPoint2D> playerPositions, int bombHolderId, SPoint2D bombPosition, double bombTimerRemaining) {
+    /**
+     * The server's System.nanoTime() when this snapshot was built. Only comparable with a
+     * clock in the same process, e.g. to measure snapshot latency in an in-process load test.
+     */
+    public final long serverTimeNanos;
+
+    public GameStateUpdateMessage(Map<Integer, SPoint2D> playerPositions, int bombHolderId, SPoint2D bombPosition, double bombTimerRemaining, long serverTimeNanos) {
         this.playerPositions = playerPositions;
         this.bombHolderId = bombHolderId;
         this.bombPosition = bombPosition;
         this.bombTimerRemaining = bombTimerRemaining;
+        this.serverTimeNanos = serverTimeNanos;
     }
 }
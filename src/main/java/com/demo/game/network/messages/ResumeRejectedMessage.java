@@ -0,0 +1,11 @@
+package com.demo.game.network.messages;
+
+// Sent by the server when a session token is unknown, expired, or its player is already out
+public class ResumeRejectedMessage extends NetworkMessage {
+    private static final long serialVersionUID = 1L;
+    public final String reason;
+
+    public ResumeRejectedMessage(String reason) {
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,11 @@
+package com.demo.game.network.messages;
+
+// Sent by a reconnecting client instead of ClientInfoMessage to re-attach to its old slot
+public class ResumeSessionMessage extends NetworkMessage {
+    private static final long serialVersionUID = 1L;
+    public final String sessionToken;
+
+    public ResumeSessionMessage(String sessionToken) {
+        this.sessionToken = sessionToken;
+    }
+}
@@ -0,0 +1,13 @@
+package com.demo.game.network.messages;
+
+// Sent by the server to a client when it joins, so it can resume its slot after a dropped connection
+public class SessionTokenMessage extends NetworkMessage {
+    private static final long serialVersionUID = 1L;
+    public final int clientId;
+    public final String sessionToken;
+
+    public SessionTokenMessage(int clientId, String sessionToken) {
+        this.clientId = clientId;
+        this.sessionToken = sessionToken;
+    }
+}
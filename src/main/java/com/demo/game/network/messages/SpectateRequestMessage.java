@@ -0,0 +1,6 @@
+package com.demo.game.network.messages;
+
+// Sent by a client instead of ClientInfoMessage to watch the match without playing
+public class SpectateRequestMessage extends NetworkMessage {
+    private static final long serialVersionUID = 1L;
+}
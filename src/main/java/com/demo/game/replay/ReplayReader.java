@@ -0,0 +1,275 @@
+// File: com/demo/game/replay/ReplayReader.java
+package com.demo.game.replay;
+
+import com.demo.game.network.messages.GameStateUpdateMessage;
+import com.demo.game.network.messages.SPoint2D;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plays back a file written by {@link ReplayRecorder}. The file is memory-mapped, so opening
+ * a long replay costs only the header and footer, and a seek only touches the pages between
+ * the nearest keyframe and the target time.
+ * <p>
+ * The reader keeps the decoded state at a playback position. {@link #advanceTo(long)} moves
+ * it forward frame by frame for normal or fast playback; {@link #seek(long)} jumps anywhere,
+ * backwards included, through the keyframe index.
+ */
+public class ReplayReader implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer data;
+    private final List<String> usernames = new ArrayList<>();
+    private final Map<Integer, SPoint2D> initialPositions = new LinkedHashMap<>();
+    private final int firstFrameOffset;
+    private int framesEnd;               // Where the index starts, or the end of the last whole frame
+    private int[] keyframeMillis;
+    private int[] keyframeOffsets;
+    private int durationMillis;
+    private String winner;               // Null if the recording stopped before the match ended
+
+    // --- Playback State ---
+    private final Map<Integer, float[]> positions = new HashMap<>();
+    private int cursor;                  // Offset of the next undecoded frame
+    private int timeMillis = 0;          // Time of the last decoded frame
+    private int holderId = -1;
+    private float bombX = -100, bombY = -100;
+    private float secondsLeft = -1;
+    private boolean ended = false;
+
+    private ReplayReader(FileChannel channel, MappedByteBuffer data) throws IOException {
+        this.channel = channel;
+        this.data = data;
+        if (data.getInt() != ReplayRecorder.MAGIC) throw new IOException("Not a replay file");
+        int version = data.getInt();
+        if (version != ReplayRecorder.VERSION) throw new IOException("Unsupported replay version " + version);
+        data.getLong(); // Wall-clock start
+        int count = data.getShort();
+        for (int i = 0; i < count; i++) {
+            usernames.add(getUtf());
+        }
+        count = data.getShort();
+        for (int i = 0; i < count; i++) {
+            int id = data.getInt();
+            initialPositions.put(id, new SPoint2D(data.getFloat(), data.getFloat()));
+        }
+        firstFrameOffset = data.position();
+        if (!readFooter()) rebuildIndex();
+        seek(0);
+    }
+
+    public static ReplayReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new ReplayReader(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw (e instanceof IOException) ? (IOException) e : new IOException("Corrupt replay file", e);
+        }
+    }
+
+    // --- Index ---
+
+    private boolean readFooter() {
+        int size = data.capacity();
+        if (size < firstFrameOffset + 12 || data.getInt(size - 4) != ReplayRecorder.FOOTER_MAGIC) return false;
+        int indexOffset = (int) data.getLong(size - 12);
+        int count = data.getInt(indexOffset);
+        keyframeMillis = new int[count];
+        keyframeOffsets = new int[count];
+        int at = indexOffset + 4;
+        for (int i = 0; i < count; i++, at += 12) {
+            keyframeMillis[i] = data.getInt(at);
+            keyframeOffsets[i] = (int) data.getLong(at + 4);
+        }
+        durationMillis = data.getInt(at);
+        framesEnd = indexOffset;
+        return true;
+    }
+
+    // A recording that was cut off has no footer; find its keyframes with one pass over the frames.
+    private void rebuildIndex() {
+        List<int[]> found = new ArrayList<>();
+        framesEnd = data.capacity();
+        cursor = firstFrameOffset;
+        try {
+            while (cursor < framesEnd) {
+                int start = cursor;
+                byte type = data.get(start);
+                if (type == 0) break;
+                int millis = data.getInt(start + 1);
+                decodeFrame();
+                if (type == ReplayRecorder.KEYFRAME) found.add(new int[] {millis, start});
+                durationMillis = millis;
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            // The last frame was only partly written
+        }
+        framesEnd = Math.min(framesEnd, cursor);
+        keyframeMillis = new int[found.size()];
+        keyframeOffsets = new int[found.size()];
+        for (int i = 0; i < found.size(); i++) {
+            keyframeMillis[i] = found.get(i)[0];
+            keyframeOffsets[i] = found.get(i)[1];
+        }
+    }
+
+    // --- Playback ---
+
+    /** Jumps to the state at {@code millis}, forwards or backwards. */
+    public void seek(long millis) {
+        int target = (int) Math.max(0, Math.min(millis, durationMillis));
+        int keyframe = Math.max(0, latestKeyframeAtOrBefore(target));
+        positions.clear();
+        holderId = -1;
+        secondsLeft = -1;
+        ended = false;
+        if (keyframeOffsets.length == 0) {
+            for (Map.Entry<Integer, SPoint2D> entry : initialPositions.entrySet()) {
+                positions.put(entry.getKey(), new float[] {(float) entry.getValue().x, (float) entry.getValue().y});
+            }
+            cursor = framesEnd;
+            timeMillis = 0;
+            return;
+        }
+        cursor = keyframeOffsets[keyframe];
+        decodeFrame();
+        advanceTo(target);
+    }
+
+    /** Decodes every frame up to {@code millis}. Returns true if the state changed. */
+    public boolean advanceTo(long millis) {
+        boolean changed = false;
+        while (cursor < framesEnd && data.getInt(cursor + 1) <= millis) {
+            decodeFrame();
+            changed = true;
+        }
+        return changed;
+    }
+
+    private int latestKeyframeAtOrBefore(int millis) {
+        int low = 0, high = keyframeMillis.length - 1, found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (keyframeMillis[mid] <= millis) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    private void decodeFrame() {
+        data.position(cursor);
+        byte type = data.get();
+        timeMillis = data.getInt();
+        if (type == ReplayRecorder.END) {
+            winner = getUtf();
+            ended = true;
+        } else {
+            holderId = data.getInt();
+            bombX = data.getFloat();
+            bombY = data.getFloat();
+            secondsLeft = data.getFloat();
+            if (type == ReplayRecorder.KEYFRAME) {
+                positions.clear();
+                int count = data.getShort();
+                for (int i = 0; i < count; i++) {
+                    int id = data.getInt();
+                    positions.put(id, new float[] {data.getFloat(), data.getFloat()});
+                }
+            } else if (type == ReplayRecorder.DELTA) {
+                int moved = data.getShort();
+                for (int i = 0; i < moved; i++) {
+                    float[] position = positions.get(data.getInt());
+                    short dx = data.getShort();
+                    short dy = data.getShort();
+                    if (position != null) {
+                        position[0] += dx / ReplayRecorder.QUANTUM;
+                        position[1] += dy / ReplayRecorder.QUANTUM;
+                    }
+                }
+                int gone = data.getShort();
+                for (int i = 0; i < gone; i++) {
+                    positions.remove(data.getInt());
+                }
+            } else {
+                throw new IllegalStateException("Unknown replay frame type " + type + " at offset " + cursor);
+            }
+        }
+        cursor = data.position();
+    }
+
+    private String getUtf() {
+        int length = data.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8); // writeUTF's modified UTF-8 only differs for NUL and surrogates
+    }
+
+    // --- Queries ---
+
+    /** The decoded state as the snapshot the server sent at that moment. */
+    public GameStateUpdateMessage currentState() {
+        Map<Integer, SPoint2D> snapshot = new HashMap<>();
+        for (Map.Entry<Integer, float[]> entry : positions.entrySet()) {
+            snapshot.put(entry.getKey(), new SPoint2D(entry.getValue()[0], entry.getValue()[1]));
+        }
+        return new GameStateUpdateMessage(snapshot, holderId, new SPoint2D(bombX, bombY), secondsLeft, 0L);
+    }
+
+    public boolean isActive(int clientId) {
+        return positions.containsKey(clientId);
+    }
+
+    public int getTimeMillis() {
+        return timeMillis;
+    }
+
+    public int getDurationMillis() {
+        return durationMillis;
+    }
+
+    /** True once playback has reached the END frame. */
+    public boolean isAtEnd() {
+        return ended || cursor >= framesEnd;
+    }
+
+    /** The winner recorded at the end of the match, or null if the recording stopped early. */
+    public String getWinner() {
+        return winner;
+    }
+
+    public List<String> getUsernames() {
+        return Collections.unmodifiableList(usernames);
+    }
+
+    public Map<Integer, SPoint2D> getInitialPositions() {
+        return Collections.unmodifiableMap(initialPositions);
+    }
+
+    public int getKeyframeCount() {
+        return keyframeOffsets.length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
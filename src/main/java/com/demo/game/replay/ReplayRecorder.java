@@ -0,0 +1,264 @@
+// File: com/demo/game/replay/ReplayRecorder.java
+package com.demo.game.replay;
+
+import com.demo.game.network.messages.GameResumeMessage;
+import com.demo.game.network.messages.GameStateUpdateMessage;
+import com.demo.game.network.messages.SPoint2D;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the snapshot stream a client receives during a match into a replay file that
+ * {@link ReplayReader} can seek in without reading the whole file.
+ * <p>
+ * Every {@code replay.keyframeEvery}-th snapshot is written whole as a keyframe; the ones in
+ * between only carry the players that moved, as offsets in sixteenths of a pixel from the
+ * previous frame. The footer lists the time and file offset of every keyframe, so a seek is
+ * one binary search plus decoding at most one keyframe interval.
+ * <pre>
+ *   -Dreplay.record=false        do not record matches (on by default)
+ *   -Dreplay.dir=replays         where replays are written
+ *   -Dreplay.keyframeEvery=60    snapshots per keyframe (one second at the server tick rate)
+ * </pre>
+ * File layout (big-endian): magic, version, wall-clock millis, usernames, starting positions,
+ * then frames of {@code byte type, int millisSinceStart} and a payload, then the index
+ * ({@code int count, count x (int millis, long offset), int durationMillis}) and a trailer of
+ * {@code long indexOffset, int FOOTER_MAGIC}. A replay cut short by a crash has no index;
+ * the reader rebuilds it with one pass over the frames.
+ */
+public class ReplayRecorder {
+
+    public static final int MAGIC = 0x48505250;        // "HPRP"
+    public static final int FOOTER_MAGIC = 0x48505258; // "HPRX"
+    public static final int VERSION = 1;
+
+    // --- Frame Types ---
+    public static final byte KEYFRAME = 1; // int holder, float bombX, float bombY, float secondsLeft, short n, n x (int id, float x, float y)
+    public static final byte DELTA = 2;    // int holder, float bombX, float bombY, float secondsLeft, short moved, moved x (int id, short dx, short dy), short gone, gone x int id
+    public static final byte END = 3;      // utf winner
+
+    /** Delta offsets are stored in 1/QUANTUM of a pixel. */
+    public static final float QUANTUM = 16f;
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("replay.record", "true"));
+    private static final int KEYFRAME_EVERY = Math.max(1, Integer.getInteger("replay.keyframeEvery", 60));
+
+    private final DataOutputStream out;
+    private final File file;
+    private final long startNanos = System.nanoTime();
+    private final List<long[]> index = new ArrayList<>(); // {millis, offset} per keyframe
+    private final Map<Integer, float[]> written = new HashMap<>(); // Positions as a reader will decode them
+    private int sinceKeyframe = 0;
+    private int lastMillis = 0;
+    private boolean closed = false;
+
+    private ReplayRecorder(File file, DataOutputStream out) {
+        this.file = file;
+        this.out = out;
+    }
+
+    public static String directory() {
+        return System.getProperty("replay.dir", "replays");
+    }
+
+    /**
+     * Opens a replay for a match that starts with the given positions. Returns null when
+     * recording is disabled or the file cannot be created; the match is unaffected either way.
+     */
+    public static ReplayRecorder start(Map<Integer, SPoint2D> initialPositions, List<String> usernames) {
+        if (!ENABLED || initialPositions == null || usernames == null) return null;
+        File dir = new File(directory());
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS"));
+        File file = new File(dir, "match-" + stamp + ".hpr");
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            System.err.println("Could not create replay directory " + dir);
+            return null;
+        }
+        try {
+            // Never overwrite an earlier replay: two matches ending in the same millisecond get -2, -3, ...
+            OutputStream stream = null;
+            for (int copy = 2; stream == null; copy++) {
+                try {
+                    stream = Files.newOutputStream(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                } catch (FileAlreadyExistsException e) {
+                    file = new File(dir, "match-" + stamp + "-" + copy + ".hpr");
+                }
+            }
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 64 * 1024));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeShort(usernames.size());
+            for (String username : usernames) {
+                out.writeUTF(username != null ? username : "");
+            }
+            out.writeShort(initialPositions.size());
+            for (Map.Entry<Integer, SPoint2D> entry : initialPositions.entrySet()) {
+                out.writeInt(entry.getKey());
+                out.writeFloat((float) entry.getValue().x);
+                out.writeFloat((float) entry.getValue().y);
+            }
+            return new ReplayRecorder(file, out);
+        } catch (IOException e) {
+            System.err.println("Could not start replay " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // --- Recording (JavaFX thread) ---
+
+    public void recordSnapshot(GameStateUpdateMessage msg) {
+        writeFrame(msg.playerPositions, msg.bombHolderId, msg.bombPosition, msg.bombTimerRemaining, false);
+    }
+
+    /** A resume keyframe replaces whatever the client missed while it was disconnected. */
+    public void recordResume(GameResumeMessage msg) {
+        Map<Integer, SPoint2D> positions = new LinkedHashMap<>();
+        for (int i = 0; i < msg.playerIds.length; i++) {
+            if (!msg.eliminated[i]) {
+                positions.put(msg.playerIds[i], new SPoint2D(msg.positions[i * 2], msg.positions[i * 2 + 1]));
+            }
+        }
+        writeFrame(positions, msg.bombHolderId, new SPoint2D(-100, -100), msg.bombTimerRemaining, true);
+    }
+
+    private void writeFrame(Map<Integer, SPoint2D> positions, int holderId, SPoint2D bombPosition,
+                            double secondsLeft, boolean forceKeyframe) {
+        if (closed) return;
+        try {
+            boolean keyframe = forceKeyframe || index.isEmpty() || sinceKeyframe + 1 >= KEYFRAME_EVERY
+                    || !written.keySet().containsAll(positions.keySet());
+            long offset = out.size();
+            int millis = beginFrame(keyframe ? KEYFRAME : DELTA);
+            out.writeInt(holderId);
+            out.writeFloat((float) bombPosition.x);
+            out.writeFloat((float) bombPosition.y);
+            out.writeFloat((float) secondsLeft);
+            if (keyframe) {
+                index.add(new long[] {millis, offset});
+                writeKeyframe(positions);
+                sinceKeyframe = 0;
+            } else {
+                writeDelta(positions);
+                sinceKeyframe++;
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private int beginFrame(byte type) throws IOException {
+        int millis = Math.max(lastMillis, (int) ((System.nanoTime() - startNanos) / 1_000_000L));
+        lastMillis = millis;
+        out.writeByte(type);
+        out.writeInt(millis);
+        return millis;
+    }
+
+    private void writeKeyframe(Map<Integer, SPoint2D> positions) throws IOException {
+        written.clear();
+        out.writeShort(positions.size());
+        for (Map.Entry<Integer, SPoint2D> entry : positions.entrySet()) {
+            float x = (float) entry.getValue().x;
+            float y = (float) entry.getValue().y;
+            out.writeInt(entry.getKey());
+            out.writeFloat(x);
+            out.writeFloat(y);
+            written.put(entry.getKey(), new float[] {x, y});
+        }
+    }
+
+    private void writeDelta(Map<Integer, SPoint2D> positions) throws IOException {
+        List<Integer> moved = new ArrayList<>();
+        List<short[]> offsets = new ArrayList<>();
+        for (Map.Entry<Integer, SPoint2D> entry : positions.entrySet()) {
+            float[] last = written.get(entry.getKey());
+            short dx = quantize(entry.getValue().x - last[0]);
+            short dy = quantize(entry.getValue().y - last[1]);
+            if (dx == 0 && dy == 0) continue;
+            // Track what the reader will decode, not the exact position, so rounding never accumulates
+            last[0] += dx / QUANTUM;
+            last[1] += dy / QUANTUM;
+            moved.add(entry.getKey());
+            offsets.add(new short[] {dx, dy});
+        }
+        out.writeShort(moved.size());
+        for (int i = 0; i < moved.size(); i++) {
+            out.writeInt(moved.get(i));
+            out.writeShort(offsets.get(i)[0]);
+            out.writeShort(offsets.get(i)[1]);
+        }
+
+        List<Integer> gone = new ArrayList<>(written.keySet());
+        gone.removeAll(positions.keySet());
+        out.writeShort(gone.size());
+        for (int id : gone) {
+            out.writeInt(id);
+            written.remove(id);
+        }
+    }
+
+    private static short quantize(double offset) {
+        long q = Math.round(offset * QUANTUM);
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, q));
+    }
+
+    /** Records the result and writes the index. */
+    public void finish(String winnerUsername) {
+        if (closed) return;
+        try {
+            beginFrame(END);
+            out.writeUTF(winnerUsername != null ? winnerUsername : "");
+        } catch (IOException e) {
+            fail(e);
+            return;
+        }
+        close();
+    }
+
+    /** Writes the index and closes the file; a match left early simply has no END frame. */
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            long indexOffset = out.size();
+            out.writeInt(index.size());
+            for (long[] entry : index) {
+                out.writeInt((int) entry[0]);
+                out.writeLong(entry[1]);
+            }
+            out.writeInt(lastMillis);
+            out.writeLong(indexOffset);
+            out.writeInt(FOOTER_MAGIC);
+            out.close();
+            System.out.println("Replay written to " + file.getPath() + " (" + file.length() / 1024 + " KB, "
+                    + index.size() + " keyframes)");
+        } catch (IOException e) {
+            System.err.println("Failed to finish replay " + file + ": " + e.getMessage());
+        }
+    }
+
+    private void fail(IOException e) {
+        System.err.println("Replay recording stopped: " + e.getMessage());
+        closed = true;
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // Already failing
+        }
+    }
+}
@@ -0,0 +1,161 @@
+// File: com/demo/game/sim/Arena.java
+package com.demo.game.sim;
+
+import com.demo.game.ai.NavigationGrid;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The static part of a match in plain numbers: wall rectangles, portals, spawn points by kind
+ * and the navigation grid. Levels convert to one with {@code LevelData.toArena()}; an arena
+ * never changes afterwards, so any number of simulations, on any threads, can share it.
+ * <p>
+ * Rectangles are stored flat as {@code x, y, width, height}, spawn points as {@code x, y}
+ * (a character's top-left corner).
+ */
+public final class Arena {
+
+    // --- Spawn Kinds ---
+    public static final String PLAYER = "player"; // Single-player starting positions
+    public static final String AI = "ai";
+    public static final String BOMB = "bomb";
+    public static final String START = "start";   // Multiplayer starting positions
+
+    /** Navigation cell size and how far a character's center stays from a wall. */
+    public static final double CELL_SIZE = SimConfig.WALL_SIZE;
+    public static final double WALL_MARGIN = SimConfig.PLAYER_SIZE / 2.0;
+
+    private static Arena builtIn;
+
+    private final String name;
+    private final double width;
+    private final double height;
+    final double[] walls;
+    final double[] portals;
+    final int[] portalTargets; // Index of the portal each one leads to, or -1
+    private final Map<String, double[]> spawns;
+    private NavigationGrid grid; // Rasterized on first use unless the level brought one
+
+    /** {@code grid} may be null, in which case it is rasterized from the walls and portals when first needed. */
+    public Arena(String name, double width, double height, double[] walls, double[] portals, int[] portalTargets,
+                 Map<String, double[]> spawns, NavigationGrid grid) {
+        if (walls.length % 4 != 0 || portals.length != portalTargets.length * 4) {
+            throw new IllegalArgumentException("Rectangles are 4 numbers each, with one target per portal");
+        }
+        this.name = name;
+        this.width = width;
+        this.height = height;
+        this.walls = walls.clone();
+        this.portals = portals.clone();
+        this.portalTargets = portalTargets.clone();
+        Map<String, double[]> copy = new LinkedHashMap<>();
+        spawns.forEach((kind, points) -> copy.put(kind, points.clone()));
+        this.spawns = Collections.unmodifiableMap(copy);
+        this.grid = grid;
+    }
+
+    /** The arena used when there is no level file: the screen border, two portals and the original spawn points. */
+    public static synchronized Arena builtIn() {
+        if (builtIn == null) {
+            double w = SimConfig.SCREEN_WIDTH, h = SimConfig.SCREEN_HEIGHT, size = SimConfig.WALL_SIZE;
+            double[] walls = {
+                    0, 0, w, size,
+                    0, h - size, w, size,
+                    0, size, size, h - 2 * size,
+                    w - size, size, size, h - 2 * size};
+            double[] portals = {100, 300, 40, 40, 650, 300, 40, 40};
+
+            Map<String, double[]> spawns = new LinkedHashMap<>();
+            spawns.put(PLAYER, new double[] {w / 2 - SimConfig.PLAYER_SIZE / 2.0, h / 2 - SimConfig.PLAYER_SIZE / 2.0});
+            double[] ais = new double[10];
+            for (int i = 0; i < 5; i++) {
+                ais[i * 2] = 100 + i * 80;
+                ais[i * 2 + 1] = 100;
+            }
+            spawns.put(AI, ais);
+            spawns.put(START, new double[] {100, 100, w - 100, 100, 100, h - 100, w - 100, h - 100, w / 2, 100, w / 2, h - 100});
+            builtIn = new Arena("built-in", w, h, walls, portals, new int[] {1, 0}, spawns, null);
+        }
+        return builtIn;
+    }
+
+    /** The same arena with its portals taken out, for modes that do not use them. */
+    public Arena withoutPortals() {
+        if (portalTargets.length == 0) return this;
+        return new Arena(name, width, height, walls, new double[0], new int[0], spawns, null);
+    }
+
+    // --- Queries ---
+
+    public String getName() {
+        return name;
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    public int getWallCount() {
+        return walls.length / 4;
+    }
+
+    /** Every wall as {@code x, y, width, height}. A copy. */
+    public double[] getWalls() {
+        return walls.clone();
+    }
+
+    public int getPortalCount() {
+        return portalTargets.length;
+    }
+
+    /** Every portal as {@code x, y, width, height}. A copy. */
+    public double[] getPortals() {
+        return portals.clone();
+    }
+
+    /** The portal {@code portal} leads to, or -1. */
+    public int getPortalTarget(int portal) {
+        return portalTargets[portal];
+    }
+
+    /** Spawn points of one kind as {@code x, y} pairs, in the order the level lists them; empty if it has none. A copy. */
+    public double[] getSpawns(String kind) {
+        double[] points = spawns.get(kind);
+        return (points != null) ? points.clone() : new double[0];
+    }
+
+    /** The navigation grid, with its portal links. Only read once built, so it is shared. */
+    public synchronized NavigationGrid getNavigationGrid() {
+        if (grid == null) {
+            grid = rasterize();
+        }
+        return grid;
+    }
+
+    private NavigationGrid rasterize() {
+        NavigationGrid result = new NavigationGrid(width, height, CELL_SIZE);
+        for (int w = 0; w < walls.length; w += 4) {
+            result.blockRect(walls[w], walls[w + 1], walls[w + 2], walls[w + 3], WALL_MARGIN);
+        }
+        linkPortals(result, portals, portalTargets);
+        return result;
+    }
+
+    /** Adds an edge from the cells around each portal to the center of the one it leads to. */
+    public static void linkPortals(NavigationGrid grid, double[] portals, int[] portalTargets) {
+        for (int p = 0; p < portalTargets.length; p++) {
+            int target = portalTargets[p];
+            if (target < 0 || target >= portalTargets.length) continue;
+            int from = p * 4, to = target * 4;
+            grid.addPortal(portals[from] - WALL_MARGIN, portals[from + 1] - WALL_MARGIN,
+                    portals[from + 2] + 2 * WALL_MARGIN, portals[from + 3] + 2 * WALL_MARGIN,
+                    portals[to] + portals[to + 2] / 2, portals[to + 1] + portals[to + 3] / 2);
+        }
+    }
+}
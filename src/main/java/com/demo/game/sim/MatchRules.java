@@ -0,0 +1,54 @@
+// File: com/demo/game/sim/MatchRules.java
+package com.demo.game.sim;
+
+
+/**
+ * The numbers a {@link Simulation} plays by. {@link #defaults()} are the game's; the
+ * {@code with} methods return a copy with one of them changed, for servers with their own
+ * timers and for tools that sweep the rules. Durations are in nanoseconds of simulation time.
+ */
+public final class MatchRules {
+
+    public final double characterSize;
+    public final double playerSpeed;       // Pixels per second for players steered by input
+    public final double passRange;         // Center to center
+    public final long passCooldownNanos;   // After the bomb changes hands, before it can be passed on
+    public final long bombTimerNanos;
+    public final long portalCooldownNanos; // A portal pair rests this long after a teleport
+    public final long wanderNanos;         // How long a wandering AI keeps its direction
+
+    private MatchRules(double characterSize, double playerSpeed, double passRange, long passCooldownNanos,
+                       long bombTimerNanos, long portalCooldownNanos, long wanderNanos) {
+        this.characterSize = characterSize;
+        this.playerSpeed = playerSpeed;
+        this.passRange = passRange;
+        this.passCooldownNanos = passCooldownNanos;
+        this.bombTimerNanos = bombTimerNanos;
+        this.portalCooldownNanos = portalCooldownNanos;
+        this.wanderNanos = wanderNanos;
+    }
+
+    public static MatchRules defaults() {
+        return new MatchRules(SimConfig.PLAYER_SIZE, SimConfig.PLAYER_SPEED, SimConfig.PASS_RANGE,
+                nanos(SimConfig.PASS_COOLDOWN_SECONDS), nanos(SimConfig.BOMB_TIMER_SECONDS), nanos(2), nanos(2));
+    }
+
+    public MatchRules withPassRange(double passRange) {
+        return new MatchRules(characterSize, playerSpeed, passRange, passCooldownNanos, bombTimerNanos,
+                portalCooldownNanos, wanderNanos);
+    }
+
+    public MatchRules withPassCooldown(long nanos) {
+        return new MatchRules(characterSize, playerSpeed, passRange, nanos, bombTimerNanos,
+                portalCooldownNanos, wanderNanos);
+    }
+
+    public MatchRules withBombTimer(long nanos) {
+        return new MatchRules(characterSize, playerSpeed, passRange, passCooldownNanos, nanos,
+                portalCooldownNanos, wanderNanos);
+    }
+
+    public static long nanos(double seconds) {
+        return Math.round(seconds * 1_000_000_000.0);
+    }
+}
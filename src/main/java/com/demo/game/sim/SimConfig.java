@@ -0,0 +1,31 @@
+// File: com/demo/game/sim/SimConfig.java
+package com.demo.game.sim;
+
+import java.util.List;
+
+/**
+ * The game's numbers that the simulation, the level loader and the headless tools play by, as
+ * plain constants with no JavaFX or FXGL types, so that code builds and runs without the engine.
+ * {@link com.demo.game.Config} reads these and adds the engine-side settings on top.
+ */
+public final class SimConfig {
+
+    // Arena
+    public static final int SCREEN_WIDTH = 800;
+    public static final int SCREEN_HEIGHT = 600;
+    public static final int WALL_SIZE = 20;
+
+    // Characters and bomb
+    public static final double PLAYER_SPEED = 200.0; // pixels per second
+    public static final int PLAYER_SIZE = 40;
+    public static final int BOMB_SIZE = 20;
+    public static final List<Double> AI_SPEEDS = List.of(150.0, 180.0, 210.0); // Speeds for levels 1, 2, 3
+
+    // Rules
+    public static final int STARTING_LIVES = 3;
+    public static final double PASS_RANGE = 50.0; // The distance the pass effect travels
+    public static final double PASS_COOLDOWN_SECONDS = 1.5;
+    public static final double BOMB_TIMER_SECONDS = 5.0;
+
+    private SimConfig() {}
+}
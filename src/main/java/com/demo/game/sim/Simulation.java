@@ -0,0 +1,466 @@
+// File: com/demo/game/sim/Simulation.java
+package com.demo.game.sim;
+
+import com.demo.game.ai.AIAgents;
+import com.demo.game.ai.AIDecision;
+import com.demo.game.ai.AIScheduler;
+import com.demo.game.ai.FleeFieldCache;
+import com.demo.game.ai.Navigation;
+import com.demo.game.ai.SpatialGrid;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The rules of Hot Potato in plain Java, with no engine underneath: character positions and
+ * velocities, the bomb and its timer, passes, eliminations and the AIs' decisions. The single
+ * player game, the server and headless tools all play by this one class; FXGL and the network
+ * code only adapt it. Nothing here touches a clock or a thread of its own, so a match runs as
+ * fast as {@link #step} is called and plays out the same for the same seed and inputs.
+ * <p>
+ * Characters are numbered in the order they are added and keep their index for the life of the
+ * simulation; an eliminated character stays where it was, out of the round, until it is
+ * revived. Positions are top-left corners, like the entities'.
+ * <p>
+ * Adapters that move characters themselves (FXGL's physics in single player) copy positions in
+ * with {@link #setPosition}, set the time with {@link #setTime} and call the phases they need;
+ * headless matches just call {@link #step}. Everything runs on the caller's thread; only the
+ * think phase may fan out, and only to read.
+ */
+public final class Simulation implements AIAgents {
+
+    /** What happens to the bomb, for adapters to show. Called during the operation that caused it. */
+    public interface Listener {
+        /** {@code to} now holds the bomb; {@code from} is -1 when it was handed out rather than passed. */
+        default void onBombGiven(int from, int to) {}
+
+        /** The bomb went off in {@code holder}'s hands; they are already eliminated. */
+        default void onExploded(int holder) {}
+    }
+
+    private static final Listener NO_LISTENER = new Listener() {};
+
+    private final Arena arena;
+    private final MatchRules rules;
+    private final Random random;
+    private Listener listener = NO_LISTENER;
+    private AIScheduler scheduler = AIScheduler.everyFrame();
+    private Navigation navigation; // Created when the first AI thinks
+    private FleeFieldCache fleeFields;
+    private long time = 0;         // Nanoseconds of simulation time
+    private long tick = 0;
+
+    // --- Characters (by index) ---
+    private int count = 0;
+    private double[] x = new double[8], y = new double[8];
+    private double[] vx = new double[8], vy = new double[8];
+    private double[] speed = new double[8];
+    private boolean[] ai = new boolean[8];
+    private boolean[] eliminated = new boolean[8];
+    private double[] wanderX = new double[8], wanderY = new double[8];
+    private long[] wanderStart = new long[8];
+    private int player = -1;
+
+    // --- Bomb ---
+    private int holder = -1;
+    private long bombStart;
+    private long passCooldownStart;
+
+    // --- Portals ---
+    private final long[] portalReadyAt;
+
+    // --- Nearest-neighbour index over active characters ---
+    private final SpatialGrid grid;
+    private int[] gridToCharacter = new int[8];
+    private int[] characterToGrid = new int[8];
+    private boolean gridDirty = true;
+
+    public Simulation(Arena arena, MatchRules rules, long seed) {
+        this.arena = arena;
+        this.rules = rules;
+        this.random = new Random(seed);
+        this.portalReadyAt = new long[arena.getPortalCount()];
+        Arrays.fill(portalReadyAt, Long.MIN_VALUE);
+        this.grid = new SpatialGrid(arena.getWidth(), arena.getHeight(), 2 * rules.passRange);
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = (listener != null) ? listener : NO_LISTENER;
+    }
+
+    /** How AI decisions are spread over steps; every AI every step unless changed. */
+    public void setScheduler(AIScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /** Shares flee fields with other simulations on the same arena, e.g. in tools that run many at once. Set before stepping. */
+    public void setFleeFieldCache(FleeFieldCache cache) {
+        this.fleeFields = cache;
+    }
+
+    // --- Characters ---
+
+    /** Adds a character at (x, y) and returns its index. The first one that is not an AI is the player. */
+    public int addCharacter(double x, double y, boolean ai, double speed) {
+        if (count == this.x.length) grow(count * 2);
+        int i = count++;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.vx[i] = 0;
+        this.vy[i] = 0;
+        this.speed[i] = speed;
+        this.ai[i] = ai;
+        this.eliminated[i] = false;
+        if (!ai && player == -1) player = i;
+        if (ai) newWander(i);
+        gridDirty = true;
+        return i;
+    }
+
+    public void setPosition(int i, double x, double y) {
+        this.x[i] = x;
+        this.y[i] = y;
+        gridDirty = true;
+    }
+
+    public void setVelocity(int i, double vx, double vy) {
+        this.vx[i] = vx;
+        this.vy[i] = vy;
+    }
+
+    /** Takes a character out of the round, without an explosion. The bomb is dropped if they held it. */
+    public void eliminate(int i) {
+        eliminated[i] = true;
+        vx[i] = 0;
+        vy[i] = 0;
+        if (holder == i) holder = -1;
+        gridDirty = true;
+    }
+
+    /** Puts an eliminated character back into the round, where it stands. */
+    public void revive(int i) {
+        eliminated[i] = false;
+        gridDirty = true;
+    }
+
+    // --- Bomb ---
+
+    /** Hands the bomb to {@code to} and restarts its timer and the pass cooldown. */
+    public void giveBomb(int to) {
+        int from = holder;
+        holder = to;
+        bombStart = time;
+        passCooldownStart = time;
+        listener.onBombGiven(from, to);
+    }
+
+    /** Hands the bomb to a random character still in the round; returns who got it, or -1 if nobody is left. */
+    public int giveBombToRandom() {
+        int active = getActiveCount();
+        if (active == 0) {
+            holder = -1;
+            return -1;
+        }
+        int pick = random.nextInt(active);
+        for (int i = 0; i < count; i++) {
+            if (!eliminated[i] && pick-- == 0) {
+                giveBomb(i);
+                return i;
+            }
+        }
+        throw new IllegalStateException("active count out of date");
+    }
+
+    public boolean isPassReady() {
+        return time - passCooldownStart >= rules.passCooldownNanos;
+    }
+
+    /**
+     * Passes the bomb from {@code passer} to the nearest character in range, if the passer holds
+     * it and the cooldown is over. Returns who received it, or -1 if there was no pass.
+     */
+    public int tryPass(int passer) {
+        if (holder != passer || passer == -1 || !isPassReady()) return -1;
+        int target = findPassTarget(passer);
+        if (target != -1) giveBomb(target);
+        return target;
+    }
+
+    /** The nearest active character within pass range of {@code passer} (center to center), or -1. */
+    public int findPassTarget(int passer) {
+        if (eliminated[passer]) return -1;
+        int target = findNearest(passer);
+        if (target == -1) return -1;
+        double dx = getCenterX(target) - getCenterX(passer);
+        double dy = getCenterY(target) - getCenterY(passer);
+        return (dx * dx + dy * dy <= rules.passRange * rules.passRange) ? target : -1;
+    }
+
+    /**
+     * Explodes the bomb if its timer has run out: the holder is eliminated and the listener told.
+     * Returns the eliminated character, or -1 if the bomb did not go off.
+     */
+    public int updateBomb() {
+        if (holder == -1 || time - bombStart < rules.bombTimerNanos) return -1;
+        int exploded = holder;
+        eliminate(exploded);
+        listener.onExploded(exploded);
+        return exploded;
+    }
+
+    /** Seconds left on the bomb, or -1 if nobody holds it. */
+    public double getBombSecondsRemaining() {
+        if (holder == -1) return -1;
+        return Math.max(0, rules.bombTimerNanos - (time - bombStart)) / 1_000_000_000.0;
+    }
+
+    // --- Steps ---
+
+    /** Sets the simulation time, for adapters that keep their own clock. */
+    public void setTime(long nanos) {
+        time = nanos;
+    }
+
+    /** One headless step: time moves on by {@code dt} seconds, the AIs think, everyone moves and the bomb ticks. */
+    public void step(double dt) {
+        time += MatchRules.nanos(dt);
+        think();
+        move(dt);
+        updateBomb();
+        tick++;
+    }
+
+    /** Runs the AI decisions that are due, through the scheduler. */
+    public void think() {
+        if (navigation == null) {
+            navigation = (fleeFields != null)
+                    ? Navigation.forGrid(arena.getNavigationGrid(), fleeFields)
+                    : Navigation.forGrid(arena.getNavigationGrid());
+        }
+        scheduler.runFrame(this, navigation);
+    }
+
+    /** Moves every active character by its velocity, stopping at walls and the arena edge and going through portals. */
+    public void move(double dt) {
+        double size = rules.characterSize;
+        double[] walls = arena.walls;
+        for (int i = 0; i < count; i++) {
+            if (eliminated[i] || (vx[i] == 0 && vy[i] == 0)) continue;
+            // One axis at a time, so a character slides along a wall it runs into at an angle
+            double nx = x[i] + vx[i] * dt;
+            for (int w = 0; w < walls.length && vx[i] != 0; w += 4) {
+                if (overlaps(nx, y[i], size, walls, w)) {
+                    nx = (vx[i] > 0) ? walls[w] - size : walls[w] + walls[w + 2];
+                }
+            }
+            double ny = y[i] + vy[i] * dt;
+            for (int w = 0; w < walls.length && vy[i] != 0; w += 4) {
+                if (overlaps(nx, ny, size, walls, w)) {
+                    ny = (vy[i] > 0) ? walls[w + 1] - size : walls[w + 1] + walls[w + 3];
+                }
+            }
+            x[i] = Math.max(0, Math.min(nx, arena.getWidth() - size));
+            y[i] = Math.max(0, Math.min(ny, arena.getHeight() - size));
+            teleport(i);
+        }
+        gridDirty = true;
+    }
+
+    // A character touching a rested portal comes out with its corner at the target's center,
+    // and both portals rest
+    private void teleport(int i) {
+        double[] portals = arena.portals;
+        int[] targets = arena.portalTargets;
+        for (int p = 0; p < targets.length; p++) {
+            int target = targets[p];
+            if (target < 0 || time < portalReadyAt[p] || !overlaps(x[i], y[i], rules.characterSize, portals, p * 4)) continue;
+            x[i] = portals[target * 4] + portals[target * 4 + 2] / 2;
+            y[i] = portals[target * 4 + 1] + portals[target * 4 + 3] / 2;
+            portalReadyAt[p] = time + rules.portalCooldownNanos;
+            portalReadyAt[target] = time + rules.portalCooldownNanos;
+            return;
+        }
+    }
+
+    private static boolean overlaps(double x, double y, double size, double[] rects, int r) {
+        return x < rects[r] + rects[r + 2] && x + size > rects[r]
+                && y < rects[r + 1] + rects[r + 3] && y + size > rects[r + 1];
+    }
+
+    // --- AI (AIAgents) ---
+
+    @Override
+    public boolean isAI(int index) {
+        return ai[index];
+    }
+
+    @Override
+    public double getPassRange() {
+        return rules.passRange;
+    }
+
+    @Override
+    public void prepare(int index, AIDecision d) {
+        indexActive();
+        d.index = index;
+        d.hasBomb = holder == index;
+        d.speed = speed[index];
+        d.passRange = rules.passRange;
+        d.passReady = isPassReady();
+        d.wanderDue = time - wanderStart[index] >= rules.wanderNanos;
+        d.wanderX = wanderX[index];
+        d.wanderY = wanderY[index];
+    }
+
+    @Override
+    public void apply(int index, AIDecision d) {
+        if (d.keep) return;
+        if (d.newWander) {
+            newWander(index);
+            setVelocity(index, wanderX[index] * speed[index], wanderY[index] * speed[index]);
+        } else {
+            setVelocity(index, d.velocityX, d.velocityY);
+        }
+        if (d.passTarget != -1 && holder == index) {
+            giveBomb(d.passTarget);
+        }
+    }
+
+    private void newWander(int i) {
+        double angle = random.nextDouble() * 2 * Math.PI;
+        wanderX[i] = Math.cos(angle);
+        wanderY[i] = Math.sin(angle);
+        wanderStart[i] = time;
+    }
+
+    // --- Queries (WorldView) ---
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public double getCenterX(int index) {
+        return x[index] + rules.characterSize / 2;
+    }
+
+    @Override
+    public double getCenterY(int index) {
+        return y[index] + rules.characterSize / 2;
+    }
+
+    @Override
+    public boolean isActive(int index) {
+        return !eliminated[index];
+    }
+
+    @Override
+    public int getPlayer() {
+        return player;
+    }
+
+    @Override
+    public int getBombHolder() {
+        return holder;
+    }
+
+    /** Safe to call from the think phase's threads: {@link #prepare} brought the index up to date before it. */
+    @Override
+    public int findNearest(int index) {
+        indexActive();
+        int self = characterToGrid[index];
+        if (self == -1) return -1;
+        int nearest = grid.nearest(grid.getX(self), grid.getY(self), self);
+        return (nearest != -1) ? gridToCharacter[nearest] : -1;
+    }
+
+    // Rebuilds the nearest-neighbour index if anyone moved since it was built
+    private void indexActive() {
+        if (!gridDirty) return;
+        grid.clear();
+        for (int i = 0; i < count; i++) {
+            if (eliminated[i]) {
+                characterToGrid[i] = -1;
+                continue;
+            }
+            int g = grid.add(getCenterX(i), getCenterY(i));
+            gridToCharacter[g] = i;
+            characterToGrid[i] = g;
+        }
+        gridDirty = false;
+    }
+
+    public double getX(int i) {
+        return x[i];
+    }
+
+    public double getY(int i) {
+        return y[i];
+    }
+
+    public double getVelocityX(int i) {
+        return vx[i];
+    }
+
+    public double getVelocityY(int i) {
+        return vy[i];
+    }
+
+    public boolean isEliminated(int i) {
+        return eliminated[i];
+    }
+
+    public int getActiveCount() {
+        int active = 0;
+        for (int i = 0; i < count; i++) {
+            if (!eliminated[i]) active++;
+        }
+        return active;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    /** Steps run by {@link #step}. */
+    public long getTick() {
+        return tick;
+    }
+
+    public long getBombStart() {
+        return bombStart;
+    }
+
+    public long getPassCooldownStart() {
+        return passCooldownStart;
+    }
+
+    /** The simulation's random source; adapters draw from it too so a seed decides everything. */
+    public Random getRandom() {
+        return random;
+    }
+
+    public Arena getArena() {
+        return arena;
+    }
+
+    public MatchRules getRules() {
+        return rules;
+    }
+
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        ai = Arrays.copyOf(ai, capacity);
+        eliminated = Arrays.copyOf(eliminated, capacity);
+        wanderX = Arrays.copyOf(wanderX, capacity);
+        wanderY = Arrays.copyOf(wanderY, capacity);
+        wanderStart = Arrays.copyOf(wanderStart, capacity);
+        gridToCharacter = Arrays.copyOf(gridToCharacter, capacity);
+        characterToGrid = Arrays.copyOf(characterToGrid, capacity);
+    }
+}
@@ -6,6 +6,7 @@ import com.demo.game.models.User;
 import com.demo.game.network.messages.GameStartMessage; // Import the message
 import com.demo.game.network.messages.SPoint2D;          // Import SPoint2D
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -28,6 +29,8 @@ public class MultiplayerManager {
     private boolean gameStartDataAvailable = false;
     // ------------------------------------------
 
+    private Path replayFile = null; // The recording to play in REPLAY mode
+
     private MultiplayerManager() {}
 
     public static MultiplayerManager getInstance() {
@@ -97,11 +100,20 @@ public class MultiplayerManager {
     }
 
 
+    public Path getReplayFile() {
+        return replayFile;
+    }
+
+    public void setReplayFile(Path replayFile) {
+        this.replayFile = replayFile;
+    }
+
     /** Resets the manager state, except for the logged-in user. */
     public void reset() {
         gameMode = GameMode.SINGLE_PLAYER;
         lobbyPlayers.clear();
         resetGameStartData(); // Also reset game data
+        replayFile = null;
         // localUser is not reset, as they are still logged in
     }
 }
\ No newline at end of file
@@ -13,6 +13,9 @@ open module com.demo.game {
     requires java.sql;
     requires jbcrypt;
     requires java.desktop;
+    requires java.management;
+    requires jdk.httpserver;
+    requires jdk.jfr;
 
     exports com.demo.game;
 }
\ No newline at end of file